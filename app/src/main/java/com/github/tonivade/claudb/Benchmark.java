@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import com.github.tonivade.claudb.monitor.CommandStats;
+import com.github.tonivade.claudb.monitor.LatencyHistogram;
+import com.github.tonivade.resp.RespCallback;
+import com.github.tonivade.resp.RespClient;
+import com.github.tonivade.resp.RespServer;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhou
+ * <p>
+ * Redis 压测工具，相当于 redis-benchmark。
+ * 多个连接并发发送命令，每个连接最多有 pipeline 个未返回响应的命令，
+ * 统计每种命令的吞吐量和延迟百分位数
+ */
+public class Benchmark {
+
+    /**
+     * 输出的百分位数
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final long requests;
+    private final int pipeline;
+    private final Workload workload;
+    /**
+     * 每种命令的统计，延迟单位为微秒
+     */
+    private final Map<Workload.Type, CommandStats> stats = new EnumMap<>(Workload.Type.class);
+    /**
+     * 所有命令的延迟汇总
+     */
+    private final LatencyHistogram total = new LatencyHistogram();
+    /**
+     * 已经分配给各连接的请求数
+     */
+    private final AtomicLong issued = new AtomicLong();
+
+    public Benchmark(String host, int port, int connections, long requests, int pipeline, Workload workload) {
+        if (connections < 1 || requests < 1 || pipeline < 1) {
+            throw new IllegalArgumentException("invalid connections, requests or pipeline");
+        }
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.requests = requests;
+        this.pipeline = pipeline;
+        this.workload = workload;
+        for (Workload.Type type : workload.getTypes()) {
+            stats.put(type, new CommandStats(type.text()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        OptionParser parser = new OptionParser();
+        OptionSpec<Void> help = parser.accepts("help", "print help");
+        OptionSpec<String> host = parser.accepts("h", "host")
+                .withRequiredArg().defaultsTo(ClauDB.DEFAULT_HOST);
+        OptionSpec<String> port = parser.accepts("p", "port").withRequiredArg();
+        OptionSpec<Integer> connections = parser.accepts("c", "number of parallel connections")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(50);
+        OptionSpec<Long> requests = parser.accepts("n", "total number of requests")
+                .withRequiredArg().ofType(Long.class).defaultsTo(100_000L);
+        OptionSpec<Integer> pipeline = parser.accepts("P", "pipeline requests per connection")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(1);
+        OptionSpec<Integer> keyspace = parser.accepts("r", "keyspace size, random keys in [0, r)")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(100_000);
+        OptionSpec<Integer> dataSize = parser.accepts("d", "data size of values in bytes")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(3);
+        OptionSpec<String> mix = parser.accepts("t", "command mix with optional weights, e.g. get:80,set:20 "
+                + "(get, set, incr, lpush, zadd, hset, eval)")
+                .withRequiredArg().defaultsTo("get,set");
+        OptionSpec<Void> embedded = parser.accepts("embedded", "start an embedded server on the given port");
+
+        OptionSet options = parser.parse(args);
+
+        if (options.has(help)) {
+            parser.printHelpOn(System.out);
+        } else {
+            String optionHost = options.valueOf(host);
+            int optionPort = parsePort(options.valueOf(port));
+            Workload workload = Workload.parse(options.valueOf(mix),
+                    options.valueOf(keyspace), options.valueOf(dataSize));
+            Benchmark benchmark = new Benchmark(optionHost, optionPort,
+                    options.valueOf(connections), options.valueOf(requests), options.valueOf(pipeline), workload);
+
+            RespServer server = null;
+            if (options.has(embedded)) {
+                server = ClauDB.builder().host(optionHost).port(optionPort).build();
+                server.start();
+            }
+            try {
+                long elapsed = benchmark.run();
+                System.out.println(String.format("%d requests, %d connections, pipeline %d, %d bytes payload, "
+                                + "keyspace %d", options.valueOf(requests), options.valueOf(connections),
+                        options.valueOf(pipeline), options.valueOf(dataSize), options.valueOf(keyspace)));
+                benchmark.report(elapsed).forEach(System.out::println);
+            } finally {
+                if (server != null) {
+                    server.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行压测，所有请求都返回响应后结束
+     *
+     * @return 耗时（纳秒）
+     * @throws InterruptedException
+     * @throws java.util.concurrent.ExecutionException 连接出错时抛出
+     */
+    public long run() throws Exception {
+        List<Connection> clients = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            clients.add(new Connection());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            for (Connection client : clients) {
+                client.start();
+            }
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(connections);
+            for (Connection client : clients) {
+                futures.add(executor.submit(client));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+            clients.forEach(Connection::stop);
+        }
+    }
+
+    /**
+     * 生成报告，每种命令一行，最后一行为所有命令的汇总
+     *
+     * @param elapsed 耗时（纳秒）
+     * @return
+     */
+    public List<String> report(long elapsed) {
+        List<String> lines = new ArrayList<>();
+        long calls = 0;
+        long errors = 0;
+        for (CommandStats item : stats.values()) {
+            lines.add(line(item.getName(), item.getCalls(), item.getFailedCalls(), item.getHistogram(), elapsed));
+            calls += item.getCalls();
+            errors += item.getFailedCalls();
+        }
+        lines.add(line("total", calls, errors, total, elapsed));
+        return lines;
+    }
+
+    /**
+     * 报告中的一行，吞吐量、错误数和延迟百分位数
+     */
+    static String line(String name, long calls, long errors, LatencyHistogram histogram, long elapsed) {
+        StringBuilder line = new StringBuilder(String.format("%-6s %10d requests %12.2f req/s %6d errors",
+                name, calls, calls * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1), errors));
+        for (double percentile : PERCENTILES) {
+            String label = percentile % 1 == 0 ? String.valueOf((long) percentile) : String.valueOf(percentile);
+            line.append(String.format("  p%s=%.3fms", label, histogram.getPercentile(percentile) / 1000.0));
+        }
+        line.append(String.format("  max=%.3fms", histogram.getPercentile(100) / 1000.0));
+        return line.toString();
+    }
+
+    /**
+     * 为连接分配下一批请求
+     *
+     * @return 本批请求数，为 0 时压测结束
+     */
+    private int claim() {
+        while (true) {
+            long current = issued.get();
+            int batch = (int) Math.min(pipeline, requests - current);
+            if (batch <= 0) {
+                return 0;
+            }
+            if (issued.compareAndSet(current, current + batch)) {
+                return batch;
+            }
+        }
+    }
+
+    /**
+     * 端口解析
+     *
+     * @param optionPort 所选端口
+     * @return
+     */
+    private static int parsePort(String optionPort) {
+        return optionPort != null ? Integer.parseInt(optionPort) : DBServerContext.DEFAULT_PORT;
+    }
+
+    /**
+     * 已发送还未返回响应的命令
+     */
+    private static final class Pending {
+
+        private final Workload.Type type;
+        private final long start;
+
+        private Pending(Workload.Type type, long start) {
+            this.type = type;
+            this.start = start;
+        }
+    }
+
+    /**
+     * 一个连接，工作线程批量发送命令，网络线程按发送顺序接收响应并记录延迟
+     */
+    private final class Connection implements RespCallback, Runnable {
+
+        private final RespClient client = new RespClient(host, port, this);
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final Semaphore responses = new Semaphore(0);
+        private volatile boolean disconnected;
+
+        void start() {
+            client.start();
+        }
+
+        void stop() {
+            client.stop();
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int batch = claim(); batch > 0; batch = claim()) {
+                    for (int i = 0; i < batch; i++) {
+                        Workload.Type type = workload.next();
+                        String[] command = workload.command(type);
+                        pending.add(new Pending(type, System.nanoTime()));
+                        client.send(command);
+                    }
+                    responses.acquire(batch);
+                    if (disconnected) {
+                        throw new IllegalStateException("disconnected from " + host + ":" + port);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onConnect() {
+            // nothing to do
+        }
+
+        @Override
+        public void onDisconnect() {
+            disconnected = true;
+            // 唤醒等待响应的工作线程
+            responses.release(pipeline);
+        }
+
+        @Override
+        public void onMessage(RedisToken token) {
+            Pending request = pending.poll();
+            if (request != null) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - request.start);
+                stats.get(request.type).record(micros, token.getType() == RedisTokenType.ERROR);
+                total.record(micros);
+            }
+            responses.release();
+        }
+    }
+}
@@ -4,15 +4,22 @@
  */
 package com.github.tonivade.claudb;
 
+import com.github.tonivade.claudb.data.MemoryEstimator;
 import com.github.tonivade.resp.RespCallback;
 import com.github.tonivade.resp.RespClient;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.ArrayRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.IntegerRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.StringRedisToken;
 import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+import com.github.tonivade.resp.protocol.SafeString;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -41,6 +48,12 @@ public class Client implements RespCallback {
      * 命令输入/输出前置符
      */
     private static final String PROMPT = "> ";
+    /**
+     * 大键和热键查询命令
+     */
+    private static final String ANALYZE = "analyze";
+    private static final String BIGKEYS = "bigkeys";
+    private static final String HOTKEYS = "hotkeys";
     /**
      * 使用阻塞队列实现消息队列
      */
@@ -95,6 +108,10 @@ public class Client implements RespCallback {
         OptionSpec<String> host = parser.accepts("h", "host")
                 .withRequiredArg().defaultsTo(ClauDB.DEFAULT_HOST);
         OptionSpec<String> port = parser.accepts("p", "port").withRequiredArg();
+        OptionSpec<Void> bigKeys = parser.accepts("bigkeys", "print the biggest keys (server started with -A)");
+        OptionSpec<Void> hotKeys = parser.accepts("hotkeys", "print the most accessed keys (server started with -A)");
+        OptionSpec<String> count = parser.accepts("count", "number of keys for --bigkeys and --hotkeys")
+                .withRequiredArg().defaultsTo("10");
 
         OptionSet options = parser.parse(args);
 
@@ -108,15 +125,13 @@ public class Client implements RespCallback {
             RespClient client = new RespClient(optionHost, optionPort, callback);
             client.start();
 
-            prompt();
-            try (Scanner scanner = new Scanner(System.in, CHARSET_NAME)) {
-                for (boolean quit = false; !quit && scanner.hasNextLine(); prompt()) {
-                    String line = scanner.nextLine();
-                    if (!line.isEmpty()) {
-                        client.send(line.split(" "));
-                        System.out.println(callback.response());
-                        quit = line.equalsIgnoreCase(QUIT);
-                    }
+            try {
+                if (options.has(bigKeys) || options.has(hotKeys)) {
+                    boolean big = options.has(bigKeys);
+                    client.send(ANALYZE, big ? BIGKEYS : HOTKEYS, options.valueOf(count));
+                    printKeys(callback.response(), big);
+                } else {
+                    interactive(client, callback);
                 }
             } finally {
                 client.stop();
@@ -124,6 +139,49 @@ public class Client implements RespCallback {
         }
     }
 
+    /**
+     * 交互模式，逐行读取并发送命令
+     *
+     * @param client   客户端
+     * @param callback 响应回调
+     * @throws InterruptedException
+     */
+    private static void interactive(RespClient client, Client callback) throws InterruptedException {
+        prompt();
+        try (Scanner scanner = new Scanner(System.in, CHARSET_NAME)) {
+            for (boolean quit = false; !quit && scanner.hasNextLine(); prompt()) {
+                String line = scanner.nextLine();
+                if (!line.isEmpty()) {
+                    client.send(line.split(" "));
+                    System.out.println(callback.response());
+                    quit = line.equalsIgnoreCase(QUIT);
+                }
+            }
+        }
+    }
+
+    /**
+     * 输出 analyze 命令的结果，每行为数据库序号、键、类型以及大小或访问次数
+     *
+     * @param response analyze 命令的响应
+     * @param big      是否为大键
+     */
+    private static void printKeys(RedisToken response, boolean big) {
+        if (response.getType() != RedisTokenType.ARRAY) {
+            System.out.println(response);
+            return;
+        }
+        for (RedisToken item : ((ArrayRedisToken) response).getValue()) {
+            List<RedisToken> fields = ((ArrayRedisToken) item).getValue().asList().toList();
+            int db = ((IntegerRedisToken) fields.get(0)).getValue();
+            SafeString key = ((StringRedisToken) fields.get(1)).getValue();
+            SafeString type = ((StringRedisToken) fields.get(2)).getValue();
+            long value = ((IntegerRedisToken) fields.get(3)).getValue();
+            System.out.println(String.format("db%d %-40s %-6s %s", db, key, type,
+                    big ? MemoryEstimator.human(value) : "~" + value + " hits"));
+        }
+    }
+
     /**
      * 输出前置符
      */
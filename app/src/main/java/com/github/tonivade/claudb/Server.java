@@ -4,6 +4,9 @@
  */
 package com.github.tonivade.claudb;
 
+import com.github.tonivade.claudb.data.EvictionPolicy;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.claudb.monitor.TraceRecorder;
 import com.github.tonivade.resp.RespServer;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
@@ -28,7 +31,22 @@ public class Server {
         OptionSpec<Void> verbose = parser.accepts("V", "verbose");
         OptionSpec<Void> persist = parser.accepts("P", "persistence (experimental)");
         OptionSpec<Void> offHeap = parser.accepts("O", "off heap memory (experimental)");
+        OptionSpec<Void> compact = parser.accepts("C", "compact on heap keyspace (experimental)");
         OptionSpec<Void> notifications = parser.accepts("N", "keyspace notifications (experimental)");
+        OptionSpec<Void> concurrentReads = parser.accepts("R", "concurrent reads (experimental)");
+        OptionSpec<String> shards = parser.accepts("s", "key slot shards (experimental)").withRequiredArg();
+        OptionSpec<String> maxMemory = parser.accepts("m", "maxmemory, e.g. 100mb").withRequiredArg();
+        OptionSpec<String> maxMemoryPolicy = parser.accepts("e", "maxmemory policy")
+                .withRequiredArg().defaultsTo(EvictionPolicy.NOEVICTION.text());
+        OptionSpec<Void> analyzer = parser.accepts("A", "big keys and hot keys analyzer");
+        OptionSpec<String> latency = parser.accepts("l", "latency monitor threshold in milliseconds")
+                .withRequiredArg();
+        OptionSpec<String> slowLog = parser.accepts("L", "slowlog threshold in microseconds")
+                .withRequiredArg();
+        OptionSpec<String> trace = parser.accepts("T", "record sampled commands to a trace file for TraceReplay")
+                .withRequiredArg();
+        OptionSpec<Integer> traceSample = parser.accepts("trace-sample", "trace one of every n commands")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(TraceRecorder.DEFAULT_SAMPLE_RATE);
         OptionSpec<String> host = parser.accepts("h", "host")
                 .withRequiredArg().defaultsTo(DBServerContext.DEFAULT_HOST);
         OptionSpec<String> port = parser.accepts("p", "port").withRequiredArg();
@@ -42,7 +60,17 @@ public class Server {
             int optionPort = parsePort(options.valueOf(port));
             DBConfig config = parseConfig(options.has(persist),
                     options.has(offHeap),
-                    options.has(notifications));
+                    options.has(compact),
+                    options.has(notifications),
+                    options.has(concurrentReads),
+                    parseShards(options.valueOf(shards)),
+                    parseMaxMemory(options.valueOf(maxMemory)),
+                    EvictionPolicy.parse(options.valueOf(maxMemoryPolicy)),
+                    options.has(analyzer),
+                    parseLatencyThreshold(options.valueOf(latency)),
+                    options.valueOf(slowLog),
+                    options.valueOf(trace),
+                    options.valueOf(traceSample));
 
             readBanner().forEach(System.out::println);
 
@@ -74,15 +102,75 @@ public class Server {
         return optionPort != null ? Integer.parseInt(optionPort) : DBServerContext.DEFAULT_PORT;
     }
 
+    /**
+     * 解析分片数
+     *
+     * @param optionShards
+     * @return
+     */
+    private static int parseShards(String optionShards) {
+        return optionShards != null ? Integer.parseInt(optionShards) : 0;
+    }
+
+    /**
+     * 解析延迟监控阈值
+     *
+     * @param optionLatency
+     * @return
+     */
+    private static int parseLatencyThreshold(String optionLatency) {
+        return optionLatency != null ? Integer.parseInt(optionLatency) : 0;
+    }
+
+    /**
+     * 解析内存上限，支持 kb、mb、gb 单位
+     *
+     * @param optionMaxMemory
+     * @return
+     */
+    private static long parseMaxMemory(String optionMaxMemory) {
+        if (optionMaxMemory == null) {
+            return 0;
+        }
+        String value = optionMaxMemory.trim().toLowerCase();
+        long unit = 1;
+        if (value.endsWith("gb")) {
+            unit = 1024L * 1024 * 1024;
+        } else if (value.endsWith("mb")) {
+            unit = 1024L * 1024;
+        } else if (value.endsWith("kb")) {
+            unit = 1024L;
+        }
+        if (unit > 1) {
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("b")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Long.parseLong(value.trim()) * unit;
+    }
+
     /**
      * 解析配置
      *
-     * @param persist       是否进行持久化
-     * @param offHeap       是否使用堆
-     * @param notifications 是否通知
+     * @param persist         是否进行持久化
+     * @param offHeap         是否使用堆
+     * @param compact         是否使用紧凑的堆上键空间
+     * @param notifications   是否通知
+     * @param concurrentReads 是否开启并发读
+     * @param shards          键槽分片数
+     * @param maxMemory       内存上限
+     * @param policy          淘汰策略
+     * @param analyzer        是否开启大键和热键分析
+     * @param latency         延迟监控阈值（毫秒）
+     * @param slowLog         慢查询阈值（微秒），未指定时使用默认值
+     * @param trace           命令跟踪文件，未指定时不开启
+     * @param traceSample     命令跟踪采样率
      * @return
      */
-    private static DBConfig parseConfig(boolean persist, boolean offHeap, boolean notifications) {
+    private static DBConfig parseConfig(boolean persist, boolean offHeap, boolean compact,
+                                        boolean notifications, boolean concurrentReads, int shards,
+                                        long maxMemory, EvictionPolicy policy, boolean analyzer,
+                                        int latency, String slowLog, String trace, int traceSample) {
         DBConfig.Builder builder = DBConfig.builder();
         if (persist) {
             builder.withPersistence();
@@ -90,9 +178,33 @@ public class Server {
         if (offHeap) {
             builder.withOffHeapCache();
         }
+        if (compact) {
+            builder.withCompactKeyspace();
+        }
         if (notifications) {
             builder.withNotifications();
         }
+        if (concurrentReads) {
+            builder.withConcurrentReads();
+        }
+        if (shards > 1) {
+            builder.withShards(shards);
+        }
+        if (maxMemory > 0) {
+            builder.withMaxMemory(maxMemory, policy);
+        }
+        if (analyzer) {
+            builder.withKeyAnalyzer();
+        }
+        if (latency > 0) {
+            builder.withLatencyMonitor(latency);
+        }
+        if (slowLog != null) {
+            builder.withSlowLog(Long.parseLong(slowLog), SlowLog.DEFAULT_MAX_LEN);
+        }
+        if (trace != null) {
+            builder.withTrace(trace, traceSample);
+        }
         return builder.build();
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import com.github.tonivade.claudb.monitor.CommandStats;
+import com.github.tonivade.claudb.monitor.LatencyHistogram;
+import com.github.tonivade.claudb.monitor.TraceReader;
+import com.github.tonivade.claudb.monitor.TraceRecord;
+import com.github.tonivade.resp.RespCallback;
+import com.github.tonivade.resp.RespClient;
+import com.github.tonivade.resp.RespServer;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author zhou
+ * <p>
+ * 重放服务器用 -T 记录的命令跟踪，按原来的节奏或加速重放，统计每种命令的吞吐量和延迟。
+ * 跟踪中不保存参数内容：键由键哈希生成，同一个键总是生成同一个名字，保留了访问的倾斜；
+ * 其他参数按原来的长度生成，数字参数生成同样长度的数字。
+ * 所有命令在一个连接上按跟踪中的顺序发送，同样的跟踪每次重放的命令完全相同
+ */
+public class TraceReplay implements RespCallback {
+
+    /**
+     * 不重放的命令，数据库由记录中的序号切换，复制和订阅会改变连接的状态
+     */
+    private static final Set<String> SKIPPED = new HashSet<>(Arrays.asList(
+            "select", "sync", "slaveof", "quit", "subscribe", "psubscribe", "unsubscribe", "punsubscribe"));
+
+    private final RespClient client;
+    private final int pipeline;
+    private final Semaphore window;
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final Map<String, CommandStats> stats = new ConcurrentHashMap<>();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final Map<Integer, String> fillers = new HashMap<>();
+    private final Map<Integer, String> numbers = new HashMap<>();
+    private volatile boolean disconnected;
+    private int currentDb;
+
+    public TraceReplay(String host, int port, int pipeline) {
+        this.client = new RespClient(host, port, this);
+        this.pipeline = pipeline;
+        this.window = new Semaphore(pipeline);
+    }
+
+    public static void main(String[] args) throws Exception {
+        OptionParser parser = new OptionParser();
+        OptionSpec<Void> help = parser.accepts("help", "print help");
+        OptionSpec<String> file = parser.accepts("f", "trace file recorded with -T").withRequiredArg();
+        OptionSpec<String> host = parser.accepts("h", "host")
+                .withRequiredArg().defaultsTo(ClauDB.DEFAULT_HOST);
+        OptionSpec<String> port = parser.accepts("p", "port").withRequiredArg();
+        OptionSpec<Double> speed = parser.accepts("speed", "pacing factor, 1 original pacing, 0 as fast as possible")
+                .withRequiredArg().ofType(Double.class).defaultsTo(1d);
+        OptionSpec<Integer> pipeline = parser.accepts("P", "max requests in flight")
+                .withRequiredArg().ofType(Integer.class).defaultsTo(64);
+        OptionSpec<Void> embedded = parser.accepts("embedded", "replay against an embedded server on a random port");
+
+        OptionSet options = parser.parse(args);
+
+        if (options.has(help) || !options.has(file)) {
+            parser.printHelpOn(System.out);
+        } else {
+            String optionHost = options.valueOf(host);
+            int optionPort = options.has(embedded) ? freePort() : parsePort(options.valueOf(port));
+
+            RespServer server = null;
+            if (options.has(embedded)) {
+                server = ClauDB.builder().host(optionHost).port(optionPort).build();
+                server.start();
+            }
+            TraceReplay replay = new TraceReplay(optionHost, optionPort, options.valueOf(pipeline));
+            try (TraceReader reader = new TraceReader(new FileInputStream(options.valueOf(file)))) {
+                replay.client.start();
+                long[] result = replay.run(reader, options.valueOf(speed));
+                System.out.println(String.format("%d commands, trace duration %.2f s, replayed in %.2f s, "
+                                + "sample rate 1/%d, speed %s", replay.total.getCount(), result[0] / 1_000_000d,
+                        result[1] / 1_000_000_000d, reader.getSampleRate(), options.valueOf(speed)));
+                replay.report(result[1]).forEach(System.out::println);
+            } finally {
+                replay.client.stop();
+                if (server != null) {
+                    server.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * 重放跟踪，所有命令都返回响应后结束
+     *
+     * @param reader 跟踪文件
+     * @param speed  节奏倍数，0 表示不限速
+     * @return 跟踪的时长（微秒）和重放的耗时（纳秒）
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public long[] run(TraceReader reader, double speed) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long duration = 0;
+        for (TraceRecord record = reader.next(); record != null && !disconnected; record = reader.next()) {
+            duration = record.getTime();
+            if (SKIPPED.contains(record.getCommand())) {
+                continue;
+            }
+            if (speed > 0) {
+                long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(record.getTime()) / speed);
+                for (long now = System.nanoTime(); now < due; now = System.nanoTime()) {
+                    LockSupport.parkNanos(due - now);
+                }
+            }
+            if (record.getDb() != currentDb) {
+                send(null, "select", String.valueOf(record.getDb()));
+                currentDb = record.getDb();
+            }
+            send(record.getCommand(), command(record));
+        }
+        // 等待所有响应
+        window.acquire(pipeline);
+        return new long[]{duration, System.nanoTime() - start};
+    }
+
+    /**
+     * 生成报告，按调用次数从多到少每种命令一行，最后一行为汇总
+     *
+     * @param elapsed 耗时（纳秒）
+     * @return
+     */
+    public List<String> report(long elapsed) {
+        List<CommandStats> commands = new ArrayList<>(stats.values());
+        commands.sort(Comparator.comparingLong(CommandStats::getCalls).reversed());
+        List<String> lines = new ArrayList<>();
+        long errors = 0;
+        for (CommandStats item : commands) {
+            lines.add(Benchmark.line(item.getName(), item.getCalls(), item.getFailedCalls(), item.getHistogram(),
+                    elapsed));
+            errors += item.getFailedCalls();
+        }
+        lines.add(Benchmark.line("total", total.getCount(), errors, total, elapsed));
+        return lines;
+    }
+
+    @Override
+    public void onConnect() {
+        // nothing to do
+    }
+
+    @Override
+    public void onDisconnect() {
+        disconnected = true;
+        // 唤醒等待响应的线程
+        window.release(pipeline);
+    }
+
+    @Override
+    public void onMessage(RedisToken token) {
+        Pending request = pending.poll();
+        if (request != null && request.command != null) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - request.start);
+            stats.computeIfAbsent(request.command, CommandStats::new)
+                    .record(micros, token.getType() == RedisTokenType.ERROR);
+            total.record(micros);
+        }
+        window.release();
+    }
+
+    private void send(String name, String... command) throws InterruptedException {
+        window.acquire();
+        pending.add(new Pending(name, System.nanoTime()));
+        client.send(command);
+    }
+
+    /**
+     * 由跟踪记录生成命令，第一个参数为由键哈希生成的键
+     */
+    private String[] command(TraceRecord record) {
+        String[] command = new String[record.getArgCount() + 1];
+        command[0] = record.getCommand();
+        for (int i = 0; i < record.getArgCount(); i++) {
+            if (i == 0) {
+                command[1] = "key:" + Integer.toHexString(record.getKeyHash());
+            } else if (record.isNumber(i)) {
+                command[i + 1] = numbers.computeIfAbsent(record.getArgSize(i), size -> repeat('1', size));
+            } else {
+                command[i + 1] = fillers.computeIfAbsent(record.getArgSize(i), size -> repeat('x', size));
+            }
+        }
+        return command;
+    }
+
+    private static String repeat(char c, int size) {
+        char[] chars = new char[size];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int parsePort(String optionPort) {
+        return optionPort != null ? Integer.parseInt(optionPort) : DBServerContext.DEFAULT_PORT;
+    }
+
+    /**
+     * 已发送还未返回响应的命令，切换数据库的命令不计入统计
+     */
+    private static final class Pending {
+
+        private final String command;
+        private final long start;
+
+        private Pending(String command, long start) {
+            this.command = command;
+            this.start = start;
+        }
+    }
+}
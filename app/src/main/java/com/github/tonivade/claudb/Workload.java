@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author zhou
+ * <p>
+ * 压测的命令组合，按权重随机选择命令，并在给定的键空间内随机生成键
+ */
+public class Workload {
+
+    /**
+     * 压测支持的命令
+     */
+    public enum Type {
+        GET, SET, INCR, LPUSH, ZADD, HSET, EVAL;
+
+        public String text() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Type parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * eval 执行的脚本，读取一个键
+     */
+    private static final String SCRIPT = "return redis.call('get', KEYS[1])";
+
+    private final Type[] types;
+    /**
+     * 累积权重，与 types 一一对应
+     */
+    private final int[] weights;
+    private final int keyspace;
+    private final String value;
+
+    private Workload(Type[] types, int[] weights, int keyspace, int dataSize) {
+        this.types = types;
+        this.weights = weights;
+        this.keyspace = keyspace;
+        char[] data = new char[dataSize];
+        Arrays.fill(data, 'x');
+        this.value = new String(data);
+    }
+
+    /**
+     * 解析命令组合，格式为逗号分隔的命令名，可以带权重，如 get:80,set:20，不带权重时权重为 1
+     *
+     * @param mix      命令组合
+     * @param keyspace 键空间大小
+     * @param dataSize 值的字节数
+     * @return
+     */
+    public static Workload parse(String mix, int keyspace, int dataSize) {
+        if (keyspace < 1 || dataSize < 0) {
+            throw new IllegalArgumentException("invalid keyspace or data size");
+        }
+        List<Type> types = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (String item : mix.split(",")) {
+            String[] parts = item.split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("invalid weight: " + item);
+            }
+            if (weight > 0) {
+                total += weight;
+                types.add(Type.parse(parts[0]));
+                weights.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("empty command mix: " + mix);
+        }
+        return new Workload(types.toArray(new Type[0]),
+                weights.stream().mapToInt(Integer::intValue).toArray(), keyspace, dataSize);
+    }
+
+    /**
+     * @return 组合中的命令
+     */
+    public List<Type> getTypes() {
+        return Arrays.asList(types);
+    }
+
+    /**
+     * 按权重随机选择一个命令
+     *
+     * @return
+     */
+    public Type next() {
+        int n = ThreadLocalRandom.current().nextInt(weights[weights.length - 1]);
+        int i = 0;
+        while (n >= weights[i]) {
+            i++;
+        }
+        return types[i];
+    }
+
+    /**
+     * 生成命令的参数，每种数据类型使用不同的键前缀，避免类型冲突
+     *
+     * @param type 命令
+     * @return
+     */
+    public String[] command(Type type) {
+        switch (type) {
+            case GET:
+                return new String[]{type.text(), key("key")};
+            case SET:
+                return new String[]{type.text(), key("key"), value};
+            case INCR:
+                return new String[]{type.text(), key("counter")};
+            case LPUSH:
+                return new String[]{type.text(), key("list"), value};
+            case ZADD:
+                return new String[]{type.text(), key("zset"), String.valueOf(random()), key("member")};
+            case HSET:
+                return new String[]{type.text(), key("hash"), key("field"), value};
+            case EVAL:
+                return new String[]{type.text(), SCRIPT, "1", key("key")};
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+    }
+
+    private String key(String prefix) {
+        return prefix + ":" + random();
+    }
+
+    private int random() {
+        return ThreadLocalRandom.current().nextInt(keyspace);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.bitset.BitCountCommand;
+import com.github.tonivade.claudb.command.bitset.GetBitCommand;
+import com.github.tonivade.claudb.command.bitset.SetBitCommand;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
+
+/**
+ * @author zhou
+ * <p>
+ * 位图命令 Benchmark，size 为位数，偶数位为 1
+ */
+public class BitsetBenchmark extends DataTypeBenchmark {
+
+    private final SetBitCommand setbit = new SetBitCommand();
+    private final GetBitCommand getbit = new GetBitCommand();
+    private final BitCountCommand bitcount = new BitCountCommand();
+
+    private Request setbitRequest;
+    private Request getbitRequest;
+    private Request bitcountRequest;
+
+    @Override
+    protected void populate() {
+        int[] ones = new int[size / 2];
+        for (int i = 0; i < ones.length; i++) {
+            ones[i] = i * 2;
+        }
+        db.put(safeKey(KEY), bitset(ones));
+        String middle = String.valueOf(size / 2);
+        setbitRequest = request("setbit", KEY, middle, "1");
+        getbitRequest = request("getbit", KEY, middle);
+        bitcountRequest = request("bitcount", KEY);
+    }
+
+    @Benchmark
+    public RedisToken setbit() {
+        return setbit.execute(db, setbitRequest);
+    }
+
+    @Benchmark
+    public RedisToken getbit() {
+        return getbit.execute(db, getbitRequest);
+    }
+
+    @Benchmark
+    public RedisToken bitcount() {
+        return bitcount.execute(db, bitcountRequest);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseFactory;
+import com.github.tonivade.claudb.data.OffHeapDatabaseFactory;
+import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
+import com.github.tonivade.purefun.data.ImmutableArray;
+import com.github.tonivade.resp.command.DefaultRequest;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.SafeString;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou
+ * <p>
+ * 进程内的数据类型 JMH Benchmark 基类，不需要启动服务器，直接对数据库执行 {@link DBCommand}。
+ * 每种数据类型分别在堆上和堆外数据库、不同的集合大小下测试，
+ * 写命令只覆盖已有的元素，保证测试过程中集合大小不变
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public abstract class DataTypeBenchmark {
+
+    protected static final String KEY = "key";
+
+    @Param({"onheap", "offheap"})
+    public String storage;
+
+    /**
+     * 集合的元素个数，字符串为值的字节数，位图为位数
+     */
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    protected Database db;
+
+    private DatabaseFactory factory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = "offheap".equals(storage) ? new OffHeapDatabaseFactory() : new OnHeapDatabaseFactory();
+        db = factory.create("benchmark");
+        populate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.clear();
+    }
+
+    /**
+     * 写入 {@link #size} 大小的测试数据
+     */
+    protected abstract void populate();
+
+    /**
+     * 测试用的请求，在 setUp 中创建，避免请求本身的分配计入结果
+     *
+     * @param command 命令名
+     * @param params  参数
+     * @return
+     */
+    protected static Request request(String command, String... params) {
+        return new DefaultRequest(null, null, safeString(command), ImmutableArray.of(params).map(SafeString::safeString));
+    }
+
+    protected static SafeString member(int i) {
+        return safeString("member:" + i);
+    }
+}
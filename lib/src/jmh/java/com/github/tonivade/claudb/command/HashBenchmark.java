@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.hash.HashExistsCommand;
+import com.github.tonivade.claudb.command.hash.HashGetAllCommand;
+import com.github.tonivade.claudb.command.hash.HashGetCommand;
+import com.github.tonivade.claudb.command.hash.HashSetCommand;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.entry;
+import static com.github.tonivade.claudb.data.DatabaseValue.hash;
+
+/**
+ * @author zhou
+ * <p>
+ * Hash 类型命令 Benchmark，size 为字段个数
+ */
+public class HashBenchmark extends DataTypeBenchmark {
+
+    private final HashGetCommand hget = new HashGetCommand();
+    private final HashSetCommand hset = new HashSetCommand();
+    private final HashExistsCommand hexists = new HashExistsCommand();
+    private final HashGetAllCommand hgetall = new HashGetAllCommand();
+
+    private Request hgetRequest;
+    private Request hsetRequest;
+    private Request hexistsRequest;
+    private Request hgetallRequest;
+
+    @Override
+    protected void populate() {
+        List<Tuple2<SafeString, SafeString>> fields = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fields.add(entry(member(i), member(i)));
+        }
+        db.put(safeKey(KEY), hash(fields));
+        String field = member(size / 2).toString();
+        hgetRequest = request("hget", KEY, field);
+        hsetRequest = request("hset", KEY, field, "value");
+        hexistsRequest = request("hexists", KEY, field);
+        hgetallRequest = request("hgetall", KEY);
+    }
+
+    @Benchmark
+    public RedisToken hget() {
+        return hget.execute(db, hgetRequest);
+    }
+
+    @Benchmark
+    public RedisToken hset() {
+        return hset.execute(db, hsetRequest);
+    }
+
+    @Benchmark
+    public RedisToken hexists() {
+        return hexists.execute(db, hexistsRequest);
+    }
+
+    @Benchmark
+    public RedisToken hgetall() {
+        return hgetall.execute(db, hgetallRequest);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.list.LeftPushCommand;
+import com.github.tonivade.claudb.command.list.ListIndexCommand;
+import com.github.tonivade.claudb.command.list.ListRangeCommand;
+import com.github.tonivade.claudb.command.list.ListSetCommand;
+import com.github.tonivade.claudb.command.list.RightPopCommand;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+
+/**
+ * @author zhou
+ * <p>
+ * List 类型命令 Benchmark，size 为元素个数
+ */
+public class ListBenchmark extends DataTypeBenchmark {
+
+    private final LeftPushCommand lpush = new LeftPushCommand();
+    private final RightPopCommand rpop = new RightPopCommand();
+    private final ListIndexCommand lindex = new ListIndexCommand();
+    private final ListSetCommand lset = new ListSetCommand();
+    private final ListRangeCommand lrange = new ListRangeCommand();
+
+    private Request lpushRequest;
+    private Request rpopRequest;
+    private Request lindexRequest;
+    private Request lsetRequest;
+    private Request lrangeRequest;
+
+    @Override
+    protected void populate() {
+        List<SafeString> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(member(i));
+        }
+        db.put(safeKey(KEY), list(values));
+        String middle = String.valueOf(size / 2);
+        lpushRequest = request("lpush", KEY, "value");
+        rpopRequest = request("rpop", KEY);
+        lindexRequest = request("lindex", KEY, middle);
+        lsetRequest = request("lset", KEY, middle, "value");
+        lrangeRequest = request("lrange", KEY, "0", "9");
+    }
+
+    /**
+     * lpush 之后 rpop，保持列表长度不变
+     */
+    @Benchmark
+    public RedisToken lpushRpop() {
+        lpush.execute(db, lpushRequest);
+        return rpop.execute(db, rpopRequest);
+    }
+
+    @Benchmark
+    public RedisToken lindex() {
+        return lindex.execute(db, lindexRequest);
+    }
+
+    @Benchmark
+    public RedisToken lset() {
+        return lset.execute(db, lsetRequest);
+    }
+
+    @Benchmark
+    public RedisToken lrange() {
+        return lrange.execute(db, lrangeRequest);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.set.SetAddCommand;
+import com.github.tonivade.claudb.command.set.SetCardinalityCommand;
+import com.github.tonivade.claudb.command.set.SetIsMemberCommand;
+import com.github.tonivade.claudb.command.set.SetRemoveCommand;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.set;
+
+/**
+ * @author zhou
+ * <p>
+ * Set 类型命令 Benchmark，size 为元素个数
+ */
+public class SetBenchmark extends DataTypeBenchmark {
+
+    private final SetAddCommand sadd = new SetAddCommand();
+    private final SetRemoveCommand srem = new SetRemoveCommand();
+    private final SetIsMemberCommand sismember = new SetIsMemberCommand();
+    private final SetCardinalityCommand scard = new SetCardinalityCommand();
+
+    private Request saddRequest;
+    private Request sremRequest;
+    private Request sismemberRequest;
+    private Request scardRequest;
+
+    @Override
+    protected void populate() {
+        List<SafeString> members = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            members.add(member(i));
+        }
+        db.put(safeKey(KEY), set(members));
+        String added = member(size).toString();
+        saddRequest = request("sadd", KEY, added);
+        sremRequest = request("srem", KEY, added);
+        sismemberRequest = request("sismember", KEY, member(size / 2).toString());
+        scardRequest = request("scard", KEY);
+    }
+
+    /**
+     * sadd 一个新元素之后 srem，保持集合大小不变
+     */
+    @Benchmark
+    public RedisToken saddSrem() {
+        sadd.execute(db, saddRequest);
+        return srem.execute(db, sremRequest);
+    }
+
+    @Benchmark
+    public RedisToken sismember() {
+        return sismember.execute(db, sismemberRequest);
+    }
+
+    @Benchmark
+    public RedisToken scard() {
+        return scard.execute(db, scardRequest);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.zset.SortedSetAddCommand;
+import com.github.tonivade.claudb.command.zset.SortedSetRangeByScoreCommand;
+import com.github.tonivade.claudb.command.zset.SortedSetRangeCommand;
+import com.github.tonivade.claudb.command.zset.SortedSetScoreCommand;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.score;
+import static com.github.tonivade.claudb.data.DatabaseValue.zset;
+
+/**
+ * @author zhou
+ * <p>
+ * Sorted Set 类型命令 Benchmark，size 为元素个数
+ */
+public class SortedSetBenchmark extends DataTypeBenchmark {
+
+    private final SortedSetAddCommand zadd = new SortedSetAddCommand();
+    private final SortedSetScoreCommand zscore = new SortedSetScoreCommand();
+    private final SortedSetRangeCommand zrange = new SortedSetRangeCommand();
+    private final SortedSetRangeByScoreCommand zrangebyscore = new SortedSetRangeByScoreCommand();
+
+    private Request zaddRequest;
+    private Request zscoreRequest;
+    private Request zrangeRequest;
+    private Request zrangebyscoreRequest;
+
+    @Override
+    protected void populate() {
+        List<Entry<Double, SafeString>> members = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            members.add(score(i, member(i)));
+        }
+        db.put(safeKey(KEY), zset(members));
+        int middle = size / 2;
+        zaddRequest = request("zadd", KEY, String.valueOf(middle), member(middle).toString());
+        zscoreRequest = request("zscore", KEY, member(middle).toString());
+        zrangeRequest = request("zrange", KEY, "0", "9");
+        zrangebyscoreRequest = request("zrangebyscore", KEY, String.valueOf(middle), String.valueOf(middle + 9));
+    }
+
+    @Benchmark
+    public RedisToken zadd() {
+        return zadd.execute(db, zaddRequest);
+    }
+
+    @Benchmark
+    public RedisToken zscore() {
+        return zscore.execute(db, zscoreRequest);
+    }
+
+    @Benchmark
+    public RedisToken zrange() {
+        return zrange.execute(db, zrangeRequest);
+    }
+
+    @Benchmark
+    public RedisToken zrangebyscore() {
+        return zrangebyscore.execute(db, zrangebyscoreRequest);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command;
+
+import com.github.tonivade.claudb.command.string.GetCommand;
+import com.github.tonivade.claudb.command.string.IncrementCommand;
+import com.github.tonivade.claudb.command.string.SetCommand;
+import com.github.tonivade.claudb.command.string.StringLengthCommand;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Arrays;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+
+/**
+ * @author zhou
+ * <p>
+ * String 类型命令 Benchmark，size 为值的字节数
+ */
+public class StringBenchmark extends DataTypeBenchmark {
+
+    private static final String COUNTER = "counter";
+
+    private final GetCommand get = new GetCommand();
+    private final SetCommand set = new SetCommand();
+    private final IncrementCommand incr = new IncrementCommand();
+    private final StringLengthCommand strlen = new StringLengthCommand();
+
+    private Request getRequest;
+    private Request setRequest;
+    private Request incrRequest;
+    private Request strlenRequest;
+
+    @Override
+    protected void populate() {
+        String value = value();
+        db.put(safeKey(KEY), string(value));
+        db.put(safeKey(COUNTER), string("0"));
+        getRequest = request("get", KEY);
+        setRequest = request("set", KEY, value);
+        incrRequest = request("incr", COUNTER);
+        strlenRequest = request("strlen", KEY);
+    }
+
+    private String value() {
+        char[] chars = new char[size];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    @Benchmark
+    public RedisToken get() {
+        return get.execute(db, getRequest);
+    }
+
+    @Benchmark
+    public RedisToken set() {
+        return set.execute(db, setRequest);
+    }
+
+    @Benchmark
+    public RedisToken incr() {
+        return incr.execute(db, incrRequest);
+    }
+
+    @Benchmark
+    public RedisToken strlen() {
+        return strlen.execute(db, strlenRequest);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.claudb.DBConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhou
+ * <p>
+ * AOF 重放的吞吐量，结果中的 commands 为每秒重放的命令数，bytes 为每秒解析的 AOF 字节数。
+ * 命令通过 {@link PersistenceManager} 在一个启动的服务器上执行，每次重放前清空数据库
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+public class AofReplayBenchmark {
+
+    @Param({"string:4,hash:2,list:1,set:1,zset:1"})
+    public String mix;
+
+    @Param({"10000"})
+    public int keys;
+
+    @Param({"16"})
+    public int elements;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private ClauDB server;
+    private PersistenceManager manager;
+    private byte[] aof;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        aof = new Dataset(mix, keys, elements, valueSize).aof();
+        server = new ClauDB(ClauDB.DEFAULT_HOST, freePort());
+        server.start();
+        manager = new PersistenceManager(server, DBConfig.builder().build());
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        server.getDatabase(0).clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public int replay(ByteCounter counter) {
+        int count = manager.replay(new ByteArrayInputStream(aof));
+        counter.commands += count;
+        counter.bytes += aof.length;
+        return count;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * @author zhou
+ * <p>
+ * JMH 辅助计数器，在 Throughput 模式下按每秒输出，bytes 除以 10^6 即为 MB/s，commands 为每秒重放的命令数
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounter {
+
+    public long bytes;
+    public long commands;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+        commands = 0;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhou
+ * <p>
+ * CRC64 的吞吐量，分别按数组和逐字节更新，后者对应 RDB 中写入单个字节的类型和长度
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+public class CRC64Benchmark {
+
+    @Param({"64", "4096", "1048576"})
+    public int size;
+
+    private final CRC64 crc = new CRC64();
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buffer = new byte[size];
+        new Random(size).nextBytes(buffer);
+    }
+
+    @Benchmark
+    public long updateArray(ByteCounter counter) {
+        crc.reset();
+        crc.update(buffer, 0, buffer.length);
+        counter.bytes += buffer.length;
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long updateByte(ByteCounter counter) {
+        crc.reset();
+        for (byte b : buffer) {
+            crc.update(b);
+        }
+        counter.bytes += buffer.length;
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.resp.protocol.RedisSerializer;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.entry;
+import static com.github.tonivade.claudb.data.DatabaseValue.hash;
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.score;
+import static com.github.tonivade.claudb.data.DatabaseValue.set;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.claudb.data.DatabaseValue.zset;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou
+ * <p>
+ * 持久化 Benchmark 使用的合成数据集。
+ * 按类型组合（如 string:4,hash:2,list:1,set:1,zset:1）生成指定个数的键，
+ * 集合类型每个键有 elements 个元素，值的大小为 valueSize 字节。
+ * 使用固定的随机种子，同样的参数总是生成同样的数据
+ */
+public final class Dataset {
+
+    private final DataType[] types;
+    private final int keys;
+    private final int elements;
+    private final int valueSize;
+
+    public Dataset(String mix, int keys, int elements, int valueSize) {
+        this.types = parse(mix);
+        this.keys = keys;
+        this.elements = elements;
+        this.valueSize = valueSize;
+    }
+
+    /**
+     * 把数据集写入数据库
+     *
+     * @param db 数据库
+     * @return
+     */
+    public Database populate(Database db) {
+        Random random = new Random(keys);
+        for (int i = 0; i < keys; i++) {
+            DataType type = types[i % types.length];
+            db.put(safeKey(key(type, i)), value(type, random));
+        }
+        return db;
+    }
+
+    /**
+     * 生成与数据集等价的 AOF 记录，每个键一条写命令，格式与 {@link PersistenceManager} 写入的相同：
+     * 数组的第一个元素为数据库序号，其余为命令和参数
+     *
+     * @return
+     */
+    public byte[] aof() {
+        Random random = new Random(keys);
+        RedisSerializer serializer = new RedisSerializer();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int i = 0; i < keys; i++) {
+            DataType type = types[i % types.length];
+            byte[] encoded = serializer.encodeToken(command(type, key(type, i), random));
+            output.write(encoded, 0, encoded.length);
+        }
+        return output.toByteArray();
+    }
+
+    public int getKeys() {
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d keys %s, %d elements, %d bytes values", keys, Arrays.toString(types),
+                elements, valueSize);
+    }
+
+    private DatabaseValue value(DataType type, Random random) {
+        switch (type) {
+            case STRING:
+                return string(value(random));
+            case LIST:
+                return list(values(random));
+            case SET:
+                return set(members());
+            case ZSET:
+                List<Entry<Double, SafeString>> scores = new ArrayList<>(elements);
+                for (SafeString member : members()) {
+                    scores.add(score(random.nextDouble(), member));
+                }
+                return zset(scores);
+            case HASH:
+                List<Tuple2<SafeString, SafeString>> fields = new ArrayList<>(elements);
+                for (SafeString field : members()) {
+                    fields.add(entry(field, value(random)));
+                }
+                return hash(fields);
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+    }
+
+    private RedisToken command(DataType type, String key, Random random) {
+        List<RedisToken> command = new ArrayList<>();
+        command.add(RedisToken.string("0"));
+        switch (type) {
+            case STRING:
+                command.add(RedisToken.string("set"));
+                command.add(RedisToken.string(key));
+                command.add(RedisToken.string(value(random)));
+                break;
+            case LIST:
+                command.add(RedisToken.string("rpush"));
+                command.add(RedisToken.string(key));
+                values(random).forEach(value -> command.add(RedisToken.string(value)));
+                break;
+            case SET:
+                command.add(RedisToken.string("sadd"));
+                command.add(RedisToken.string(key));
+                members().forEach(member -> command.add(RedisToken.string(member)));
+                break;
+            case ZSET:
+                command.add(RedisToken.string("zadd"));
+                command.add(RedisToken.string(key));
+                for (SafeString member : members()) {
+                    command.add(RedisToken.string(String.valueOf(random.nextDouble())));
+                    command.add(RedisToken.string(member));
+                }
+                break;
+            case HASH:
+                command.add(RedisToken.string("hmset"));
+                command.add(RedisToken.string(key));
+                for (SafeString field : members()) {
+                    command.add(RedisToken.string(field));
+                    command.add(RedisToken.string(value(random)));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+        return RedisToken.array(command);
+    }
+
+    private List<SafeString> values(Random random) {
+        List<SafeString> values = new ArrayList<>(elements);
+        for (int i = 0; i < elements; i++) {
+            values.add(value(random));
+        }
+        return values;
+    }
+
+    private List<SafeString> members() {
+        List<SafeString> members = new ArrayList<>(elements);
+        for (int i = 0; i < elements; i++) {
+            members.add(safeString("member:" + i));
+        }
+        return members;
+    }
+
+    private SafeString value(Random random) {
+        byte[] bytes = new byte[valueSize];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(26));
+        }
+        return new SafeString(bytes);
+    }
+
+    private static String key(DataType type, int i) {
+        return type.text() + ":" + i;
+    }
+
+    /**
+     * 解析类型组合，权重展开为类型数组，按键的序号轮流取用
+     */
+    private static DataType[] parse(String mix) {
+        List<DataType> types = new ArrayList<>();
+        for (String item : mix.split(",")) {
+            String[] parts = item.split(":");
+            DataType type = DataType.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                types.add(type);
+            }
+        }
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("empty type mix: " + mix);
+        }
+        return types.toArray(new DataType[0]);
+    }
+}
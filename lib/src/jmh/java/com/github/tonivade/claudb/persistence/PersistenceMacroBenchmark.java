@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.claudb.DBConfig;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author zhou
+ * <p>
+ * 持久化的宏观 Benchmark，在一个较大的数据集上完整执行 RDB 保存、加载、CRC64 和 AOF 重放，
+ * 输出每轮的耗时和吞吐量。参数为 name=value 形式，如 keys=1000000 elements=16 valueSize=64。
+ * 指定 minSave、minLoad、minCrc（MB/s）或 minReplay（命令/s）时，最好的一轮低于阈值则以非零状态退出，
+ * 可以在持续集成中防止性能退化
+ */
+public final class PersistenceMacroBenchmark {
+
+    private static final double MB = 1_000_000d;
+    private static final double NANOS = 1_000_000_000d;
+
+    private PersistenceMacroBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        String mix = options.getOrDefault("mix", "string:4,hash:2,list:1,set:1,zset:1");
+        int keys = Integer.parseInt(options.getOrDefault("keys", "200000"));
+        int elements = Integer.parseInt(options.getOrDefault("elements", "16"));
+        int valueSize = Integer.parseInt(options.getOrDefault("valueSize", "64"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "5"));
+
+        Dataset dataset = new Dataset(mix, keys, elements, valueSize);
+        System.out.println("dataset: " + dataset);
+
+        Database db = dataset.populate(new OnHeapDatabaseFactory().create("macro"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] rdb = RDBBenchmark.save(db, output);
+        byte[] aof = dataset.aof();
+        System.out.println(String.format("rdb: %.2f MB, aof: %.2f MB", rdb.length / MB, aof.length / MB));
+
+        ClauDB server = new ClauDB(ClauDB.DEFAULT_HOST, AofReplayBenchmark.freePort());
+        server.start();
+        boolean ok;
+        try {
+            PersistenceManager manager = new PersistenceManager(server, DBConfig.builder().build());
+            double save = 0;
+            double load = 0;
+            double crc = 0;
+            double replay = 0;
+            for (int round = 1; round <= rounds; round++) {
+                long start = System.nanoTime();
+                output.reset();
+                RDBBenchmark.save(db, output);
+                double saveRate = rdb.length / MB / seconds(start);
+
+                start = System.nanoTime();
+                new RDBInputStream(new ByteArrayInputStream(rdb)).parse();
+                double loadRate = rdb.length / MB / seconds(start);
+
+                start = System.nanoTime();
+                CRC64 checksum = new CRC64();
+                checksum.update(rdb, 0, rdb.length);
+                double crcRate = rdb.length / MB / seconds(start);
+
+                server.getDatabase(0).clear();
+                start = System.nanoTime();
+                int commands = manager.replay(new ByteArrayInputStream(aof));
+                double replayRate = commands / seconds(start);
+
+                System.out.println(String.format("round %d: save %.2f MB/s, load %.2f MB/s, crc64 %.2f MB/s, "
+                        + "aof replay %.0f commands/s", round, saveRate, loadRate, crcRate, replayRate));
+                save = Math.max(save, saveRate);
+                load = Math.max(load, loadRate);
+                crc = Math.max(crc, crcRate);
+                replay = Math.max(replay, replayRate);
+            }
+            System.out.println(String.format("best: save %.2f MB/s, load %.2f MB/s, crc64 %.2f MB/s, "
+                    + "aof replay %.0f commands/s", save, load, crc, replay));
+
+            ok = check("save", save, options.get("minSave"))
+                    & check("load", load, options.get("minLoad"))
+                    & check("crc64", crc, options.get("minCrc"))
+                    & check("aof replay", replay, options.get("minReplay"));
+        } finally {
+            server.stop();
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(String name, double value, String threshold) {
+        if (threshold != null && value < Double.parseDouble(threshold)) {
+            System.err.println(String.format("%s below threshold: %.2f < %s", name, value, threshold));
+            return false;
+        }
+        return true;
+    }
+
+    private static double seconds(long start) {
+        return Math.max(System.nanoTime() - start, 1) / NANOS;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index < 1) {
+                throw new IllegalArgumentException("expected name=value: " + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.persistence;
+
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhou
+ * <p>
+ * RDB 编码和解码的吞吐量，数据集见 {@link Dataset}，结果中的 bytes 为每秒处理的 RDB 字节数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+public class RDBBenchmark {
+
+    private static final int RDB_VERSION = 6;
+
+    @Param({"string:4,hash:2,list:1,set:1,zset:1"})
+    public String mix;
+
+    @Param({"10000"})
+    public int keys;
+
+    @Param({"16"})
+    public int elements;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private Database db;
+    private byte[] rdb;
+    private ByteArrayOutputStream output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        db = new Dataset(mix, keys, elements, valueSize).populate(new OnHeapDatabaseFactory().create("rdb"));
+        output = new ByteArrayOutputStream();
+        rdb = save(db, output);
+    }
+
+    @Benchmark
+    public byte[] save(ByteCounter counter) throws IOException {
+        output.reset();
+        byte[] bytes = save(db, output);
+        counter.bytes += bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Map<Integer, Map<DatabaseKey, DatabaseValue>> load(ByteCounter counter) throws IOException {
+        Map<Integer, Map<DatabaseKey, DatabaseValue>> databases =
+                new RDBInputStream(new ByteArrayInputStream(rdb)).parse();
+        counter.bytes += rdb.length;
+        return databases;
+    }
+
+    static byte[] save(Database db, ByteArrayOutputStream output) throws IOException {
+        RDBOutputStream out = new RDBOutputStream(output);
+        out.preamble(RDB_VERSION);
+        out.select(0);
+        out.dabatase(db);
+        out.end();
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.replication;
+
+import com.github.tonivade.claudb.ClauDB;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.monitor.LatencyHistogram;
+import com.github.tonivade.claudb.persistence.Dataset;
+import com.github.tonivade.resp.RespCallback;
+import com.github.tonivade.resp.RespClient;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+
+/**
+ * @author zhou
+ * <p>
+ * 主从复制的 Benchmark，在同一个 JVM 中用随机端口启动一个主节点和 N 个从节点，测量：
+ * <ul>
+ *   <li>全量同步耗时与数据集大小的关系，从发送 SLAVEOF 到从节点加载完所有键</li>
+ *   <li>稳定复制时按固定速率写入主节点，每条命令在每个从节点上可见的端到端延迟</li>
+ *   <li>突发写入时从节点应用复制命令的吞吐量，不计主节点两次推送之间的空闲时间</li>
+ * </ul>
+ * 参数为 name=value 形式，输出为固定格式的 "指标 值 单位"，便于不同版本之间比较
+ */
+public final class ReplicationBenchmark {
+
+    private static final String HOST = ClauDB.DEFAULT_HOST;
+    /**
+     * 同一批复制命令中两个键的到达间隔超过该值时视为不同的推送
+     */
+    private static final long PUSH_GAP = TimeUnit.MILLISECONDS.toNanos(500);
+    /**
+     * 等待从节点时的轮询间隔
+     */
+    private static final long POLL = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long TIMEOUT = TimeUnit.MINUTES.toNanos(5);
+    /**
+     * 每个连接最多未返回响应的命令数
+     */
+    private static final int WINDOW = 128;
+
+    private ReplicationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int replicas = Integer.parseInt(options.getOrDefault("replicas", "2"));
+        String mix = options.getOrDefault("mix", "string:4,hash:2,list:1,set:1,zset:1");
+        int elements = Integer.parseInt(options.getOrDefault("elements", "16"));
+        int valueSize = Integer.parseInt(options.getOrDefault("valueSize", "64"));
+        String[] sizes = options.getOrDefault("sizes", "10000,100000").split(",");
+        int writes = Integer.parseInt(options.getOrDefault("writes", "5000"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        int burst = Integer.parseInt(options.getOrDefault("burst", "50000"));
+
+        try {
+            for (String size : sizes) {
+                fullSync(new Dataset(mix, Integer.parseInt(size.trim()), elements, valueSize));
+            }
+            steadyState(replicas, writes, rate, burst, valueSize);
+        } finally {
+            // 复制任务的线程池不是守护线程，服务器停止后也不会退出
+            System.exit(0);
+        }
+    }
+
+    /**
+     * 全量同步，主节点预先写入数据集，测量一个从节点从 SLAVEOF 到加载完成的时间
+     */
+    private static void fullSync(Dataset dataset) throws Exception {
+        Node master = Node.start();
+        Node replica = Node.start();
+        try {
+            dataset.populate(master.server.getDatabase(0));
+
+            long start = System.nanoTime();
+            replica.slaveOf(master);
+            Database db = replica.server.getDatabase(0);
+            await(() -> db.size() >= dataset.getKeys());
+            long elapsed = System.nanoTime() - start;
+
+            print("full_sync_" + dataset.getKeys() + "_keys", millis(elapsed), "ms");
+            print("full_sync_" + dataset.getKeys() + "_keys_rate", dataset.getKeys() / seconds(elapsed), "keys/s");
+        } finally {
+            replica.stop();
+            master.stop();
+        }
+    }
+
+    /**
+     * 稳定复制，所有从节点同步完成后先按固定速率写入测量延迟，再突发写入测量应用吞吐量
+     */
+    private static void steadyState(int replicas, int writes, int rate, int burst, int valueSize) throws Exception {
+        Node master = Node.start();
+        List<Node> nodes = new ArrayList<>(replicas);
+        ExecutorService executor = Executors.newFixedThreadPool(replicas);
+        try {
+            for (int i = 0; i < replicas; i++) {
+                Node replica = Node.start();
+                nodes.add(replica);
+                replica.slaveOf(master);
+            }
+            // 所有从节点都收到同一个键之后才开始测量
+            master.client.send("set", "ready", "1");
+            master.client.await();
+            for (Node replica : nodes) {
+                Database db = replica.server.getDatabase(0);
+                await(() -> db.containsKey(safeKey("ready")));
+            }
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLongArray sent = new AtomicLongArray(writes);
+            List<Future<?>> watchers = new ArrayList<>(replicas);
+            for (Node replica : nodes) {
+                watchers.add(executor.submit(() -> watchLatency(replica, sent, latency)));
+            }
+            long period = TimeUnit.SECONDS.toNanos(1) / Math.max(rate, 1);
+            long start = System.nanoTime();
+            for (int i = 0; i < writes; i++) {
+                long due = start + i * period;
+                for (long now = System.nanoTime(); now < due; now = System.nanoTime()) {
+                    LockSupport.parkNanos(due - now);
+                }
+                sent.set(i, System.nanoTime());
+                master.client.send("set", "lag:" + i, String.valueOf(i));
+            }
+            for (Future<?> watcher : watchers) {
+                watcher.get();
+            }
+            print("replicas", replicas, "");
+            for (double percentile : new double[]{50, 90, 99, 100}) {
+                print("propagation_p" + (long) percentile, latency.getPercentile(percentile) / 1000.0, "ms");
+            }
+
+            String value = value(valueSize);
+            List<Future<Double>> appliers = new ArrayList<>(replicas);
+            for (Node replica : nodes) {
+                appliers.add(executor.submit(() -> watchApply(replica, burst)));
+            }
+            for (int i = 0; i < burst; i++) {
+                master.client.send("set", "burst:" + i, value);
+            }
+            master.client.await();
+            double total = 0;
+            for (Future<Double> applier : appliers) {
+                total += applier.get();
+            }
+            print("apply_throughput", total / replicas, "commands/s");
+        } finally {
+            executor.shutdownNow();
+            for (Node replica : nodes) {
+                replica.stop();
+            }
+            master.stop();
+        }
+    }
+
+    /**
+     * 复制命令按顺序应用，依次等待每个键出现在从节点上
+     */
+    private static void watchLatency(Node replica, AtomicLongArray sent, LatencyHistogram latency) {
+        Database db = replica.server.getDatabase(0);
+        for (int i = 0; i < sent.length(); i++) {
+            String key = "lag:" + i;
+            await(() -> db.containsKey(safeKey(key)));
+            long now = System.nanoTime();
+            latency.record(TimeUnit.NANOSECONDS.toMicros(now - sent.get(i)));
+        }
+    }
+
+    /**
+     * 记录每个键的到达时间，按 {@link #PUSH_GAP} 切分为多次推送，吞吐量只计算每次推送内部的耗时
+     *
+     * @return 每秒应用的命令数
+     */
+    private static double watchApply(Node replica, int burst) {
+        Database db = replica.server.getDatabase(0);
+        long active = 0;
+        long applied = 0;
+        long first = 0;
+        long last = 0;
+        int firstIndex = 0;
+        for (int i = 0; i < burst; i++) {
+            String key = "burst:" + i;
+            await(() -> db.containsKey(safeKey(key)));
+            long now = System.nanoTime();
+            if (i == 0) {
+                first = now;
+            } else if (now - last > PUSH_GAP) {
+                active += last - first;
+                applied += i - 1 - firstIndex;
+                first = now;
+                firstIndex = i;
+            }
+            last = now;
+        }
+        active += last - first;
+        applied += burst - 1 - firstIndex;
+        return applied / seconds(Math.max(active, 1));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("timeout waiting for replication");
+            }
+            LockSupport.parkNanos(POLL);
+        }
+    }
+
+    private static void print(String metric, double value, String unit) {
+        System.out.println(String.format("%-32s %14.3f %s", metric, value, unit));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000d;
+    }
+
+    private static String value(int size) {
+        StringBuilder value = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            value.append('x');
+        }
+        return value.toString();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index < 1) {
+                throw new IllegalArgumentException("expected name=value: " + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        return options;
+    }
+
+    /**
+     * 一个服务器节点和一个连接到它的客户端，从节点的复制会话属于这个客户端，测量期间保持连接
+     */
+    private static final class Node {
+
+        private final ClauDB server;
+        private final int port;
+        private final Connection client;
+
+        private Node(ClauDB server, int port, Connection client) {
+            this.server = server;
+            this.port = port;
+            this.client = client;
+        }
+
+        static Node start() throws IOException {
+            int port = freePort();
+            ClauDB server = new ClauDB(HOST, port);
+            server.start();
+            return new Node(server, port, Connection.connect(port));
+        }
+
+        void slaveOf(Node master) throws InterruptedException {
+            client.send("slaveof", HOST, String.valueOf(master.port));
+            client.await();
+        }
+
+        /**
+         * 先停止复制再关闭服务器，主节点上执行 SLAVEOF NO ONE 没有影响
+         */
+        void stop() throws InterruptedException {
+            client.send("slaveof", "NO", "ONE");
+            client.await();
+            client.stop();
+            server.stop();
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+
+    /**
+     * 带窗口的流水线连接，最多 {@link #WINDOW} 个命令未返回响应
+     */
+    private static final class Connection implements RespCallback {
+
+        private final Semaphore window = new Semaphore(WINDOW);
+        private RespClient client;
+
+        static Connection connect(int port) {
+            Connection connection = new Connection();
+            connection.client = new RespClient(HOST, port, connection);
+            connection.client.start();
+            return connection;
+        }
+
+        void send(String... command) throws InterruptedException {
+            window.acquire();
+            client.send(command);
+        }
+
+        /**
+         * 等待所有已发送的命令返回响应
+         */
+        void await() throws InterruptedException {
+            window.acquire(WINDOW);
+            window.release(WINDOW);
+        }
+
+        void stop() {
+            client.stop();
+        }
+
+        @Override
+        public void onConnect() {
+            // nothing to do
+        }
+
+        @Override
+        public void onDisconnect() {
+            // nothing to do
+        }
+
+        @Override
+        public void onMessage(RedisToken token) {
+            window.release();
+        }
+    }
+}
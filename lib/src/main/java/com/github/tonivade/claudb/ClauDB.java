@@ -5,12 +5,18 @@
 package com.github.tonivade.claudb;
 
 import com.github.tonivade.claudb.command.DBCommandSuite;
+import com.github.tonivade.claudb.command.DBCommandWrapper;
 import com.github.tonivade.claudb.data.*;
 import com.github.tonivade.claudb.event.Event;
 import com.github.tonivade.claudb.event.NotificationManager;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.claudb.monitor.NetworkStatsHandler;
+import com.github.tonivade.claudb.monitor.ServerStats;
+import com.github.tonivade.claudb.monitor.StatsSampler;
+import com.github.tonivade.claudb.monitor.TraceRecorder;
 import com.github.tonivade.claudb.persistence.PersistenceManager;
 import com.github.tonivade.purefun.Recoverable;
-import com.github.tonivade.purefun.data.ImmutableArray;
+import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.RespServer;
@@ -20,6 +26,9 @@ import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.command.RespCommand;
 import com.github.tonivade.resp.command.Session;
 import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+import com.github.tonivade.resp.protocol.SafeString;
+import io.netty.channel.socket.SocketChannel;
 import io.reactivex.rxjava3.core.Observable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +38,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static com.github.tonivade.purefun.data.Sequence.listOf;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
 import static java.lang.String.valueOf;
@@ -46,6 +60,18 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      * 数据库状态
      */
     private static final String STATE = "state";
+    /**
+     * 事务状态
+     */
+    private static final String TRANSACTION = "tx";
+    /**
+     * 事务提交命令
+     */
+    private static final String EXEC = "exec";
+    /**
+     * del 命令，用于复制被淘汰的键
+     */
+    private static final String DEL = "del";
     /**
      * 日志
      */
@@ -54,6 +80,18 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      * 数据清理器
      */
     private DatabaseCleaner cleaner;
+    /**
+     * 大键扫描器，未开启键分析时为空
+     */
+    private Option<KeyScanner> scanner;
+    /**
+     * 统计采样器
+     */
+    private StatsSampler sampler;
+    /**
+     * 命令跟踪记录器，未开启跟踪时为空
+     */
+    private Option<TraceRecorder> tracer;
     /**
      * 数据持久化
      */
@@ -66,6 +104,14 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      * 数据库配置
      */
     private final DBConfig config;
+    /**
+     * 等待在命令线程中执行的请求，管道中已解码的请求在同一次调度中批量执行
+     */
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * 是否已经提交了批量执行任务
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
 
     public ClauDB() {
         this(DEFAULT_HOST, DEFAULT_PORT);
@@ -76,8 +122,13 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
     }
 
     public ClauDB(String host, int port, DBConfig config) {
-        super(host, port, new DBCommandSuite(), new DBSessionListener());
+        this(host, port, config, new DBSessionListener());
+    }
+
+    private ClauDB(String host, int port, DBConfig config, DBSessionListener listener) {
+        super(host, port, new DBCommandSuite(), listener);
         this.config = config;
+        listener.setServer(this);
     }
 
     /**
@@ -103,6 +154,9 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         persistence.ifPresent(PersistenceManager::start);
         notifications.ifPresent(NotificationManager::start);
         cleaner.start();
+        scanner.ifPresent(KeyScanner::start);
+        sampler.start();
+        tracer.ifPresent(TraceRecorder::start);
     }
 
     /**
@@ -113,12 +167,18 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         persistence.ifPresent(PersistenceManager::stop);
         notifications.ifPresent(NotificationManager::stop);
         cleaner.stop();
+        scanner.ifPresent(KeyScanner::stop);
+        sampler.stop();
+        tracer.ifPresent(TraceRecorder::stop);
 
         getState().clear();
 
         persistence = null;
         notifications = null;
         cleaner = null;
+        scanner = null;
+        sampler = null;
+        tracer = null;
 
         super.stop();
     }
@@ -130,7 +190,7 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      */
     @Override
     public ImmutableList<RedisToken> getCommandsToReplicate() {
-        return executeOn(Observable.<ImmutableList<RedisToken>>create(observable -> {
+        return executeExclusive(Observable.<ImmutableList<RedisToken>>create(observable -> {
             observable.onNext(getState().getCommandsToReplicate());
             observable.onComplete();
         })).blockingFirst();
@@ -178,7 +238,7 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      */
     @Override
     public void exportRDB(OutputStream output) {
-        executeOn(Observable.create(observable -> {
+        executeExclusive(Observable.create(observable -> {
             getState().exportRDB(output);
             observable.onComplete();
         })).blockingSubscribe();
@@ -191,7 +251,7 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      */
     @Override
     public void importRDB(InputStream input) {
-        executeOn(Observable.create(observable -> {
+        executeExclusive(Observable.create(observable -> {
             getState().importRDB(input);
             observable.onComplete();
         })).blockingSubscribe();
@@ -224,8 +284,42 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      */
     @Override
     public void clean(Instant now) {
-        executeOn(Observable.create(observable -> {
+        executeExclusive(Observable.create(observable -> {
+            long start = System.nanoTime();
             getState().evictExpired(now);
+            recordLatency(LatencyMonitor.EXPIRE_CYCLE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            observable.onComplete();
+        })).blockingSubscribe();
+    }
+
+    /**
+     * 记录延迟事件
+     *
+     * @param event  事件名
+     * @param millis 耗时（毫秒）
+     */
+    @Override
+    public void recordLatency(String event, long millis) {
+        serverState().ifPresent(state -> state.getLatencyMonitor().record(event, millis));
+    }
+
+    /**
+     * 服务器运行统计
+     *
+     * @return
+     */
+    @Override
+    public ServerStats getServerStats() {
+        return getState().getServerStats();
+    }
+
+    /**
+     * 大键分析，每次只扫描一批键，缩短独占数据库的时间
+     */
+    @Override
+    public void analyze() {
+        executeExclusive(Observable.create(observable -> {
+            getState().getAnalyzer().scan(getState(), System.currentTimeMillis());
             observable.onComplete();
         })).blockingSubscribe();
     }
@@ -239,38 +333,303 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      */
     @Override
     protected RedisToken executeCommand(RespCommand command, Request request) {
+        trace(request);
+        RedisToken response = execute(command, request);
+        getState().getServerStats().command();
+        return response;
+    }
+
+    /**
+     * 采样记录命令跟踪，未被采样的命令只多一次随机数判断
+     *
+     * @param request Redis 请求
+     */
+    private void trace(Request request) {
+        if (tracer.isPresent() && tracer.get().sample()) {
+            int db = sessionState(request.getSession()).map(DBSessionState::getCurrentDB).getOrElse(0);
+            tracer.get().record(db, request.getCommand(), request.getParams().toList());
+        }
+    }
+
+    private RedisToken execute(RespCommand command, Request request) {
         if (!isReadOnly(request.getCommand())) {
             try {
-                RedisToken response = command.execute(request);
-                replication(request);
-                notification(request);
-                return response;
+                if (!freeMemory(command)) {
+                    reject(command);
+                    return error("OOM command not allowed when used memory > 'maxmemory'.");
+                }
+                if (getState().hasKeySlots() && command instanceof DBCommandWrapper
+                        && !((DBCommandWrapper) command).isSharedRead(getState())) {
+                    // 复制记录在持有键槽锁时追加，保证同一个键的写命令在 AOF 和从库中的顺序
+                    return getState().getSlots().execute(((DBCommandWrapper) command).getKeys(request),
+                            () -> executeAndReplicate(command, request));
+                }
+                return executeAndReplicate(command, request);
             } catch (RuntimeException e) {
                 LOGGER.error("error executing command: " + request, e);
                 return error("error executing command: " + request);
             }
         } else {
+            reject(command);
             return error("READONLY You can't write against a read only slave");
         }
     }
 
+    /**
+     * 分片或并发读模式下命令直接在网络线程中执行，由键槽锁保证同一分片上的写命令串行执行。
+     * 否则请求先进入队列，只有队列空闲时才向命令线程提交一次执行任务，
+     * 命令线程被唤醒时管道中已经到达的请求都在这一次调度中按顺序执行
+     *
+     * @param observable
+     * @param <T>
+     * @return
+     */
+    @Override
+    protected <T> Observable<T> executeOn(Observable<T> observable) {
+        if (hasKeySlots()) {
+            return observable;
+        }
+        return Observable.create(emitter -> {
+            pending.offer(() -> observable.subscribe(emitter::onNext, emitter::onError, emitter::onComplete));
+            if (draining.compareAndSet(false, true)) {
+                super.executeOn(Observable.fromAction(this::drain)).subscribe();
+            }
+        });
+    }
+
+    /**
+     * 在命令线程中执行队列中的全部请求，清除标记后再检查一次队列，
+     * 避免清除标记前追加的请求没有任务执行
+     */
+    private void drain() {
+        do {
+            for (Runnable task = pending.poll(); task != null; task = pending.poll()) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("error executing request", e);
+                }
+            }
+            draining.set(false);
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * 执行需要独占全部数据的操作（RDB 导入导出、过期数据清理等）
+     *
+     * @param observable
+     * @param <T>
+     * @return
+     */
+    private <T> Observable<T> executeExclusive(Observable<T> observable) {
+        if (hasKeySlots()) {
+            return getState().getSlots().executeAll(() -> Observable.fromIterable(observable.toList().blockingGet()));
+        }
+        return executeOn(observable);
+    }
+
+    /**
+     * 写命令执行前按 maxmemory 淘汰键，淘汰的键以 del 命令复制给从库和 AOF。
+     * 分片模式下在获取命令自身的键槽锁之前持有全部键槽锁淘汰，避免与其他分片的写命令并发。
+     * 从库不主动淘汰，由主库复制过来的 del 删除键
+     *
+     * @param command Redis 命令
+     * @return 内存不足且命令会增加内存时返回 false
+     */
+    private boolean freeMemory(RespCommand command) {
+        EvictionManager eviction = getState().getEviction();
+        if (!eviction.isActive() || !isMaster() || !(command instanceof DBCommandWrapper)) {
+            return true;
+        }
+        DBCommandWrapper wrapper = (DBCommandWrapper) command;
+        // 大部分写命令在这里返回，不需要获取全部键槽锁和淘汰锁
+        if (wrapper.isReadOnly() || !eviction.needsEviction()) {
+            return true;
+        }
+        boolean freed;
+        long start = System.nanoTime();
+        if (hasKeySlots()) {
+            freed = getState().getSlots().executeAll(() -> getState().performEvictions(this::evicted));
+        } else {
+            freed = getState().performEvictions(this::evicted);
+        }
+        recordLatency(LatencyMonitor.EVICTION_CYCLE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return freed || !wrapper.isDenyOom();
+    }
+
+    /**
+     * 记录执行前被拒绝的命令
+     *
+     * @param command Redis 命令
+     */
+    private void reject(RespCommand command) {
+        if (command instanceof DBCommandWrapper) {
+            ((DBCommandWrapper) command).getStats(getState()).reject();
+        }
+    }
+
+    /**
+     * 复制被淘汰的键
+     *
+     * @param db  数据库序号
+     * @param key 被淘汰的键
+     */
+    private void evicted(int db, DatabaseKey key) {
+        if (hasReplicationSinks()) {
+            append(RedisToken.array(dbToken(db), RedisToken.string(DEL), RedisToken.string(key.getValue())));
+        }
+    }
+
+    /**
+     * 执行命令，并进行主从复制和事件通知
+     *
+     * @param command Redis 命令
+     * @param request Redis 请求
+     * @return
+     */
+    private RedisToken executeAndReplicate(RespCommand command, Request request) {
+        Option<TransactionState> transaction = transactionState(request.getSession());
+        RedisToken response = command.execute(request);
+        if (transaction.isPresent()) {
+            // 事务中的命令入队时不复制，exec 成功后整个事务作为一条记录复制
+            if (isExec(request) && response.getType() == RedisTokenType.ARRAY) {
+                changed(transaction.get());
+                replication(transaction.get());
+                notification(transaction.get());
+            }
+        } else if (!isExec(request)) {
+            changed(command, response);
+            replication(getCurrentDB(request), propagated(request));
+            notification(request);
+        }
+        return response;
+    }
+
     private boolean isReadOnly(String command) {
         return !isMaster() && !isReadOnlyCommand(command);
     }
 
     /**
-     * 进行主从复制
+     * 是否开启了键槽分片或并发读
      *
-     * @param request 主从复制请求
+     * @return
      */
-    private void replication(Request request) {
-        if (!isReadOnlyCommand(request.getCommand())) {
-            RedisToken array = requestToArray(request);
-            if (hasSlaves()) {
-                getState().append(array);
+    private boolean hasKeySlots() {
+        return serverState().map(DBServerState::hasKeySlots).getOrElse(false);
+    }
+
+    /**
+     * 是否为 exec 命令
+     *
+     * @param request Redis 请求
+     * @return
+     */
+    private boolean isExec(Request request) {
+        return EXEC.equalsIgnoreCase(request.getCommand());
+    }
+
+    /**
+     * 进行主从复制，一个请求改写为多个等价请求时与事务一样合并为一条记录
+     *
+     * @param db       执行时所在的数据库序号
+     * @param requests 主从复制请求
+     */
+    private void replication(int db, ImmutableList<Request> requests) {
+        if (!hasReplicationSinks()) {
+            return;
+        }
+        List<RedisToken> commands = new ArrayList<>();
+        for (Request request : requests) {
+            if (!isReadOnlyCommand(request.getCommand())) {
+                commands.add(requestToArray(db, request));
+            }
+        }
+        if (commands.size() == 1) {
+            append(commands.get(0));
+        } else if (!commands.isEmpty()) {
+            append(RedisToken.array(commands));
+        }
+    }
+
+    /**
+     * 请求用于复制和持久化的形式，见 {@link DBSessionState#propagated(Request)}
+     *
+     * @param request 已执行的请求
+     * @return
+     */
+    private ImmutableList<Request> propagated(Request request) {
+        return sessionState(request.getSession()).map(state -> state.propagated(request))
+                .getOrElse(() -> ImmutableList.of(request));
+    }
+
+    /**
+     * 进行事务的主从复制，事务中所有写命令合并为一条记录，
+     * 保证从库和 AOF 文件中事务的原子性
+     *
+     * @param transaction 已提交的事务
+     */
+    private void replication(TransactionState transaction) {
+        if (!hasReplicationSinks()) {
+            return;
+        }
+        List<RedisToken> commands = new ArrayList<>();
+        for (Tuple2<Integer, Request> executed : transaction.getExecuted()) {
+            if (!isReadOnlyCommand(executed.get2().getCommand())) {
+                commands.add(requestToArray(executed.get1(), executed.get2()));
+            }
+        }
+        if (!commands.isEmpty()) {
+            append(RedisToken.array(commands));
+        }
+    }
+
+    /**
+     * 统计执行成功的写命令，用于 info 命令的 rdb_changes_since_last_save
+     *
+     * @param command  Redis 命令
+     * @param response 命令响应
+     */
+    private void changed(RespCommand command, RedisToken response) {
+        if (command instanceof DBCommandWrapper && !((DBCommandWrapper) command).isReadOnly()
+                && response.getType() != RedisTokenType.ERROR) {
+            getState().getServerStats().changed(1);
+        }
+    }
+
+    /**
+     * 统计已提交事务中的写命令
+     *
+     * @param transaction 已提交的事务
+     */
+    private void changed(TransactionState transaction) {
+        int count = 0;
+        for (Tuple2<Integer, Request> executed : transaction.getExecuted()) {
+            if (!isReadOnlyCommand(executed.get2().getCommand())) {
+                count++;
             }
-            persistence.ifPresent(manager -> manager.append(array));
         }
+        getState().getServerStats().changed(count);
+    }
+
+    /**
+     * 是否需要生成复制记录，既没有从节点也没有开启持久化时不必构造记录
+     *
+     * @return
+     */
+    private boolean hasReplicationSinks() {
+        return persistence.isPresent() || hasSlaves();
+    }
+
+    /**
+     * 将记录发送给从节点并写入持久化文件
+     *
+     * @param record 记录
+     */
+    private void append(RedisToken record) {
+        if (hasSlaves()) {
+            getState().append(record);
+        }
+        persistence.ifPresent(manager -> manager.append(record));
     }
 
     /**
@@ -279,8 +638,29 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      * @param request
      */
     private void notification(Request request) {
+        notification(getCurrentDB(request), request);
+    }
+
+    /**
+     * 进行事务中各命令的事件通知
+     *
+     * @param transaction 已提交的事务
+     */
+    private void notification(TransactionState transaction) {
+        for (Tuple2<Integer, Request> executed : transaction.getExecuted()) {
+            notification(executed.get1(), executed.get2());
+        }
+    }
+
+    /**
+     * 进行事件通知
+     *
+     * @param db      数据库序号
+     * @param request Redis 请求
+     */
+    private void notification(int db, Request request) {
         if (!isReadOnlyCommand(request.getCommand()) && request.getLength() > 1) {
-            notifications.ifPresent(manager -> publishEvent(manager, request));
+            notifications.ifPresent(manager -> publishEvent(manager, db, request));
         }
     }
 
@@ -298,53 +678,51 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
      * 发布事件
      *
      * @param manager 通知管理器
+     * @param db      数据库序号
      * @param request Redis 请求
      */
-    private void publishEvent(NotificationManager manager, Request request) {
-        manager.enqueue(createKeyEvent(request));
-        manager.enqueue(createCommandEvent(request));
+    private void publishEvent(NotificationManager manager, int db, Request request) {
+        manager.enqueue(createKeyEvent(db, request));
+        manager.enqueue(createCommandEvent(db, request));
     }
 
     /**
      * 创建 Key 事件
      *
+     * @param db      数据库序号
      * @param request Redis 请求
      * @return
      */
-    private Event createKeyEvent(Request request) {
-        return Event.keyEvent(safeString(request.getCommand()), request.getParam(0), currentDB(request));
+    private Event createKeyEvent(int db, Request request) {
+        return Event.keyEvent(safeString(request.getCommand()), request.getParam(0), db);
     }
 
     /**
      * 创建命令事件
      *
+     * @param db      数据库序号
      * @param request Redis 请求
      * @return
      */
-    private Event createCommandEvent(Request request) {
-        return Event.commandEvent(safeString(request.getCommand()), request.getParam(0), currentDB(request));
-    }
-
-    /**
-     * 获取当前数据库
-     *
-     * @param request Redis 请求
-     * @return
-     */
-    private Integer currentDB(Request request) {
-        return getSessionState(request.getSession()).getCurrentDB();
+    private Event createCommandEvent(int db, Request request) {
+        return Event.commandEvent(safeString(request.getCommand()), request.getParam(0), db);
     }
 
     /**
      * 将 Redis 请求转为数组
      *
+     * @param db      数据库序号
      * @param request Redis 请求
      * @return
      */
-    private RedisToken requestToArray(Request request) {
-        return RedisToken.array(listOf(currentDbToken(request))
-                .append(commandToken(request))
-                .appendAll(paramTokens(request)));
+    private RedisToken requestToArray(int db, Request request) {
+        List<RedisToken> tokens = new ArrayList<>(request.getLength() + 2);
+        tokens.add(dbToken(db));
+        tokens.add(commandToken(request));
+        for (SafeString param : request.getParams()) {
+            tokens.add(RedisToken.string(param));
+        }
+        return RedisToken.array(tokens);
     }
 
     /**
@@ -358,13 +736,13 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
     }
 
     /**
-     * 将当前数据库转为 String 类型
+     * 将数据库序号转为 String 类型
      *
-     * @param request Redis 请求
+     * @param db 数据库序号
      * @return
      */
-    private RedisToken currentDbToken(Request request) {
-        return RedisToken.string(valueOf(getCurrentDB(request)));
+    private RedisToken dbToken(int db) {
+        return RedisToken.string(valueOf(db));
     }
 
     /**
@@ -377,16 +755,6 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         return getSessionState(request.getSession()).getCurrentDB();
     }
 
-    /**
-     * 将 Redis 请求参数转为 String 类型，并存入不可变数组
-     *
-     * @param request
-     * @return
-     */
-    private ImmutableArray<RedisToken> paramTokens(Request request) {
-        return request.getParams().map(RedisToken::string);
-    }
-
     /**
      * 数据库 Session 状态
      *
@@ -407,6 +775,16 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         return session.getValue(STATE);
     }
 
+    /**
+     * Session 中进行中的事务
+     *
+     * @param session Session 会话
+     * @return
+     */
+    private Option<TransactionState> transactionState(Session session) {
+        return session.getValue(TRANSACTION);
+    }
+
     /**
      * 服务器状态
      *
@@ -449,11 +827,21 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
     private void init() {
         DatabaseFactory factory = initFactory();
 
-        putValue(STATE, new DBServerState(factory, config.getNumDatabases()));
+        putValue(STATE, new DBServerState(factory, config.getNumDatabases(),
+                config.getShards(), config.isConcurrentReadsActive(),
+                new EvictionManager(config.getMaxMemory(), config.getMaxMemoryPolicy()),
+                config.isKeyAnalyzerActive() ? new KeyAnalyzer() : KeyAnalyzer.disabled()));
+        getState().getLatencyMonitor().setThreshold(config.getLatencyMonitorThreshold());
+        getState().getSlowLog().setSlowerThan(config.getSlowLogSlowerThan());
+        getState().getSlowLog().setMaxLen(config.getSlowLogMaxLen());
+        getState().getServerStats().setAofEnabled(config.isPersistenceActive());
 
         initPersistence();
         initNotifications();
         initCleaner();
+        initScanner();
+        initSampler();
+        initTracer();
     }
 
     /**
@@ -463,6 +851,35 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         this.cleaner = new DatabaseCleaner(this, config);
     }
 
+    /**
+     * 初始化大键扫描器
+     */
+    private void initScanner() {
+        if (config.isKeyAnalyzerActive()) {
+            this.scanner = Option.some(new KeyScanner(this));
+        } else {
+            this.scanner = Option.none();
+        }
+    }
+
+    /**
+     * 初始化统计采样器
+     */
+    private void initSampler() {
+        this.sampler = new StatsSampler(getState().getServerStats());
+    }
+
+    /**
+     * 初始化命令跟踪
+     */
+    private void initTracer() {
+        if (config.isTraceActive()) {
+            this.tracer = Option.some(new TraceRecorder(config.getTraceFile(), config.getTraceSampleRate()));
+        } else {
+            this.tracer = Option.none();
+        }
+    }
+
     /**
      * 初始化事件通知
      */
@@ -493,9 +910,12 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
     private DatabaseFactory initFactory() {
         DatabaseFactory factory;
         if (config.isOffHeapActive()) {
-            factory = new OffHeapDatabaseFactory();
+            factory = new OffHeapDatabaseFactory(config.getMaxMemory());
+        } else if (config.isCompactActive() && !config.isConcurrentReadsActive()) {
+            // 紧凑键空间不是线程安全的，开启并发读时仍然使用 ConcurrentHashMap
+            factory = new CompactDatabaseFactory();
         } else {
-            factory = new OnHeapDatabaseFactory();
+            factory = new OnHeapDatabaseFactory(config.isConcurrentReadsActive());
         }
         return factory;
     }
@@ -506,12 +926,23 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
     private static final class DBSessionListener implements SessionListener {
 
         /**
-         * 删除会话
+         * 数据库服务器
+         */
+        private ClauDB server;
+
+        private void setServer(ClauDB server) {
+            this.server = server;
+        }
+
+        /**
+         * 删除会话，同时取消该会话 watch 的所有键
          *
          * @param session Session 会话
          */
         @Override
         public void sessionDeleted(Session session) {
+            server.serverState().ifPresent(
+                    state -> server.sessionState(session).ifPresent(state::unwatch));
             session.destroy();
         }
 
@@ -583,12 +1014,19 @@ public final class ClauDB extends RespServerContext implements DBServerContext {
         }
 
         /**
-         * 创建响应服务
+         * 创建响应服务，每个连接的管道最前面加上网络流量统计
          *
          * @return
          */
         public RespServer build() {
-            return new RespServer(new ClauDB(host, port, config));
+            ClauDB db = new ClauDB(host, port, config);
+            return new RespServer(db) {
+                @Override
+                public void channel(SocketChannel channel) {
+                    super.channel(channel);
+                    channel.pipeline().addFirst(new NetworkStatsHandler(db.getServerStats()));
+                }
+            };
         }
     }
 }
@@ -4,6 +4,9 @@
  */
 package com.github.tonivade.claudb;
 
+import com.github.tonivade.claudb.data.EvictionPolicy;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.claudb.monitor.TraceRecorder;
 
 /**
  * @author zhou <br/>
@@ -48,6 +51,10 @@ public class DBConfig {
      * 堆外空间激活
      */
     private boolean offHeapActive;
+    /**
+     * 是否使用紧凑的堆上键空间
+     */
+    private boolean compactActive;
     /**
      * RDF 持久化文件
      */
@@ -64,6 +71,46 @@ public class DBConfig {
      * 清理时间
      */
     private int cleanPeriod = DEFAULT_CLEAN_PERIOD;
+    /**
+     * 键槽分片数，小于 2 时不开启分片，所有命令在单线程中执行
+     */
+    private int shards;
+    /**
+     * 是否开启并发读
+     */
+    private boolean concurrentReadsActive;
+    /**
+     * 内存上限（字节），0 表示不限制
+     */
+    private long maxMemory;
+    /**
+     * 达到内存上限时的淘汰策略
+     */
+    private EvictionPolicy maxMemoryPolicy = EvictionPolicy.NOEVICTION;
+    /**
+     * 是否开启大键和热键分析
+     */
+    private boolean keyAnalyzerActive;
+    /**
+     * 延迟监控阈值（毫秒），0 表示关闭
+     */
+    private int latencyMonitorThreshold;
+    /**
+     * 慢查询阈值（微秒），负数表示关闭
+     */
+    private long slowLogSlowerThan = SlowLog.DEFAULT_SLOWER_THAN;
+    /**
+     * 慢查询日志保留的记录数
+     */
+    private int slowLogMaxLen = SlowLog.DEFAULT_MAX_LEN;
+    /**
+     * 命令跟踪文件，为空表示关闭
+     */
+    private String traceFile;
+    /**
+     * 命令跟踪采样率，每 traceSampleRate 个命令采样一个
+     */
+    private int traceSampleRate = TraceRecorder.DEFAULT_SAMPLE_RATE;
 
     public boolean isPersistenceActive() {
         return persistenceActive;
@@ -89,6 +136,14 @@ public class DBConfig {
         this.offHeapActive = offHeapActive;
     }
 
+    public boolean isCompactActive() {
+        return compactActive;
+    }
+
+    public void setCompactActive(boolean compactActive) {
+        this.compactActive = compactActive;
+    }
+
     public String getRdbFile() {
         return rdbFile;
     }
@@ -129,6 +184,90 @@ public class DBConfig {
         this.cleanPeriod = cleanPeriod;
     }
 
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public boolean isConcurrentReadsActive() {
+        return concurrentReadsActive;
+    }
+
+    public void setConcurrentReadsActive(boolean concurrentReadsActive) {
+        this.concurrentReadsActive = concurrentReadsActive;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public EvictionPolicy getMaxMemoryPolicy() {
+        return maxMemoryPolicy;
+    }
+
+    public void setMaxMemoryPolicy(EvictionPolicy maxMemoryPolicy) {
+        this.maxMemoryPolicy = maxMemoryPolicy;
+    }
+
+    public boolean isKeyAnalyzerActive() {
+        return keyAnalyzerActive;
+    }
+
+    public void setKeyAnalyzerActive(boolean keyAnalyzerActive) {
+        this.keyAnalyzerActive = keyAnalyzerActive;
+    }
+
+    public int getLatencyMonitorThreshold() {
+        return latencyMonitorThreshold;
+    }
+
+    public void setLatencyMonitorThreshold(int latencyMonitorThreshold) {
+        this.latencyMonitorThreshold = latencyMonitorThreshold;
+    }
+
+    public long getSlowLogSlowerThan() {
+        return slowLogSlowerThan;
+    }
+
+    public void setSlowLogSlowerThan(long slowLogSlowerThan) {
+        this.slowLogSlowerThan = slowLogSlowerThan;
+    }
+
+    public int getSlowLogMaxLen() {
+        return slowLogMaxLen;
+    }
+
+    public void setSlowLogMaxLen(int slowLogMaxLen) {
+        this.slowLogMaxLen = slowLogMaxLen;
+    }
+
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    public void setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    public int getTraceSampleRate() {
+        return traceSampleRate;
+    }
+
+    public void setTraceSampleRate(int traceSampleRate) {
+        this.traceSampleRate = traceSampleRate;
+    }
+
+    public boolean isTraceActive() {
+        return traceFile != null;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -173,6 +312,16 @@ public class DBConfig {
             return this;
         }
 
+        /**
+         * 使用紧凑的堆上键空间，键和字符串值直接保存为 byte[]，不能与并发读同时使用
+         *
+         * @return
+         */
+        public Builder withCompactKeyspace() {
+            config.setCompactActive(true);
+            return this;
+        }
+
         /**
          * 开启事件通知
          *
@@ -183,6 +332,87 @@ public class DBConfig {
             return this;
         }
 
+        /**
+         * 开启键槽分片，命令在网络线程中按键所在的分片加锁执行
+         *
+         * @param shards 分片数
+         * @return
+         */
+        public Builder withShards(int shards) {
+            config.setShards(shards);
+            return this;
+        }
+
+        /**
+         * 开启并发读，带键的只读命令在网络线程中加键槽读锁并发执行，写命令仍然串行执行
+         *
+         * @return
+         */
+        public Builder withConcurrentReads() {
+            config.setConcurrentReadsActive(true);
+            return this;
+        }
+
+        /**
+         * 设置内存上限，超过上限时按淘汰策略淘汰键，noeviction 策略下拒绝会增加内存的写命令
+         *
+         * @param maxMemory 内存上限（字节）
+         * @param policy    淘汰策略
+         * @return
+         */
+        public Builder withMaxMemory(long maxMemory, EvictionPolicy policy) {
+            config.setMaxMemory(maxMemory);
+            config.setMaxMemoryPolicy(policy);
+            return this;
+        }
+
+        /**
+         * 开启大键和热键分析，后台限速扫描键的大小并采样统计键的访问次数
+         *
+         * @return
+         */
+        public Builder withKeyAnalyzer() {
+            config.setKeyAnalyzerActive(true);
+            return this;
+        }
+
+        /**
+         * 开启延迟监控，耗时不低于阈值的命令、AOF 写入、RDB 导出、过期清理和淘汰记为延迟事件
+         *
+         * @param threshold 阈值（毫秒）
+         * @return
+         */
+        public Builder withLatencyMonitor(int threshold) {
+            config.setLatencyMonitorThreshold(threshold);
+            return this;
+        }
+
+        /**
+         * 设置慢查询日志
+         *
+         * @param slowerThan 阈值（微秒），负数表示关闭，0 表示记录全部命令
+         * @param maxLen     保留的记录数
+         * @return
+         */
+        public Builder withSlowLog(long slowerThan, int maxLen) {
+            config.setSlowLogSlowerThan(slowerThan);
+            config.setSlowLogMaxLen(maxLen);
+            return this;
+        }
+
+        /**
+         * 开启命令跟踪，采样的命令写入跟踪文件，可以用 TraceReplay 离线重放
+         *
+         * @param file       跟踪文件
+         * @param sampleRate 每 sampleRate 个命令采样一个
+         * @return
+         */
+        public Builder withTrace(String file, int sampleRate) {
+            config.setTraceFile(file);
+            config.setTraceSampleRate(sampleRate);
+            return this;
+        }
+
         public DBConfig build() {
             return config;
         }
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb;
 
 import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.resp.command.ServerContext;
 import com.github.tonivade.resp.protocol.RedisToken;
@@ -97,4 +98,24 @@ public interface DBServerContext extends ServerContext {
      * @param now
      */
     void clean(Instant now);
+
+    /**
+     * 大键分析，扫描一批键
+     */
+    void analyze();
+
+    /**
+     * 记录延迟事件，耗时低于延迟监控阈值时忽略
+     *
+     * @param event  事件名
+     * @param millis 耗时（毫秒）
+     */
+    void recordLatency(String event, long millis);
+
+    /**
+     * 服务器运行统计
+     *
+     * @return
+     */
+    ServerStats getServerStats();
 }
@@ -8,8 +8,18 @@ import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseFactory;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.EvictingDatabase;
+import com.github.tonivade.claudb.data.EvictionManager;
+import com.github.tonivade.claudb.data.KeyAnalyzer;
+import com.github.tonivade.claudb.data.ShardedDatabaseFactory;
+import com.github.tonivade.claudb.monitor.CommandMonitor;
+import com.github.tonivade.claudb.monitor.ExpireCycleEvent;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.claudb.monitor.ServerStats;
+import com.github.tonivade.claudb.monitor.SlowLog;
 import com.github.tonivade.claudb.persistence.RDBInputStream;
 import com.github.tonivade.claudb.persistence.RDBOutputStream;
+import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableMap;
 import com.github.tonivade.purefun.data.ImmutableSet;
@@ -22,6 +32,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.*;
@@ -71,19 +82,120 @@ public class DBServerState {
      * 命令队列
      */
     private final Queue<RedisToken> queue = new LinkedList<>();
+    /**
+     * 被 watch 的键及其会话，按数据库序号分组
+     */
+    private final Map<Integer, Map<DatabaseKey, Set<DBSessionState>>> watchedKeys = new HashMap<>();
+    /**
+     * 正在 watch 的会话数，为 0 时写命令无需访问 watch 注册表
+     */
+    private volatile int watchingSessions;
+    /**
+     * 从节点个数，避免每次写命令都读取 admin 数据库中的从节点集合
+     */
+    private volatile int slaves;
+    /**
+     * 键槽锁，未开启分片和并发读时为 null
+     */
+    private final KeySlots slots;
+    /**
+     * 是否开启并发读，带键的只读命令不加锁执行
+     */
+    private final boolean concurrentReads;
+    /**
+     * maxmemory 内存管理，admin 数据库不计入内存占用也不会被淘汰
+     */
+    private final EvictionManager eviction;
+    /**
+     * 大键和热键分析
+     */
+    private final KeyAnalyzer analyzer;
+    /**
+     * 命令执行统计
+     */
+    private final CommandMonitor commandMonitor = new CommandMonitor();
+    /**
+     * 延迟事件监控
+     */
+    private final LatencyMonitor latencyMonitor = new LatencyMonitor();
+    /**
+     * 慢查询日志
+     */
+    private final SlowLog slowLog = new SlowLog();
+    /**
+     * 服务器运行统计
+     */
+    private final ServerStats serverStats;
 
     public DBServerState(DatabaseFactory factory, int numDatabases) {
+        this(factory, numDatabases, 0, false);
+    }
+
+    public DBServerState(DatabaseFactory factory, int numDatabases, int shards, boolean concurrentReads) {
+        this(factory, numDatabases, shards, concurrentReads, EvictionManager.unlimited());
+    }
+
+    public DBServerState(DatabaseFactory factory, int numDatabases, int shards, boolean concurrentReads,
+                         EvictionManager eviction) {
+        this(factory, numDatabases, shards, concurrentReads, eviction, KeyAnalyzer.disabled());
+    }
+
+    public DBServerState(DatabaseFactory factory, int numDatabases, int shards, boolean concurrentReads,
+                         EvictionManager eviction, KeyAnalyzer analyzer) {
         this.factory = factory;
         this.admin = factory.create("admin");
+        this.concurrentReads = concurrentReads;
+        this.eviction = eviction;
+        this.analyzer = analyzer;
+        this.serverStats = new ServerStats(numDatabases);
+        this.slots = shards > 1 || concurrentReads ? new KeySlots(Math.max(shards, 1)) : null;
+        DatabaseFactory dbFactory = shards > 1 ? new ShardedDatabaseFactory(factory, shards) : factory;
         for (int i = 0; i < numDatabases; i++) {
-            this.databases.add(factory.create("db-" + i));
+            Database db = dbFactory.create("db-" + i);
+            this.databases.add(eviction.isActive() ? new EvictingDatabase(db, i, eviction) : db);
         }
     }
 
-    public void append(RedisToken command) {
+    public synchronized void append(RedisToken command) {
         queue.offer(command);
     }
 
+    public boolean hasKeySlots() {
+        return slots != null;
+    }
+
+    public KeySlots getSlots() {
+        return slots;
+    }
+
+    public boolean isConcurrentReads() {
+        return concurrentReads;
+    }
+
+    public EvictionManager getEviction() {
+        return eviction;
+    }
+
+    public KeyAnalyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public CommandMonitor getCommandMonitor() {
+        return commandMonitor;
+    }
+
+    public LatencyMonitor getLatencyMonitor() {
+        return latencyMonitor;
+    }
+
+    public SlowLog getSlowLog() {
+        return slowLog;
+    }
+
+    public ServerStats getServerStats() {
+        return serverStats;
+    }
+
     public void setMaster(boolean master) {
         this.master = master;
     }
@@ -100,13 +212,60 @@ public class DBServerState {
         return databases.get(id);
     }
 
+    public int getNumDatabases() {
+        return databases.size();
+    }
+
+    /**
+     * 全部数据库中键和值的内存占用估算
+     *
+     * @return
+     */
+    public long getDatasetMemory() {
+        long size = 0;
+        for (Database db : databases) {
+            size += db.usedMemory();
+        }
+        return size;
+    }
+
+    /**
+     * 存储结构和 admin 数据库（从节点、脚本等）的内存占用估算
+     *
+     * @return
+     */
+    public long getOverheadMemory() {
+        long size = admin.usedMemory() + admin.overheadMemory();
+        for (Database db : databases) {
+            size += db.overheadMemory();
+        }
+        return size;
+    }
+
+    public long getUsedMemory() {
+        return getDatasetMemory() + getOverheadMemory();
+    }
+
+    /**
+     * 已删除的过期键数，包括定期清理删除的和读取时删除的
+     *
+     * @return
+     */
+    public long getExpiredKeys() {
+        long keys = serverStats.getExpiredKeys();
+        for (Database db : databases) {
+            keys += db.expiredKeys();
+        }
+        return keys;
+    }
+
     public void clear() {
         databases.clear();
         factory.clear();
     }
 
     public boolean hasSlaves() {
-        return !admin.getSet(SLAVES).isEmpty();
+        return slaves > 0;
     }
 
     public void exportRDB(OutputStream output) throws IOException {
@@ -157,22 +316,142 @@ public class DBServerState {
     public void addSlave(String id) {
         getAdminDatabase().merge(SLAVES_KEY, set(safeString(id)),
                 (oldValue, newValue) -> set(oldValue.getSet().appendAll(newValue.getSet())));
+        slaves = getSlaves().size();
     }
 
     public void removeSlave(String id) {
         getAdminDatabase().merge(SLAVES_KEY, set(safeString(id)),
                 (oldValue, newValue) -> set(oldValue.getSet().difference(newValue.getSet())));
+        slaves = getSlaves().size();
     }
 
-    public ImmutableList<RedisToken> getCommandsToReplicate() {
+    public synchronized ImmutableList<RedisToken> getCommandsToReplicate() {
         ImmutableList<RedisToken> list = ImmutableList.from(queue);
         queue.clear();
         return list;
     }
 
+    /**
+     * 删除已过期的键，遍历时顺便统计每个数据库设置了过期时间的键个数和平均剩余时间
+     *
+     * @param now 当前时刻
+     */
     public void evictExpired(Instant now) {
-        for (Database database : databases) {
-            database.evictableKeys(now).forEach(database::remove);
+        ExpireCycleEvent event = new ExpireCycleEvent();
+        event.begin();
+        long scanned = 0;
+        long removed = 0;
+        for (int i = 0; i < databases.size(); i++) {
+            Database database = databases.get(i);
+            List<DatabaseKey> expired = new ArrayList<>();
+            long expires = 0;
+            long ttlSum = 0;
+            for (Tuple2<DatabaseKey, DatabaseValue> entry : database.entrySet()) {
+                DatabaseValue value = entry.get2();
+                scanned++;
+                if (value.isExpired(now)) {
+                    expired.add(entry.get1());
+                } else if (value.getExpiredAt() != null) {
+                    expires++;
+                    ttlSum += value.timeToLiveMillis(now);
+                }
+            }
+            expired.forEach(database::remove);
+            if (hasWatchedKeys()) {
+                int db = i;
+                expired.forEach(key -> touch(db, key));
+            }
+            serverStats.expired(expired.size());
+            serverStats.keyspace(i, expires, ttlSum);
+            removed += expired.size();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(scanned, removed);
+            event.commit();
+        }
+    }
+
+    public boolean hasWatchedKeys() {
+        return watchingSessions > 0;
+    }
+
+    public synchronized void watch(DBSessionState session, int db, DatabaseKey key) {
+        boolean watching = session.isWatching();
+        if (session.addWatchedKey(db, key)) {
+            watchedKeys.computeIfAbsent(db, i -> new HashMap<>())
+                    .computeIfAbsent(key, k -> new HashSet<>()).add(session);
+        }
+        if (!watching) {
+            watchingSessions++;
+        }
+    }
+
+    /**
+     * watch 一个键，键带有过期时间时记录下来，过期后即使键还没有被删除，事务也会失败
+     *
+     * @param session   会话
+     * @param db        数据库序号
+     * @param key       键
+     * @param expiredAt 键的过期时间，没有过期时间时为 null
+     */
+    public synchronized void watch(DBSessionState session, int db, DatabaseKey key, Instant expiredAt) {
+        watch(session, db, key);
+        if (expiredAt != null) {
+            session.watchUntil(expiredAt.toEpochMilli());
+        }
+    }
+
+    /**
+     * 按 maxmemory 淘汰键，被淘汰的键使 watch 它的事务失败。
+     * 调用方需要保证执行期间没有其他线程写入数据库
+     *
+     * @param evicted 每淘汰一个键时回调，参数为数据库序号和键
+     * @return 内存低于上限时返回 true
+     */
+    public boolean performEvictions(BiConsumer<Integer, DatabaseKey> evicted) {
+        return eviction.performEvictions((db, key) -> {
+            if (hasWatchedKeys()) {
+                touch(db, key);
+            }
+            evicted.accept(db, key);
+        });
+    }
+
+    public synchronized void unwatch(DBSessionState session) {
+        if (!session.isWatching()) {
+            session.clearWatchedKeys();
+            return;
+        }
+        for (Map.Entry<Integer, Set<DatabaseKey>> entry : session.getWatchedKeys().entrySet()) {
+            Map<DatabaseKey, Set<DBSessionState>> keys = watchedKeys.get(entry.getKey());
+            if (keys != null) {
+                for (DatabaseKey key : entry.getValue()) {
+                    Set<DBSessionState> sessions = keys.get(key);
+                    if (sessions != null && sessions.remove(session) && sessions.isEmpty()) {
+                        keys.remove(key);
+                    }
+                }
+            }
+        }
+        session.clearWatchedKeys();
+        watchingSessions--;
+    }
+
+    public synchronized void touch(int db, DatabaseKey key) {
+        Map<DatabaseKey, Set<DBSessionState>> keys = watchedKeys.get(db);
+        if (keys != null) {
+            Set<DBSessionState> sessions = keys.remove(key);
+            if (sessions != null) {
+                sessions.forEach(DBSessionState::markDirty);
+            }
+        }
+    }
+
+    public synchronized void touchAll(int db) {
+        Map<DatabaseKey, Set<DBSessionState>> keys = watchedKeys.remove(db);
+        if (keys != null) {
+            keys.values().forEach(sessions -> sessions.forEach(DBSessionState::markDirty));
         }
     }
 }
@@ -4,11 +4,17 @@
  */
 package com.github.tonivade.claudb;
 
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.KeyLookupDatabase;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableSet;
 import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.SafeString;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -26,6 +32,31 @@ public class DBSessionState {
      * 订阅集合
      */
     private final Set<SafeString> subscriptions = new HashSet<>();
+    /**
+     * 被 watch 的键，按数据库序号分组
+     */
+    private final Map<Integer, Set<DatabaseKey>> watchedKeys = new HashMap<>();
+    /**
+     * 被 watch 的键是否已被修改
+     */
+    private boolean dirty;
+    /**
+     * 被 watch 的键中最早的过期时间戳，读取时惰性删除的过期键不经过 touch，exec 时按时间判断
+     */
+    private long watchDeadline = Long.MAX_VALUE;
+    /**
+     * 会话所属的服务器状态，首次执行命令时解析并缓存
+     */
+    private DBServerState serverState;
+    /**
+     * 单键查找视图，带类型的命令复用类型检查时的查找结果
+     */
+    private final KeyLookupDatabase lookup = new KeyLookupDatabase();
+    /**
+     * 正在执行的请求和复制、持久化时代替它的请求
+     */
+    private Request executing;
+    private ImmutableList<Request> propagated;
 
     public int getCurrentDB() {
         return db;
@@ -50,4 +81,84 @@ public class DBSessionState {
     public boolean isSubscribed() {
         return !subscriptions.isEmpty();
     }
+
+    public DBServerState getServerState() {
+        return serverState;
+    }
+
+    public void setServerState(DBServerState serverState) {
+        this.serverState = serverState;
+    }
+
+    public KeyLookupDatabase getLookup() {
+        return lookup;
+    }
+
+    /**
+     * 命令的执行结果依赖时钟等不确定的因素时（如 xadd 自动生成的 ID），
+     * 复制到从库和写入 AOF 的改为结果确定的等价请求
+     *
+     * @param request     正在执行的请求
+     * @param replacement 代替它复制和持久化的请求
+     */
+    public void propagate(Request request, Request replacement) {
+        propagate(request, ImmutableList.of(replacement));
+    }
+
+    /**
+     * 与 {@link #propagate(Request, Request)} 相同，但一个请求改写为多个等价请求（如 xreadgroup），
+     * 这些请求作为一条记录复制和持久化，从库和 AOF 重放时一起执行
+     *
+     * @param request      正在执行的请求
+     * @param replacements 代替它复制和持久化的请求
+     */
+    public void propagate(Request request, ImmutableList<Request> replacements) {
+        this.executing = request;
+        this.propagated = replacements;
+    }
+
+    /**
+     * 取出请求用于复制和持久化的形式，没有代替的请求时返回只包含请求本身的列表。
+     * 只有与 {@link #propagate(Request, Request)} 时相同的请求才会被代替，
+     * 脚本中执行的命令不会影响 eval 本身的复制
+     *
+     * @param request 已执行的请求
+     * @return
+     */
+    public ImmutableList<Request> propagated(Request request) {
+        ImmutableList<Request> result = executing == request ? propagated : ImmutableList.of(request);
+        executing = null;
+        propagated = null;
+        return result;
+    }
+
+    public boolean isWatching() {
+        return !watchedKeys.isEmpty();
+    }
+
+    public boolean isDirty() {
+        return dirty || System.currentTimeMillis() > watchDeadline;
+    }
+
+    Map<Integer, Set<DatabaseKey>> getWatchedKeys() {
+        return watchedKeys;
+    }
+
+    boolean addWatchedKey(int db, DatabaseKey key) {
+        return watchedKeys.computeIfAbsent(db, i -> new HashSet<>()).add(key);
+    }
+
+    void watchUntil(long expiredAt) {
+        watchDeadline = Math.min(watchDeadline, expiredAt);
+    }
+
+    void markDirty() {
+        this.dirty = true;
+    }
+
+    void clearWatchedKeys() {
+        watchedKeys.clear();
+        dirty = false;
+        watchDeadline = Long.MAX_VALUE;
+    }
 }
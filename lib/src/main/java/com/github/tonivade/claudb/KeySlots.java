@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.ShardedDatabase;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.type.Option;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 键槽锁，分片模式下每个分片对应一把读写锁。
+ * 写命令加写锁：单键命令只锁定键所在的分片，多键命令按槽号升序加锁以避免死锁，
+ * 无法确定键的命令（exec、eval、flushdb 等）锁定全部分片。
+ * 并发读模式下的只读命令加读锁，彼此之间并发执行，但不会与同一分片上的写命令交错，
+ * 因此看不到执行到一半的 exec、脚本或 mset。
+ */
+public final class KeySlots {
+
+    /**
+     * 每个分片一把可重入的读写锁，exec 和脚本中嵌套执行的命令可以重复加锁，
+     * 持有写锁时也可以再加读锁
+     */
+    private final ReentrantReadWriteLock[] locks;
+
+    public KeySlots(int size) {
+        this.locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            this.locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * 分片数
+     *
+     * @return
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    /**
+     * 锁定键所在的分片并执行
+     *
+     * @param keys   命令涉及的键，none 表示锁定全部分片
+     * @param action 执行的操作
+     * @param <T>
+     * @return
+     */
+    public <T> T execute(Option<ImmutableList<DatabaseKey>> keys, Supplier<T> action) {
+        return execute(keys, false, action);
+    }
+
+    /**
+     * 锁定单个键所在的分片并执行，单键命令不需要构造键列表和槽号数组
+     *
+     * @param key    命令涉及的键
+     * @param action 执行的操作
+     * @param <T>
+     * @return
+     */
+    public <T> T execute(DatabaseKey key, Supplier<T> action) {
+        return execute(key, false, action);
+    }
+
+    /**
+     * 以读锁锁定键所在的分片并执行，用于并发读
+     *
+     * @param keys   命令涉及的键，none 表示锁定全部分片
+     * @param action 执行的操作
+     * @param <T>
+     * @return
+     */
+    public <T> T read(Option<ImmutableList<DatabaseKey>> keys, Supplier<T> action) {
+        return execute(keys, true, action);
+    }
+
+    /**
+     * 以读锁锁定单个键所在的分片并执行，用于并发读
+     *
+     * @param key    命令涉及的键
+     * @param action 执行的操作
+     * @param <T>
+     * @return
+     */
+    public <T> T read(DatabaseKey key, Supplier<T> action) {
+        return execute(key, true, action);
+    }
+
+    /**
+     * 锁定全部分片并执行
+     *
+     * @param action 执行的操作
+     * @param <T>
+     * @return
+     */
+    public <T> T executeAll(Supplier<T> action) {
+        return execute(Option.none(), action);
+    }
+
+    private <T> T execute(Option<ImmutableList<DatabaseKey>> keys, boolean read, Supplier<T> action) {
+        int[] slots = keys.isPresent() ? slots(keys.get()) : allSlots();
+        lock(slots, read);
+        try {
+            return action.get();
+        } finally {
+            unlock(slots, read);
+        }
+    }
+
+    private <T> T execute(DatabaseKey key, boolean read, Supplier<T> action) {
+        Lock lock = lock(ShardedDatabase.slot(key, locks.length), read);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int[] slots(ImmutableList<DatabaseKey> keys) {
+        return keys.stream().mapToInt(key -> ShardedDatabase.slot(key, locks.length)).distinct().sorted().toArray();
+    }
+
+    private int[] allSlots() {
+        return IntStream.range(0, locks.length).toArray();
+    }
+
+    private Lock lock(int slot, boolean read) {
+        return read ? locks[slot].readLock() : locks[slot].writeLock();
+    }
+
+    private void lock(int[] slots, boolean read) {
+        for (int slot : slots) {
+            lock(slot, read).lock();
+        }
+    }
+
+    private void unlock(int[] slots, boolean read) {
+        for (int i = slots.length - 1; i >= 0; i--) {
+            lock(slots[i], read).unlock();
+        }
+    }
+}
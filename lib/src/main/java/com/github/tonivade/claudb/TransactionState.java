@@ -4,7 +4,12 @@
  */
 package com.github.tonivade.claudb;
 
+import com.github.tonivade.purefun.Tuple;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.ArrayRedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
 
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -21,6 +26,10 @@ public class TransactionState implements Iterable<Request> {
      * 请求列表
      */
     private final List<Request> requests = new LinkedList<>();
+    /**
+     * exec 时已执行的请求及其执行时所在的数据库序号
+     */
+    private final List<Tuple2<Integer, Request>> executed = new LinkedList<>();
 
     /**
      * 请求入队
@@ -40,6 +49,37 @@ public class TransactionState implements Iterable<Request> {
         return requests.size();
     }
 
+    /**
+     * 记录 exec 时已执行的请求
+     *
+     * @param db      执行时所在的数据库序号
+     * @param request 请求
+     */
+    public void executed(int db, Request request) {
+        executed.add(Tuple.of(db, request));
+    }
+
+    /**
+     * exec 时已执行的请求，用于将整个事务作为一条记录进行复制和持久化
+     *
+     * @return
+     */
+    public ImmutableList<Tuple2<Integer, Request>> getExecuted() {
+        return ImmutableList.from(executed);
+    }
+
+    /**
+     * 是否为事务记录。exec 提交的事务作为一条记录复制和写入 AOF 文件，
+     * 记录是由各命令的记录组成的数组，普通命令的记录以数据库序号开头
+     *
+     * @param record 复制记录
+     * @return
+     */
+    public static boolean isRecord(ArrayRedisToken record) {
+        return record.getValue().stream().findFirst()
+                .map(first -> first.getType() == RedisTokenType.ARRAY).orElse(false);
+    }
+
     /**
      * 请求列表迭代器
      *
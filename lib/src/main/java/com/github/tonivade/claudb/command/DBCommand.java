@@ -8,7 +8,10 @@ import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.DBServerState;
 import com.github.tonivade.claudb.DBSessionState;
 import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.KeyLookupDatabase;
+import com.github.tonivade.claudb.data.StreamEntry;
 import com.github.tonivade.purefun.data.Sequence;
 import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.command.Request;
@@ -17,6 +20,9 @@ import com.github.tonivade.resp.command.Session;
 import com.github.tonivade.resp.protocol.RedisToken;
 
 import java.util.Collection;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 
 /**
  * @author zhou <br/>
@@ -34,6 +40,23 @@ public interface DBCommand {
      */
     RedisToken execute(Database db, Request request);
 
+    /**
+     * 命令的第一个键。包装器做类型检查时已经解析了这个键，直接复用，不再重复创建
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    default DatabaseKey keyOf(Database db, Request request) {
+        if (db instanceof KeyLookupDatabase) {
+            DatabaseKey key = ((KeyLookupDatabase) db).getKey();
+            if (key != null) {
+                return key;
+            }
+        }
+        return safeKey(request.getParam(0));
+    }
+
     /**
      * 数据库服务器上下文
      *
@@ -104,6 +127,36 @@ public interface DBCommand {
         return DBResponse.convertValue(value);
     }
 
+    /**
+     * 类型转换 64 位整数转 RedisToken
+     *
+     * @param value
+     * @return
+     */
+    default RedisToken convertNumber(long value) {
+        return DBResponse.convertNumber(value);
+    }
+
+    /**
+     * 类型转换 流的条目转 RedisToken
+     *
+     * @param entries
+     * @return
+     */
+    default RedisToken convertEntries(List<StreamEntry> entries) {
+        return DBResponse.convertEntries(entries);
+    }
+
+    /**
+     * 类型转换 流的单个条目转 RedisToken
+     *
+     * @param entry
+     * @return
+     */
+    default RedisToken convertEntry(StreamEntry entry) {
+        return DBResponse.convertEntry(entry);
+    }
+
     /**
      * 类型转换 Collection<?> 转 RedisToken
      *
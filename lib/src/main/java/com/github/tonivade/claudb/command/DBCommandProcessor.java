@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command;
 
 import com.github.tonivade.claudb.DBServerContext;
+import com.github.tonivade.claudb.DBSessionState;
 import com.github.tonivade.purefun.data.ImmutableArray;
 import com.github.tonivade.purefun.data.Sequence;
 import com.github.tonivade.resp.command.*;
@@ -43,8 +44,14 @@ public class DBCommandProcessor {
      */
     private final Session session;
 
+    /**
+     * 使用独立的内部会话，AOF 重放和主从复制的命令（包括 MULTI / EXEC 事务）
+     * 不会与客户端会话的事务和数据库序号混在一起
+     *
+     * @param server 数据库服务器上下文
+     */
     public DBCommandProcessor(DBServerContext server) {
-        this(server, new DefaultSession("dummy", null));
+        this(server, internalSession());
     }
 
     public DBCommandProcessor(DBServerContext server, Session session) {
@@ -75,6 +82,17 @@ public class DBCommandProcessor {
         }
     }
 
+    /**
+     * 内部会话，带有独立的会话状态
+     *
+     * @return
+     */
+    private static Session internalSession() {
+        DefaultSession session = new DefaultSession("dummy", null);
+        session.putValue("state", new DBSessionState());
+        return session;
+    }
+
     /**
      * 命令请求
      *
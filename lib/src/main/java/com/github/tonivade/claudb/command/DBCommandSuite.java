@@ -6,9 +6,15 @@ package com.github.tonivade.claudb.command;
 
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.command.bitset.BitCountCommand;
+import com.github.tonivade.claudb.command.bitset.BitFieldCommand;
+import com.github.tonivade.claudb.command.bitset.BitOpCommand;
+import com.github.tonivade.claudb.command.bitset.BitPosCommand;
 import com.github.tonivade.claudb.command.bitset.GetBitCommand;
 import com.github.tonivade.claudb.command.bitset.SetBitCommand;
 import com.github.tonivade.claudb.command.hash.*;
+import com.github.tonivade.claudb.command.hyperloglog.HyperLogLogAddCommand;
+import com.github.tonivade.claudb.command.hyperloglog.HyperLogLogCountCommand;
+import com.github.tonivade.claudb.command.hyperloglog.HyperLogLogMergeCommand;
 import com.github.tonivade.claudb.command.key.*;
 import com.github.tonivade.claudb.command.list.*;
 import com.github.tonivade.claudb.command.pubsub.*;
@@ -17,15 +23,28 @@ import com.github.tonivade.claudb.command.scripting.EvalShaCommand;
 import com.github.tonivade.claudb.command.scripting.ScriptCommands;
 import com.github.tonivade.claudb.command.server.*;
 import com.github.tonivade.claudb.command.set.*;
+import com.github.tonivade.claudb.command.stream.StreamAckCommand;
+import com.github.tonivade.claudb.command.stream.StreamAddCommand;
+import com.github.tonivade.claudb.command.stream.StreamClaimCommand;
+import com.github.tonivade.claudb.command.stream.StreamGroupCommand;
+import com.github.tonivade.claudb.command.stream.StreamLengthCommand;
+import com.github.tonivade.claudb.command.stream.StreamPendingCommand;
+import com.github.tonivade.claudb.command.stream.StreamRangeCommand;
+import com.github.tonivade.claudb.command.stream.StreamReadGroupCommand;
+import com.github.tonivade.claudb.command.stream.StreamReverseRangeCommand;
 import com.github.tonivade.claudb.command.string.*;
 import com.github.tonivade.claudb.command.transaction.DiscardCommand;
 import com.github.tonivade.claudb.command.transaction.ExecCommand;
 import com.github.tonivade.claudb.command.transaction.MultiCommand;
+import com.github.tonivade.claudb.command.transaction.UnwatchCommand;
+import com.github.tonivade.claudb.command.transaction.WatchCommand;
 import com.github.tonivade.claudb.command.zset.*;
 import com.github.tonivade.resp.command.CommandSuite;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Arrays.asList;
 
@@ -41,6 +60,11 @@ public class DBCommandSuite extends CommandSuite {
      */
     private static final Set<String> COMMAND_BLACK_LIST = new HashSet<>(asList("ping", "echo", "quit", "time"));
 
+    /**
+     * 已解析的只读标记，避免每次请求都通过反射读取注解
+     */
+    private final Map<String, Boolean> readOnlyCommands = new ConcurrentHashMap<>();
+
     /**
      * 注册数据库命令
      */
@@ -57,6 +81,10 @@ public class DBCommandSuite extends CommandSuite {
         addCommand(InfoCommand::new);
         addCommand(RoleCommand::new);
         addCommand(DatabaseSizeCommand::new);
+        addCommand(MemoryCommand::new);
+        addCommand(AnalyzeCommand::new);
+        addCommand(LatencyCommand::new);
+        addCommand(SlowLogCommand::new);
 
         // strings
         addCommand(GetCommand::new);
@@ -66,6 +94,7 @@ public class DBCommandSuite extends CommandSuite {
         addCommand(GetSetCommand::new);
         addCommand(IncrementCommand::new);
         addCommand(IncrementByCommand::new);
+        addCommand(IncrementByFloatCommand::new);
         addCommand(DecrementCommand::new);
         addCommand(DecrementByCommand::new);
         addCommand(StringLengthCommand::new);
@@ -73,9 +102,17 @@ public class DBCommandSuite extends CommandSuite {
         addCommand(BitCountCommand::new);
         addCommand(SetBitCommand::new);
         addCommand(GetBitCommand::new);
+        addCommand(BitPosCommand::new);
+        addCommand(BitOpCommand::new);
+        addCommand(BitFieldCommand::new);
         addCommand(SetIfNotExistsCommand::new);
         addCommand(MultiSetIfNotExistsCommand::new);
 
+        // hyperloglog
+        addCommand(HyperLogLogAddCommand::new);
+        addCommand(HyperLogLogCountCommand::new);
+        addCommand(HyperLogLogMergeCommand::new);
+
         // keys
         addCommand(DeleteCommand::new);
         addCommand(ExistsCommand::new);
@@ -127,6 +164,18 @@ public class DBCommandSuite extends CommandSuite {
         addCommand(SortedSetRangeByScoreCommand::new);
         addCommand(SortedSetReverseRangeCommand::new);
         addCommand(SortedSetIncrementByCommand::new);
+        addCommand(SortedSetScoreCommand::new);
+
+        // stream
+        addCommand(StreamAddCommand::new);
+        addCommand(StreamLengthCommand::new);
+        addCommand(StreamRangeCommand::new);
+        addCommand(StreamReverseRangeCommand::new);
+        addCommand(StreamGroupCommand::new);
+        addCommand(StreamReadGroupCommand::new);
+        addCommand(StreamAckCommand::new);
+        addCommand(StreamPendingCommand::new);
+        addCommand(StreamClaimCommand::new);
 
         // pub & sub
         addCommand(PublishCommand::new);
@@ -139,6 +188,8 @@ public class DBCommandSuite extends CommandSuite {
         addCommand(MultiCommand::new);
         addCommand(ExecCommand::new);
         addCommand(DiscardCommand::new);
+        addCommand(WatchCommand::new);
+        addCommand(UnwatchCommand::new);
 
         // scripting
         addCommand(EvalCommand::new);
@@ -153,6 +204,14 @@ public class DBCommandSuite extends CommandSuite {
      * @return
      */
     public boolean isReadOnly(String command) {
-        return COMMAND_BLACK_LIST.contains(command) || isPresent(command, ReadOnly.class);
+        Boolean readOnly = readOnlyCommands.get(command);
+        if (readOnly == null) {
+            readOnly = COMMAND_BLACK_LIST.contains(command) || isPresent(command, ReadOnly.class);
+            // 只缓存已注册的命令，未知命令名不会使缓存无限增长
+            if (contains(command)) {
+                readOnlyCommands.put(command, readOnly);
+            }
+        }
+        return readOnly;
     }
 }
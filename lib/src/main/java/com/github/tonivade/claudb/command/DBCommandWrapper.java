@@ -7,19 +7,34 @@ package com.github.tonivade.claudb.command;
 import com.github.tonivade.claudb.DBServerState;
 import com.github.tonivade.claudb.DBSessionState;
 import com.github.tonivade.claudb.TransactionState;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.PubSubAllowed;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.command.annotation.TxIgnore;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.KeyLookupDatabase;
+import com.github.tonivade.claudb.monitor.CommandEvent;
+import com.github.tonivade.claudb.monitor.CommandStats;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.command.RespCommand;
 import com.github.tonivade.resp.command.ServerContext;
 import com.github.tonivade.resp.command.Session;
 import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.RedisTokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
@@ -32,6 +47,10 @@ import static com.github.tonivade.resp.protocol.RedisToken.status;
  */
 public class DBCommandWrapper implements RespCommand {
 
+    /**
+     * 命令名，小写，用于执行统计
+     */
+    private final String name;
     /**
      * 请求参数
      */
@@ -40,6 +59,26 @@ public class DBCommandWrapper implements RespCommand {
      * 数据类型
      */
     private DataType dataType;
+    /**
+     * 第一个键的参数位置，-1 表示命令不含键
+     */
+    private int firstKey = -1;
+    /**
+     * 最后一个键的参数位置，负数表示从末尾倒数
+     */
+    private int lastKey;
+    /**
+     * 键之间的步长
+     */
+    private int keyStep = 1;
+    /**
+     * 键前面的关键字，null 表示键的位置固定
+     */
+    private String keyword;
+    /**
+     * 键占剩余参数的比例的倒数，大于 1 时只取剩余参数的前 1/limit
+     */
+    private int keyLimit;
     /**
      * 是否允许发布订阅
      */
@@ -52,6 +91,22 @@ public class DBCommandWrapper implements RespCommand {
      * 是否为只读状态
      */
     private final boolean readOnly;
+    /**
+     * 是否为会增加内存的写命令，内存不足时拒绝执行
+     */
+    private final boolean denyOom;
+    /**
+     * 是否为带键的只读数据命令，并发读模式下只加键槽的读锁
+     */
+    private final boolean concurrentRead;
+    /**
+     * 是否只有一个位置固定的键，这类命令每次执行只解析一次键
+     */
+    private final boolean singleKey;
+    /**
+     * 命令的执行统计项，第一次执行时从命令监控中取得，之后不再查找
+     */
+    private volatile CommandStats stats;
     /**
      * 命令
      */
@@ -59,6 +114,8 @@ public class DBCommandWrapper implements RespCommand {
 
     public DBCommandWrapper(Object command) {
         this.command = command;
+        Command annotation = command.getClass().getAnnotation(Command.class);
+        this.name = annotation != null ? annotation.value().toLowerCase() : command.getClass().getSimpleName();
         ParamLength length = command.getClass().getAnnotation(ParamLength.class);
         if (length != null) {
             this.params = length.value();
@@ -66,10 +123,27 @@ public class DBCommandWrapper implements RespCommand {
         ParamType type = command.getClass().getAnnotation(ParamType.class);
         if (type != null) {
             this.dataType = type.value();
+            this.firstKey = 0;
+            this.lastKey = 0;
+        }
+        ParamKeys keys = command.getClass().getAnnotation(ParamKeys.class);
+        if (keys != null) {
+            this.firstKey = keys.first();
+            this.lastKey = keys.last();
+            this.keyStep = keys.step();
+            this.keyword = keys.keyword().isEmpty() ? null : keys.keyword();
+            this.keyLimit = keys.limit();
         }
         this.readOnly = command.getClass().isAnnotationPresent(ReadOnly.class);
         this.txIgnore = command.getClass().isAnnotationPresent(TxIgnore.class);
         this.pubSubAllowed = command.getClass().isAnnotationPresent(PubSubAllowed.class);
+        this.denyOom = command.getClass().isAnnotationPresent(DenyOom.class);
+        this.concurrentRead = readOnly && firstKey >= 0 && keyword == null && command instanceof DBCommand;
+        this.singleKey = firstKey >= 0 && firstKey == lastKey && keyword == null;
+    }
+
+    public String getName() {
+        return name;
     }
 
     public boolean isReadOnly() {
@@ -84,6 +158,22 @@ public class DBCommandWrapper implements RespCommand {
         return pubSubAllowed;
     }
 
+    public boolean isDenyOom() {
+        return denyOom;
+    }
+
+    /**
+     * 并发读模式下，带键的只读数据命令（get、hget、zrange 等）只加键槽的读锁，彼此并发执行，
+     * 持有写锁的写命令、exec 和脚本执行完之前不会读到它们的中间状态。
+     * 其他只读命令（subscribe、select 等）会修改服务器或会话状态，仍然加写锁执行
+     *
+     * @param serverState 服务器状态
+     * @return
+     */
+    public boolean isSharedRead(DBServerState serverState) {
+        return concurrentRead && serverState.isConcurrentReads();
+    }
+
     /**
      * 执行命令
      *
@@ -92,62 +182,264 @@ public class DBCommandWrapper implements RespCommand {
      */
     @Override
     public RedisToken execute(Request request) {
-        // FIXME: ugly piece of code, please refactor
-        // 获取当前数据库
-        Database db = getCurrentDB(request);
+        DBSessionState sessionState = getSessionState(request.getSession());
+        DBServerState serverState = getServerState(sessionState, request.getServerContext());
+        // 单键命令只解析一次键，加锁、类型检查、命令执行、watch 和热键统计共用
+        DatabaseKey key = singleKey && request.getLength() > firstKey ? safeKey(request.getParam(firstKey)) : null;
+        if (serverState.hasKeySlots() && isSharedRead(serverState)) {
+            if (key != null) {
+                return serverState.getSlots().read(key,
+                        () -> execute(serverState, sessionState, request, key, null));
+            }
+            Option<ImmutableList<DatabaseKey>> keys = getKeys(request);
+            return serverState.getSlots().read(keys,
+                    () -> execute(serverState, sessionState, request, null, keys));
+        }
+        if (serverState.hasKeySlots()) {
+            if (key != null) {
+                return serverState.getSlots().execute(key,
+                        () -> execute(serverState, sessionState, request, key, null));
+            }
+            Option<ImmutableList<DatabaseKey>> keys = getKeys(request);
+            return serverState.getSlots().execute(keys,
+                    () -> execute(serverState, sessionState, request, null, keys));
+        }
+        return execute(serverState, sessionState, request, key, null);
+    }
+
+    /**
+     * 命令的执行统计项
+     *
+     * @param serverState 服务器状态
+     * @return
+     */
+    public CommandStats getStats(DBServerState serverState) {
+        CommandStats current = stats;
+        if (current == null) {
+            current = serverState.getCommandMonitor().get(name);
+            stats = current;
+        }
+        return current;
+    }
+
+    /**
+     * 命令涉及的键。不访问数据库的命令（ping、echo 等）返回空列表，
+     * 访问数据库但无法确定键的命令返回 none
+     *
+     * @param request 命令请求
+     * @return
+     */
+    public Option<ImmutableList<DatabaseKey>> getKeys(Request request) {
+        int first = firstKey(request);
+        if (first < 0) {
+            return command instanceof DBCommand ? Option.none() : Option.some(ImmutableList.empty());
+        }
+        List<DatabaseKey> keys = new ArrayList<>();
+        // 声明了关键字时，非负的 lastKey 相对第一个键
+        int last = lastKey < 0 ? request.getLength() + lastKey : keyword == null ? lastKey : first + lastKey;
+        if (lastKey < 0 && keyLimit > 1) {
+            last = first + (last - first + 1) / keyLimit - 1;
+        }
+        for (int i = first; i <= last && i < request.getLength(); i += keyStep) {
+            keys.add(safeKey(request.getParam(i)));
+        }
+        return Option.some(ImmutableList.from(keys));
+    }
+
+    /**
+     * 第一个键的参数位置，声明了关键字时为关键字的下一个参数，没有关键字时返回 -1
+     *
+     * @param request 命令请求
+     * @return
+     */
+    private int firstKey(Request request) {
+        if (keyword == null) {
+            return firstKey;
+        }
+        for (int i = Math.max(firstKey, 0); i < request.getLength() - 1; i++) {
+            if (keyword.equalsIgnoreCase(request.getParam(i).toString())) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param key  已解析的单个键，不是单键命令时为 null
+     * @param keys 已解析的全部键，尚未解析时为 null
+     */
+    private RedisToken execute(DBServerState serverState, DBSessionState sessionState, Request request,
+                               DatabaseKey key, Option<ImmutableList<DatabaseKey>> keys) {
         // 若请求长度小于参数长度，报错
         if (request.getLength() < params) {
+            getStats(serverState).reject();
             return error("ERR wrong number of arguments for '" + request.getCommand() + "' command");
         }
-        // 类型不符，报错
-        else if (dataType != null && !db.isType(safeKey(request.getParam(0)), dataType)) {
-            return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+        // 获取当前数据库
+        Database db = serverState.getDatabase(sessionState.getCurrentDB());
+        if (dataType == null) {
+            return execute(serverState, sessionState, db, request, key, keys);
+        }
+        DatabaseKey typed = key;
+        if (typed == null) {
+            // 键的位置由关键字决定时，请求中没有关键字的由命令自己报错
+            int first = firstKey(request);
+            if (first < 0) {
+                return execute(serverState, sessionState, db, request, null, keys);
+            }
+            typed = safeKey(request.getParam(first));
         }
+        // 类型检查和命令自身对第一个键的读取共用一次查找，命令通过 keyOf 取得同一个键
+        KeyLookupDatabase lookup = sessionState.getLookup().lookup(db, typed);
+        try {
+            // 类型不符，报错
+            if (!lookup.isType(dataType)) {
+                if (readOnly) {
+                    serverState.getServerStats().keyspace(true);
+                }
+                getStats(serverState).record(0, true);
+                return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            return execute(serverState, sessionState, lookup, request, key, keys);
+        } finally {
+            lookup.reset();
+        }
+    }
+
+    private RedisToken execute(DBServerState serverState, DBSessionState sessionState, Database db, Request request,
+                               DatabaseKey key, Option<ImmutableList<DatabaseKey>> keys) {
+        Option<TransactionState> transaction = getTransactionState(request.getSession());
         // 发布订阅状态不符，报错
-        else if (isSubscribed(request) && !pubSubAllowed) {
+        if (sessionState.isSubscribed() && !pubSubAllowed) {
+            getStats(serverState).reject();
             return error("ERR only (P)SUBSCRIBE / (P)UNSUBSCRIBE / QUIT allowed in this context");
         }
         // 事务支持状态，报错
-        else if (isTxActive(request) && !txIgnore) {
-            enqueueRequest(request);
+        else if (transaction.isPresent() && !txIgnore) {
+            transaction.get().enqueue(request);
             return status("QUEUED");
         }
-        if (command instanceof DBCommand) {
-            return executeDBCommand(db, request);
-        } else if (command instanceof RespCommand) {
-            return executeCommand(request);
+        // 事务中排队的命令在 EXEC 时才统计键的命中，做过类型检查时 db 即类型检查的查找结果
+        if (readOnly && db instanceof KeyLookupDatabase) {
+            serverState.getServerStats().keyspace(((KeyLookupDatabase) db).getType() != DataType.NONE);
+        }
+        RedisToken response = null;
+        boolean failed = true;
+        // 没有开启 JFR 记录时不创建事件
+        CommandEvent event = CommandEvent.isRecording() ? new CommandEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        try {
+            if (command instanceof DBCommand) {
+                response = executeDBCommand(db, request);
+            } else if (command instanceof RespCommand) {
+                response = executeCommand(request);
+            } else {
+                return error("invalid command type: " + command.getClass());
+            }
+        } finally {
+            // 抛出异常时 response 为 null，同样记为失败
+            failed = response == null || response.getType() == RedisTokenType.ERROR;
+            record(serverState, sessionState, request, System.nanoTime() - start, failed);
+            if (event != null) {
+                commit(event, sessionState.getCurrentDB(), failed);
+            }
         }
-        return error("invalid command type: " + command.getClass());
+        // 执行失败的写命令没有修改数据，不会使 watch 的事务失败
+        boolean touch = !readOnly && !failed && serverState.hasWatchedKeys();
+        boolean sample = firstKey >= 0 && serverState.getAnalyzer().sample();
+        if (touch || sample) {
+            if (key != null) {
+                recordKey(serverState, sessionState.getCurrentDB(), key, touch, sample);
+            } else {
+                Option<ImmutableList<DatabaseKey>> all = keys != null ? keys : getKeys(request);
+                for (DatabaseKey each : all.getOrElse(ImmutableList.empty())) {
+                    recordKey(serverState, sessionState.getCurrentDB(), each, touch, sample);
+                }
+            }
+        }
+        return response;
     }
 
-    private RedisToken executeCommand(Request request) {
-        return ((RespCommand) command).execute(request);
+    /**
+     * 记录命令的执行次数和耗时，超过延迟监控阈值时记录一次 command 延迟事件，
+     * 超过慢查询阈值时写入慢查询日志，只有慢命令才需要复制参数
+     *
+     * @param serverState  服务器状态
+     * @param sessionState 会话状态
+     * @param request      命令请求
+     * @param nanos        耗时（纳秒）
+     * @param failed       是否执行失败
+     */
+    private void record(DBServerState serverState, DBSessionState sessionState, Request request,
+                        long nanos, boolean failed) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        getStats(serverState).record(micros, failed);
+        LatencyMonitor latency = serverState.getLatencyMonitor();
+        if (latency.isActive()) {
+            latency.record(LatencyMonitor.COMMAND, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+        SlowLog slowLog = serverState.getSlowLog();
+        if (slowLog.isSlow(micros)) {
+            slowLog.add(name, request.getParams().toList(), request.getSession().getId(),
+                    sessionState.getCurrentDB(), micros);
+        }
     }
 
-    private RedisToken executeDBCommand(Database db, Request request) {
-        return ((DBCommand) command).execute(db, request);
+    /**
+     * 提交 JFR 事件，未开启 JFR 或耗时低于事件阈值时不填充字段
+     *
+     * @param event  命令事件
+     * @param db     当前数据库序号
+     * @param failed 是否执行失败
+     */
+    private void commit(CommandEvent event, int db, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(name, db, failed);
+            event.commit();
+        }
     }
 
-    private void enqueueRequest(Request request) {
-        getTransactionState(request.getSession()).ifPresent(tx -> tx.enqueue(request));
+    /**
+     * 标记写命令修改过的键，使 watch 这些键的事务在 exec 时失败；被采样的请求记录热键
+     *
+     * @param serverState 服务器状态
+     * @param db          当前数据库序号
+     * @param key         键
+     * @param touch       是否标记修改
+     * @param sample      是否记录热键
+     */
+    private void recordKey(DBServerState serverState, int db, DatabaseKey key, boolean touch, boolean sample) {
+        if (touch) {
+            serverState.touch(db, key);
+        }
+        if (sample) {
+            serverState.getAnalyzer().record(db, key);
+        }
     }
 
-    private boolean isTxActive(Request request) {
-        return getTransactionState(request.getSession()).isPresent();
+    private RedisToken executeCommand(Request request) {
+        return ((RespCommand) command).execute(request);
     }
 
-    private Option<TransactionState> getTransactionState(Session session) {
-        return session.getValue("tx");
+    private RedisToken executeDBCommand(Database db, Request request) {
+        return ((DBCommand) command).execute(db, request);
     }
 
-    private Database getCurrentDB(Request request) {
-        DBServerState serverState = getServerState(request.getServerContext());
-        DBSessionState sessionState = getSessionState(request.getSession());
-        return serverState.getDatabase(sessionState.getCurrentDB());
+    private Option<TransactionState> getTransactionState(Session session) {
+        return session.getValue("tx");
     }
 
-    private DBServerState getServerState(ServerContext server) {
-        return serverState(server).getOrElseThrow(() -> new IllegalStateException("missing server state"));
+    private DBServerState getServerState(DBSessionState sessionState, ServerContext server) {
+        DBServerState serverState = sessionState.getServerState();
+        if (serverState == null) {
+            serverState = serverState(server).getOrElseThrow(() -> new IllegalStateException("missing server state"));
+            sessionState.setServerState(serverState);
+        }
+        return serverState;
     }
 
     private DBSessionState getSessionState(Session session) {
@@ -161,8 +453,4 @@ public class DBCommandWrapper implements RespCommand {
     private Option<DBSessionState> sessionState(Session session) {
         return session.getValue("state");
     }
-
-    private boolean isSubscribed(Request request) {
-        return getSessionState(request.getSession()).isSubscribed();
-    }
 }
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command;
 
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamEntry;
 import com.github.tonivade.purefun.Pattern1;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableMap;
@@ -13,6 +14,7 @@ import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.SafeString;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.stream.Stream;
@@ -36,6 +38,7 @@ class DBResponse {
      * <li> LIST                        <br/>
      * <li> SET                         <br/>
      * <li> ZSET                        <br/>
+     * <li> STREAM                      <br/>
      * <li> 以及其他数据类型
      *
      * @param value
@@ -59,6 +62,8 @@ class DBResponse {
                 case ZSET:
                     NavigableSet<Entry<Double, SafeString>> zset = value.getSortedSet();
                     return convertArray(serialize(zset));
+                case STREAM:
+                    return convertEntries(value.getStream().entries());
                 default:
                     break;
             }
@@ -66,6 +71,39 @@ class DBResponse {
         return RedisToken.nullString();
     }
 
+    /**
+     * 将 64 位整数转为 RedisToken，RESP 整数只支持 int，超出范围时返回整数的字符串形式
+     *
+     * @param value
+     * @return
+     */
+    static RedisToken convertNumber(long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return RedisToken.integer((int) value);
+        }
+        return RedisToken.string(String.valueOf(value));
+    }
+
+    /**
+     * 将流的条目转为 RedisToken，每个条目为 [ID, [field, value, ...]]
+     *
+     * @param entries
+     * @return
+     */
+    static RedisToken convertEntries(List<StreamEntry> entries) {
+        return array(entries.stream().map(DBResponse::convertEntry).collect(toList()));
+    }
+
+    /**
+     * 将流的单个条目转为 RedisToken
+     *
+     * @param entry
+     * @return
+     */
+    static RedisToken convertEntry(StreamEntry entry) {
+        return array(RedisToken.string(entry.getId().toSafeString()), convertArray(entry.getFields()));
+    }
+
     /**
      * 将 array 集合转为 RedisToken
      *
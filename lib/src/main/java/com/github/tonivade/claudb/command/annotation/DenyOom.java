@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.annotation;
+
+import java.lang.annotation.*;
+
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 会增加内存占用的写命令，内存超过 maxmemory 且无法淘汰时拒绝执行
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface DenyOom {
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.annotation;
+
+import java.lang.annotation.*;
+
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 键参数位置，与 redis 命令表中的 firstkey / lastkey / step 含义相同。
+ * 带有 {@link ParamType} 注解的命令默认第一个参数为键。
+ * 键的位置取决于子命令或选项时（memory usage 等），通过 keyword 指定键前面的关键字。
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface ParamKeys {
+
+    /**
+     * 第一个键的参数位置
+     *
+     * @return
+     */
+    int first() default 0;
+
+    /**
+     * 最后一个键的参数位置，负数表示从末尾倒数（-1 为最后一个参数）
+     *
+     * @return
+     */
+    int last() default 0;
+
+    /**
+     * 相邻两个键之间的步长
+     *
+     * @return
+     */
+    int step() default 1;
+
+    /**
+     * 键前面的关键字（忽略大小写），从 first 位置开始查找，找到时键从关键字的下一个参数开始，
+     * 非负的 last 表示相对第一个键的位置；请求中没有关键字时命令不含可确定的键
+     *
+     * @return
+     */
+    String keyword() default "";
+
+    /**
+     * last 为负数时只取剩余参数的 1/limit 作为键，0 和 1 表示不限制。
+     * 键后面跟着同样个数的其他参数时（xreadgroup 的 STREAMS key [key ...] id [id ...]）为 2
+     *
+     * @return
+     */
+    int limit() default 0;
+}
@@ -6,6 +6,8 @@ package com.github.tonivade.claudb.command.bitset;
 
 import com.github.tonivade.claudb.command.DBCommand;
 import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Bitmap;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
@@ -14,23 +16,23 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import java.util.BitSet;
-
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 /**
  * @author zhou <br/>
+ * <p>
  * redis Bitmaps 类型的 bitcount 命令实现。
  */
+@ReadOnly
 @Command("bitcount")
 @ParamLength(1)
 @ParamType(DataType.STRING)
 public class BitCountCommand implements DBCommand {
 
     /**
-     * 命令形式： bitcount key 统计位集中 1 的个数
+     * 命令形式： bitcount key [start end [BYTE|BIT]] 统计位集中 1 的个数，
+     * 指定范围时只统计范围内的 1，范围默认以字节为单位
      *
      * @param db      当前数据库
      * @param request 命令请求
@@ -38,11 +40,23 @@ public class BitCountCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
+        if (request.getLength() == 2 || request.getLength() > 4) {
+            return error("ERR syntax error");
+        }
         // 获取请求参数 key
-        DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), bitset());
-        // 将该参数转为位集
-        BitSet bitSet = BitSet.valueOf(value.getString().getBuffer());
-        // 统计位集中 1 的个数
-        return integer(bitSet.cardinality());
+        DatabaseValue value = db.get(keyOf(db, request));
+        if (value == null) {
+            return integer(0);
+        }
+        Bitmap bitmap = value.getBitmap();
+        try {
+            BitRange range = BitRange.parse(request, 1, bitmap.length());
+            // 统计范围内 1 的个数
+            return convertNumber(range.isEmpty() ? 0 : bitmap.count(range.from(), range.to()));
+        } catch (NumberFormatException e) {
+            return error("ERR value is not an integer or out of range");
+        } catch (IllegalArgumentException e) {
+            return error("ERR syntax error");
+        }
     }
 }
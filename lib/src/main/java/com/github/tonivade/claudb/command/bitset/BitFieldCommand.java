@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.Bitmap;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.bitmap;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Bitmaps 类型的 bitfield 命令实现。
+ */
+@DenyOom
+@Command("bitfield")
+@ParamLength(1)
+@ParamType(DataType.STRING)
+public class BitFieldCommand implements DBCommand {
+
+    /**
+     * 命令形式： bitfield key [GET type offset] [SET type offset value] [INCRBY type offset increment]
+     * [OVERFLOW WRAP|SAT|FAIL] 把字符串看作任意位置、任意宽度的整数数组进行读写。
+     * type 为 i1 到 i64 或 u1 到 u63，offset 以 # 开头时乘以类型的宽度；
+     * OVERFLOW 设置之后的 SET 和 INCRBY 溢出时回绕、饱和或者不执行（返回 nil）。
+     * 先检查所有子命令，有错误时不执行任何子命令
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        List<Operation> operations;
+        try {
+            operations = parse(request);
+        } catch (BitFieldException e) {
+            return error(e.getMessage());
+        }
+        DatabaseKey key = keyOf(db, request);
+        DatabaseValue value = db.get(key);
+        Bitmap bitmap = value != null ? value.getBitmap() : Bitmap.empty();
+        boolean changed = false;
+        List<RedisToken> result = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            long current = operation.read(bitmap);
+            if (operation.command == SubCommand.GET) {
+                result.add(convertNumber(current));
+                continue;
+            }
+            Long next = operation.next(current);
+            if (next == null) {
+                result.add(nullString());
+                continue;
+            }
+            if (!changed) {
+                // 第一次写入时复制，数据库中原来的值不被修改
+                bitmap = bitmap.copy();
+                changed = true;
+            }
+            operation.write(bitmap, next);
+            result.add(convertNumber(operation.command == SubCommand.SET ? current : next));
+        }
+        if (changed) {
+            db.put(key, SetBitCommand.withExpiration(bitmap(bitmap), value));
+        }
+        return array(result);
+    }
+
+    private static List<Operation> parse(Request request) throws BitFieldException {
+        List<Operation> operations = new ArrayList<>();
+        Overflow overflow = Overflow.WRAP;
+        int i = 1;
+        while (i < request.getLength()) {
+            String name = request.getParam(i).toString().toUpperCase();
+            if ("OVERFLOW".equals(name)) {
+                if (i + 1 >= request.getLength()) {
+                    throw new BitFieldException("ERR syntax error");
+                }
+                overflow = Overflow.parse(request.getParam(i + 1).toString());
+                i += 2;
+                continue;
+            }
+            SubCommand command;
+            try {
+                command = SubCommand.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new BitFieldException("ERR syntax error");
+            }
+            int length = command == SubCommand.GET ? 3 : 4;
+            if (i + length > request.getLength()) {
+                throw new BitFieldException("ERR syntax error");
+            }
+            Operation operation = new Operation(command, overflow, request.getParam(i + 1).toString());
+            operation.offset = parseOffset(request.getParam(i + 2).toString(), operation.bits);
+            if (command != SubCommand.GET) {
+                operation.argument = parseLong(request.getParam(i + 3).toString(),
+                        "ERR value is not an integer or out of range");
+            }
+            operations.add(operation);
+            i += length;
+        }
+        return operations;
+    }
+
+    private static long parseOffset(String value, int bits) throws BitFieldException {
+        String message = "ERR bit offset is not an integer or out of range";
+        long offset = value.startsWith("#")
+                ? multiply(parseLong(value.substring(1), message), bits, message) : parseLong(value, message);
+        if (offset < 0 || offset > Bitmap.MAX_BITS - bits) {
+            throw new BitFieldException(message);
+        }
+        return offset;
+    }
+
+    private static long multiply(long value, int bits, String message) throws BitFieldException {
+        try {
+            return Math.multiplyExact(value, bits);
+        } catch (ArithmeticException e) {
+            throw new BitFieldException(message);
+        }
+    }
+
+    private static long parseLong(String value, String message) throws BitFieldException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BitFieldException(message);
+        }
+    }
+
+    private enum SubCommand {
+        GET, SET, INCRBY
+    }
+
+    /**
+     * 溢出处理方式：回绕、饱和或者不执行
+     */
+    private enum Overflow {
+        WRAP, SAT, FAIL;
+
+        static Overflow parse(String value) throws BitFieldException {
+            try {
+                return valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BitFieldException("ERR Invalid OVERFLOW type specified");
+            }
+        }
+    }
+
+    /**
+     * 一个 GET、SET 或 INCRBY 子命令
+     */
+    private static final class Operation {
+
+        private final SubCommand command;
+        private final Overflow overflow;
+        private final boolean signed;
+        private final int bits;
+        private long offset;
+        private long argument;
+
+        private Operation(SubCommand command, Overflow overflow, String type) throws BitFieldException {
+            this.command = command;
+            this.overflow = overflow;
+            this.signed = type.startsWith("i") || type.startsWith("I");
+            int bits = 0;
+            if (signed || type.startsWith("u") || type.startsWith("U")) {
+                try {
+                    bits = Integer.parseInt(type.substring(1));
+                } catch (NumberFormatException e) {
+                    bits = 0;
+                }
+            }
+            if (bits < 1 || bits > (signed ? 64 : 63)) {
+                throw new BitFieldException(
+                        "ERR Invalid bitfield type. Use something like i16 u8. Note that u64 is not supported but i64 is.");
+            }
+            this.bits = bits;
+        }
+
+        /**
+         * 读取字段，高位在前
+         */
+        long read(Bitmap bitmap) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                value = (value << 1) | (bitmap.get(offset + i) ? 1 : 0);
+            }
+            return signed ? wrap(value) : value;
+        }
+
+        void write(Bitmap bitmap, long value) {
+            for (int i = 0; i < bits; i++) {
+                bitmap.set(offset + i, ((value >>> (bits - 1 - i)) & 1) != 0);
+            }
+        }
+
+        /**
+         * SET 或 INCRBY 写入的值
+         *
+         * @param current 字段当前的值
+         * @return 溢出且处理方式为 FAIL 时返回 null
+         */
+        Long next(long current) {
+            long value;
+            int overflowed;
+            if (command == SubCommand.SET) {
+                value = argument;
+                overflowed = value > max() ? 1 : value < min() ? -1 : 0;
+            } else {
+                // 64 位溢出时回绕的低位仍然正确，溢出方向与增量的符号相同
+                value = current + argument;
+                if (((current ^ value) & (argument ^ value)) < 0) {
+                    overflowed = argument > 0 ? 1 : -1;
+                } else {
+                    overflowed = value > max() ? 1 : value < min() ? -1 : 0;
+                }
+            }
+            if (overflowed == 0) {
+                return value;
+            }
+            switch (overflow) {
+                case SAT:
+                    return overflowed > 0 ? max() : min();
+                case FAIL:
+                    return null;
+                default:
+                    return wrap(value);
+            }
+        }
+
+        /**
+         * 截取低 bits 位，有符号时做符号扩展
+         */
+        private long wrap(long value) {
+            if (bits == 64) {
+                return value;
+            }
+            long masked = value & ((1L << bits) - 1);
+            if (signed && (masked & (1L << (bits - 1))) != 0) {
+                return masked | -(1L << bits);
+            }
+            return masked;
+        }
+
+        private long min() {
+            return signed ? -1L << (bits - 1) : 0;
+        }
+
+        private long max() {
+            return signed ? ~(-1L << (bits - 1)) : (1L << bits) - 1;
+        }
+    }
+
+    private static final class BitFieldException extends Exception {
+
+        private static final long serialVersionUID = 4309316823410312447L;
+
+        private BitFieldException(String message) {
+            super(message);
+        }
+    }
+}
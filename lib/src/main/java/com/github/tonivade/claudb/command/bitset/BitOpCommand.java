@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.data.Bitmap;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.bitmap;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Bitmaps 类型的 bitop 命令实现。
+ */
+@DenyOom
+@Command("bitop")
+@ParamLength(3)
+@ParamKeys(first = 1, last = -1)
+public class BitOpCommand implements DBCommand {
+
+    /**
+     * 命令形式： bitop AND|OR|XOR|NOT destkey key [key ...] 对多个键做按位运算，结果保存到 destkey，返回结果的字节数。
+     * 较短的字符串和不存在的键按 0 补齐，NOT 只能有一个源键，结果为空字符串时删除 destkey
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        String operation = request.getParam(0).toString().toLowerCase();
+        List<SafeString> sources = request.getParams().stream().skip(2).collect(toList());
+        if ("not".equals(operation) && sources.size() != 1) {
+            return error("ERR BITOP NOT must be called with a single source key.");
+        }
+        List<Bitmap> bitmaps = new ArrayList<>(sources.size());
+        for (SafeString source : sources) {
+            DatabaseKey key = safeKey(source);
+            if (!db.isType(key, DataType.STRING)) {
+                return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            DatabaseValue value = db.get(key);
+            bitmaps.add(value != null ? value.getBitmap() : Bitmap.empty());
+        }
+        Bitmap result;
+        switch (operation) {
+            case "and":
+                result = Bitmap.and(bitmaps);
+                break;
+            case "or":
+                result = Bitmap.or(bitmaps);
+                break;
+            case "xor":
+                result = Bitmap.xor(bitmaps);
+                break;
+            case "not":
+                result = bitmaps.get(0).not();
+                break;
+            default:
+                return error("ERR syntax error");
+        }
+        DatabaseKey destination = safeKey(request.getParam(1));
+        if (result.length() == 0) {
+            db.remove(destination);
+        } else {
+            db.put(destination, bitmap(result));
+        }
+        return convertNumber(result.length());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Bitmap;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Bitmaps 类型的 bitpos 命令实现。
+ */
+@ReadOnly
+@Command("bitpos")
+@ParamLength(2)
+@ParamType(DataType.STRING)
+public class BitPosCommand implements DBCommand {
+
+    /**
+     * 命令形式： bitpos key bit [start [end [BYTE|BIT]]] 返回范围内第一个值为 bit 的位偏移，没有时返回 -1。
+     * 查找 0 且没有指定 end 时，范围内全是 1 则返回字符串末尾之后的第一位
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        if (request.getLength() > 5) {
+            return error("ERR syntax error");
+        }
+        String bit = request.getParam(1).toString();
+        if (!"0".equals(bit) && !"1".equals(bit)) {
+            return error("ERR The bit argument must be 1 or 0.");
+        }
+        boolean value = "1".equals(bit);
+        DatabaseValue stored = db.get(keyOf(db, request));
+        if (stored == null) {
+            // 不存在的键看作无限长的 0
+            return integer(value ? -1 : 0);
+        }
+        Bitmap bitmap = stored.getBitmap();
+        try {
+            BitRange range = BitRange.parse(request, 2, bitmap.length());
+            if (range.isEmpty()) {
+                return integer(-1);
+            }
+            long position = value ? bitmap.nextSetBit(range.from()) : bitmap.nextClearBit(range.from());
+            if (position >= 0 && position <= range.to()) {
+                return convertNumber(position);
+            }
+            if (!value && !range.hasEnd()) {
+                return convertNumber(bitmap.length() * 8);
+            }
+            return integer(-1);
+        } catch (NumberFormatException e) {
+            return error("ERR value is not an integer or out of range");
+        } catch (IllegalArgumentException e) {
+            return error("ERR syntax error");
+        }
+    }
+}
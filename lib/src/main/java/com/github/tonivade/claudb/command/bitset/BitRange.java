@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import com.github.tonivade.resp.command.Request;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * bitcount 和 bitpos 的范围参数：start end [BYTE|BIT]。
+ * 负数表示从字符串末尾开始计算，超出字符串的部分被截断，解析结果为包含两端的位偏移范围
+ */
+final class BitRange {
+
+    private final long from;
+    private final long to;
+    private final boolean hasEnd;
+
+    private BitRange(long from, long to, boolean hasEnd) {
+        this.from = from;
+        this.to = to;
+        this.hasEnd = hasEnd;
+    }
+
+    /**
+     * 解析范围参数
+     *
+     * @param request 命令请求
+     * @param index   start 参数的位置
+     * @param length  字符串的字节数
+     * @return
+     * @throws NumberFormatException    start 或 end 不是整数
+     * @throws IllegalArgumentException 单位不是 BYTE 或 BIT
+     */
+    static BitRange parse(Request request, int index, long length) {
+        if (request.getLength() <= index) {
+            return new BitRange(0, length * 8 - 1, false);
+        }
+        boolean bits = false;
+        if (request.getLength() > index + 2) {
+            String unit = request.getParam(index + 2).toString();
+            if ("bit".equalsIgnoreCase(unit)) {
+                bits = true;
+            } else if (!"byte".equalsIgnoreCase(unit)) {
+                throw new IllegalArgumentException(unit);
+            }
+        }
+        long total = bits ? length * 8 : length;
+        boolean hasEnd = request.getLength() > index + 1;
+        long start = Long.parseLong(request.getParam(index).toString());
+        long end = hasEnd ? Long.parseLong(request.getParam(index + 1).toString()) : total - 1;
+        if (start < 0) {
+            start += total;
+        }
+        if (end < 0) {
+            end += total;
+        }
+        start = Math.max(start, 0);
+        end = Math.min(end, total - 1);
+        if (start > end) {
+            return new BitRange(0, -1, hasEnd);
+        }
+        return bits ? new BitRange(start, end, hasEnd) : new BitRange(start * 8, end * 8 + 7, hasEnd);
+    }
+
+    long from() {
+        return from;
+    }
+
+    long to() {
+        return to;
+    }
+
+    boolean isEmpty() {
+        return from > to;
+    }
+
+    /**
+     * 是否指定了 end 参数
+     */
+    boolean hasEnd() {
+        return hasEnd;
+    }
+}
@@ -6,6 +6,8 @@ package com.github.tonivade.claudb.command.bitset;
 
 import com.github.tonivade.claudb.command.DBCommand;
 import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Bitmap;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
@@ -14,10 +16,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import java.util.BitSet;
-
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -26,6 +24,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  * <p>
  * redis Bitmaps getbit 命令实现。
  */
+@ReadOnly
 @Command("getbit")
 @ParamLength(2)
 @ParamType(DataType.STRING)
@@ -42,15 +41,26 @@ public class GetBitCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         try {
             // 获取偏移量
-            int offset = Integer.parseInt(request.getParam(1).toString());
+            long offset = Long.parseLong(request.getParam(1).toString());
+            if (offset < 0 || offset >= Bitmap.MAX_BITS) {
+                return error("ERR bit offset is not an integer or out of range");
+            }
             // 获取请求参数 key
-            DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), bitset());
-            // 将该参数转为位集
-            BitSet bitSet = BitSet.valueOf(value.getString().getBuffer());
-            // 获取指定key对应偏移量上的bit值
-            return integer(bitSet.get(offset));
+            DatabaseValue value = db.get(keyOf(db, request));
+            if (value == null) {
+                return integer(false);
+            }
+            // 位图编码直接查找，普通字符串直接读取对应的字节，不需要转换
+            if (value.isBitmap()) {
+                return integer(value.getBitmap().get(offset));
+            }
+            return integer(getBit(value.getString().getBytes(), offset));
         } catch (NumberFormatException e) {
             return error("bit offset is not an integer");
         }
     }
+
+    private static boolean getBit(byte[] bytes, long offset) {
+        return (offset >>> 3) < bytes.length && (bytes[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) != 0;
+    }
 }
@@ -5,20 +5,19 @@
 package com.github.tonivade.claudb.command.bitset;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.Bitmap;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import java.util.BitSet;
-import java.util.LinkedList;
-import java.util.Queue;
-
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
+import static com.github.tonivade.claudb.data.DatabaseValue.bitmap;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -27,6 +26,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  * <p>
  * redis Bitmaps setbit 命令实现。
  */
+@DenyOom
 @Command("setbit")
 @ParamLength(3)
 @ParamType(DataType.STRING)
@@ -34,6 +34,7 @@ public class SetBitCommand implements DBCommand {
 
     /**
      * 命令形式： setbit key offset value 设置或者清空 key 的 value (字符串)在 offset 处的 bit 值。
+     * 普通字符串第一次 setbit 时转换为位图编码，之后只复制被修改的容器
      *
      * @param db      当前数据库
      * @param request 命令请求
@@ -43,20 +44,33 @@ public class SetBitCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         try {
             // 获取偏移量
-            int offset = Integer.parseInt(request.getParam(1).toString());
+            long offset = Long.parseLong(request.getParam(1).toString());
             // 获取位值
             int bit = Integer.parseInt(request.getParam(2).toString());
-            Queue<Boolean> queue = new LinkedList<>();
-            // 数据合并
-            db.merge(safeKey(request.getParam(0)), bitset(), (oldValue, newValue) -> {
-                BitSet bitSet = BitSet.valueOf(oldValue.getString().getBuffer());
-                queue.add(bitSet.get(offset));
-                bitSet.set(offset, bit != 0);
-                return oldValue;
-            });
-            return integer(queue.poll());
+            if (offset < 0 || offset >= Bitmap.MAX_BITS) {
+                return error("ERR bit offset is not an integer or out of range");
+            }
+            if (bit != 0 && bit != 1) {
+                return error("ERR bit is not an integer or out of range");
+            }
+            DatabaseKey key = keyOf(db, request);
+            DatabaseValue value = db.get(key);
+            Bitmap bitmap = value != null ? value.getBitmap().copy() : Bitmap.empty();
+            boolean previous = bitmap.set(offset, bit == 1);
+            db.put(key, withExpiration(bitmap(bitmap), value));
+            return integer(previous);
         } catch (NumberFormatException e) {
             return error("bit or offset is not an integer");
         }
     }
+
+    /**
+     * 修改位图不改变原来的过期时间
+     */
+    static DatabaseValue withExpiration(DatabaseValue value, DatabaseValue oldValue) {
+        if (oldValue != null && oldValue.getExpiredAt() != null) {
+            return value.expiredAt(oldValue.getExpiredAt());
+        }
+        return value;
+    }
 }
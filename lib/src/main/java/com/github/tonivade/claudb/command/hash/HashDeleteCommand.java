@@ -20,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.LinkedList;
 import java.util.List;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.hash;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -49,7 +48,7 @@ public class HashDeleteCommand implements DBCommand {
         // 待移除的键集合
         List<SafeString> removedKeys = new LinkedList<>();
         // 逐一移除 field 中的元素
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_HASH, (oldValue, newValue) -> {
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_HASH, (oldValue, newValue) -> {
             ImmutableMap<SafeString, SafeString> merge = oldValue.getHash();
             for (SafeString key : keys) {
                 merge.get(key).stream().forEach(removedKeys::add);
@@ -9,12 +9,10 @@ import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
-import com.github.tonivade.purefun.data.ImmutableMap;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
-import com.github.tonivade.resp.protocol.SafeString;
 
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -38,9 +36,7 @@ public class HashExistsCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
 
-        // 获取 field 对应的 hash 表
-        ImmutableMap<SafeString, SafeString> map = db.getHash(request.getParam(0));
-        // 判断是否存在该 hash 表
-        return integer(map.containsKey(request.getParam(1)));
+        // 判断 hash 表中是否存在该字段
+        return integer(db.getHashField(request.getParam(0), request.getParam(1)).isPresent());
     }
 }
@@ -15,7 +15,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.array;
 
 /**
@@ -40,7 +39,7 @@ public class HashGetAllCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
 
         // 获取 key 对应的 hash 表
-        DatabaseValue value = db.get(safeKey(request.getParam(0)));
+        DatabaseValue value = db.get(keyOf(db, request));
         // 若 hash 表不存在，则返回空集合，若存在，则返回元素集合
         if (value != null) {
             return convert(value);
@@ -9,12 +9,10 @@ import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
-import com.github.tonivade.purefun.data.ImmutableMap;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
-import com.github.tonivade.resp.protocol.SafeString;
 
 /**
  * @author <br/>
@@ -37,10 +35,8 @@ public class HashGetCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
 
-        // 获取 hash 表
-        ImmutableMap<SafeString, SafeString> map = db.getHash(request.getParam(0));
-        // 流式编程，返回满足条件的元素集合
-        return map.get(request.getParam(1))
+        // 只读取指定字段，堆外数据库无需反序列化整个 hash 表
+        return db.getHashField(request.getParam(0), request.getParam(1))
                 .map(RedisToken::string)
                 .getOrElse(RedisToken::nullString);
     }
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.hash;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -19,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.HashMap;
 import java.util.Map;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.entry;
 import static com.github.tonivade.claudb.data.DatabaseValue.hash;
 import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
@@ -29,6 +29,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
  * <p>
  * redis Hash 类型的 hmset 命令实现。
  */
+@DenyOom
 @Command("hmset")
 @ParamLength(3)
 @ParamType(DataType.HASH)
@@ -51,7 +52,7 @@ public class HashMultiSetCommand implements DBCommand {
 
             DatabaseValue value = hash(entry(mapKey, mapVal));
 
-            db.merge(safeKey(request.getParam(0)), value,
+            db.merge(keyOf(db, request), value,
                     (oldValue, newValue) -> {
                         Map<SafeString, SafeString> merge = new HashMap<>();
                         merge.putAll(oldValue.getHash().toMap());
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.hash;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -19,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.HashMap;
 import java.util.Map;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.entry;
 import static com.github.tonivade.claudb.data.DatabaseValue.hash;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
@@ -29,6 +29,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  * <p>
  * redis Hash 类型的 hset 命令实现。
  */
+@DenyOom
 @Command("hset")
 @ParamLength(3)
 @ParamType(DataType.HASH)
@@ -47,7 +48,7 @@ public class HashSetCommand implements DBCommand {
         // 获取 hash 表的指定 entry
         DatabaseValue value = hash(entry(request.getParam(1), request.getParam(2)));
         // 修改 entry 的 value
-        DatabaseValue resultValue = db.merge(safeKey(request.getParam(0)), value,
+        DatabaseValue resultValue = db.merge(keyOf(db, request), value,
                 (oldValue, newValue) -> {
                     Map<SafeString, SafeString> merge = new HashMap<>();
                     merge.putAll(oldValue.getHash().toMap());
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.HyperLogLog;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis HyperLogLog 类型的 pfadd 命令实现。
+ */
+@DenyOom
+@Command("pfadd")
+@ParamLength(1)
+@ParamType(DataType.STRING)
+public class HyperLogLogAddCommand implements DBCommand {
+
+    static final String INVALID = "WRONGTYPE Key is not a valid HyperLogLog string value.";
+
+    /**
+     * 命令形式： pfadd key [element ...] 把元素加入 HyperLogLog，有寄存器变化或者新建了键时返回 1，否则返回 0
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DatabaseKey key = keyOf(db, request);
+        DatabaseValue value = db.get(key);
+        HyperLogLog hyperLogLog;
+        try {
+            hyperLogLog = value != null ? value.getHyperLogLog().copy() : HyperLogLog.empty();
+        } catch (IllegalArgumentException e) {
+            return error(INVALID);
+        }
+        boolean changed = hyperLogLog.add(request.getParams().stream().skip(1).collect(toList()));
+        if (value == null || changed) {
+            DatabaseValue newValue = hyperLogLog(hyperLogLog);
+            db.put(key, value != null && value.getExpiredAt() != null ? newValue.expiredAt(value.getExpiredAt()) : newValue);
+            return integer(true);
+        }
+        return integer(false);
+    }
+}
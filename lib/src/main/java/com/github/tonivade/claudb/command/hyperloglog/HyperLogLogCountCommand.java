@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.HyperLogLog;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis HyperLogLog 类型的 pfcount 命令实现。
+ */
+@ReadOnly
+@Command("pfcount")
+@ParamLength(1)
+@ParamType(DataType.STRING)
+@ParamKeys(last = -1)
+public class HyperLogLogCountCommand implements DBCommand {
+
+    /**
+     * 命令形式： pfcount key [key ...] 返回估计的基数，多个键时返回并集的基数。
+     * 单个键的基数缓存在值中，寄存器没有变化时不需要重新计算；不修改数据库，因此可以在从节点和并发读时执行
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        List<HyperLogLog> values = new ArrayList<>(request.getLength());
+        for (SafeString param : request.getParams()) {
+            DatabaseKey key = safeKey(param);
+            if (!db.isType(key, DataType.STRING)) {
+                return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            DatabaseValue value = db.get(key);
+            if (value == null) {
+                continue;
+            }
+            try {
+                values.add(value.getHyperLogLog());
+            } catch (IllegalArgumentException e) {
+                return error(HyperLogLogAddCommand.INVALID);
+            }
+        }
+        return convertNumber(values.isEmpty() ? 0 : HyperLogLog.count(values));
+    }
+}
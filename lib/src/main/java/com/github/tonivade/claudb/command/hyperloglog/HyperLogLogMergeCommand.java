@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.HyperLogLog;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis HyperLogLog 类型的 pfmerge 命令实现。
+ */
+@DenyOom
+@Command("pfmerge")
+@ParamLength(1)
+@ParamType(DataType.STRING)
+@ParamKeys(last = -1)
+public class HyperLogLogMergeCommand implements DBCommand {
+
+    /**
+     * 命令形式： pfmerge destkey [sourcekey ...] 把 destkey 和所有源键合并后保存到 destkey，
+     * 结果的寄存器取各个输入的最大值
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        List<HyperLogLog> values = new ArrayList<>(request.getLength());
+        for (SafeString param : request.getParams()) {
+            DatabaseKey key = safeKey(param);
+            if (!db.isType(key, DataType.STRING)) {
+                return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            DatabaseValue value = db.get(key);
+            if (value == null) {
+                continue;
+            }
+            try {
+                values.add(value.getHyperLogLog());
+            } catch (IllegalArgumentException e) {
+                return error(HyperLogLogAddCommand.INVALID);
+            }
+        }
+        DatabaseKey destination = keyOf(db, request);
+        DatabaseValue oldValue = db.get(destination);
+        DatabaseValue newValue = hyperLogLog(HyperLogLog.merge(values));
+        db.put(destination, oldValue != null && oldValue.getExpiredAt() != null
+                ? newValue.expiredAt(oldValue.getExpiredAt()) : newValue);
+        return responseOk();
+    }
+}
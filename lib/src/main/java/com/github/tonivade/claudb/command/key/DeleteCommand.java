@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
 import com.github.tonivade.resp.annotation.Command;
@@ -23,6 +24,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  */
 @Command("del")
 @ParamLength(1)
+@ParamKeys(last = -1)
 public class DeleteCommand implements DBCommand {
 
     /**
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
@@ -26,6 +27,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
 @ReadOnly
 @Command("exists")
 @ParamLength(1)
+@ParamKeys
 public class ExistsCommand implements DBCommand {
 
     /**
@@ -37,6 +39,8 @@ public class ExistsCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         DatabaseValue value = db.get(safeKey(request.getParam(0)));
-        return integer(value != null ? !value.isExpired(Instant.now()) : false);
+        boolean exists = value != null && !value.isExpired(Instant.now());
+        getServerState(request.getServerContext()).getServerStats().keyspace(exists);
+        return integer(exists);
     }
 }
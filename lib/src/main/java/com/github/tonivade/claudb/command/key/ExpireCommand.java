@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
 import com.github.tonivade.resp.annotation.Command;
@@ -24,6 +25,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  */
 @Command("expire")
 @ParamLength(2)
+@ParamKeys
 public class ExpireCommand implements DBCommand {
 
     /**
@@ -1,6 +1,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseValue;
 import com.github.tonivade.resp.annotation.Command;
@@ -18,6 +19,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  */
 @Command("persist")
 @ParamLength(1)
+@ParamKeys
 public class PersistCommand implements DBCommand {
 
     /**
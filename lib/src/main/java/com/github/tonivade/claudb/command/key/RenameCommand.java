@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -22,6 +23,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
  */
 @Command("rename")
 @ParamLength(2)
+@ParamKeys(last = 1)
 public class RenameCommand implements DBCommand {
 
     /**
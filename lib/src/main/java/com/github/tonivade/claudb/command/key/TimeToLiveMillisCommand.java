@@ -4,6 +4,7 @@
  */
 package com.github.tonivade.claudb.command.key;
 
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.DatabaseValue;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -17,6 +18,7 @@ import java.time.Instant;
  */
 @Command("pttl")
 @ParamLength(1)
+@ParamKeys
 public class TimeToLiveMillisCommand extends TimeToLiveCommand {
 
     /**
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.key;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -25,6 +26,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.status;
 @ReadOnly
 @Command("type")
 @ParamLength(1)
+@ParamKeys
 public class TypeCommand implements DBCommand {
 
     /**
@@ -36,6 +38,7 @@ public class TypeCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         DatabaseValue value = db.get(safeKey(request.getParam(0)));
+        getServerState(request.getServerContext()).getServerStats().keyspace(value != null);
         if (value != null) {
             return status(value.getType().text());
         } else {
@@ -19,7 +19,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.LinkedList;
 import java.util.List;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.list;
 import static com.github.tonivade.resp.protocol.RedisToken.nullString;
 import static com.github.tonivade.resp.protocol.RedisToken.string;
@@ -43,7 +42,7 @@ public class LeftPopCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         List<SafeString> removed = new LinkedList<>();
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_LIST,
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_LIST,
                 (oldValue, newValue) -> {
                     ImmutableList<SafeString> list = oldValue.getList();
                     list.head().stream().forEach(removed::add);
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.list;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -16,7 +17,6 @@ import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.SafeString;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.list;
 
 /**
@@ -24,6 +24,7 @@ import static com.github.tonivade.claudb.data.DatabaseValue.list;
  * <p>
  * redis List 类型的 lpush 命令实现。
  */
+@DenyOom
 @Command("lpush")
 @ParamLength(2)
 @ParamType(DataType.LIST)
@@ -39,7 +40,7 @@ public class LeftPushCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         ImmutableList<SafeString> values = request.getParams().asList().tail().reverse();
 
-        DatabaseValue result = db.merge(safeKey(request.getParam(0)), list(values),
+        DatabaseValue result = db.merge(keyOf(db, request), list(values),
                 (oldValue, newValue) -> list(newValue.getList().appendAll(oldValue.getList())));
 
         return RedisToken.integer(result.size());
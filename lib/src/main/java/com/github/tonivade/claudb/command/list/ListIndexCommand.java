@@ -9,12 +9,10 @@ import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
-import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
-import com.github.tonivade.resp.protocol.SafeString;
 
 import static com.github.tonivade.resp.protocol.RedisToken.*;
 
@@ -38,19 +36,13 @@ public class ListIndexCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            ImmutableList<SafeString> list = db.getList(request.getParam(0));
-
             int index = Integer.parseInt(request.getParam(1).toString());
-            if (index < 0) {
-                index = list.size() + index;
-            }
-
-            // TODO: fix asArray
-            return string(list.asArray().get(index));
+            // 负数索引从末尾倒数，越界时返回空
+            return db.getListItem(request.getParam(0), index)
+                    .map(RedisToken::string)
+                    .getOrElse(RedisToken::nullString);
         } catch (NumberFormatException e) {
             return error("ERR value is not an integer or out of range");
-        } catch (IndexOutOfBoundsException e) {
-            return nullString();
         }
     }
 }
@@ -17,7 +17,6 @@ import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.SafeString;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 
 /**
@@ -40,7 +39,7 @@ public class ListRangeCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_LIST);
+            DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_LIST);
             ImmutableList<SafeString> list = value.getList();
 
             int from = Integer.parseInt(request.getParam(1).toString());
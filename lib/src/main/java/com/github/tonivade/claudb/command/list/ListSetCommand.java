@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.list;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -19,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.list;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.status;
@@ -29,6 +29,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.status;
  * <p>
  * redis List 类型的 lset 命令实现。
  */
+@DenyOom
 @Command("lset")
 @ParamLength(3)
 @ParamType(DataType.LIST)
@@ -44,7 +45,7 @@ public class ListSetCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         try {
             int index = Integer.parseInt(request.getParam(1).toString());
-            db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_LIST,
+            db.merge(keyOf(db, request), DatabaseValue.EMPTY_LIST,
                     (oldValue, newValue) -> {
                         ImmutableList<SafeString> oldList = oldValue.getList();
                         // TODO: use Array
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.list;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -16,7 +17,6 @@ import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.SafeString;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.list;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -25,6 +25,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  * <p>
  * redis List 类型的 rpush 命令实现。
  */
+@DenyOom
 @Command("rpush")
 @ParamLength(2)
 @ParamType(DataType.LIST)
@@ -40,7 +41,7 @@ public class RightPushCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         ImmutableList<SafeString> values = request.getParams().asList().tail();
 
-        DatabaseValue result = db.merge(safeKey(request.getParam(0)), list(values),
+        DatabaseValue result = db.merge(keyOf(db, request), list(values),
                 (oldValue, newValue) -> list(oldValue.getList().appendAll(newValue.getList())));
 
         return integer(result.size());
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.server;
+
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.KeyAnalyzer;
+import com.github.tonivade.claudb.data.KeyAnalyzer.KeyStat;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 数据库相关命令的 analyze 命令实现，查询后台分析得到的大键和热键
+ */
+@ReadOnly
+@Command("analyze")
+@ParamLength(1)
+public class AnalyzeCommand implements DBCommand {
+
+    /**
+     * 默认返回的键个数
+     */
+    private static final int DEFAULT_COUNT = 10;
+
+    /**
+     * 命令形式： analyze bigkeys|hotkeys [count] 返回占用内存最多或访问最频繁的键，
+     * 每个键为 [数据库序号, 键, 类型, 估算的字节数或访问次数]。
+     * 大键来自后台限速扫描，刚启动时可能还没有扫描完全部的键；已经删除的键不返回
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DBServerState state = getServerState(request.getServerContext());
+        KeyAnalyzer analyzer = state.getAnalyzer();
+        if (!analyzer.isActive()) {
+            return error("ERR key analyzer is not enabled");
+        }
+        if (request.getLength() > 2) {
+            return error("ERR syntax error");
+        }
+        int count = DEFAULT_COUNT;
+        if (request.getLength() == 2) {
+            try {
+                count = Integer.parseInt(request.getParam(1).toString());
+            } catch (NumberFormatException e) {
+                return error("ERR value is not an integer or out of range");
+            }
+            if (count <= 0) {
+                return error("ERR value is not an integer or out of range");
+            }
+        }
+        String subcommand = request.getParam(0).toString().toLowerCase();
+        switch (subcommand) {
+            case "bigkeys":
+                return report(state, analyzer.getBigKeys(count));
+            case "hotkeys":
+                return report(state, analyzer.getHotKeys(count));
+            default:
+                return error("ERR unknown subcommand '" + request.getParam(0) + "'");
+        }
+    }
+
+    private RedisToken report(DBServerState state, List<KeyStat> stats) {
+        List<RedisToken> result = new ArrayList<>();
+        for (KeyStat stat : stats) {
+            DataType type = state.getDatabase(stat.getDatabase()).typeOf(stat.getKey());
+            if (type != DataType.NONE) {
+                result.add(RedisToken.array(
+                        RedisToken.integer(stat.getDatabase()),
+                        string(stat.getKey().getValue()),
+                        string(type.text()),
+                        convertNumber(stat.getValue())));
+            }
+        }
+        return RedisToken.array(result);
+    }
+}
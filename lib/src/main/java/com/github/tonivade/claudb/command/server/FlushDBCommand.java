@@ -5,6 +5,7 @@
 
 package com.github.tonivade.claudb.command.server;
 
+import com.github.tonivade.claudb.DBServerState;
 import com.github.tonivade.claudb.command.DBCommand;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.resp.annotation.Command;
@@ -30,6 +31,10 @@ public class FlushDBCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         db.clear();
+        DBServerState serverState = getServerState(request.getServerContext());
+        if (serverState.hasWatchedKeys()) {
+            serverState.touchAll(getSessionState(request.getSession()).getCurrentDB());
+        }
         return responseOk();
     }
 }
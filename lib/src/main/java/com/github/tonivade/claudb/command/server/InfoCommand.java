@@ -9,9 +9,13 @@ import static com.github.tonivade.resp.protocol.RedisToken.string;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
 import static java.lang.String.valueOf;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toMap;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -20,9 +24,15 @@ import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.stream.Stream;
 
+import com.github.tonivade.claudb.DBServerState;
 import com.github.tonivade.claudb.command.DBCommand;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.EvictionManager;
+import com.github.tonivade.claudb.data.MemoryEstimator;
+import com.github.tonivade.claudb.monitor.CommandStats;
+import com.github.tonivade.claudb.monitor.LatencyHistogram;
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.command.Request;
@@ -45,6 +55,7 @@ public class InfoCommand implements DBCommand {
 
   private static final String SECTION_KEYSPACE = "keyspace";
   private static final String SECTION_COMMANDSTATS = "commandstats";
+  private static final String SECTION_LATENCYSTATS = "latencystats";
   private static final String SECTION_CPU = "cpu";
   private static final String SECTION_STATS = "stats";
   private static final String SECTION_PERSISTENCE = "persistence";
@@ -84,7 +95,7 @@ public class InfoCommand implements DBCommand {
   private List<String> allSections() {
     return asList(SECTION_SERVER, SECTION_REPLICATION, SECTION_CLIENTS,
         SECTION_MEMORY, SECTION_PERSISTENCE, SECTION_STATS, SECTION_CPU,
-        SECTION_COMMANDSTATS, SECTION_KEYSPACE);
+        SECTION_COMMANDSTATS, SECTION_LATENCYSTATS, SECTION_KEYSPACE);
   }
 
   private Map<String, String> section(String section, ServerContext ctx) {
@@ -105,6 +116,8 @@ public class InfoCommand implements DBCommand {
       return cpu(ctx);
     case SECTION_COMMANDSTATS:
       return commandstats(ctx);
+    case SECTION_LATENCYSTATS:
+      return latencystats(ctx);
     case SECTION_KEYSPACE:
       return keyspace(ctx);
     default:
@@ -142,32 +155,142 @@ public class InfoCommand implements DBCommand {
   }
 
   private Map<String, String> memory(ServerContext ctx) {
-    return map(entry("used_memory", valueOf(Runtime.getRuntime().totalMemory())));
+    DBServerState state = getServerState(ctx);
+    EvictionManager eviction = state.getEviction();
+    long dataset = state.getDatasetMemory();
+    long overhead = state.getOverheadMemory();
+    long used = dataset + overhead;
+    Runtime runtime = Runtime.getRuntime();
+    return map(entry("used_memory", valueOf(used)),
+               entry("used_memory_human", MemoryEstimator.human(used)),
+               entry("used_memory_dataset", valueOf(dataset)),
+               entry("used_memory_dataset_perc", percentage(dataset, used)),
+               entry("used_memory_overhead", valueOf(overhead)),
+               entry("used_memory_jvm_heap", valueOf(runtime.totalMemory() - runtime.freeMemory())),
+               entry("total_jvm_heap", valueOf(runtime.totalMemory())),
+               entry("maxmemory", valueOf(eviction.getMaxMemory())),
+               entry("maxmemory_human", MemoryEstimator.human(eviction.getMaxMemory())),
+               entry("maxmemory_policy", eviction.getPolicy().text()));
+  }
+
+  private String percentage(long value, long total) {
+    return String.format("%.2f%%", total > 0 ? value * 100.0 / total : 0.0);
   }
 
   private Map<String, String> persistence(ServerContext ctx) {
-    // TODO:
-    return map();
+    ServerStats stats = getServerState(ctx).getServerStats();
+    long aofLastWrite = stats.getAofLastWriteTime();
+    return map(entry("rdb_changes_since_last_save", valueOf(stats.getChangesSinceLastSave())),
+               entry("rdb_last_save_time", valueOf(MILLISECONDS.toSeconds(stats.getLastSaveTime()))),
+               entry("rdb_last_bgsave_status", status(stats.isLastSaveOk())),
+               entry("aof_enabled", stats.isAofEnabled() ? "1" : "0"),
+               entry("aof_last_write_time", valueOf(aofLastWrite < 0 ? -1 : MILLISECONDS.toSeconds(aofLastWrite))),
+               entry("aof_last_write_status", status(stats.isAofLastWriteOk())));
+  }
+
+  private String status(boolean ok) {
+    return ok ? "ok" : "err";
   }
 
   private Map<String, String> stats(ServerContext ctx) {
-    // TODO:
-    return map();
+    DBServerState state = getServerState(ctx);
+    ServerStats stats = state.getServerStats();
+    return map(entry("total_commands_processed", valueOf(state.getCommandMonitor().getTotalCalls())),
+               entry("instantaneous_ops_per_sec", valueOf(stats.getInstantaneousOps())),
+               entry("total_net_input_bytes", valueOf(stats.getNetInputBytes())),
+               entry("total_net_output_bytes", valueOf(stats.getNetOutputBytes())),
+               entry("instantaneous_input_kbps", kbps(stats.getInstantaneousInputBytes())),
+               entry("instantaneous_output_kbps", kbps(stats.getInstantaneousOutputBytes())),
+               entry("expired_keys", valueOf(state.getExpiredKeys())),
+               entry("evicted_keys", valueOf(state.getEviction().getEvictedKeys())),
+               entry("keyspace_hits", valueOf(stats.getKeyspaceHits())),
+               entry("keyspace_misses", valueOf(stats.getKeyspaceMisses())));
+  }
+
+  private String kbps(long bytesPerSecond) {
+    return String.format("%.2f", bytesPerSecond / 1024.0);
   }
 
   private Map<String, String> cpu(ServerContext ctx) {
-    // TODO:
-    return map();
+    long total = processCpuTime();
+    long user = userCpuTime();
+    return map(entry("used_cpu_sys", seconds(Math.max(total - user, 0))),
+               entry("used_cpu_user", seconds(user)));
+  }
+
+  /**
+   * 进程的 CPU 时间（纳秒），JVM 不支持时为 0
+   */
+  private long processCpuTime() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return Math.max(((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime(), 0);
+    }
+    return 0;
+  }
+
+  /**
+   * 全部存活线程的用户态 CPU 时间（纳秒）
+   */
+  private long userCpuTime() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!threads.isThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled()) {
+      return 0;
+    }
+    long user = 0;
+    for (long id : threads.getAllThreadIds()) {
+      user += Math.max(threads.getThreadUserTime(id), 0);
+    }
+    return user;
+  }
+
+  private String seconds(long nanos) {
+    return String.format("%.6f", nanos / 1e9);
   }
 
   private Map<String, String> commandstats(ServerContext ctx) {
-    // TODO:
-    return map();
+    Map<String, String> result = new TreeMap<>();
+    for (CommandStats stats : getServerState(ctx).getCommandMonitor().getAll()) {
+      long calls = stats.getCalls();
+      result.put("cmdstat_" + stats.getName(), "calls=" + calls
+          + ",usec=" + stats.getUsec()
+          + ",usec_per_call=" + String.format("%.2f", calls > 0 ? (double) stats.getUsec() / calls : 0.0)
+          + ",rejected_calls=" + stats.getRejectedCalls()
+          + ",failed_calls=" + stats.getFailedCalls());
+    }
+    return result;
   }
 
+  private Map<String, String> latencystats(ServerContext ctx) {
+    Map<String, String> result = new TreeMap<>();
+    for (CommandStats stats : getServerState(ctx).getCommandMonitor().getAll()) {
+      LatencyHistogram histogram = stats.getHistogram();
+      if (stats.getCalls() > 0) {
+        result.put("latency_percentiles_usec_" + stats.getName(),
+            "p50=" + histogram.getPercentile(50)
+            + ",p99=" + histogram.getPercentile(99)
+            + ",p99.9=" + histogram.getPercentile(99.9));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 只列出不为空的数据库，expires 和 avg_ttl 为最近一次定期清理时的统计
+   */
   private Map<String, String> keyspace(ServerContext ctx) {
-    // TODO:
-    return map();
+    DBServerState state = getServerState(ctx);
+    ServerStats stats = state.getServerStats();
+    Map<String, String> result = new LinkedHashMap<>();
+    for (int i = 0; i < state.getNumDatabases(); i++) {
+      int keys = state.getDatabase(i).size();
+      if (keys > 0) {
+        result.put("db" + i, "keys=" + keys
+            + ",expires=" + stats.getExpires(i)
+            + ",avg_ttl=" + stats.getAvgTtl(i));
+      }
+    }
+    return result;
   }
 
   @SafeVarargs
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.server;
+
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.monitor.CommandMonitor;
+import com.github.tonivade.claudb.monitor.CommandStats;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 数据库相关命令的 latency 命令实现，支持 latest、history、reset 和 histogram 子命令。
+ */
+@ReadOnly
+@Command("latency")
+@ParamLength(1)
+public class LatencyCommand implements DBCommand {
+
+    /**
+     * 命令形式： latency latest 返回每种延迟事件最近一次的时间戳、耗时和最大耗时（毫秒）；
+     * latency history event 返回事件最近 160 秒的记录；
+     * latency reset [event ...] 清除事件，返回清除的个数；
+     * latency histogram [command ...] 返回命令的调用次数和按 2 的幂分段的累计延迟分布（微秒）
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DBServerState state = getServerState(request.getServerContext());
+        String subcommand = request.getParam(0).toString().toLowerCase();
+        switch (subcommand) {
+            case "latest":
+                return latest(state.getLatencyMonitor());
+            case "history":
+                if (request.getLength() != 2) {
+                    return error("ERR wrong number of arguments for 'latency|history' command");
+                }
+                return history(state.getLatencyMonitor(), request.getParam(1).toString());
+            case "reset":
+                return RedisToken.integer(state.getLatencyMonitor().reset(params(request)));
+            case "histogram":
+                return histogram(state.getCommandMonitor(), params(request));
+            default:
+                return error("ERR unknown subcommand '" + request.getParam(0) + "'");
+        }
+    }
+
+    private RedisToken latest(LatencyMonitor monitor) {
+        List<RedisToken> result = new ArrayList<>();
+        for (LatencyMonitor.Event event : monitor.getEvents()) {
+            LatencyMonitor.Sample latest = event.getLatest();
+            result.add(RedisToken.array(string(event.getName()),
+                    convertNumber(latest.getTime()), convertNumber(latest.getLatency()),
+                    convertNumber(event.getMax())));
+        }
+        return RedisToken.array(result);
+    }
+
+    private RedisToken history(LatencyMonitor monitor, String name) {
+        List<RedisToken> result = new ArrayList<>();
+        monitor.getEvent(name).ifPresent(event -> {
+            for (LatencyMonitor.Sample sample : event.getHistory()) {
+                result.add(RedisToken.array(convertNumber(sample.getTime()), convertNumber(sample.getLatency())));
+            }
+        });
+        return RedisToken.array(result);
+    }
+
+    private RedisToken histogram(CommandMonitor monitor, List<String> commands) {
+        List<CommandStats> selected = new ArrayList<>();
+        if (commands.isEmpty()) {
+            selected.addAll(monitor.getAll());
+        } else {
+            for (String command : commands) {
+                monitor.find(command).ifPresent(selected::add);
+            }
+        }
+        List<RedisToken> result = new ArrayList<>();
+        for (CommandStats stats : selected) {
+            if (stats.getCalls() == 0) {
+                continue;
+            }
+            List<RedisToken> buckets = new ArrayList<>();
+            for (Map.Entry<Long, Long> bucket : stats.getHistogram().getCumulative().entrySet()) {
+                buckets.add(convertNumber(bucket.getKey()));
+                buckets.add(convertNumber(bucket.getValue()));
+            }
+            result.add(string(stats.getName()));
+            result.add(RedisToken.array(string("calls"), convertNumber(stats.getCalls()),
+                    string("histogram_usec"), RedisToken.array(buckets)));
+        }
+        return RedisToken.array(result);
+    }
+
+    private List<String> params(Request request) {
+        List<String> params = new ArrayList<>();
+        for (int i = 1; i < request.getLength(); i++) {
+            params.add(request.getParam(i).toString().toLowerCase());
+        }
+        return params;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.server;
+
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.MemoryEstimator;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 数据库相关命令的 memory 命令实现，支持 usage 和 stats 子命令。
+ * 只有 usage 子命令带键，其他子命令不含键，需要遍历所有数据库，加全部的键槽锁执行。
+ */
+@ReadOnly
+@Command("memory")
+@ParamLength(1)
+@ParamKeys(keyword = "usage", last = 0)
+public class MemoryCommand implements DBCommand {
+
+    private static final String SAMPLES = "samples";
+
+    /**
+     * 命令形式： memory usage key [samples count] 返回键占用的内存估算（字节），
+     * 集合类型默认只采样 5 个元素，samples 0 表示计算全部元素；
+     * memory stats 返回服务器的内存使用统计
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        String subcommand = request.getParam(0).toString().toLowerCase();
+        switch (subcommand) {
+            case "usage":
+                return usage(db, request);
+            case "stats":
+                return stats(getServerState(request.getServerContext()));
+            default:
+                return error("ERR unknown subcommand '" + request.getParam(0) + "'");
+        }
+    }
+
+    private RedisToken usage(Database db, Request request) {
+        if (request.getLength() != 2 && request.getLength() != 4) {
+            return error("ERR syntax error");
+        }
+        int samples = MemoryEstimator.DEFAULT_SAMPLES;
+        if (request.getLength() == 4) {
+            if (!SAMPLES.equalsIgnoreCase(request.getParam(2).toString())) {
+                return error("ERR syntax error");
+            }
+            try {
+                samples = Integer.parseInt(request.getParam(3).toString());
+            } catch (NumberFormatException e) {
+                return error("ERR value is not an integer or out of range");
+            }
+            if (samples < 0) {
+                return error("ERR value is not an integer or out of range");
+            }
+        }
+        return db.memoryUsage(safeKey(request.getParam(1)), samples)
+                .map(this::convertNumber)
+                .getOrElse(RedisToken::nullString);
+    }
+
+    private RedisToken stats(DBServerState state) {
+        long dataset = state.getDatasetMemory();
+        long overhead = state.getOverheadMemory();
+        long used = dataset + overhead;
+        long keys = 0;
+        List<RedisToken> databases = new ArrayList<>();
+        for (int i = 0; i < state.getNumDatabases(); i++) {
+            Database db = state.getDatabase(i);
+            int size = db.size();
+            keys += size;
+            if (size > 0) {
+                databases.add(string("db." + i));
+                databases.add(RedisToken.array(
+                        string("keys"), convertNumber(size),
+                        string("dataset.bytes"), convertNumber(db.usedMemory()),
+                        string("overhead.bytes"), convertNumber(db.overheadMemory())));
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        List<RedisToken> stats = new ArrayList<>();
+        stats.add(string("total.allocated"));
+        stats.add(convertNumber(used));
+        stats.add(string("dataset.bytes"));
+        stats.add(convertNumber(dataset));
+        stats.add(string("dataset.percentage"));
+        stats.add(string(String.format("%.2f", used > 0 ? dataset * 100.0 / used : 0.0)));
+        stats.add(string("overhead.total"));
+        stats.add(convertNumber(overhead));
+        stats.add(string("keys.count"));
+        stats.add(convertNumber(keys));
+        stats.add(string("keys.bytes-per-key"));
+        stats.add(convertNumber(keys > 0 ? used / keys : 0));
+        stats.add(string("jvm.heap.used"));
+        stats.add(convertNumber(runtime.totalMemory() - runtime.freeMemory()));
+        stats.addAll(databases);
+        return RedisToken.array(stats);
+    }
+}
@@ -66,8 +66,7 @@ public class SlaveOfCommand implements DBCommand {
      * @param port      主机端口号
      */
     private void startReplication(Request request, String host, String port) {
-        slave = new SlaveReplication(
-                getClauDB(request.getServerContext()), request.getSession(), host, Integer.parseInt(port));
+        slave = new SlaveReplication(getClauDB(request.getServerContext()), host, Integer.parseInt(port));
 
         slave.start();
     }
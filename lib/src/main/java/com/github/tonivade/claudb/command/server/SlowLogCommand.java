@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.server;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 数据库相关命令的 slowlog 命令实现，支持 get、len 和 reset 子命令。
+ */
+@ReadOnly
+@Command("slowlog")
+@ParamLength(1)
+public class SlowLogCommand implements DBCommand {
+
+    /**
+     * 默认返回的记录数
+     */
+    private static final int DEFAULT_COUNT = 10;
+
+    /**
+     * 命令形式： slowlog get [count] 返回最近的慢查询，count 为 -1 时返回全部，
+     * 每条记录为 [编号, 时间戳, 执行时间（微秒）, [命令和参数], 客户端, 数据库序号]；
+     * slowlog len 返回记录数；slowlog reset 清除全部记录
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        SlowLog slowLog = getServerState(request.getServerContext()).getSlowLog();
+        String subcommand = request.getParam(0).toString().toLowerCase();
+        switch (subcommand) {
+            case "get":
+                return get(slowLog, request);
+            case "len":
+                return RedisToken.integer(slowLog.size());
+            case "reset":
+                slowLog.reset();
+                return responseOk();
+            default:
+                return error("ERR unknown subcommand '" + request.getParam(0) + "'");
+        }
+    }
+
+    private RedisToken get(SlowLog slowLog, Request request) {
+        int count = DEFAULT_COUNT;
+        if (request.getLength() > 1) {
+            try {
+                count = Integer.parseInt(request.getParam(1).toString());
+            } catch (NumberFormatException e) {
+                return error("ERR value is not an integer or out of range");
+            }
+            if (count < -1) {
+                return error("ERR count should be greater than or equal to -1");
+            }
+        }
+        List<RedisToken> result = new ArrayList<>();
+        for (SlowLog.Entry entry : slowLog.get(count)) {
+            List<RedisToken> arguments = new ArrayList<>();
+            for (String argument : entry.getArguments()) {
+                arguments.add(string(argument));
+            }
+            result.add(RedisToken.array(
+                    convertNumber(entry.getId()),
+                    convertNumber(entry.getTimestamp()),
+                    convertNumber(entry.getDuration()),
+                    RedisToken.array(arguments),
+                    string(String.valueOf(entry.getClient())),
+                    RedisToken.integer(entry.getDatabase())));
+        }
+        return RedisToken.array(result);
+    }
+}
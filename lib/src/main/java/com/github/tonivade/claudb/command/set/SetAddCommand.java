@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.set;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -17,7 +18,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 
 import java.util.List;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.set;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 import static java.util.stream.Collectors.toList;
@@ -27,6 +27,7 @@ import static java.util.stream.Collectors.toList;
  * <p>
  * redis Set 类型的 sadd 命令实现。
  */
+@DenyOom
 @Command("sadd")
 @ParamLength(2)
 @ParamType(DataType.SET)
@@ -41,7 +42,7 @@ public class SetAddCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         List<SafeString> values = request.getParams().stream().skip(1).collect(toList());
-        DatabaseValue value = db.merge(safeKey(request.getParam(0)), set(values),
+        DatabaseValue value = db.merge(keyOf(db, request), set(values),
                 (oldValue, newValue) -> set(oldValue.getSet().appendAll(newValue.getSet())));
         return integer(value.size());
     }
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.set;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
@@ -25,6 +26,7 @@ import com.github.tonivade.resp.protocol.SafeString;
 @Command("sinter")
 @ParamLength(2)
 @ParamType(DataType.SET)
+@ParamKeys(last = -1)
 public class SetIntersectionCommand implements DBCommand {
 
     /**
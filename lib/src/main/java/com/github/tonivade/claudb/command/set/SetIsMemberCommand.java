@@ -9,12 +9,10 @@ import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
-import com.github.tonivade.purefun.data.ImmutableSet;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
-import com.github.tonivade.resp.protocol.SafeString;
 
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -37,7 +35,6 @@ public class SetIsMemberCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        ImmutableSet<SafeString> set = db.getSet(request.getParam(0));
-        return integer(set.contains(request.getParam(1)));
+        return integer(db.isSetMember(request.getParam(0), request.getParam(1)));
     }
 }
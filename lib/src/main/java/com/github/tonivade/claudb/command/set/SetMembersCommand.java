@@ -15,8 +15,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-
 /**
  * @author zhou <br/>
  * <p>
@@ -36,7 +34,7 @@ public class SetMembersCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_SET);
+        DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_SET);
         return convert(value);
     }
 }
@@ -21,7 +21,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.set;
 import static com.github.tonivade.resp.protocol.RedisToken.nullString;
 import static com.github.tonivade.resp.protocol.RedisToken.string;
@@ -45,7 +44,7 @@ public class SetPopCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         List<SafeString> removed = new LinkedList<>();
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_SET,
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_SET,
                 (oldValue, newValue) -> {
                     ImmutableSet<SafeString> oldSet = oldValue.getSet();
                     SafeString item = getRandomItem(oldSet.asArray());
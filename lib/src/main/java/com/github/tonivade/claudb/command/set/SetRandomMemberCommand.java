@@ -22,7 +22,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.set;
 import static com.github.tonivade.resp.protocol.RedisToken.nullString;
 import static com.github.tonivade.resp.protocol.RedisToken.string;
@@ -51,7 +50,7 @@ public class SetRandomMemberCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         List<SafeString> random = new LinkedList<>();
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_SET,
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_SET,
                 (oldValue, newValue) -> {
                     ImmutableArray<SafeString> merge = oldValue.getSet().asArray();
                     random.add(merge.get(random(merge)));
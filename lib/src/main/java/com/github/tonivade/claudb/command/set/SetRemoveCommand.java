@@ -20,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.LinkedList;
 import java.util.List;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.set;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
@@ -44,7 +43,7 @@ public class SetRemoveCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         ImmutableList<SafeString> items = request.getParams().asList().tail();
         List<SafeString> removed = new LinkedList<>();
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_SET,
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_SET,
                 (oldValue, newValue) -> {
                     ImmutableSet<SafeString> oldSet = oldValue.getSet();
                     oldSet.intersection(items.asSet()).stream().forEach(removed::add);
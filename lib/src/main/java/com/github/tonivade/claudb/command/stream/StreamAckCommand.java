@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.withExpiration;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xack 命令实现。
+ */
+@Command("xack")
+@ParamLength(3)
+@ParamType(DataType.STREAM)
+public class StreamAckCommand implements DBCommand {
+
+    /**
+     * 命令形式： xack key group id [id ...] 确认条目已被处理，从消费者组的 PEL 中删除，返回删除的条目数
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        List<StreamId> ids = new ArrayList<>(request.getLength() - 2);
+        try {
+            for (int i = 2; i < request.getLength(); i++) {
+                ids.add(StreamId.parse(request.getParam(i)));
+            }
+        } catch (IllegalArgumentException e) {
+            return error(INVALID_ID);
+        }
+        DatabaseKey key = keyOf(db, request);
+        DatabaseValue value = db.get(key);
+        SafeString name = request.getParam(1);
+        if (value == null || value.getStream().getGroup(name) == null) {
+            return integer(0);
+        }
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name);
+        int acked = 0;
+        for (StreamId id : ids) {
+            StreamGroup newGroup = group.ack(id);
+            if (newGroup != group) {
+                acked++;
+                group = newGroup;
+            }
+        }
+        if (acked > 0) {
+            db.put(key, withExpiration(stream(stream.withGroup(name, group)), value));
+        }
+        return integer(acked);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.NOT_INTEGER;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.withExpiration;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xadd 命令实现。
+ */
+@DenyOom
+@Command("xadd")
+@ParamLength(4)
+@ParamType(DataType.STREAM)
+public class StreamAddCommand implements DBCommand {
+
+    private static final String MAXLEN = "maxlen";
+    private static final String MINID = "minid";
+
+    /**
+     * 命令形式： xadd key [NOMKSTREAM] [MAXLEN|MINID [=|~] threshold] *|id field value [field value ...]
+     * 在流的末尾添加条目并返回条目的 ID，之后按长度或最小 ID 裁剪流，"~" 表示只删除整个块的近似裁剪。
+     * ID 为 "*" 时由当前时间生成，"ms-*" 时在指定的毫秒内生成序号。
+     * 自动生成的 ID 和近似裁剪的结果在复制和持久化时改写为确定的 ID 和精确裁剪
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        int index = 1;
+        boolean noMakeStream = false;
+        String trim = null;
+        boolean approximate = false;
+        SafeString threshold = null;
+        while (index < request.getLength()) {
+            String option = request.getParam(index).toString();
+            if ("nomkstream".equalsIgnoreCase(option)) {
+                noMakeStream = true;
+                index++;
+            } else if (MAXLEN.equalsIgnoreCase(option) || MINID.equalsIgnoreCase(option)) {
+                trim = option.toLowerCase();
+                index++;
+                String modifier = index < request.getLength() ? request.getParam(index).toString() : "";
+                if (modifier.equals("~") || modifier.equals("=")) {
+                    approximate = modifier.equals("~");
+                    index++;
+                }
+                if (index >= request.getLength()) {
+                    return error(SYNTAX_ERROR);
+                }
+                threshold = request.getParam(index++);
+            } else {
+                break;
+            }
+        }
+        int fields = request.getLength() - index - 1;
+        if (fields <= 0 || fields % 2 != 0) {
+            return error("ERR wrong number of arguments for 'xadd' command");
+        }
+
+        long maxLength = 0;
+        StreamId minId = null;
+        if (MAXLEN.equals(trim)) {
+            try {
+                maxLength = Long.parseLong(threshold.toString());
+            } catch (NumberFormatException e) {
+                return error(NOT_INTEGER);
+            }
+            if (maxLength < 0) {
+                return error("ERR The MAXLEN argument must be >= 0.");
+            }
+        } else if (MINID.equals(trim)) {
+            try {
+                minId = StreamId.parse(threshold);
+            } catch (IllegalArgumentException e) {
+                return error(INVALID_ID);
+            }
+        }
+
+        DatabaseKey key = keyOf(db, request);
+        DatabaseValue value = db.get(key);
+        if (value == null && noMakeStream) {
+            return RedisToken.nullString();
+        }
+        StreamValue stream = value != null ? value.getStream() : StreamValue.empty();
+
+        SafeString idParam = request.getParam(index);
+        String text = idParam.toString();
+        boolean generated = text.equals("*") || text.endsWith("-*");
+        StreamId id;
+        try {
+            if (text.equals("*")) {
+                id = stream.nextId(System.currentTimeMillis());
+            } else if (text.endsWith("-*")) {
+                id = stream.nextSequence(StreamId.parse(safeString(text.substring(0, text.length() - 2))).getMillis());
+            } else if (text.equals("-") || text.equals("+")) {
+                return error(INVALID_ID);
+            } else {
+                id = StreamId.parse(idParam);
+            }
+        } catch (IllegalArgumentException e) {
+            return error(INVALID_ID);
+        }
+        if (id == null && text.equals("*")) {
+            return error("ERR The stream has exhausted the last possible ID, unable to add more items");
+        }
+        if (StreamId.MIN.equals(id)) {
+            return error("ERR The ID specified in XADD must be greater than 0-0");
+        }
+        if (id == null || id.compareTo(stream.getLastId()) <= 0) {
+            return error("ERR The ID specified in XADD is equal or smaller than the target stream top item");
+        }
+
+        List<SafeString> values = new ArrayList<>(fields);
+        for (int i = index + 1; i < request.getLength(); i++) {
+            values.add(request.getParam(i));
+        }
+        StreamValue newStream = stream.add(id, values);
+        if (MAXLEN.equals(trim)) {
+            newStream = newStream.trimToLength(maxLength, approximate);
+        } else if (minId != null) {
+            newStream = newStream.trimToMinId(minId, approximate);
+        }
+        db.put(key, withExpiration(stream(newStream), value));
+
+        if (generated || approximate) {
+            propagate(request, index, id, trim, newStream, minId);
+        }
+        return RedisToken.string(id.toSafeString());
+    }
+
+    /**
+     * 复制和持久化时使用确定的 ID，近似裁剪改为裁剪到实际结果的精确裁剪
+     */
+    private void propagate(Request request, int index, StreamId id, String trim, StreamValue newStream,
+                           StreamId minId) {
+        List<SafeString> params = new ArrayList<>(request.getLength());
+        params.add(request.getParam(0));
+        if (trim != null) {
+            params.add(safeString(trim.toUpperCase()));
+            params.add(safeString("="));
+            if (MAXLEN.equals(trim)) {
+                params.add(safeString(String.valueOf(newStream.length())));
+            } else {
+                StreamId first = newStream.getFirstId();
+                params.add((first != null ? first : minId).toSafeString());
+            }
+        }
+        params.add(id.toSafeString());
+        for (int i = index + 1; i < request.getLength(); i++) {
+            params.add(request.getParam(i));
+        }
+        getSessionState(request.getSession()).propagate(request, StreamArguments.rewrite(request, params));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.resp.command.DefaultRequest;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.List;
+
+import static com.github.tonivade.purefun.data.Sequence.arrayOf;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流命令共用的参数解析和错误信息
+ */
+final class StreamArguments {
+
+    static final String INVALID_ID = "ERR Invalid stream ID specified as stream command argument";
+    static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+    static final String SYNTAX_ERROR = "ERR syntax error";
+
+    private StreamArguments() {
+    }
+
+    /**
+     * 解析范围的起点，"(" 开头表示不包含该 ID
+     *
+     * @param value 参数
+     * @return 不包含的 ID 已经是最大的 ID 时返回 null
+     * @throws IllegalArgumentException 不是合法的 ID
+     */
+    static StreamId start(SafeString value) {
+        if (isExclusive(value)) {
+            return StreamId.parse(exclusive(value), 0).next();
+        }
+        return StreamId.parse(value, 0);
+    }
+
+    /**
+     * 解析范围的终点，省略序号时为该毫秒内最大的序号，"(" 开头表示不包含该 ID
+     *
+     * @param value 参数
+     * @return 不包含的 ID 已经是最小的 ID 时返回 null
+     * @throws IllegalArgumentException 不是合法的 ID
+     */
+    static StreamId end(SafeString value) {
+        if (isExclusive(value)) {
+            return StreamId.parse(exclusive(value), -1L).previous();
+        }
+        return StreamId.parse(value, -1L);
+    }
+
+    /**
+     * 解析 COUNT 选项
+     *
+     * @param request 命令请求
+     * @param index   COUNT 关键字的位置
+     * @return 没有 COUNT 选项时返回 -1
+     * @throws NumberFormatException    count 不是整数
+     * @throws IllegalArgumentException 不是 COUNT 选项
+     */
+    static long count(Request request, int index) {
+        if (request.getLength() <= index) {
+            return -1;
+        }
+        if (request.getLength() != index + 2 || !"count".equalsIgnoreCase(request.getParam(index).toString())) {
+            throw new IllegalArgumentException(request.getParam(index).toString());
+        }
+        return Math.max(Long.parseLong(request.getParam(index + 1).toString()), 0);
+    }
+
+    /**
+     * 保留原值的过期时间
+     *
+     * @param value    新的值
+     * @param oldValue 原值
+     * @return
+     */
+    static DatabaseValue withExpiration(DatabaseValue value, DatabaseValue oldValue) {
+        if (oldValue != null && oldValue.getExpiredAt() != null) {
+            return value.expiredAt(oldValue.getExpiredAt());
+        }
+        return value;
+    }
+
+    /**
+     * 用于复制和持久化的等价请求，命令名不变、参数替换为结果确定的参数
+     *
+     * @param request 原请求
+     * @param params  新的参数
+     * @return
+     */
+    static Request rewrite(Request request, List<SafeString> params) {
+        return rewrite(request, request.getCommand(), params);
+    }
+
+    /**
+     * 用于复制和持久化的等价请求，改为另一个命令（如 xreadgroup 改写为 xclaim）
+     *
+     * @param request 原请求
+     * @param command 新的命令名
+     * @param params  新的参数
+     * @return
+     */
+    static Request rewrite(Request request, String command, List<SafeString> params) {
+        return new DefaultRequest(request.getServerContext(), request.getSession(),
+                safeString(command), arrayOf(params.toArray(new SafeString[0])));
+    }
+
+    private static boolean isExclusive(SafeString value) {
+        return value.length() > 1 && value.toString().charAt(0) == '(';
+    }
+
+    private static SafeString exclusive(SafeString value) {
+        return safeString(value.toString().substring(1));
+    }
+}
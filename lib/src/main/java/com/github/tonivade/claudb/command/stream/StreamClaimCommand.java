@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamEntry;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.NOT_INTEGER;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.withExpiration;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xclaim 命令实现。
+ */
+@Command("xclaim")
+@ParamLength(5)
+@ParamType(DataType.STREAM)
+public class StreamClaimCommand implements DBCommand {
+
+    /**
+     * 命令形式： xclaim key group consumer min-idle-time id [id ...] [IDLE ms] [TIME ms-unix-time]
+     * [RETRYCOUNT count] [FORCE] [JUSTID] [LASTID id]
+     * 把空闲时间不少于 min-idle-time 的待确认条目转移给指定的消费者，投递次数加一（JUSTID 时不变），
+     * FORCE 时不在 PEL 中的条目也会被加入。已被裁剪的条目从 PEL 中删除，不会返回。
+     * 复制和持久化时改写为只包含实际处理的 ID、min-idle-time 为 0 并带有确定的 TIME 的请求
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DatabaseKey key = keyOf(db, request);
+        SafeString name = request.getParam(1);
+        SafeString consumer = request.getParam(2);
+        DatabaseValue value = db.get(key);
+        StreamGroup group = value != null ? value.getStream().getGroup(name) : null;
+        if (group == null) {
+            return error("NOGROUP No such key '" + request.getParam(0) + "' or consumer group '" + name + "'");
+        }
+        long minIdle;
+        try {
+            minIdle = Math.max(Long.parseLong(request.getParam(3).toString()), 0);
+        } catch (NumberFormatException e) {
+            return error("ERR Invalid min-idle-time argument for XCLAIM");
+        }
+
+        // ID 列表在第一个不是 ID 的参数处结束，之后是选项
+        List<StreamId> ids = new ArrayList<>();
+        int index = 4;
+        for (; index < request.getLength(); index++) {
+            try {
+                ids.add(StreamId.parse(request.getParam(index)));
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+        }
+        long now = System.currentTimeMillis();
+        long deliveryTime = now;
+        // 指定了 TIME 时消费者的活跃时间也取该时间，复制和重放时与主库一致
+        long seenTime = now;
+        long retryCount = -1;
+        boolean force = false;
+        boolean justId = false;
+        StreamId lastId = null;
+        for (; index < request.getLength(); index++) {
+            String option = request.getParam(index).toString();
+            boolean hasValue = index + 1 < request.getLength();
+            try {
+                if ("force".equalsIgnoreCase(option)) {
+                    force = true;
+                } else if ("justid".equalsIgnoreCase(option)) {
+                    justId = true;
+                } else if ("idle".equalsIgnoreCase(option) && hasValue) {
+                    deliveryTime = now - Long.parseLong(request.getParam(++index).toString());
+                } else if ("time".equalsIgnoreCase(option) && hasValue) {
+                    deliveryTime = Long.parseLong(request.getParam(++index).toString());
+                    seenTime = deliveryTime;
+                } else if ("retrycount".equalsIgnoreCase(option) && hasValue) {
+                    retryCount = Long.parseLong(request.getParam(++index).toString());
+                } else if ("lastid".equalsIgnoreCase(option) && hasValue) {
+                    lastId = StreamId.parse(request.getParam(++index));
+                } else {
+                    return error("ERR Unrecognized XCLAIM option '" + option + "'");
+                }
+            } catch (NumberFormatException e) {
+                return error(NOT_INTEGER);
+            } catch (IllegalArgumentException e) {
+                return error(INVALID_ID);
+            }
+        }
+        if (ids.isEmpty()) {
+            return error(SYNTAX_ERROR);
+        }
+
+        StreamValue stream = value.getStream();
+        group = group.withConsumer(consumer, seenTime);
+        if (lastId != null && lastId.compareTo(group.getLastDelivered()) > 0) {
+            group = group.withLastDelivered(lastId);
+        }
+        List<StreamId> processed = new ArrayList<>(ids.size());
+        List<RedisToken> result = new ArrayList<>(ids.size());
+        for (StreamId id : ids) {
+            StreamGroup.Pending pending = group.getPending(id);
+            StreamEntry entry = stream.entry(id);
+            if (pending == null && (!force || entry == null)) {
+                continue;
+            }
+            if (pending != null && minIdle > 0 && now - pending.getDeliveryTime() < minIdle) {
+                continue;
+            }
+            processed.add(id);
+            if (entry == null) {
+                // 条目已被裁剪，不再需要确认
+                group = group.ack(id);
+                continue;
+            }
+            long deliveryCount = pending != null ? pending.getDeliveryCount() : 0;
+            if (retryCount >= 0) {
+                deliveryCount = retryCount;
+            } else if (!justId) {
+                deliveryCount++;
+            }
+            group = group.claim(id, consumer, deliveryTime, deliveryCount);
+            result.add(justId ? RedisToken.string(id.toSafeString()) : convertEntry(entry));
+        }
+        db.put(key, withExpiration(stream(stream.withGroup(name, group)), value));
+        propagate(request, ids, processed, deliveryTime, retryCount, justId, lastId);
+        return array(result);
+    }
+
+    /**
+     * 复制和持久化时只包含实际处理的 ID，空闲时间和投递时间改为确定的值。
+     * 没有处理任何条目时以最大的 min-idle-time 重放，只更新消费者和 LASTID
+     */
+    private void propagate(Request request, List<StreamId> ids, List<StreamId> processed, long deliveryTime,
+                           long retryCount, boolean justId, StreamId lastId) {
+        boolean none = processed.isEmpty();
+        List<SafeString> params = new ArrayList<>();
+        params.add(request.getParam(0));
+        params.add(request.getParam(1));
+        params.add(request.getParam(2));
+        params.add(safeString(none ? String.valueOf(Long.MAX_VALUE) : "0"));
+        for (StreamId id : none ? ids : processed) {
+            params.add(id.toSafeString());
+        }
+        params.add(safeString("TIME"));
+        params.add(safeString(String.valueOf(deliveryTime)));
+        if (retryCount >= 0) {
+            params.add(safeString("RETRYCOUNT"));
+            params.add(safeString(String.valueOf(retryCount)));
+        }
+        if (!none) {
+            params.add(safeString("FORCE"));
+        }
+        if (justId) {
+            params.add(safeString("JUSTID"));
+        }
+        if (lastId != null) {
+            params.add(safeString("LASTID"));
+            params.add(lastId.toSafeString());
+        }
+        getSessionState(request.getSession()).propagate(request, StreamArguments.rewrite(request, params));
+    }
+}
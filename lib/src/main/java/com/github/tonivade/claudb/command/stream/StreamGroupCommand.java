@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.withExpiration;
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xgroup 命令实现。
+ */
+@Command("xgroup")
+@ParamLength(3)
+@ParamKeys(first = 1, last = 1)
+public class StreamGroupCommand implements DBCommand {
+
+    private static final String NO_KEY = "ERR The XGROUP subcommand requires the key to exist. "
+            + "Note that for CREATE you may want to use the MKSTREAM option to create an empty stream automatically.";
+
+    /**
+     * 命令形式：
+     * <pre>
+     * xgroup CREATE key group id|$ [MKSTREAM]  创建消费者组，"$" 表示只消费之后添加的条目
+     * xgroup SETID key group id|$             修改最后投递的 ID
+     * xgroup DESTROY key group                删除消费者组，返回删除的组数
+     * xgroup CREATECONSUMER key group consumer 创建消费者，返回创建的个数
+     * xgroup DELCONSUMER key group consumer   删除消费者，返回其未确认的条目数
+     * </pre>
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        String subcommand = request.getParam(0).toString().toLowerCase();
+        DatabaseKey key = safeKey(request.getParam(1));
+        SafeString name = request.getParam(2);
+        DatabaseValue value = db.get(key);
+        if (value != null && value.getType() != DataType.STREAM) {
+            return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        switch (subcommand) {
+            case "create":
+                return create(db, key, value, name, request);
+            case "setid":
+                return setId(db, key, value, name, request);
+            case "destroy":
+                return destroy(db, key, value, name, request);
+            case "createconsumer":
+                return createConsumer(db, key, value, name, request);
+            case "delconsumer":
+                return deleteConsumer(db, key, value, name, request);
+            default:
+                return error("ERR unknown subcommand '" + request.getParam(0) + "'. Try XGROUP HELP.");
+        }
+    }
+
+    private RedisToken create(Database db, DatabaseKey key, DatabaseValue value, SafeString name, Request request) {
+        if (request.getLength() < 4 || request.getLength() > 5) {
+            return arguments(request);
+        }
+        if (request.getLength() == 5 && !"mkstream".equalsIgnoreCase(request.getParam(4).toString())) {
+            return error(SYNTAX_ERROR);
+        }
+        if (value == null && request.getLength() < 5) {
+            return error(NO_KEY);
+        }
+        StreamValue stream = value != null ? value.getStream() : StreamValue.empty();
+        StreamId id = lastDelivered(stream, request.getParam(3));
+        if (id == null) {
+            return error(INVALID_ID);
+        }
+        if (stream.getGroup(name) != null) {
+            return error("BUSYGROUP Consumer Group name already exists");
+        }
+        db.put(key, withExpiration(stream(stream.withGroup(name, StreamGroup.create(id))), value));
+        return responseOk();
+    }
+
+    private RedisToken setId(Database db, DatabaseKey key, DatabaseValue value, SafeString name, Request request) {
+        if (request.getLength() != 4) {
+            return arguments(request);
+        }
+        if (value == null) {
+            return error(NO_KEY);
+        }
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name);
+        if (group == null) {
+            return noGroup(request);
+        }
+        StreamId id = lastDelivered(stream, request.getParam(3));
+        if (id == null) {
+            return error(INVALID_ID);
+        }
+        db.put(key, withExpiration(stream(stream.withGroup(name, group.withLastDelivered(id))), value));
+        return responseOk();
+    }
+
+    private RedisToken destroy(Database db, DatabaseKey key, DatabaseValue value, SafeString name, Request request) {
+        if (request.getLength() != 3) {
+            return arguments(request);
+        }
+        if (value == null) {
+            return error(NO_KEY);
+        }
+        StreamValue stream = value.getStream();
+        if (stream.getGroup(name) == null) {
+            return integer(false);
+        }
+        db.put(key, withExpiration(stream(stream.withoutGroup(name)), value));
+        return integer(true);
+    }
+
+    private RedisToken createConsumer(Database db, DatabaseKey key, DatabaseValue value, SafeString name,
+                                      Request request) {
+        if (request.getLength() != 4) {
+            return arguments(request);
+        }
+        if (value == null) {
+            return error(NO_KEY);
+        }
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name);
+        if (group == null) {
+            return noGroup(request);
+        }
+        SafeString consumer = request.getParam(3);
+        if (group.getConsumers().containsKey(consumer)) {
+            return integer(false);
+        }
+        StreamGroup newGroup = group.withConsumer(consumer, System.currentTimeMillis());
+        db.put(key, withExpiration(stream(stream.withGroup(name, newGroup)), value));
+        return integer(true);
+    }
+
+    private RedisToken deleteConsumer(Database db, DatabaseKey key, DatabaseValue value, SafeString name,
+                                      Request request) {
+        if (request.getLength() != 4) {
+            return arguments(request);
+        }
+        if (value == null) {
+            return error(NO_KEY);
+        }
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name);
+        if (group == null) {
+            return noGroup(request);
+        }
+        SafeString consumer = request.getParam(3);
+        long pending = group.pendingByConsumer().getOrDefault(consumer, 0L);
+        db.put(key, withExpiration(stream(stream.withGroup(name, group.withoutConsumer(consumer))), value));
+        return convertNumber(pending);
+    }
+
+    /**
+     * 解析最后投递的 ID，"$" 表示流中最后的 ID
+     *
+     * @return 不是合法的 ID 时返回 null
+     */
+    private static StreamId lastDelivered(StreamValue stream, SafeString value) {
+        if (value.toString().equals("$")) {
+            return stream.getLastId();
+        }
+        try {
+            return StreamId.parse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static RedisToken noGroup(Request request) {
+        return error("NOGROUP No such consumer group '" + request.getParam(2)
+                + "' for key name '" + request.getParam(1) + "'");
+    }
+
+    private static RedisToken arguments(Request request) {
+        return error("ERR wrong number of arguments for 'xgroup|" + request.getParam(0).toString().toLowerCase()
+                + "' command");
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xlen 命令实现。
+ */
+@ReadOnly
+@Command("xlen")
+@ParamLength(1)
+@ParamType(DataType.STREAM)
+public class StreamLengthCommand implements DBCommand {
+
+    /**
+     * 命令形式： xlen key 返回流中条目的个数，键不存在时返回 0
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_STREAM);
+        return convertNumber(value.getStream().length());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.NOT_INTEGER;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xpending 命令实现。
+ */
+@ReadOnly
+@Command("xpending")
+@ParamLength(2)
+@ParamType(DataType.STREAM)
+public class StreamPendingCommand implements DBCommand {
+
+    /**
+     * 命令形式： xpending key group [[IDLE min-idle-time] start end count [consumer]]
+     * 只有 key 和 group 时返回 PEL 的摘要：条目数、最小和最大的 ID、每个消费者的条目数；
+     * 带范围时按 ID 的顺序返回 PEL 中的条目：ID、消费者、空闲的毫秒数和投递次数
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        DatabaseValue value = db.get(keyOf(db, request));
+        StreamGroup group = value != null ? value.getStream().getGroup(request.getParam(1)) : null;
+        if (group == null) {
+            return error("NOGROUP No such key '" + request.getParam(0)
+                    + "' or consumer group '" + request.getParam(1) + "'");
+        }
+        if (request.getLength() == 2) {
+            return summary(group);
+        }
+        int index = 2;
+        long minIdle = 0;
+        if ("idle".equalsIgnoreCase(request.getParam(index).toString())) {
+            if (request.getLength() < 4) {
+                return error(SYNTAX_ERROR);
+            }
+            try {
+                minIdle = Long.parseLong(request.getParam(index + 1).toString());
+            } catch (NumberFormatException e) {
+                return error(NOT_INTEGER);
+            }
+            index += 2;
+        }
+        if (request.getLength() < index + 3 || request.getLength() > index + 4) {
+            return error(SYNTAX_ERROR);
+        }
+        StreamId start;
+        StreamId end;
+        try {
+            start = StreamArguments.start(request.getParam(index));
+            end = StreamArguments.end(request.getParam(index + 1));
+        } catch (IllegalArgumentException e) {
+            return error(INVALID_ID);
+        }
+        long count;
+        try {
+            count = Long.parseLong(request.getParam(index + 2).toString());
+        } catch (NumberFormatException e) {
+            return error(NOT_INTEGER);
+        }
+        SafeString consumer = request.getLength() > index + 3 ? request.getParam(index + 3) : null;
+        if (start == null || end == null || count <= 0) {
+            return array();
+        }
+        long now = System.currentTimeMillis();
+        // 有空闲时间的条件时需要先过滤再计数
+        List<StreamGroup.Pending> pending = group.pending(start, end, minIdle > 0 ? Long.MAX_VALUE : count, consumer);
+        List<RedisToken> result = new ArrayList<>();
+        for (StreamGroup.Pending item : pending) {
+            long idle = now - item.getDeliveryTime();
+            if (idle < minIdle) {
+                continue;
+            }
+            result.add(array(RedisToken.string(item.getId().toSafeString()), RedisToken.string(item.getConsumer()),
+                    convertNumber(idle), convertNumber(item.getDeliveryCount())));
+            if (result.size() == count) {
+                break;
+            }
+        }
+        return array(result);
+    }
+
+    private RedisToken summary(StreamGroup group) {
+        if (group.pendingCount() == 0) {
+            return array(RedisToken.integer(0), nullString(), nullString(), nullString());
+        }
+        List<RedisToken> consumers = new ArrayList<>();
+        for (Map.Entry<SafeString, Long> entry : group.pendingByConsumer().entrySet()) {
+            consumers.add(array(RedisToken.string(entry.getKey()), RedisToken.string(String.valueOf(entry.getValue()))));
+        }
+        return array(RedisToken.integer(group.pendingCount()),
+                RedisToken.string(group.firstPending().getId().toSafeString()),
+                RedisToken.string(group.lastPending().getId().toSafeString()),
+                array(consumers));
+    }
+}
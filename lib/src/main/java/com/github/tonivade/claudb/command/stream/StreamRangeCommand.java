@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.NOT_INTEGER;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xrange 命令实现。
+ */
+@ReadOnly
+@Command("xrange")
+@ParamLength(3)
+@ParamType(DataType.STREAM)
+public class StreamRangeCommand implements DBCommand {
+
+    /**
+     * 命令形式： xrange key start end [COUNT count] 按 ID 递增的顺序返回范围内的条目，
+     * "-" 和 "+" 表示最小和最大的 ID，"(" 开头表示不包含该 ID
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        StreamId start;
+        StreamId end;
+        try {
+            start = StreamArguments.start(request.getParam(1));
+            end = StreamArguments.end(request.getParam(2));
+        } catch (IllegalArgumentException e) {
+            return error(INVALID_ID);
+        }
+        long count;
+        try {
+            count = StreamArguments.count(request, 3);
+        } catch (NumberFormatException e) {
+            return error(NOT_INTEGER);
+        } catch (IllegalArgumentException e) {
+            return error(SYNTAX_ERROR);
+        }
+        if (start == null || end == null || count == 0) {
+            return RedisToken.array();
+        }
+        DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_STREAM);
+        return convertEntries(value.getStream().range(start, end, Math.max(count, 0)));
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamEntry;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tonivade.claudb.command.stream.StreamArguments.INVALID_ID;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.NOT_INTEGER;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.SYNTAX_ERROR;
+import static com.github.tonivade.claudb.command.stream.StreamArguments.withExpiration;
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Collections.singletonList;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis Stream 类型的 xreadgroup 命令实现。
+ * 键是 STREAMS 之后剩余参数的前一半，只对这些键加锁，第一个键的类型由命令包装检查。
+ */
+@DenyOom
+@Command("xreadgroup")
+@ParamLength(6)
+@ParamType(DataType.STREAM)
+@ParamKeys(first = 3, last = -1, keyword = "streams", limit = 2)
+public class StreamReadGroupCommand implements DBCommand {
+
+    private static final String NEW_ENTRIES = ">";
+
+    /**
+     * 命令形式： xreadgroup GROUP group consumer [COUNT count] [BLOCK milliseconds] [NOACK] STREAMS key [key ...] id [id ...]
+     * 以消费者组中的消费者读取流，ID 为 ">" 时读取从未投递过的条目并加入 PEL（NOACK 时不加入），
+     * 其他 ID 时读取该消费者 PEL 中大于该 ID 的条目，已被裁剪的条目只返回 ID。
+     * 不支持阻塞，BLOCK 选项被忽略，没有新条目时立即返回空。
+     * 投递时间和消费者的活跃时间取自本机时钟，复制和持久化时改写为带有确定 TIME 的 xclaim，
+     * 每个流一条或多条，作为一条记录一起重放
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        if (!"group".equalsIgnoreCase(request.getParam(0).toString())) {
+            return error(SYNTAX_ERROR);
+        }
+        SafeString name = request.getParam(1);
+        SafeString consumer = request.getParam(2);
+        long count = 0;
+        boolean noAck = false;
+        int index = 3;
+        for (; index < request.getLength(); index++) {
+            String option = request.getParam(index).toString();
+            if ("streams".equalsIgnoreCase(option)) {
+                break;
+            } else if ("noack".equalsIgnoreCase(option)) {
+                noAck = true;
+            } else if (("count".equalsIgnoreCase(option) || "block".equalsIgnoreCase(option))
+                    && index + 1 < request.getLength()) {
+                try {
+                    long number = Long.parseLong(request.getParam(++index).toString());
+                    if ("count".equalsIgnoreCase(option)) {
+                        count = Math.max(number, 0);
+                    }
+                } catch (NumberFormatException e) {
+                    return error(NOT_INTEGER);
+                }
+            } else {
+                return error(SYNTAX_ERROR);
+            }
+        }
+        int streams = request.getLength() - index - 1;
+        if (streams <= 0 || streams % 2 != 0) {
+            return error("ERR Unbalanced 'xreadgroup' list of streams: "
+                    + "for each stream key an ID or '>' must be specified.");
+        }
+        streams /= 2;
+
+        // 先检查所有的键和 ID，避免部分执行
+        List<StreamId> ids = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            SafeString key = request.getParam(index + 1 + i);
+            SafeString id = request.getParam(index + 1 + streams + i);
+            DatabaseValue value = db.get(safeKey(key));
+            if (value != null && value.getType() != DataType.STREAM) {
+                return error("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            if (value == null || value.getStream().getGroup(name) == null) {
+                return error("NOGROUP No such key '" + key + "' or consumer group '" + name
+                        + "' in XREADGROUP with GROUP option");
+            }
+            try {
+                ids.add(id.toString().equals(NEW_ENTRIES) ? null : StreamId.parse(id));
+            } catch (IllegalArgumentException e) {
+                return error(INVALID_ID);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<RedisToken> result = new ArrayList<>(streams);
+        List<Request> propagated = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            SafeString key = request.getParam(index + 1 + i);
+            StreamId id = ids.get(i);
+            RedisToken entries = id == null
+                    ? readNew(db, request, key, name, consumer, count, noAck, now, propagated)
+                    : readHistory(db, request, key, name, consumer, id, count, now, propagated);
+            if (entries != null) {
+                result.add(array(RedisToken.string(key), entries));
+            }
+        }
+        getSessionState(request.getSession()).propagate(request, ImmutableList.from(propagated));
+        return result.isEmpty() ? RedisToken.nullString() : array(result);
+    }
+
+    /**
+     * 读取最后投递的 ID 之后的新条目，没有新条目时返回 null。
+     * 加入 PEL 的条目复制为投递次数为 1 的 xclaim，NOACK 或没有新条目时只复制消费者和最后投递的 ID
+     */
+    private RedisToken readNew(Database db, Request request, SafeString key, SafeString name, SafeString consumer,
+                               long count, boolean noAck, long now, List<Request> propagated) {
+        DatabaseValue value = db.get(safeKey(key));
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name).withConsumer(consumer, now);
+        StreamId start = group.getLastDelivered().next();
+        List<StreamEntry> entries = start != null ? stream.range(start, StreamId.MAX, count) : new ArrayList<>();
+        List<StreamId> delivered = new ArrayList<>(entries.size());
+        for (StreamEntry entry : entries) {
+            group = group.deliver(entry.getId(), consumer, now, noAck);
+            delivered.add(entry.getId());
+        }
+        db.put(safeKey(key), withExpiration(stream(stream.withGroup(name, group)), value));
+        StreamId lastDelivered = group.getLastDelivered();
+        if (noAck || delivered.isEmpty()) {
+            propagated.add(claim(request, key, name, consumer, Long.MAX_VALUE, singletonList(lastDelivered), now,
+                    -1, lastDelivered));
+        } else {
+            propagated.add(claim(request, key, name, consumer, 0, delivered, now, 1, lastDelivered));
+        }
+        return entries.isEmpty() ? null : convertEntries(entries);
+    }
+
+    /**
+     * 读取消费者 PEL 中大于指定 ID 的条目，投递次数加一，每个条目复制为一条带有新投递次数的 xclaim。
+     * 已被裁剪的条目只返回 ID，投递信息不变
+     */
+    private RedisToken readHistory(Database db, Request request, SafeString key, SafeString name,
+                                   SafeString consumer, StreamId id, long count, long now, List<Request> propagated) {
+        DatabaseValue value = db.get(safeKey(key));
+        StreamValue stream = value.getStream();
+        StreamGroup group = stream.getGroup(name).withConsumer(consumer, now);
+        StreamId start = id.next();
+        List<StreamGroup.Pending> pending = start != null
+                ? group.pending(start, StreamId.MAX, count > 0 ? count : Long.MAX_VALUE, consumer) : new ArrayList<>();
+        List<RedisToken> entries = new ArrayList<>(pending.size());
+        int claimed = propagated.size();
+        for (StreamGroup.Pending item : pending) {
+            StreamEntry entry = stream.entry(item.getId());
+            if (entry == null) {
+                entries.add(array(RedisToken.string(item.getId().toSafeString()), RedisToken.nullString()));
+                continue;
+            }
+            entries.add(convertEntry(entry));
+            group = group.claim(item.getId(), consumer, now, item.getDeliveryCount() + 1);
+            propagated.add(claim(request, key, name, consumer, 0, singletonList(item.getId()), now,
+                    item.getDeliveryCount() + 1, null));
+        }
+        db.put(safeKey(key), withExpiration(stream(stream.withGroup(name, group)), value));
+        if (propagated.size() == claimed) {
+            StreamId lastDelivered = group.getLastDelivered();
+            propagated.add(claim(request, key, name, consumer, Long.MAX_VALUE, singletonList(lastDelivered), now,
+                    -1, null));
+        }
+        return array(entries);
+    }
+
+    /**
+     * 复制和持久化用的 xclaim：JUSTID 不返回条目，TIME 固定投递时间和消费者的活跃时间。
+     * min-idle-time 为最大值时不转移任何条目，只更新消费者和 LASTID
+     *
+     * @param minIdle    min-idle-time
+     * @param ids        转移的条目
+     * @param now        投递时间
+     * @param retryCount 投递次数，负数表示不指定
+     * @param lastId     最后投递的 ID，null 表示不指定
+     * @return
+     */
+    private static Request claim(Request request, SafeString key, SafeString name, SafeString consumer, long minIdle,
+                                 List<StreamId> ids, long now, long retryCount, StreamId lastId) {
+        List<SafeString> params = new ArrayList<>();
+        params.add(key);
+        params.add(name);
+        params.add(consumer);
+        params.add(safeString(String.valueOf(minIdle)));
+        for (StreamId id : ids) {
+            params.add(id.toSafeString());
+        }
+        params.add(safeString("TIME"));
+        params.add(safeString(String.valueOf(now)));
+        if (retryCount >= 0) {
+            params.add(safeString("RETRYCOUNT"));
+            params.add(safeString(String.valueOf(retryCount)));
+            params.add(safeString("FORCE"));
+        }
+        params.add(safeString("JUSTID"));
+        if (lastId != null) {
+            params.add(safeString("LASTID"));
+            params.add(lastId.toSafeString());
+        }
+        return StreamArguments.rewrite(request, "xclaim", params);
+    }
+}
@@ -6,6 +6,7 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -15,7 +16,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.string;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 import static com.github.tonivade.resp.protocol.SafeString.append;
@@ -25,6 +25,7 @@ import static com.github.tonivade.resp.protocol.SafeString.append;
  * <p>
  * redis String 类型的 append 命令实现。
  */
+@DenyOom
 @Command("append")
 @ParamLength(1)
 @ParamType(DataType.STRING)
@@ -41,7 +42,7 @@ public class AppendCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
 
         // value 合并
-        DatabaseValue value = db.merge(safeKey(request.getParam(0)), string(request.getParam(1)),
+        DatabaseValue value = db.merge(keyOf(db, request), string(request.getParam(1)),
                 (oldValue, newValue) -> {
                     return string(append(oldValue.getString(), newValue.getString()));
                 });
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -14,16 +15,15 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.claudb.data.DatabaseValue.number;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
-import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 /**
  * @author zhou <br/>
  * <p>
  * redis String 类型的 decrby 命令实现。
  */
+@DenyOom
 @Command("decrby")
 @ParamLength(2)
 @ParamType(DataType.STRING)
@@ -40,15 +40,17 @@ public class DecrementByCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue value = db.merge(safeKey(request.getParam(0)), string("-" + request.getParam(1)),
-                    (oldValue, newValue) -> {
-                        int decrement = Integer.parseInt(newValue.getString().toString());
-                        int current = Integer.parseInt(oldValue.getString().toString());
-                        return string(String.valueOf(current + decrement));
-                    });
-            return integer(Integer.parseInt(value.getString().toString()));
+            long decrement = Long.parseLong(request.getParam(1).toString());
+            if (decrement == Long.MIN_VALUE) {
+                return error("ERR decrement would overflow");
+            }
+            DatabaseValue value = db.merge(keyOf(db, request), number(-decrement),
+                    (oldValue, newValue) -> oldValue.increment(-decrement));
+            return convertNumber(value.getNumber());
         } catch (NumberFormatException e) {
             return error("ERR value is not an integer or out of range");
+        } catch (ArithmeticException e) {
+            return error("ERR increment or decrement would overflow");
         }
     }
 }
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -14,16 +15,15 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.claudb.data.DatabaseValue.number;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
-import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 /**
  * @author zhou <br/>
  * <p>
  * redis String 类型的 decr 命令实现。
  */
+@DenyOom
 @Command("decr")
 @ParamLength(1)
 @ParamType(DataType.STRING)
@@ -39,14 +39,13 @@ public class DecrementCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue value = db.merge(safeKey(request.getParam(0)), string("-1"),
-                    (oldValue, newValue) -> {
-                        int current = Integer.parseInt(oldValue.getString().toString());
-                        return string(String.valueOf(current - 1));
-                    });
-            return integer(Integer.parseInt(value.getString().toString()));
+            DatabaseValue value = db.merge(keyOf(db, request), number(-1),
+                    (oldValue, newValue) -> oldValue.increment(-1));
+            return convertNumber(value.getNumber());
         } catch (NumberFormatException e) {
             return error("ERR value is not an integer or out of range");
+        } catch (ArithmeticException e) {
+            return error("ERR increment or decrement would overflow");
         }
     }
 }
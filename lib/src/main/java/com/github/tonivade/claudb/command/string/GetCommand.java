@@ -15,8 +15,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
-
 /**
  * @author zhou <br/>
  * <p>
@@ -37,6 +35,6 @@ public class GetCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        return convert(db.get(safeKey(request.getParam(0))));
+        return convert(db.get(keyOf(db, request)));
     }
 }
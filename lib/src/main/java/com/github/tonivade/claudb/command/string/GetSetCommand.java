@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -13,7 +14,6 @@ import com.github.tonivade.resp.annotation.ParamLength;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.string;
 
 /**
@@ -21,6 +21,7 @@ import static com.github.tonivade.claudb.data.DatabaseValue.string;
  * <p>
  * redis String 类型的 getset 命令实现。
  */
+@DenyOom
 @Command("getset")
 @ParamLength(2)
 @ParamType(DataType.STRING)
@@ -35,6 +36,6 @@ public class GetSetCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        return convert(db.put(safeKey(request.getParam(0)), string(request.getParam(1))));
+        return convert(db.put(keyOf(db, request), string(request.getParam(1))));
     }
 }
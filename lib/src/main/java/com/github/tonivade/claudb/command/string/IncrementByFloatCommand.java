@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.string;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import java.math.BigDecimal;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.number;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis String 类型的 incrbyfloat 命令实现。
+ */
+@DenyOom
+@Command("incrbyfloat")
+@ParamLength(2)
+@ParamType(DataType.STRING)
+public class IncrementByFloatCommand implements DBCommand {
+
+    /**
+     * 可以精确表示为 double 的最大整数
+     */
+    private static final double MAX_EXACT = 1L << 53;
+
+    /**
+     * 命令形式： incrbyfloat key increment 设置数值数据增加指定的浮点数，返回新的值
+     *
+     * @param db      当前数据库
+     * @param request String 类型请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        try {
+            double increment = parse(request.getParam(1).toString());
+            DatabaseValue value = db.merge(keyOf(db, request), toValue(increment),
+                    (oldValue, newValue) -> toValue(current(oldValue) + increment));
+            return RedisToken.string(value.getString());
+        } catch (NumberFormatException e) {
+            return error("ERR value is not a valid float");
+        } catch (ArithmeticException e) {
+            return error("ERR increment would produce NaN or Infinity");
+        }
+    }
+
+    /**
+     * 整数编码的值直接取出，不需要解析字符串
+     */
+    private static double current(DatabaseValue value) {
+        return value.isNumber() ? value.getNumber() : parse(value.getString().toString());
+    }
+
+    private static double parse(String value) {
+        double result = Double.parseDouble(value);
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            throw new NumberFormatException(value);
+        }
+        return result;
+    }
+
+    /**
+     * 结果为整数时保存为整数编码，否则保存为不带多余的 0 的十进制字符串
+     */
+    private static DatabaseValue toValue(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException();
+        }
+        if (value == Math.rint(value) && Math.abs(value) <= MAX_EXACT) {
+            return number((long) value);
+        }
+        return string(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+    }
+}
@@ -5,11 +5,13 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.purefun.data.ImmutableArray;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -24,6 +26,7 @@ import com.github.tonivade.resp.protocol.RedisToken;
 @ReadOnly
 @Command("mget")
 @ParamLength(1)
+@ParamKeys(last = -1)
 public class MultiGetCommand implements DBCommand {
 
     /**
@@ -39,6 +42,8 @@ public class MultiGetCommand implements DBCommand {
                 .map(DatabaseKey::safeKey)
                 .filter(key -> db.isType(key, DataType.STRING))
                 .map(db::get);
+        ServerStats stats = getServerState(request.getServerContext()).getServerStats();
+        result.forEach(value -> stats.keyspace(value != null));
         return convert(result);
     }
 }
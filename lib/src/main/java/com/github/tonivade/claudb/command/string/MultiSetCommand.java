@@ -5,6 +5,8 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -21,8 +23,10 @@ import static com.github.tonivade.resp.protocol.RedisToken.status;
  * <p>
  * redis String 类型的 mset 命令实现。
  */
+@DenyOom
 @Command("mset")
 @ParamLength(2)
+@ParamKeys(last = -1, step = 2)
 public class MultiSetCommand implements DBCommand {
 
     /**
@@ -5,6 +5,8 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.purefun.Tuple2;
@@ -27,8 +29,10 @@ import static com.github.tonivade.resp.protocol.RedisToken.integer;
  * <p>
  * redis String 类型的 msetnx 命令实现。
  */
+@DenyOom
 @Command("msetnx")
 @ParamLength(2)
+@ParamKeys(last = -1, step = 2)
 public class MultiSetIfNotExistsCommand implements DBCommand {
 
     /**
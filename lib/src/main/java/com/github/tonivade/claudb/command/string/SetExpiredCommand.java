@@ -5,6 +5,8 @@
 package com.github.tonivade.claudb.command.string;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -22,8 +24,10 @@ import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
  * <p>
  * redis String 类型的 setex 命令实现。
  */
+@DenyOom
 @Command("setex")
 @ParamLength(3)
+@ParamKeys
 public class SetExpiredCommand implements DBCommand {
 
     /**
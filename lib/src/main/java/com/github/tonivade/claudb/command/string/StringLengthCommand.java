@@ -17,7 +17,6 @@ import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.SafeString;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 /**
@@ -40,7 +39,7 @@ public class StringLengthCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_STRING);
+        DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_STRING);
         SafeString string = value.getString();
         return integer(string.length());
     }
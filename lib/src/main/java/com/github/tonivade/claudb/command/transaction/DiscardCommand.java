@@ -6,6 +6,7 @@ package com.github.tonivade.claudb.command.transaction;
 
 import com.github.tonivade.claudb.TransactionState;
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.command.annotation.TxIgnore;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.purefun.type.Option;
@@ -19,6 +20,7 @@ import com.github.tonivade.resp.protocol.RedisToken;
  * <p>
  * redis 事务的 discard 命令实现。
  */
+@ReadOnly
 @Command("discard")
 @TxIgnore
 public class DiscardCommand implements DBCommand {
@@ -26,7 +28,7 @@ public class DiscardCommand implements DBCommand {
     private static final String TX_KEY = "tx";
 
     /**
-     * 命令形式： discard 刷新一个事务中所有在排队等待的指令，中止事务
+     * 命令形式： discard 刷新一个事务中所有在排队等待的指令，中止事务并取消所有 watch
      *
      * @param db      当前数据库
      * @param request 命令请求
@@ -35,6 +37,7 @@ public class DiscardCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         removeTransactionIfExists(request.getSession());
+        getServerState(request.getServerContext()).unwatch(getSessionState(request.getSession()));
 
         return RedisToken.responseOk();
     }
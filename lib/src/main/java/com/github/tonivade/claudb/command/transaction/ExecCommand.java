@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.transaction;
 
 import com.github.tonivade.claudb.DBServerContext;
+import com.github.tonivade.claudb.DBSessionState;
 import com.github.tonivade.claudb.TransactionState;
 import com.github.tonivade.claudb.command.DBCommand;
 import com.github.tonivade.claudb.command.annotation.TxIgnore;
@@ -29,7 +30,7 @@ import java.util.List;
 public class ExecCommand implements DBCommand {
 
     /**
-     * 命令形式： exec 执行事务中所有在排队等待的指令
+     * 命令形式： exec 执行事务中所有在排队等待的指令，若 watch 的键已被修改则放弃执行并返回空
      *
      * @param db      当前数据库
      * @param request 命令请求
@@ -39,10 +40,20 @@ public class ExecCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         Option<TransactionState> transaction = getTransactionIfExists(request.getSession());
         if (transaction.isPresent()) {
+            DBSessionState sessionState = getSessionState(request.getSession());
+            boolean aborted = sessionState.isDirty();
+            getServerState(request.getServerContext()).unwatch(sessionState);
+            if (aborted) {
+                return RedisToken.nullString();
+            }
             DBServerContext server = getClauDB(request.getServerContext());
             List<RedisToken> responses = new ArrayList<>();
             for (Request queuedRequest : transaction.get()) {
+                int currentDB = sessionState.getCurrentDB();
                 responses.add(executeCommand(server, queuedRequest));
+                for (Request propagated : sessionState.propagated(queuedRequest)) {
+                    transaction.get().executed(currentDB, propagated);
+                }
             }
             return RedisToken.array(responses);
         } else {
@@ -6,6 +6,7 @@ package com.github.tonivade.claudb.command.transaction;
 
 import com.github.tonivade.claudb.TransactionState;
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
 import com.github.tonivade.claudb.command.annotation.TxIgnore;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.resp.annotation.Command;
@@ -21,6 +22,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
  * <p>
  * redis 事务的 multi 命令实现。
  */
+@ReadOnly
 @Command("multi")
 @TxIgnore
 public class MultiCommand implements DBCommand {
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.transaction;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 事务的 unwatch 命令实现。
+ */
+@ReadOnly
+@Command("unwatch")
+public class UnwatchCommand implements DBCommand {
+
+    /**
+     * 命令形式： unwatch 取消 watch 命令对所有 key 的监视
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        getServerState(request.getServerContext()).unwatch(getSessionState(request.getSession()));
+        return responseOk();
+    }
+}
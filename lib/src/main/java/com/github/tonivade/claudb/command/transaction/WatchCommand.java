@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.transaction;
+
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.DBSessionState;
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.command.annotation.TxIgnore;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.command.Session;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.time.Instant;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis 事务的 watch 命令实现。
+ */
+@ReadOnly
+@Command("watch")
+@ParamLength(1)
+@ParamKeys(last = -1)
+@TxIgnore
+public class WatchCommand implements DBCommand {
+
+    private static final String TRANSACTION_KEY = "tx";
+
+    /**
+     * 命令形式： watch key [key ...] 监视一个或多个 key，如果在事务执行之前这些 key 被其他命令所改动、过期或被淘汰，那么事务将被打断
+     *
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        if (isTxActive(request.getSession())) {
+            return error("ERR WATCH inside MULTI is not allowed");
+        }
+        DBServerState serverState = getServerState(request.getServerContext());
+        DBSessionState sessionState = getSessionState(request.getSession());
+        for (SafeString param : request.getParams()) {
+            DatabaseKey key = safeKey(param);
+            DatabaseValue value = db.get(key);
+            Instant expiredAt = value != null ? value.getExpiredAt() : null;
+            serverState.watch(sessionState, sessionState.getCurrentDB(), key, expiredAt);
+        }
+        return responseOk();
+    }
+
+    /**
+     * 判断事务是否激活
+     * @param session
+     * @return
+     */
+    private boolean isTxActive(Session session) {
+        return session.getValue(TRANSACTION_KEY).isPresent();
+    }
+}
@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.zset;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
@@ -19,7 +20,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.score;
 import static com.github.tonivade.claudb.data.DatabaseValue.zset;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
@@ -32,6 +32,7 @@ import static java.util.stream.Collectors.toList;
  * <p>
  * redis zset 类型的 zadd 命令实现。
  */
+@DenyOom
 @Command("zadd")
 @ParamLength(3)
 @ParamType(DataType.ZSET)
@@ -49,8 +50,8 @@ public class SortedSetAddCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue initial = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_ZSET);
-            DatabaseValue result = db.merge(safeKey(request.getParam(0)), parseInput(request),
+            DatabaseValue initial = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_ZSET);
+            DatabaseValue result = db.merge(keyOf(db, request), parseInput(request),
                     (oldValue, newValue) -> {
                         Set<Entry<Double, SafeString>> merge = new SortedSet();
                         merge.addAll(oldValue.getSortedSet());
@@ -19,7 +19,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 /**
@@ -41,7 +40,7 @@ public class SortedSetCardinalityCommand implements DBCommand {
      */
     @Override
     public RedisToken execute(Database db, Request request) {
-        DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_ZSET);
+        DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_ZSET);
         Set<Entry<Double, SafeString>> set = value.getSortedSet();
         return integer(set.size());
     }
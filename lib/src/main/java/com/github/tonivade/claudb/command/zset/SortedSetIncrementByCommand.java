@@ -5,6 +5,7 @@
 package com.github.tonivade.claudb.command.zset;
 
 import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.DenyOom;
 import com.github.tonivade.claudb.command.annotation.ParamType;
 import com.github.tonivade.claudb.data.*;
 import com.github.tonivade.resp.annotation.Command;
@@ -16,7 +17,6 @@ import com.github.tonivade.resp.protocol.SafeString;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.score;
 import static com.github.tonivade.claudb.data.DatabaseValue.zset;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
@@ -27,6 +27,7 @@ import static com.github.tonivade.resp.protocol.RedisToken.string;
  * <p>
  * redis zset 类型的 zincrby 命令实现。
  */
+@DenyOom
 @Command("zincrby")
 @ParamLength(3)
 @ParamType(DataType.ZSET)
@@ -43,7 +44,7 @@ public class SortedSetIncrementByCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseKey zkey = safeKey(request.getParam(0));
+            DatabaseKey zkey = keyOf(db, request);
             DatabaseValue value = db.getOrDefault(zkey, DatabaseValue.EMPTY_ZSET);
             NavigableSet<Entry<Double, SafeString>> set = value.getSortedSet();
 
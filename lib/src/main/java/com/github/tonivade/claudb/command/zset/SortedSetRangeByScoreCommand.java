@@ -22,7 +22,6 @@ import java.util.NavigableSet;
 import java.util.Set;
 import java.util.stream.Stream;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.score;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static java.lang.Integer.parseInt;
@@ -80,7 +79,7 @@ public class SortedSetRangeByScoreCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_ZSET);
+            DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_ZSET);
             NavigableSet<Entry<Double, SafeString>> set = value.getSortedSet();
 
             float from = parseRange(request.getParam(1).toString());
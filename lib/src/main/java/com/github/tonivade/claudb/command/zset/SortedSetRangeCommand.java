@@ -22,7 +22,6 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.stream.Stream;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
@@ -50,7 +49,7 @@ public class SortedSetRangeCommand implements DBCommand {
     @Override
     public RedisToken execute(Database db, Request request) {
         try {
-            DatabaseValue value = db.getOrDefault(safeKey(request.getParam(0)), DatabaseValue.EMPTY_ZSET);
+            DatabaseValue value = db.getOrDefault(keyOf(db, request), DatabaseValue.EMPTY_ZSET);
             NavigableSet<Entry<Double, SafeString>> set = value.getSortedSet();
 
             int from = Integer.parseInt(request.getParam(1).toString());
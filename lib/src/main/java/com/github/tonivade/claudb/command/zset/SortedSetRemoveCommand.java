@@ -21,7 +21,6 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.score;
 import static com.github.tonivade.claudb.data.DatabaseValue.zset;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
@@ -48,7 +47,7 @@ public class SortedSetRemoveCommand implements DBCommand {
     public RedisToken execute(Database db, Request request) {
         List<SafeString> items = request.getParams().stream().skip(1).collect(toList());
         List<SafeString> removed = new LinkedList<>();
-        db.merge(safeKey(request.getParam(0)), DatabaseValue.EMPTY_ZSET,
+        db.merge(keyOf(db, request), DatabaseValue.EMPTY_ZSET,
                 (oldValue, newValue) -> {
                     Set<Entry<Double, SafeString>> merge = new SortedSet();
                     merge.addAll(oldValue.getSortedSet());
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.zset;
+
+import com.github.tonivade.claudb.command.DBCommand;
+import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.data.DataType;
+import com.github.tonivade.claudb.data.Database;
+import com.github.tonivade.resp.annotation.Command;
+import com.github.tonivade.resp.annotation.ParamLength;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * redis zset 类型的 zscore 命令实现。
+ */
+@ReadOnly
+@Command("zscore")
+@ParamLength(2)
+@ParamType(DataType.ZSET)
+public class SortedSetScoreCommand implements DBCommand {
+
+    /**
+     * 命令形式： zscore key member 返回有序集 key 中成员 member 的分数。
+     * @param db      当前数据库
+     * @param request 命令请求
+     * @return
+     */
+    @Override
+    public RedisToken execute(Database db, Request request) {
+        return db.getSortedSetScore(request.getParam(0), request.getParam(1))
+                .map(score -> string(score.toString()))
+                .getOrElse(RedisToken::nullString);
+    }
+}
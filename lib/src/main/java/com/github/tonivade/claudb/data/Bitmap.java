@@ -0,0 +1,917 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * roaring 压缩位图，STRING 类型值的位图编码。
+ * 位偏移与 redis 相同：偏移 n 为第 n / 8 个字节中从最高位开始的第 n % 8 位，偏移最大为 2^32 - 1。
+ * 按偏移的高 16 位分成若干个容器，每个容器按内容选择最小的表示：
+ * <ul>
+ *   <li>数组容器：不超过 4096 个 1 时保存排好序的低 16 位</li>
+ *   <li>位图容器：1024 个 long，共 65536 位</li>
+ *   <li>行程容器：连续的 1 保存为（起始位置，长度 - 1），只由批量构造和位运算产生，修改前转换为其他容器</li>
+ * </ul>
+ * 除位以外还记录对应字符串的字节长度，清除位不会缩短字符串，与 redis 一致。
+ * <p>
+ * 保存在数据库中的位图不会被修改：修改前先 {@link #copy()}，副本与原位图共享容器，
+ * 第一次修改某个容器时才复制该容器，每次 SETBIT 最多复制一个容器（不超过 8KB），不需要复制整个字符串
+ */
+public final class Bitmap implements Serializable {
+
+    private static final long serialVersionUID = -2389416209812645417L;
+
+    /**
+     * 最大位偏移 + 1
+     */
+    public static final long MAX_BITS = 1L << 32;
+
+    private static final int CONTAINER_BITS = 1 << 16;
+    private static final int WORDS = CONTAINER_BITS / 64;
+    /**
+     * 数组容器最多保存的元素个数，超过后位图容器更小
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    private static final int OBJECT = 16;
+    private static final int ARRAY_HEADER = 16;
+
+    private char[] keys;
+    private Container[] containers;
+    /**
+     * 容器是否属于当前位图，为 false 时与其他位图共享，修改前需要复制
+     */
+    private boolean[] owned;
+    private int size;
+    /**
+     * 对应字符串的字节数
+     */
+    private long length;
+
+    private Bitmap(char[] keys, Container[] containers, boolean[] owned, int size, long length) {
+        this.keys = keys;
+        this.containers = containers;
+        this.owned = owned;
+        this.size = size;
+        this.length = length;
+    }
+
+    public static Bitmap empty() {
+        return new Bitmap(new char[0], new Container[0], new boolean[0], 0, 0);
+    }
+
+    /**
+     * 由字符串的字节创建位图
+     *
+     * @param bytes 字节
+     * @return
+     */
+    public static Bitmap valueOf(byte[] bytes) {
+        int count = (int) ((bytes.length * 8L + CONTAINER_BITS - 1) / CONTAINER_BITS);
+        Bitmap bitmap = new Bitmap(new char[count], new Container[count], new boolean[count], 0, bytes.length);
+        long[] words = new long[WORDS];
+        int chunk = CONTAINER_BITS / 8;
+        for (int key = 0; key < count; key++) {
+            Arrays.fill(words, 0);
+            int from = key * chunk;
+            int to = Math.min(bytes.length, from + chunk);
+            for (int i = from; i < to; i++) {
+                int b = bytes[i] & 0xFF;
+                if (b != 0) {
+                    // 字节的最高位是偏移最小的位
+                    int low = (i - from) * 8;
+                    words[low >>> 6] |= (long) (Integer.reverse(b) >>> 24) << (low & 63);
+                }
+            }
+            bitmap.append(key, Container.fromWords(words, true));
+        }
+        return bitmap;
+    }
+
+    /**
+     * 创建一个与当前位图共享容器的副本，修改副本不会影响当前位图
+     *
+     * @return
+     */
+    public Bitmap copy() {
+        return new Bitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), new boolean[size],
+                size, length);
+    }
+
+    /**
+     * 对应字符串的字节数
+     *
+     * @return
+     */
+    public long length() {
+        return length;
+    }
+
+    public boolean get(long offset) {
+        if (offset < 0 || offset >= MAX_BITS) {
+            return false;
+        }
+        int i = find(key(offset));
+        return i >= 0 && containers[i].contains(low(offset));
+    }
+
+    /**
+     * 设置或清除一位，字符串长度不足时扩展
+     *
+     * @param offset 位偏移
+     * @param value  位的值
+     * @return 原来的值
+     */
+    public boolean set(long offset, boolean value) {
+        checkOffset(offset);
+        length = Math.max(length, (offset >>> 3) + 1);
+        int key = key(offset);
+        int low = low(offset);
+        int i = find(key);
+        if (i < 0) {
+            if (value) {
+                insert(-i - 1, key, new ArrayContainer().add(low));
+            }
+            return false;
+        }
+        boolean previous = containers[i].contains(low);
+        if (previous != value) {
+            Container container = owned(i);
+            container = value ? container.add(low) : container.remove(low);
+            if (container.cardinality() == 0) {
+                delete(i);
+            } else {
+                containers[i] = container;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * 1 的个数
+     *
+     * @return
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int i = 0; i < size; i++) {
+            count += containers[i].cardinality();
+        }
+        return count;
+    }
+
+    /**
+     * 位偏移在 [from, to] 之间的 1 的个数
+     *
+     * @param from 起始位偏移
+     * @param to   结束位偏移（包含）
+     * @return
+     */
+    public long count(long from, long to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, MAX_BITS - 1);
+        if (from > to) {
+            return 0;
+        }
+        int first = key(from);
+        int last = key(to);
+        long count = 0;
+        for (int i = lowerBound(first); i < size && keys[i] <= last; i++) {
+            int start = keys[i] == first ? low(from) : 0;
+            int end = keys[i] == last ? low(to) : CONTAINER_BITS - 1;
+            count += start == 0 && end == CONTAINER_BITS - 1
+                    ? containers[i].cardinality() : containers[i].count(start, end);
+        }
+        return count;
+    }
+
+    /**
+     * 不小于 from 的第一个 1 的位偏移
+     *
+     * @param from 起始位偏移
+     * @return 没有时返回 -1
+     */
+    public long nextSetBit(long from) {
+        from = Math.max(from, 0);
+        if (from >= MAX_BITS) {
+            return -1;
+        }
+        int key = key(from);
+        for (int i = lowerBound(key); i < size; i++) {
+            int next = containers[i].nextSet(keys[i] == key ? low(from) : 0);
+            if (next >= 0) {
+                return base(keys[i]) + next;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 不小于 from 的第一个 0 的位偏移，超出字符串长度的位都是 0
+     *
+     * @param from 起始位偏移
+     * @return 偏移范围内没有 0 时返回 {@link #MAX_BITS}
+     */
+    public long nextClearBit(long from) {
+        from = Math.max(from, 0);
+        while (from < MAX_BITS) {
+            int i = find(key(from));
+            if (i < 0) {
+                return from;
+            }
+            int next = containers[i].nextClear(low(from));
+            if (next < CONTAINER_BITS) {
+                return base(keys[i]) + next;
+            }
+            from = base(keys[i]) + CONTAINER_BITS;
+        }
+        return MAX_BITS;
+    }
+
+    /**
+     * 转换为字符串的字节
+     *
+     * @return
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(int) length];
+        for (int i = 0; i < size; i++) {
+            long base = base(keys[i]);
+            Container container = containers[i];
+            for (int low = container.nextSet(0); low >= 0; low = container.nextSet(low + 1)) {
+                long offset = base + low;
+                bytes[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 估算的堆内存占用
+     *
+     * @return
+     */
+    public long memoryUsage() {
+        long memory = OBJECT + align(ARRAY_HEADER + 2L * keys.length) + align(ARRAY_HEADER + 4L * containers.length)
+                + align(ARRAY_HEADER + (long) owned.length);
+        for (int i = 0; i < size; i++) {
+            memory += containers[i].memoryUsage();
+        }
+        return memory;
+    }
+
+    /**
+     * 按位与，结果的长度为最长的输入的长度，较短的输入按 0 补齐
+     *
+     * @param bitmaps 输入
+     * @return
+     */
+    public static Bitmap and(List<Bitmap> bitmaps) {
+        Bitmap result = empty();
+        result.length = maxLength(bitmaps);
+        Bitmap first = bitmaps.get(0);
+        long[] words = new long[WORDS];
+        long[] other = new long[WORDS];
+        for (int i = 0; i < first.size; i++) {
+            int key = first.keys[i];
+            Arrays.fill(words, 0);
+            first.containers[i].toWords(words);
+            for (int j = 1; j < bitmaps.size(); j++) {
+                Bitmap bitmap = bitmaps.get(j);
+                int index = bitmap.find(key);
+                if (index < 0) {
+                    Arrays.fill(words, 0);
+                    break;
+                }
+                Arrays.fill(other, 0);
+                bitmap.containers[index].toWords(other);
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= other[w];
+                }
+            }
+            result.append(key, Container.fromWords(words, true));
+        }
+        return result;
+    }
+
+    /**
+     * 按位或
+     *
+     * @param bitmaps 输入
+     * @return
+     */
+    public static Bitmap or(List<Bitmap> bitmaps) {
+        return combine(bitmaps, false);
+    }
+
+    /**
+     * 按位异或
+     *
+     * @param bitmaps 输入
+     * @return
+     */
+    public static Bitmap xor(List<Bitmap> bitmaps) {
+        return combine(bitmaps, true);
+    }
+
+    /**
+     * 按位取反，只对字符串长度以内的位取反
+     *
+     * @return
+     */
+    public Bitmap not() {
+        long bits = length * 8;
+        int count = (int) ((bits + CONTAINER_BITS - 1) / CONTAINER_BITS);
+        Bitmap result = new Bitmap(new char[count], new Container[count], new boolean[count], 0, length);
+        long[] words = new long[WORDS];
+        for (int key = 0; key < count; key++) {
+            Arrays.fill(words, 0);
+            int i = find(key);
+            if (i >= 0) {
+                containers[i].toWords(words);
+            }
+            int valid = (int) Math.min(CONTAINER_BITS, bits - base(key));
+            for (int w = 0; w < WORDS; w++) {
+                int remaining = valid - w * 64;
+                long mask = remaining >= 64 ? -1L : remaining <= 0 ? 0 : (1L << remaining) - 1;
+                words[w] = ~words[w] & mask;
+            }
+            result.append(key, Container.fromWords(words, true));
+        }
+        return result;
+    }
+
+    private static Bitmap combine(List<Bitmap> bitmaps, boolean xor) {
+        Bitmap result = empty();
+        result.length = maxLength(bitmaps);
+        int[] positions = new int[bitmaps.size()];
+        long[] words = new long[WORDS];
+        long[] other = new long[WORDS];
+        while (true) {
+            // 按键从小到大合并所有输入的容器
+            int key = CONTAINER_BITS;
+            for (int j = 0; j < bitmaps.size(); j++) {
+                Bitmap bitmap = bitmaps.get(j);
+                if (positions[j] < bitmap.size) {
+                    key = Math.min(key, bitmap.keys[positions[j]]);
+                }
+            }
+            if (key == CONTAINER_BITS) {
+                return result;
+            }
+            Arrays.fill(words, 0);
+            for (int j = 0; j < bitmaps.size(); j++) {
+                Bitmap bitmap = bitmaps.get(j);
+                if (positions[j] < bitmap.size && bitmap.keys[positions[j]] == key) {
+                    Arrays.fill(other, 0);
+                    bitmap.containers[positions[j]++].toWords(other);
+                    for (int w = 0; w < WORDS; w++) {
+                        words[w] = xor ? words[w] ^ other[w] : words[w] | other[w];
+                    }
+                }
+            }
+            result.append(key, Container.fromWords(words, true));
+        }
+    }
+
+    private static long maxLength(List<Bitmap> bitmaps) {
+        long length = 0;
+        for (Bitmap bitmap : bitmaps) {
+            length = Math.max(length, bitmap.length);
+        }
+        return length;
+    }
+
+    private static void checkOffset(long offset) {
+        if (offset < 0 || offset >= MAX_BITS) {
+            throw new IllegalArgumentException("bit offset out of range: " + offset);
+        }
+    }
+
+    private static int key(long offset) {
+        return (int) (offset >>> 16);
+    }
+
+    private static int low(long offset) {
+        return (int) (offset & (CONTAINER_BITS - 1));
+    }
+
+    private static long base(int key) {
+        return (long) key << 16;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    /**
+     * 第一个不小于 key 的容器的位置
+     */
+    private int lowerBound(int key) {
+        int i = find(key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * 取得可以修改的容器，共享的容器先复制
+     */
+    private Container owned(int i) {
+        if (!owned[i]) {
+            containers[i] = containers[i].copy();
+            owned[i] = true;
+        }
+        return containers[i];
+    }
+
+    /**
+     * 在末尾追加容器，只用于按键的顺序构造位图
+     */
+    private void append(int key, Container container) {
+        if (container != null) {
+            insert(size, key, container);
+        }
+    }
+
+    private void insert(int i, int key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            owned = Arrays.copyOf(owned, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        System.arraycopy(owned, i, owned, i + 1, size - i);
+        keys[i] = (char) key;
+        containers[i] = container;
+        owned[i] = true;
+        size++;
+    }
+
+    private void delete(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        System.arraycopy(owned, i + 1, owned, i, size - i - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * 65536 位的容器，位置为偏移的低 16 位
+     */
+    private abstract static class Container implements Serializable {
+
+        private static final long serialVersionUID = 6045185262839526744L;
+
+        abstract boolean contains(int low);
+
+        /**
+         * 设置一位，可能返回另一种容器
+         */
+        abstract Container add(int low);
+
+        /**
+         * 清除一位，可能返回另一种容器
+         */
+        abstract Container remove(int low);
+
+        abstract int cardinality();
+
+        /**
+         * [from, to] 之间 1 的个数
+         */
+        abstract int count(int from, int to);
+
+        /**
+         * 不小于 from 的第一个 1，没有时返回 -1
+         */
+        abstract int nextSet(int from);
+
+        /**
+         * 不小于 from 的第一个 0，没有时返回 65536
+         */
+        abstract int nextClear(int from);
+
+        /**
+         * 把所有的 1 或到 words 中
+         */
+        abstract void toWords(long[] words);
+
+        abstract Container copy();
+
+        abstract long memoryUsage();
+
+        /**
+         * 按内容选择占用最小的容器
+         *
+         * @param words    位
+         * @param allowRun 是否可以使用行程容器
+         * @return 没有 1 时返回 null
+         */
+        static Container fromWords(long[] words, boolean allowRun) {
+            int cardinality = 0;
+            int runs = 0;
+            long previous = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+                // 每个 0 到 1 的跳变是一个行程的开始
+                runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+                previous = word;
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            int arraySize = 2 * cardinality;
+            int bitmapSize = 8 * WORDS;
+            int runSize = 4 * runs;
+            if (allowRun && runSize < Math.min(arraySize, bitmapSize)) {
+                return RunContainer.fromWords(words, runs);
+            }
+            if (cardinality <= ARRAY_MAX) {
+                return ArrayContainer.fromWords(words, cardinality);
+            }
+            return new WordsContainer(words.clone(), cardinality);
+        }
+    }
+
+    /**
+     * 数组容器，保存排好序的位置
+     */
+    private static final class ArrayContainer extends Container {
+
+        private static final long serialVersionUID = -4624196437377127839L;
+
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer fromWords(long[] words, int cardinality) {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(int low) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                toWords(words);
+                return new WordsContainer(words, cardinality).add(low);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality + (cardinality >> 1) + 1));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int count(int from, int to) {
+            return lowerBound(to + 1) - lowerBound(from);
+        }
+
+        @Override
+        int nextSet(int from) {
+            int i = lowerBound(from);
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        int nextClear(int from) {
+            int next = from;
+            for (int i = lowerBound(from); i < cardinality && values[i] == next; i++) {
+                next++;
+            }
+            return next;
+        }
+
+        @Override
+        void toWords(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        long memoryUsage() {
+            return OBJECT + align(ARRAY_HEADER + 2L * values.length);
+        }
+
+        private int lowerBound(int low) {
+            if (low >= CONTAINER_BITS) {
+                return cardinality;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+
+    /**
+     * 位图容器
+     */
+    private static final class WordsContainer extends Container {
+
+        private static final long serialVersionUID = 2781625790371466305L;
+
+        private final long[] words;
+        private int cardinality;
+
+        private WordsContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(int low) {
+            if (!contains(low)) {
+                words[low >>> 6] |= 1L << low;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            if (contains(low)) {
+                words[low >>> 6] &= ~(1L << low);
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    return ArrayContainer.fromWords(words, cardinality);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int count(int from, int to) {
+            int first = from >>> 6;
+            int last = to >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - (to & 63));
+            if (first == last) {
+                return Long.bitCount(words[first] & firstMask & lastMask);
+            }
+            int count = Long.bitCount(words[first] & firstMask) + Long.bitCount(words[last] & lastMask);
+            for (int w = first + 1; w < last; w++) {
+                count += Long.bitCount(words[w]);
+            }
+            return count;
+        }
+
+        @Override
+        int nextSet(int from) {
+            if (from >= CONTAINER_BITS) {
+                return -1;
+            }
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return w * 64 + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == WORDS) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        int nextClear(int from) {
+            if (from >= CONTAINER_BITS) {
+                return CONTAINER_BITS;
+            }
+            int w = from >>> 6;
+            long word = ~words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return w * 64 + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == WORDS) {
+                    return CONTAINER_BITS;
+                }
+                word = ~words[w];
+            }
+        }
+
+        @Override
+        void toWords(long[] target) {
+            for (int w = 0; w < WORDS; w++) {
+                target[w] |= words[w];
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new WordsContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long memoryUsage() {
+            return OBJECT + ARRAY_HEADER + 8L * WORDS;
+        }
+    }
+
+    /**
+     * 行程容器，runs 中依次保存每个行程的起始位置和长度 - 1
+     */
+    private static final class RunContainer extends Container {
+
+        private static final long serialVersionUID = -7000564186941337781L;
+
+        private final char[] runs;
+
+        private RunContainer(char[] runs) {
+            this.runs = runs;
+        }
+
+        static RunContainer fromWords(long[] words, int count) {
+            char[] runs = new char[count * 2];
+            int n = 0;
+            int start = -1;
+            for (int low = 0; low <= CONTAINER_BITS; low++) {
+                boolean set = low < CONTAINER_BITS && (words[low >>> 6] & (1L << low)) != 0;
+                if (set && start < 0) {
+                    start = low;
+                } else if (!set && start >= 0) {
+                    runs[n++] = (char) start;
+                    runs[n++] = (char) (low - start - 1);
+                    start = -1;
+                }
+            }
+            return new RunContainer(runs);
+        }
+
+        @Override
+        boolean contains(int low) {
+            int i = runIndex(low);
+            return i >= 0 && low <= end(i);
+        }
+
+        @Override
+        Container add(int low) {
+            return contains(low) ? this : toContainer().add(low);
+        }
+
+        @Override
+        Container remove(int low) {
+            return contains(low) ? toContainer().remove(low) : this;
+        }
+
+        @Override
+        int cardinality() {
+            int count = 0;
+            for (int i = 0; i < runs.length / 2; i++) {
+                count += runs[2 * i + 1] + 1;
+            }
+            return count;
+        }
+
+        @Override
+        int count(int from, int to) {
+            int count = 0;
+            for (int i = 0; i < runs.length / 2; i++) {
+                int start = Math.max(from, start(i));
+                int end = Math.min(to, end(i));
+                if (start <= end) {
+                    count += end - start + 1;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        int nextSet(int from) {
+            for (int i = Math.max(runIndex(from), 0); i < runs.length / 2; i++) {
+                if (end(i) >= from) {
+                    return Math.max(from, start(i));
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int nextClear(int from) {
+            int i = runIndex(from);
+            // 相邻的行程已经合并，行程结束后的下一位一定是 0
+            return i >= 0 && from <= end(i) ? end(i) + 1 : from;
+        }
+
+        @Override
+        void toWords(long[] words) {
+            for (int i = 0; i < runs.length / 2; i++) {
+                for (int low = start(i); low <= end(i); low++) {
+                    words[low >>> 6] |= 1L << low;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            // 行程容器不会被修改
+            return this;
+        }
+
+        @Override
+        long memoryUsage() {
+            return OBJECT + align(ARRAY_HEADER + 2L * runs.length);
+        }
+
+        private int start(int i) {
+            return runs[2 * i];
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        /**
+         * 起始位置不大于 low 的最后一个行程，没有时返回 -1
+         */
+        private int runIndex(int low) {
+            int lo = 0;
+            int hi = runs.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= low) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        private Container toContainer() {
+            long[] words = new long[WORDS];
+            toWords(words);
+            return fromWords(words, false);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.util.Arrays;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 以 byte[] 为键的 {@link KeyspaceDict}，按数组内容计算哈希和比较，
+ * 哈希值已经缓存在表中，键不需要额外的包装对象
+ */
+final class BytesKeyspaceDict<V> extends KeyspaceDict<byte[], V> {
+
+    @Override
+    protected int keyHash(Object key) {
+        return Arrays.hashCode((byte[]) key);
+    }
+
+    @Override
+    protected boolean keyEquals(Object key, Object other) {
+        return other instanceof byte[] && Arrays.equals((byte[]) key, (byte[]) other);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.ImmutableSet;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 紧凑的堆上数据库。
+ * 键直接以 byte[] 保存在 {@link BytesKeyspaceDict} 中，哈希值缓存在表里；
+ * 没有过期时间的字符串值直接保存 byte[]，整数编码的字符串保存 Long 或共享的 {@link DatabaseValue}，
+ * 位图和 HyperLogLog 编码的字符串以及其他类型保存 {@link DatabaseValue}，
+ * 有过期时间时再包装一层 {@link Expiring}，过期时间保存为毫秒时间戳。
+ * 读取时按需创建 {@link DatabaseKey} 和 {@link DatabaseValue}，这些对象生命周期很短，
+ * 与常驻内存的每个键节省的对象头和包装对象相比代价很小。
+ * <p>
+ * 不是线程安全的，不支持并发读
+ */
+public class CompactDatabase implements Database {
+
+    private final BytesKeyspaceDict<Object> cache = new BytesKeyspaceDict<>();
+    /**
+     * 键值对的内存占用估算，写入和删除时增量维护
+     */
+    private final LongAdder usedMemory = new LongAdder();
+    /**
+     * 读取时删除的过期键数
+     */
+    private final LongAdder expiredKeys = new LongAdder();
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cache.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(DatabaseKey key) {
+        return cache.containsKey(bytes(key));
+    }
+
+    @Override
+    public DatabaseValue get(DatabaseKey key) {
+        byte[] bytes = bytes(key);
+        Object stored = cache.get(bytes);
+        if (stored == null) {
+            return null;
+        }
+        if (stored instanceof Expiring && ((Expiring) stored).isExpired(System.currentTimeMillis())) {
+            DatabaseValue value = toValue(stored);
+            cache.remove(bytes);
+            usedMemory.add(-sizeOf(key, value));
+            expiredKeys.increment();
+            return null;
+        }
+        return toValue(stored);
+    }
+
+    @Override
+    public DatabaseValue put(DatabaseKey key, DatabaseValue value) {
+        Object stored = cache.put(bytes(key), compact(value));
+        DatabaseValue oldValue = stored != null ? toValue(stored) : null;
+        usedMemory.add(sizeOf(key, value) - sizeOf(key, oldValue));
+        return oldValue;
+    }
+
+    @Override
+    public DatabaseValue remove(DatabaseKey key) {
+        Object stored = cache.remove(bytes(key));
+        DatabaseValue oldValue = stored != null ? toValue(stored) : null;
+        usedMemory.add(-sizeOf(key, oldValue));
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        usedMemory.reset();
+    }
+
+    @Override
+    public long usedMemory() {
+        return usedMemory.sum();
+    }
+
+    @Override
+    public long overheadMemory() {
+        return (long) cache.size() * MemoryEstimator.DICT_ENTRY;
+    }
+
+    @Override
+    public long expiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    @Override
+    public Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        DatabaseValue value = get(key);
+        if (value == null) {
+            return Option.none();
+        }
+        return Option.some(MemoryEstimator.compact(key, value, samples) + MemoryEstimator.DICT_ENTRY);
+    }
+
+    @Override
+    public ImmutableSet<DatabaseKey> keySet() {
+        List<DatabaseKey> keys = new ArrayList<>(cache.size());
+        for (byte[] key : cache.keySet()) {
+            keys.add(toKey(key));
+        }
+        return ImmutableSet.from(keys);
+    }
+
+    @Override
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        return cache.scan((int) cursor, count, key -> action.accept(toKey(key)));
+    }
+
+    @Override
+    public Sequence<DatabaseValue> values() {
+        List<DatabaseValue> values = new ArrayList<>(cache.size());
+        for (Object stored : cache.values()) {
+            values.add(toValue(stored));
+        }
+        return ImmutableSet.from(values);
+    }
+
+    @Override
+    public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
+        List<Tuple2<DatabaseKey, DatabaseValue>> entries = new ArrayList<>(cache.size());
+        for (Map.Entry<byte[], Object> entry : cache.entrySet()) {
+            entries.add(Tuple.of(toKey(entry.getKey()), toValue(entry.getValue())));
+        }
+        return ImmutableSet.from(entries);
+    }
+
+    private static byte[] bytes(DatabaseKey key) {
+        return key.getValue().getBytes();
+    }
+
+    private static DatabaseKey toKey(byte[] key) {
+        return safeKey(new SafeString(key));
+    }
+
+    /**
+     * 转换为保存在表中的紧凑形式
+     */
+    private static Object compact(DatabaseValue value) {
+        Object stored;
+        if (value.getType() == DataType.STRING && value.isNumber()) {
+            long number = value.getNumber();
+            // 共享范围内的值直接引用共享的实例
+            stored = number >= 0 && number < DatabaseValue.SHARED_INTEGERS
+                    ? DatabaseValue.number(number) : Long.valueOf(number);
+        } else if (value.getType() == DataType.STRING && !value.isBitmap() && !value.isHyperLogLog()) {
+            stored = value.getString().getBytes();
+        } else {
+            stored = value.getExpiredAt() != null ? value.noExpire() : value;
+        }
+        if (value.getExpiredAt() != null) {
+            return new Expiring(value.getExpiredAt().toEpochMilli(), stored);
+        }
+        return stored;
+    }
+
+    private static DatabaseValue toValue(Object stored) {
+        if (stored instanceof Expiring) {
+            Expiring expiring = (Expiring) stored;
+            return toValue(expiring.value).expiredAt(Instant.ofEpochMilli(expiring.expiredAt));
+        }
+        if (stored instanceof Long) {
+            return DatabaseValue.number((Long) stored);
+        }
+        if (stored instanceof byte[]) {
+            return DatabaseValue.string(new SafeString((byte[]) stored));
+        }
+        return (DatabaseValue) stored;
+    }
+
+    private static long sizeOf(DatabaseKey key, DatabaseValue value) {
+        return value != null ? MemoryEstimator.trackedCompact(key, value) : 0;
+    }
+
+    /**
+     * 带过期时间的值
+     */
+    private static final class Expiring {
+
+        /**
+         * 过期时间戳（毫秒）
+         */
+        private final long expiredAt;
+        private final Object value;
+
+        private Expiring(long expiredAt, Object value) {
+            this.expiredAt = expiredAt;
+            this.value = value;
+        }
+
+        private boolean isExpired(long now) {
+            return now > expiredAt;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 紧凑的堆上数据库工厂
+ */
+public class CompactDatabaseFactory implements DatabaseFactory {
+
+    /**
+     * 创建数据库
+     * @param name  数据库名
+     * @return
+     */
+    @Override
+    public Database create(String name) {
+        return new CompactDatabase();
+    }
+
+    /**
+     * 清理数据库
+     */
+    @Override
+    public void clear() {
+        // nothing to clear
+    }
+}
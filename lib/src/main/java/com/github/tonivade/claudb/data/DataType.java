@@ -17,6 +17,7 @@ public enum DataType {
     SET("set"),
     ZSET("zset"),
     HASH("hash"),
+    STREAM("stream"),
     NONE("none");
 
     private final String text;
@@ -9,12 +9,14 @@ import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableMap;
 import com.github.tonivade.purefun.data.ImmutableSet;
 import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.protocol.SafeString;
 
 import java.time.Instant;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 
@@ -89,6 +91,17 @@ public interface Database {
      */
     ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet();
 
+    /**
+     * 增量遍历键，每次调用只访问一批键，不复制整个键空间。
+     * 两次调用之间键被修改时可能遗漏或重复访问个别键
+     *
+     * @param cursor 游标，0 表示从头开始
+     * @param count  最多访问的键数
+     * @param action 访问键
+     * @return 下一次调用的游标，0 表示遍历完成
+     */
+    long scan(long cursor, int count, Consumer<DatabaseKey> action);
+
     /**
      * 获取 String 类型
      * @param key   数据库键
@@ -134,6 +147,112 @@ public interface Database {
         return getOrDefault(safeKey(key), DatabaseValue.EMPTY_HASH).getHash();
     }
 
+    /**
+     * 获取 Hash 类型中的一个字段
+     * @param key   数据库键
+     * @param field 字段
+     * @return
+     */
+    default Option<SafeString> getHashField(SafeString key, SafeString field) {
+        return getHash(key).get(field);
+    }
+
+    /**
+     * 获取 List 类型中的一个元素
+     * @param key   数据库键
+     * @param index 下标，负数表示从末尾倒数
+     * @return
+     */
+    default Option<SafeString> getListItem(SafeString key, int index) {
+        ImmutableList<SafeString> list = getList(key);
+        int position = index < 0 ? list.size() + index : index;
+        if (position < 0 || position >= list.size()) {
+            return Option.none();
+        }
+        return Option.some(list.asArray().get(position));
+    }
+
+    /**
+     * 判断是否为 Set 类型的成员
+     * @param key    数据库键
+     * @param member 成员
+     * @return
+     */
+    default boolean isSetMember(SafeString key, SafeString member) {
+        return getSet(key).contains(member);
+    }
+
+    /**
+     * 获取 ZSet 类型中成员的分数
+     * @param key    数据库键
+     * @param member 成员
+     * @return
+     */
+    default Option<Double> getSortedSetScore(SafeString key, SafeString member) {
+        for (Entry<Double, SafeString> entry : getSortedSet(key)) {
+            if (entry.getValue().equals(member)) {
+                return Option.some(entry.getKey());
+            }
+        }
+        return Option.none();
+    }
+
+    /**
+     * 是否支持不读取整个值的部分读取（getHashField、getListItem 等）
+     * @return
+     */
+    default boolean isPartialReadSupported() {
+        return false;
+    }
+
+    /**
+     * 获取键的类型，键不存在时返回 NONE
+     * @param key   数据库键
+     * @return
+     */
+    default DataType typeOf(DatabaseKey key) {
+        DatabaseValue value = get(key);
+        return value != null ? value.getType() : DataType.NONE;
+    }
+
+    /**
+     * 数据（键和值）的内存占用估算，写入时增量维护
+     * @return
+     */
+    default long usedMemory() {
+        return 0;
+    }
+
+    /**
+     * 存储结构（哈希表节点、条目头部等）的内存占用估算
+     * @return
+     */
+    default long overheadMemory() {
+        return 0;
+    }
+
+    /**
+     * 读取时发现已过期并删除的键数，定期清理删除的键不计入
+     * @return
+     */
+    default long expiredKeys() {
+        return 0;
+    }
+
+    /**
+     * 单个键的内存占用估算，包括键、值和存储结构的开销
+     * @param key       数据库键
+     * @param samples   集合采样的元素个数，0 表示全部元素
+     * @return 键不存在时返回 none
+     */
+    default Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        DatabaseValue value = get(key);
+        if (value == null) {
+            return Option.none();
+        }
+        return Option.some(MemoryEstimator.onHeap(key, value, samples) + MemoryEstimator.KEYSPACE_ENTRY);
+    }
+
     /**
      * HashMap 类型的 putAll 方法重构
      * @param map   数据库 map
@@ -193,8 +312,8 @@ public interface Database {
      * @return
      */
     default boolean isType(DatabaseKey key, DataType type) {
-        DatabaseValue value = get(key);
-        return value != null ? value.getType() == type : true;
+        DataType current = typeOf(key);
+        return current == DataType.NONE || current == type;
     }
 
     /**
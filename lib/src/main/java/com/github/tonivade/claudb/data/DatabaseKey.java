@@ -31,6 +31,10 @@ public class DatabaseKey implements Comparable<DatabaseKey>, Serializable {
      * 数据库值
      */
     private final SafeString value;
+    /**
+     * 缓存的哈希值，SafeString 每次都按内容计算，0 表示还未计算
+     */
+    private transient int hash;
 
     public DatabaseKey(SafeString value) {
         this.value = value;
@@ -47,7 +51,12 @@ public class DatabaseKey implements Comparable<DatabaseKey>, Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(value);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
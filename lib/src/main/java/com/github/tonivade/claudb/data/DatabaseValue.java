@@ -60,28 +60,48 @@ public class DatabaseValue implements Serializable {
      * Hash 类型空实例
      */
     public static final DatabaseValue EMPTY_HASH = hash();
+    /**
+     * Stream 类型空实例
+     */
+    public static final DatabaseValue EMPTY_STREAM = stream(StreamValue.empty());
     /**
      * 空值
      */
     public static final DatabaseValue NULL = null;
 
     /**
-     * 比较器
+     * 共享的整数值个数，0 到 SHARED_INTEGERS - 1 的计数器值复用同一个实例
+     */
+    public static final int SHARED_INTEGERS = 10000;
+    private static final DatabaseValue[] SHARED = new DatabaseValue[SHARED_INTEGERS];
+
+    /**
+     * 比较器，整数编码的字符串与同样内容的字符串相等
      */
     private static final Equal<DatabaseValue> EQUAL =
-            Equal.<DatabaseValue>of().comparing(v -> v.type).comparing(v -> v.value);
+            Equal.<DatabaseValue>of().comparing(v -> v.type).comparing(DatabaseValue::comparableValue);
+
+    static {
+        for (int i = 0; i < SHARED_INTEGERS; i++) {
+            SHARED[i] = new DatabaseValue(DataType.STRING, (long) i);
+        }
+    }
     /**
      * 数据类型
      */
     private final DataType type;
     /**
-     * 数据值
+     * 数据值，STRING 类型为 SafeString、整数编码的 Long、位图编码的 {@link Bitmap} 或 {@link HyperLogLog}
      */
     private final Object value;
     /**
      * 超时时间戳
      */
     private final Instant expiredAt;
+    /**
+     * 集合类型的值写入数据库时缓存的内存估算，0 表示尚未估算
+     */
+    private transient volatile long estimatedSize;
 
     private DatabaseValue(DataType type, Object value) {
         this(type, value, null);
@@ -97,11 +117,107 @@ public class DatabaseValue implements Serializable {
         return type;
     }
 
+    /**
+     * 字符串值，整数编码、位图编码和 HyperLogLog 在读取时才转换为字节
+     *
+     * @return
+     */
     public SafeString getString() {
         requiredType(DataType.STRING);
+        if (value instanceof Long) {
+            return safeString(value.toString());
+        }
+        if (value instanceof Bitmap) {
+            return new SafeString(((Bitmap) value).toByteArray());
+        }
+        if (value instanceof HyperLogLog) {
+            return new SafeString(((HyperLogLog) value).toByteArray());
+        }
         return getValue();
     }
 
+    /**
+     * 是否为位图编码的字符串
+     *
+     * @return
+     */
+    public boolean isBitmap() {
+        return value instanceof Bitmap;
+    }
+
+    /**
+     * 字符串值对应的位图，不是位图编码时由字符串的字节创建。
+     * 返回的位图可能被其他值共享，修改前需要先 {@link Bitmap#copy()}
+     *
+     * @return
+     */
+    public Bitmap getBitmap() {
+        requiredType(DataType.STRING);
+        if (value instanceof Bitmap) {
+            return (Bitmap) value;
+        }
+        return Bitmap.valueOf(getString().getBytes());
+    }
+
+    /**
+     * 是否为 HyperLogLog 编码的字符串
+     *
+     * @return
+     */
+    public boolean isHyperLogLog() {
+        return value instanceof HyperLogLog;
+    }
+
+    /**
+     * 字符串值对应的 HyperLogLog，不是 HyperLogLog 编码时解析字符串的字节。
+     * 返回的对象可能被其他值共享，修改前需要先 {@link HyperLogLog#copy()}
+     *
+     * @return
+     * @throws IllegalArgumentException 字符串不是合法的 HyperLogLog
+     */
+    public HyperLogLog getHyperLogLog() {
+        requiredType(DataType.STRING);
+        if (value instanceof HyperLogLog) {
+            return (HyperLogLog) value;
+        }
+        return HyperLogLog.valueOf(getString().getBytes());
+    }
+
+    /**
+     * 是否为整数编码的字符串
+     *
+     * @return
+     */
+    public boolean isNumber() {
+        return value instanceof Long;
+    }
+
+    /**
+     * 字符串值对应的 64 位整数，整数编码时不需要解析
+     *
+     * @return
+     * @throws NumberFormatException 不是整数或超出范围
+     */
+    public long getNumber() {
+        requiredType(DataType.STRING);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        return Long.parseLong(getString().toString());
+    }
+
+    /**
+     * 整数加上增量，结果为整数编码的值，不保留过期时间
+     *
+     * @param increment 增量
+     * @return
+     * @throws NumberFormatException 不是整数或超出范围
+     * @throws ArithmeticException   结果溢出
+     */
+    public DatabaseValue increment(long increment) {
+        return number(Math.addExact(getNumber(), increment));
+    }
+
     public ImmutableList<SafeString> getList() {
         requiredType(DataType.LIST);
         return getValue();
@@ -122,6 +238,11 @@ public class DatabaseValue implements Serializable {
         return getValue();
     }
 
+    public StreamValue getStream() {
+        requiredType(DataType.STREAM);
+        return getValue();
+    }
+
     public int size() {
         return Pattern1.<Object, Integer>build()
                 .when(instanceOf(Collection.class))
@@ -132,6 +253,14 @@ public class DatabaseValue implements Serializable {
                 .then(map -> ((ImmutableMap<?, ?>) map).size())
                 .when(instanceOf(SafeString.class))
                 .returns(1)
+                .when(instanceOf(Long.class))
+                .returns(1)
+                .when(instanceOf(Bitmap.class))
+                .returns(1)
+                .when(instanceOf(HyperLogLog.class))
+                .returns(1)
+                .when(instanceOf(StreamValue.class))
+                .then(stream -> (int) Math.min(((StreamValue) stream).length(), Integer.MAX_VALUE))
                 .otherwise()
                 .returns(0)
                 .apply(this.value);
@@ -174,9 +303,17 @@ public class DatabaseValue implements Serializable {
         return new DatabaseValue(this.type, this.value);
     }
 
+    long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    void setEstimatedSize(long estimatedSize) {
+        this.estimatedSize = estimatedSize;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(type, value);
+        return Objects.hash(type, comparableValue());
     }
 
     @Override
@@ -197,6 +334,19 @@ public class DatabaseValue implements Serializable {
         return new DatabaseValue(DataType.STRING, value);
     }
 
+    /**
+     * 整数编码的字符串，0 到 {@link #SHARED_INTEGERS} - 1 返回共享的实例
+     *
+     * @param value 整数
+     * @return
+     */
+    public static DatabaseValue number(long value) {
+        if (value >= 0 && value < SHARED_INTEGERS) {
+            return SHARED[(int) value];
+        }
+        return new DatabaseValue(DataType.STRING, value);
+    }
+
     public static DatabaseValue list(Sequence<SafeString> values) {
         return new DatabaseValue(DataType.LIST, values.asList());
     }
@@ -251,12 +401,38 @@ public class DatabaseValue implements Serializable {
         return new DatabaseValue(DataType.HASH, ImmutableMap.from(Stream.of(values)));
     }
 
+    public static DatabaseValue bitmap(Bitmap bitmap) {
+        return new DatabaseValue(DataType.STRING, requireNonNull(bitmap));
+    }
+
+    public static DatabaseValue hyperLogLog(HyperLogLog hyperLogLog) {
+        return new DatabaseValue(DataType.STRING, requireNonNull(hyperLogLog));
+    }
+
+    public static DatabaseValue stream(StreamValue stream) {
+        return new DatabaseValue(DataType.STREAM, requireNonNull(stream));
+    }
+
+    /**
+     * 字节为合法的 HyperLogLog 时创建 HyperLogLog 编码的值，否则创建普通字符串，用于从 RDB 和堆外缓冲区读取
+     *
+     * @param value 字节
+     * @return
+     */
+    public static DatabaseValue stringOrHyperLogLog(SafeString value) {
+        if (!HyperLogLog.hasHeader(value)) {
+            return string(value);
+        }
+        byte[] bytes = value.getBytes();
+        return HyperLogLog.isValid(bytes) ? hyperLogLog(HyperLogLog.valueOf(bytes)) : string(value);
+    }
+
     public static DatabaseValue bitset(int... ones) {
-        BitSet bitSet = new BitSet();
+        Bitmap bitmap = Bitmap.empty();
         for (int position : ones) {
-            bitSet.set(position);
+            bitmap.set(position, true);
         }
-        return new DatabaseValue(DataType.STRING, new SafeString(bitSet.toByteArray()));
+        return bitmap(bitmap);
     }
 
     public static Tuple2<SafeString, SafeString> entry(SafeString key, SafeString value) {
@@ -283,6 +459,10 @@ public class DatabaseValue implements Serializable {
         return TimeUnit.SECONDS.toMillis(ttlSeconds);
     }
 
+    private Object comparableValue() {
+        return value instanceof Long || value instanceof Bitmap || value instanceof HyperLogLog ? getString() : value;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T getValue() {
         return (T) value;
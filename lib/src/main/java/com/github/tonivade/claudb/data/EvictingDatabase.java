@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.ImmutableSet;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 开启 maxmemory 时的数据库装饰器，记录每个键的访问信息，
+ * 并把键放在数组中以便淘汰时随机采样。数据的内存占用由底层数据库统计，
+ * 访问信息和采样数组的开销计入 overheadMemory。
+ * 分片模式下多个分片可能同时写入，因此采样数组的修改需要同步，读操作只更新访问信息。
+ */
+public class EvictingDatabase implements Database {
+
+    private final Database db;
+    /**
+     * 数据库序号，淘汰的键需要按序号复制给从库和 AOF
+     */
+    private final int index;
+    private final Map<DatabaseKey, KeyAccess> access = new ConcurrentHashMap<>();
+    /**
+     * 全部键，用于 allkeys-* 策略的随机采样
+     */
+    private final List<DatabaseKey> keys = new ArrayList<>();
+    /**
+     * 带过期时间的键，用于 volatile-* 策略的随机采样
+     */
+    private final List<DatabaseKey> volatileKeys = new ArrayList<>();
+    /**
+     * 访问信息和采样数组的内存占用估算，在修改采样数组时更新
+     */
+    private volatile long trackingMemory;
+
+    public EvictingDatabase(Database db, int index, EvictionManager manager) {
+        this.db = requireNonNull(db);
+        this.index = index;
+        manager.register(this);
+    }
+
+    @Override
+    public int size() {
+        return db.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return db.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(DatabaseKey key) {
+        return db.containsKey(key);
+    }
+
+    @Override
+    public DatabaseValue get(DatabaseKey key) {
+        DatabaseValue value = db.get(key);
+        if (value != null) {
+            touch(key);
+        }
+        return value;
+    }
+
+    @Override
+    public DatabaseValue put(DatabaseKey key, DatabaseValue value) {
+        DatabaseValue oldValue = db.put(key, value);
+        track(key, value);
+        return oldValue;
+    }
+
+    @Override
+    public DatabaseValue remove(DatabaseKey key) {
+        DatabaseValue oldValue = db.remove(key);
+        release(key);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        db.clear();
+        synchronized (this) {
+            access.clear();
+            keys.clear();
+            volatileKeys.clear();
+            updateTrackingMemory();
+        }
+    }
+
+    @Override
+    public ImmutableSet<DatabaseKey> keySet() {
+        return db.keySet();
+    }
+
+    @Override
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        return db.scan(cursor, count, action);
+    }
+
+    @Override
+    public Sequence<DatabaseValue> values() {
+        return db.values();
+    }
+
+    @Override
+    public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
+        return db.entrySet();
+    }
+
+    @Override
+    public ImmutableSet<DatabaseKey> evictableKeys(Instant now) {
+        return db.evictableKeys(now);
+    }
+
+    @Override
+    public long usedMemory() {
+        return db.usedMemory();
+    }
+
+    @Override
+    public long overheadMemory() {
+        return db.overheadMemory() + trackingMemory;
+    }
+
+    @Override
+    public long expiredKeys() {
+        return db.expiredKeys();
+    }
+
+    @Override
+    public Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        return db.memoryUsage(key, samples);
+    }
+
+    @Override
+    public DataType typeOf(DatabaseKey key) {
+        DataType type = db.typeOf(key);
+        if (type != DataType.NONE) {
+            touch(key);
+        }
+        return type;
+    }
+
+    @Override
+    public boolean isPartialReadSupported() {
+        return db.isPartialReadSupported();
+    }
+
+    @Override
+    public Option<SafeString> getHashField(SafeString key, SafeString field) {
+        touch(safeKey(key));
+        return db.getHashField(key, field);
+    }
+
+    @Override
+    public Option<SafeString> getListItem(SafeString key, int index) {
+        touch(safeKey(key));
+        return db.getListItem(key, index);
+    }
+
+    @Override
+    public boolean isSetMember(SafeString key, SafeString member) {
+        touch(safeKey(key));
+        return db.isSetMember(key, member);
+    }
+
+    @Override
+    public Option<Double> getSortedSetScore(SafeString key, SafeString member) {
+        touch(safeKey(key));
+        return db.getSortedSetScore(key, member);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    KeyAccess access(DatabaseKey key) {
+        return access.get(key);
+    }
+
+    /**
+     * 随机选取一个键
+     *
+     * @param volatileOnly 是否只从带过期时间的键中选取
+     * @return 没有可选的键时返回 null
+     */
+    synchronized DatabaseKey randomKey(boolean volatileOnly) {
+        List<DatabaseKey> source = volatileOnly ? volatileKeys : keys;
+        if (source.isEmpty()) {
+            return null;
+        }
+        return source.get(ThreadLocalRandom.current().nextInt(source.size()));
+    }
+
+    /**
+     * 淘汰一个键
+     *
+     * @param key 键
+     * @return 键仍然存在并被删除时返回 true
+     */
+    boolean evict(DatabaseKey key) {
+        if (access.get(key) == null) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    /**
+     * 丢弃底层数据库已经删除的键（如读取时发现过期而被删除）的访问信息
+     *
+     * @param key 键
+     */
+    void forget(DatabaseKey key) {
+        release(key);
+    }
+
+    private void touch(DatabaseKey key) {
+        KeyAccess entry = access.get(key);
+        if (entry != null) {
+            entry.touch(System.currentTimeMillis());
+        }
+    }
+
+    private synchronized void track(DatabaseKey key, DatabaseValue value) {
+        long now = System.currentTimeMillis();
+        KeyAccess entry = access.get(key);
+        if (entry == null) {
+            entry = new KeyAccess(now);
+            entry.index = keys.size();
+            keys.add(key);
+            access.put(key, entry);
+        } else {
+            // 覆盖写入时保留原有的访问计数
+            entry.touch(now);
+        }
+        Instant expiredAt = value.getExpiredAt();
+        if (expiredAt != null) {
+            entry.expiredAt = expiredAt.toEpochMilli();
+            if (entry.volatileIndex < 0) {
+                entry.volatileIndex = volatileKeys.size();
+                volatileKeys.add(key);
+            }
+        } else if (entry.volatileIndex >= 0) {
+            removeVolatile(entry);
+        }
+        updateTrackingMemory();
+    }
+
+    private synchronized void release(DatabaseKey key) {
+        KeyAccess entry = access.remove(key);
+        if (entry == null) {
+            return;
+        }
+        DatabaseKey last = keys.remove(keys.size() - 1);
+        if (entry.index < keys.size()) {
+            keys.set(entry.index, last);
+            access.get(last).index = entry.index;
+        }
+        if (entry.volatileIndex >= 0) {
+            removeVolatile(entry);
+        }
+        updateTrackingMemory();
+    }
+
+    private void updateTrackingMemory() {
+        trackingMemory = (long) keys.size() * MemoryEstimator.EVICTION_ENTRY
+                + (long) volatileKeys.size() * MemoryEstimator.VOLATILE_ENTRY;
+    }
+
+    /**
+     * 与最后一个元素交换后删除，保证 O(1)
+     *
+     * @param entry 键的访问信息
+     */
+    private void removeVolatile(KeyAccess entry) {
+        DatabaseKey last = volatileKeys.remove(volatileKeys.size() - 1);
+        if (entry.volatileIndex < volatileKeys.size()) {
+            volatileKeys.set(entry.volatileIndex, last);
+            access.get(last).volatileIndex = entry.volatileIndex;
+        }
+        entry.volatileIndex = -1;
+        entry.expiredAt = 0;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * maxmemory 内存管理，全部数据库估算的内存占用超过上限时按淘汰策略淘汰键。
+ * 与 redis 相同采用近似算法：每轮从每个数据库随机采样若干个键放入淘汰池，
+ * 淘汰池保留分数最高的候选键，每次淘汰分数最高的一个，直到内存低于上限。
+ */
+public class EvictionManager {
+
+    /**
+     * 每个数据库每轮采样的键数
+     */
+    public static final int DEFAULT_SAMPLES = 5;
+    /**
+     * 淘汰池大小
+     */
+    private static final int POOL_SIZE = 16;
+
+    /**
+     * 内存上限，0 表示不限制
+     */
+    private final long maxMemory;
+    private final EvictionPolicy policy;
+    private final int samples;
+    private final List<EvictingDatabase> databases = new CopyOnWriteArrayList<>();
+    private final LongAdder evictedKeys = new LongAdder();
+    /**
+     * 淘汰池，按分数升序排列
+     */
+    private final Candidate[] pool = new Candidate[POOL_SIZE];
+    private int poolSize;
+    /**
+     * 上一次快速检查的结果和时间（毫秒）
+     */
+    private volatile boolean overLimit;
+    private volatile long checkedAt;
+
+    public EvictionManager(long maxMemory, EvictionPolicy policy) {
+        this(maxMemory, policy, DEFAULT_SAMPLES);
+    }
+
+    public EvictionManager(long maxMemory, EvictionPolicy policy, int samples) {
+        this.maxMemory = maxMemory;
+        this.policy = requireNonNull(policy);
+        this.samples = samples;
+    }
+
+    /**
+     * 不限制内存
+     *
+     * @return
+     */
+    public static EvictionManager unlimited() {
+        return new EvictionManager(0, EvictionPolicy.NOEVICTION);
+    }
+
+    /**
+     * 是否设置了内存上限
+     *
+     * @return
+     */
+    public boolean isActive() {
+        return maxMemory > 0;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 数据和存储结构的内存占用估算之和
+     *
+     * @return
+     */
+    public long getUsedMemory() {
+        long size = 0;
+        for (EvictingDatabase database : databases) {
+            size += database.usedMemory() + database.overheadMemory();
+        }
+        return size;
+    }
+
+    public long getEvictedKeys() {
+        return evictedKeys.sum();
+    }
+
+    public boolean isOverLimit() {
+        return maxMemory > 0 && getUsedMemory() > maxMemory;
+    }
+
+    /**
+     * 不加锁的快速检查，写命令先用它判断是否需要淘汰，只有需要时才加锁淘汰。
+     * 内存占用每毫秒最多统计一次，上一次检查超出上限时每次都重新统计
+     *
+     * @return
+     */
+    public boolean needsEviction() {
+        if (maxMemory <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (overLimit || now != checkedAt) {
+            checkedAt = now;
+            overLimit = getUsedMemory() > maxMemory;
+        }
+        return overLimit;
+    }
+
+    /**
+     * 淘汰键直到内存低于上限。
+     * 调用方需要保证执行期间没有其他线程写入数据库（分片模式下持有全部键槽锁）。
+     *
+     * @param evicted 每淘汰一个键时回调，参数为数据库序号和键
+     * @return 内存低于上限时返回 true，noeviction 或没有可淘汰的键时返回 false
+     */
+    public synchronized boolean performEvictions(BiConsumer<Integer, DatabaseKey> evicted) {
+        if (!isOverLimit()) {
+            overLimit = false;
+            return true;
+        }
+        if (policy == EvictionPolicy.NOEVICTION) {
+            return false;
+        }
+        while (isOverLimit()) {
+            populate(System.currentTimeMillis());
+            Candidate best = pollBest();
+            if (best == null) {
+                return false;
+            }
+            if (best.database.evict(best.key)) {
+                evictedKeys.increment();
+                evicted.accept(best.database.getIndex(), best.key);
+            }
+        }
+        overLimit = false;
+        return true;
+    }
+
+    void register(EvictingDatabase database) {
+        databases.add(database);
+    }
+
+    private void populate(long now) {
+        for (EvictingDatabase database : databases) {
+            for (int i = 0; i < samples; i++) {
+                DatabaseKey key = database.randomKey(policy.isVolatileOnly());
+                if (key == null) {
+                    break;
+                }
+                KeyAccess access = database.access(key);
+                if (access == null) {
+                    continue;
+                }
+                if (!database.containsKey(key)) {
+                    database.forget(key);
+                    continue;
+                }
+                offer(new Candidate(database, key, access.score(policy, now)));
+            }
+        }
+    }
+
+    private void offer(Candidate candidate) {
+        for (int i = 0; i < poolSize; i++) {
+            if (pool[i].database == candidate.database && pool[i].key.equals(candidate.key)) {
+                return;
+            }
+        }
+        if (poolSize == POOL_SIZE) {
+            if (candidate.score <= pool[0].score) {
+                return;
+            }
+            System.arraycopy(pool, 1, pool, 0, POOL_SIZE - 1);
+            poolSize--;
+        }
+        int i = poolSize;
+        while (i > 0 && pool[i - 1].score > candidate.score) {
+            pool[i] = pool[i - 1];
+            i--;
+        }
+        pool[i] = candidate;
+        poolSize++;
+    }
+
+    private Candidate pollBest() {
+        while (poolSize > 0) {
+            Candidate candidate = pool[--poolSize];
+            pool[poolSize] = null;
+            if (candidate.database.access(candidate.key) != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 淘汰候选键
+     */
+    private static final class Candidate {
+
+        private final EvictingDatabase database;
+        private final DatabaseKey key;
+        private final long score;
+
+        private Candidate(EvictingDatabase database, DatabaseKey key, long score) {
+            this.database = database;
+            this.key = key;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 内存达到 maxmemory 时的键淘汰策略，与 redis 的 maxmemory-policy 取值相同
+ */
+public enum EvictionPolicy {
+    NOEVICTION("noeviction", false),
+    ALLKEYS_LRU("allkeys-lru", false),
+    ALLKEYS_LFU("allkeys-lfu", false),
+    VOLATILE_LRU("volatile-lru", true),
+    VOLATILE_TTL("volatile-ttl", true);
+
+    private final String text;
+    /**
+     * 是否只淘汰设置了过期时间的键
+     */
+    private final boolean volatileOnly;
+
+    EvictionPolicy(String text, boolean volatileOnly) {
+        this.text = requireNonNull(text);
+        this.volatileOnly = volatileOnly;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public boolean isVolatileOnly() {
+        return volatileOnly;
+    }
+
+    /**
+     * 按配置名称解析淘汰策略
+     *
+     * @param text 策略名称，如 allkeys-lru
+     * @return
+     */
+    public static EvictionPolicy parse(String text) {
+        for (EvictionPolicy policy : values()) {
+            if (policy.text.equalsIgnoreCase(text)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("invalid maxmemory policy: " + text);
+    }
+}
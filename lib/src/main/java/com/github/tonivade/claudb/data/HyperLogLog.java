@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * HyperLogLog 基数估计，STRING 类型值的一种编码，字节格式与 redis 相同，可以直接保存到 RDB 和堆外缓冲区：
+ * <pre>
+ * 头部:   ["HYLL":4][编码:1，0 为密集，1 为稀疏][未使用:3][缓存的基数:8，小端，最高位为 1 表示无效]
+ * 密集:   16384 个 6 位的寄存器，低位在前，共 12288 字节
+ * 稀疏:   ZERO 00xxxxxx 为 1-64 个 0 寄存器，XZERO 01xxxxxx yyyyyyyy 为 1-16384 个 0 寄存器，
+ *         VAL 1vvvvvxx 为 1-4 个值为 1-32 的寄存器
+ * </pre>
+ * 稀疏编码超过 {@link #SPARSE_MAX_BYTES} 字节或者寄存器的值超过 32 时转换为密集编码，
+ * 因此每个计数器最多占用 12KB，与元素个数无关。
+ * 基数缓存在对象中，只在寄存器变化后重新计算，序列化时写入头部。
+ * <p>
+ * 保存在数据库中的值不会被修改，修改前先 {@link #copy()}
+ */
+public final class HyperLogLog implements Serializable {
+
+    private static final long serialVersionUID = -4512049312530785016L;
+
+    /**
+     * 寄存器个数 2^14，标准误差 0.81%
+     */
+    public static final int REGISTERS = 1 << 14;
+    /**
+     * 稀疏编码的最大字节数，与 redis 的 hll-sparse-max-bytes 默认值相同
+     */
+    public static final int SPARSE_MAX_BYTES = 3000;
+
+    private static final int P = 14;
+    private static final int Q = 64 - P;
+    private static final int BITS = 6;
+    private static final int MAX_VALUE = (1 << BITS) - 1;
+    private static final int HEADER = 16;
+    private static final int DENSE_SIZE = HEADER + (REGISTERS * BITS + 7) / 8;
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+    private static final int SPARSE_VAL_MAX_VALUE = 32;
+    private static final int SPARSE_VAL_MAX_LENGTH = 4;
+    private static final int SPARSE_ZERO_MAX_LENGTH = 64;
+    private static final int SPARSE_XZERO_MAX_LENGTH = 16384;
+    private static final long SEED = 0xadc83b19L;
+    private static final double ALPHA_INF = 0.721347520444481703680;
+    private static final byte[] MAGIC = { 'H', 'Y', 'L', 'L' };
+
+    private static final int OBJECT = 24;
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * 头部和寄存器，头部中的基数不维护
+     */
+    private byte[] data;
+    /**
+     * 缓存的基数，-1 表示需要重新计算
+     */
+    private volatile long cardinality;
+
+    private HyperLogLog(byte[] data, long cardinality) {
+        this.data = data;
+        this.cardinality = cardinality;
+    }
+
+    public static HyperLogLog empty() {
+        byte[] registers = new byte[REGISTERS];
+        return new HyperLogLog(sparse(registers), 0);
+    }
+
+    /**
+     * 是否为合法的 HyperLogLog 字节
+     *
+     * @param bytes 字节
+     * @return
+     */
+    public static boolean isValid(byte[] bytes) {
+        if (bytes.length < HEADER || !Arrays.equals(Arrays.copyOf(bytes, MAGIC.length), MAGIC)) {
+            return false;
+        }
+        if (bytes[4] == DENSE) {
+            return bytes.length == DENSE_SIZE;
+        }
+        if (bytes[4] != SPARSE) {
+            return false;
+        }
+        int index = 0;
+        int p = HEADER;
+        while (p < bytes.length) {
+            int op = bytes[p] & 0xFF;
+            if ((op & 0xC0) == 0x40) {
+                if (p + 1 >= bytes.length) {
+                    return false;
+                }
+                index += xzeroLength(op, bytes[p + 1]);
+                p += 2;
+            } else {
+                index += (op & 0x80) == 0 ? (op & 0x3F) + 1 : (op & 0x03) + 1;
+                p++;
+            }
+            if (index > REGISTERS) {
+                return false;
+            }
+        }
+        return index == REGISTERS;
+    }
+
+    /**
+     * 只检查头部的标识，不复制字节，用于快速排除普通字符串
+     *
+     * @param value 字符串
+     * @return
+     */
+    public static boolean hasHeader(SafeString value) {
+        ByteBuffer buffer = value.getBuffer();
+        if (buffer.remaining() < HEADER) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 由 redis 格式的字节创建，头部中有效的基数作为缓存
+     *
+     * @param bytes 字节
+     * @return
+     * @throws IllegalArgumentException 不是合法的 HyperLogLog
+     */
+    public static HyperLogLog valueOf(byte[] bytes) {
+        if (!isValid(bytes)) {
+            throw new IllegalArgumentException("invalid hyperloglog");
+        }
+        long cached = -1;
+        if ((bytes[15] & 0x80) == 0) {
+            cached = 0;
+            for (int i = 15; i >= 8; i--) {
+                cached = (cached << 8) | (bytes[i] & 0xFF);
+            }
+        }
+        return new HyperLogLog(bytes.clone(), cached);
+    }
+
+    /**
+     * 合并多个 HyperLogLog，每个寄存器取最大值
+     *
+     * @param values 输入
+     * @return
+     */
+    public static HyperLogLog merge(List<HyperLogLog> values) {
+        byte[] registers = new byte[REGISTERS];
+        for (HyperLogLog value : values) {
+            value.mergeInto(registers);
+        }
+        return new HyperLogLog(encode(registers), -1);
+    }
+
+    /**
+     * 多个 HyperLogLog 并集的基数，结果不缓存
+     *
+     * @param values 输入
+     * @return
+     */
+    public static long count(List<HyperLogLog> values) {
+        if (values.size() == 1) {
+            return values.get(0).count();
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (HyperLogLog value : values) {
+            value.mergeInto(registers);
+        }
+        return estimate(registers);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(data.clone(), cardinality);
+    }
+
+    public boolean isSparse() {
+        return data[4] == SPARSE;
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param elements 元素
+     * @return 是否有寄存器变化
+     */
+    public boolean add(List<SafeString> elements) {
+        boolean changed = false;
+        if (isSparse()) {
+            // 稀疏编码先解码为寄存器数组，全部加入后再重新编码
+            byte[] registers = registers();
+            for (SafeString element : elements) {
+                long hash = hash(element.getBytes());
+                int index = index(hash);
+                int value = runLength(hash);
+                if (value > registers[index]) {
+                    registers[index] = (byte) value;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                data = encode(registers);
+            }
+        } else {
+            for (SafeString element : elements) {
+                long hash = hash(element.getBytes());
+                int index = index(hash);
+                int value = runLength(hash);
+                if (value > denseGet(data, index)) {
+                    denseSet(data, index, value);
+                    changed = true;
+                }
+            }
+        }
+        if (changed) {
+            cardinality = -1;
+        }
+        return changed;
+    }
+
+    /**
+     * 估计的基数，寄存器没有变化时直接返回缓存的结果
+     *
+     * @return
+     */
+    public long count() {
+        long cached = cardinality;
+        if (cached < 0) {
+            cached = estimate(registers());
+            cardinality = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * 转换为 redis 格式的字节，头部带有缓存的基数
+     *
+     * @return
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = data.clone();
+        long cached = cardinality;
+        if (cached < 0) {
+            bytes[15] = (byte) 0x80;
+        } else {
+            for (int i = 8; i < HEADER; i++) {
+                bytes[i] = (byte) cached;
+                cached >>>= 8;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 估算的堆内存占用
+     *
+     * @return
+     */
+    public long memoryUsage() {
+        return OBJECT + ((ARRAY_HEADER + data.length + 7) & ~7L);
+    }
+
+    /**
+     * 寄存器的值
+     */
+    int register(int index) {
+        return registers()[index];
+    }
+
+    private byte[] registers() {
+        byte[] registers = new byte[REGISTERS];
+        mergeInto(registers);
+        return registers;
+    }
+
+    /**
+     * 把寄存器的值按最大值合并到 registers 中
+     */
+    private void mergeInto(byte[] registers) {
+        if (!isSparse()) {
+            for (int i = 0; i < REGISTERS; i++) {
+                registers[i] = (byte) Math.max(registers[i], denseGet(data, i));
+            }
+            return;
+        }
+        int index = 0;
+        int p = HEADER;
+        while (p < data.length) {
+            int op = data[p] & 0xFF;
+            if ((op & 0xC0) == 0) {
+                index += (op & 0x3F) + 1;
+                p++;
+            } else if ((op & 0xC0) == 0x40) {
+                index += xzeroLength(op, data[p + 1]);
+                p += 2;
+            } else {
+                int value = ((op >>> 2) & 0x1F) + 1;
+                for (int end = index + (op & 0x03) + 1; index < end; index++) {
+                    registers[index] = (byte) Math.max(registers[index], value);
+                }
+                p++;
+            }
+        }
+    }
+
+    /**
+     * 稀疏编码不超过 {@link #SPARSE_MAX_BYTES} 时使用稀疏编码，否则使用密集编码
+     */
+    private static byte[] encode(byte[] registers) {
+        byte[] sparse = sparse(registers);
+        return sparse != null ? sparse : dense(registers);
+    }
+
+    private static byte[] dense(byte[] registers) {
+        byte[] bytes = header(DENSE_SIZE, DENSE);
+        for (int i = 0; i < REGISTERS; i++) {
+            denseSet(bytes, i, registers[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * 稀疏编码，寄存器的值超过 32 或者超过最大字节数时返回 null
+     */
+    private static byte[] sparse(byte[] registers) {
+        byte[] buffer = new byte[SPARSE_MAX_BYTES];
+        int p = HEADER;
+        int i = 0;
+        while (i < REGISTERS) {
+            int value = registers[i];
+            int run = 1;
+            while (i + run < REGISTERS && registers[i + run] == value) {
+                run++;
+            }
+            i += run;
+            if (value > SPARSE_VAL_MAX_VALUE) {
+                return null;
+            }
+            while (run > 0) {
+                if (p + 2 > buffer.length) {
+                    return null;
+                }
+                int length;
+                if (value != 0) {
+                    length = Math.min(run, SPARSE_VAL_MAX_LENGTH);
+                    buffer[p++] = (byte) (0x80 | ((value - 1) << 2) | (length - 1));
+                } else if (run > SPARSE_ZERO_MAX_LENGTH) {
+                    length = Math.min(run, SPARSE_XZERO_MAX_LENGTH);
+                    buffer[p++] = (byte) (0x40 | ((length - 1) >>> 8));
+                    buffer[p++] = (byte) (length - 1);
+                } else {
+                    length = run;
+                    buffer[p++] = (byte) (length - 1);
+                }
+                run -= length;
+            }
+        }
+        byte[] bytes = Arrays.copyOf(buffer, p);
+        System.arraycopy(header(HEADER, SPARSE), 0, bytes, 0, HEADER);
+        return bytes;
+    }
+
+    private static byte[] header(int size, byte encoding) {
+        byte[] bytes = new byte[size];
+        System.arraycopy(MAGIC, 0, bytes, 0, MAGIC.length);
+        bytes[4] = encoding;
+        return bytes;
+    }
+
+    private static int xzeroLength(int op, byte next) {
+        return (((op & 0x3F) << 8) | (next & 0xFF)) + 1;
+    }
+
+    private static int denseGet(byte[] bytes, int index) {
+        int bit = index * BITS;
+        int b0 = HEADER + (bit >>> 3);
+        int shift = bit & 7;
+        int value = (bytes[b0] & 0xFF) >>> shift;
+        if (b0 + 1 < bytes.length) {
+            value |= (bytes[b0 + 1] & 0xFF) << (8 - shift);
+        }
+        return value & MAX_VALUE;
+    }
+
+    private static void denseSet(byte[] bytes, int index, int value) {
+        int bit = index * BITS;
+        int b0 = HEADER + (bit >>> 3);
+        int shift = bit & 7;
+        bytes[b0] = (byte) ((bytes[b0] & ~(MAX_VALUE << shift)) | (value << shift));
+        if (b0 + 1 < bytes.length) {
+            bytes[b0 + 1] = (byte) ((bytes[b0 + 1] & ~(MAX_VALUE >>> (8 - shift))) | (value >>> (8 - shift)));
+        }
+    }
+
+    private static int index(long hash) {
+        return (int) (hash & (REGISTERS - 1));
+    }
+
+    /**
+     * 去掉索引位后第一个 1 的位置（从 1 开始），最大为 Q + 1
+     */
+    private static int runLength(long hash) {
+        return Long.numberOfTrailingZeros((hash >>> P) | (1L << Q)) + 1;
+    }
+
+    /**
+     * redis 使用的 MurmurHash64A
+     */
+    static long hash(byte[] key) {
+        final long m = 0xc6a4a7935bd1e995L;
+        final int r = 47;
+        int length = key.length;
+        long h = SEED ^ (length * m);
+        int blocks = length / 8;
+        for (int i = 0; i < blocks; i++) {
+            long k = 0;
+            for (int j = 7; j >= 0; j--) {
+                k = (k << 8) | (key[i * 8 + j] & 0xFF);
+            }
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+        int tail = blocks * 8;
+        switch (length & 7) {
+            case 7:
+                h ^= (long) (key[tail + 6] & 0xFF) << 48;
+            case 6:
+                h ^= (long) (key[tail + 5] & 0xFF) << 40;
+            case 5:
+                h ^= (long) (key[tail + 4] & 0xFF) << 32;
+            case 4:
+                h ^= (long) (key[tail + 3] & 0xFF) << 24;
+            case 3:
+                h ^= (long) (key[tail + 2] & 0xFF) << 16;
+            case 2:
+                h ^= (long) (key[tail + 1] & 0xFF) << 8;
+            case 1:
+                h ^= key[tail] & 0xFF;
+                h *= m;
+            default:
+        }
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+
+    /**
+     * Ertl 改进的估计方法，与 redis 相同
+     */
+    private static long estimate(byte[] registers) {
+        int[] histogram = new int[Q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double m = REGISTERS;
+        double z = m * tau((m - histogram[Q + 1]) / m);
+        for (int j = Q; j >= 1; j--) {
+            z += histogram[j];
+            z *= 0.5;
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(ALPHA_INF * m * m / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double zPrime;
+        double y = 1;
+        double z = x;
+        do {
+            x *= x;
+            zPrime = z;
+            z += x * y;
+            y += y;
+        } while (zPrime != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0. || x == 1.) {
+            return 0.;
+        }
+        double zPrime;
+        double y = 1.0;
+        double z = 1 - x;
+        do {
+            x = Math.sqrt(x);
+            zPrime = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (zPrime != z);
+        return z / 3;
+    }
+}
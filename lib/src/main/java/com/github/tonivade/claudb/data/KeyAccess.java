@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 键的访问信息，用于近似 LRU / LFU 淘汰。
+ * 记录最近访问时间和 Morris 对数计数器（与 redis 相同，8 位计数器，每分钟衰减 1），
+ * 以及键在采样数组中的位置。
+ * 并发读模式下多个线程可能同时更新访问信息，丢失少量更新不影响近似淘汰的效果。
+ */
+final class KeyAccess {
+
+    /**
+     * 新键的初始计数，避免新写入的键马上被淘汰
+     */
+    static final int LFU_INIT_VAL = 5;
+    /**
+     * 计数器最大值
+     */
+    static final int LFU_MAX = 255;
+    /**
+     * 对数因子，越大计数器增长越慢
+     */
+    private static final int LFU_LOG_FACTOR = 10;
+    /**
+     * 计数器衰减周期
+     */
+    private static final long LFU_DECAY_MILLIS = 60_000;
+
+    /**
+     * 在全部键数组中的位置
+     */
+    int index = -1;
+    /**
+     * 在带过期时间的键数组中的位置，-1 表示没有过期时间
+     */
+    int volatileIndex = -1;
+    /**
+     * 过期时间戳，0 表示没有过期时间
+     */
+    long expiredAt;
+
+    private long accessTime;
+    private int counter = LFU_INIT_VAL;
+    private long decrementTime;
+
+    KeyAccess(long now) {
+        this.accessTime = now;
+        this.decrementTime = now;
+    }
+
+    /**
+     * 记录一次访问：先按经过的时间衰减计数器，再按概率递增
+     *
+     * @param now 当前时间戳
+     */
+    void touch(long now) {
+        counter = increment(frequency(now));
+        decrementTime = now;
+        accessTime = now;
+    }
+
+    /**
+     * 空闲时间
+     *
+     * @param now 当前时间戳
+     * @return
+     */
+    long idle(long now) {
+        return now - accessTime;
+    }
+
+    /**
+     * 衰减后的访问频率计数
+     *
+     * @param now 当前时间戳
+     * @return
+     */
+    int frequency(long now) {
+        long periods = (now - decrementTime) / LFU_DECAY_MILLIS;
+        if (periods <= 0) {
+            return counter;
+        }
+        return periods >= counter ? 0 : (int) (counter - periods);
+    }
+
+    /**
+     * 淘汰分数，分数越高越先被淘汰
+     *
+     * @param policy 淘汰策略
+     * @param now    当前时间戳
+     * @return
+     */
+    long score(EvictionPolicy policy, long now) {
+        switch (policy) {
+        case ALLKEYS_LFU:
+            return LFU_MAX - frequency(now);
+        case VOLATILE_TTL:
+            return Long.MAX_VALUE - expiredAt;
+        default:
+            return idle(now);
+        }
+    }
+
+    private static int increment(int counter) {
+        if (counter >= LFU_MAX) {
+            return LFU_MAX;
+        }
+        double base = Math.max(0, counter - LFU_INIT_VAL);
+        double p = 1.0 / (base * LFU_LOG_FACTOR + 1);
+        return ThreadLocalRandom.current().nextDouble() < p ? counter + 1 : counter;
+    }
+}
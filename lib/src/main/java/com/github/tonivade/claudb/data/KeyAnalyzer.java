@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.claudb.DBServerState;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 大键和热键分析，不需要执行 keys 命令就可以找到占用内存最多和访问最频繁的键。
+ * 大键：后台按批次逐个数据库扫描键，用 {@link Database#memoryUsage} 估算大小（集合只采样部分元素），
+ * 保留最大的 K 个键；每个数据库扫描完一轮后丢弃这一轮没有再出现的键（已删除）。
+ * 热键：命令按 1/sampleRate 的概率采样访问的键，用 Space-Saving 算法在固定数量的计数器中统计访问次数，
+ * 计数器每分钟减半，反映最近的访问频率。
+ */
+public class KeyAnalyzer {
+
+    /**
+     * 默认保留的大键和热键个数
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+    /**
+     * 每次扫描的键数
+     */
+    public static final int DEFAULT_BATCH = 1000;
+    /**
+     * 默认每 16 次访问采样一次
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+    /**
+     * 热键计数器个数与保留热键个数的倍数，计数器越多结果越准确
+     */
+    private static final int HOT_COUNTERS = 4;
+    /**
+     * 热键计数减半的周期（毫秒）
+     */
+    private static final long DECAY_PERIOD = 60_000;
+
+    private final int capacity;
+    private final int batch;
+    private final int sampleRate;
+
+    /**
+     * 大键，按大小升序的小顶堆，堆顶是最先被替换的键
+     */
+    private final PriorityQueue<BigKey> bigKeys =
+            new PriorityQueue<>(Comparator.comparingLong((BigKey key) -> key.size));
+    private final Map<KeyRef, BigKey> bigKeysIndex = new HashMap<>();
+    /**
+     * 每个数据库的扫描轮次
+     */
+    private long[] passes;
+    /**
+     * 正在扫描的数据库和数据库内的游标，游标为 0 时从头开始
+     */
+    private int scanDatabase;
+    private long cursor;
+    /**
+     * 本次调用 {@link Database#scan} 访问的键数
+     */
+    private int scanned;
+
+    /**
+     * 热键计数器，由执行命令的线程并发更新，单独加锁
+     */
+    private final Map<KeyRef, long[]> hotKeys = new HashMap<>();
+    private long lastDecay = System.currentTimeMillis();
+
+    public KeyAnalyzer() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH, DEFAULT_SAMPLE_RATE);
+    }
+
+    public KeyAnalyzer(int capacity, int batch, int sampleRate) {
+        this.capacity = capacity;
+        this.batch = batch;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 不开启键分析
+     *
+     * @return
+     */
+    public static KeyAnalyzer disabled() {
+        return new KeyAnalyzer(0, 0, 1);
+    }
+
+    public boolean isActive() {
+        return capacity > 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 本次访问是否需要采样
+     *
+     * @return
+     */
+    public boolean sample() {
+        return isActive() && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * 记录一次被采样的访问
+     *
+     * @param db  数据库序号
+     * @param key 键
+     */
+    public void record(int db, DatabaseKey key) {
+        if (!isActive()) {
+            return;
+        }
+        KeyRef ref = new KeyRef(db, key);
+        synchronized (hotKeys) {
+            long[] counter = hotKeys.get(ref);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+            if (hotKeys.size() < capacity * HOT_COUNTERS) {
+                hotKeys.put(ref, new long[]{1});
+                return;
+            }
+            // 替换计数最小的键，新键继承其计数，保证真正的热键不会被低估
+            KeyRef min = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<KeyRef, long[]> entry : hotKeys.entrySet()) {
+                if (entry.getValue()[0] < minCount) {
+                    min = entry.getKey();
+                    minCount = entry.getValue()[0];
+                }
+            }
+            counter = hotKeys.remove(min);
+            counter[0] = minCount + 1;
+            hotKeys.put(ref, counter);
+        }
+    }
+
+    /**
+     * 通过数据库的增量游标扫描一批键，不复制整个键空间。调用方需要保证执行期间没有其他线程写入数据库（分片模式下持有全部键槽锁）
+     *
+     * @param state 服务器状态
+     * @param now   当前时间（毫秒）
+     */
+    public synchronized void scan(DBServerState state, long now) {
+        if (!isActive()) {
+            return;
+        }
+        int numDatabases = state.getNumDatabases();
+        if (passes == null || passes.length != numDatabases) {
+            passes = new long[numDatabases];
+            scanDatabase = 0;
+            cursor = 0;
+        }
+        int remaining = batch;
+        // 每次最多扫描每个数据库一轮，避免全部数据库为空时空转
+        for (int finished = 0; remaining > 0 && finished < numDatabases; ) {
+            Database db = state.getDatabase(scanDatabase);
+            scanned = 0;
+            cursor = db.scan(cursor, remaining, key -> measure(db, key));
+            // 稀疏的表可能只访问了空槽位，每次调用至少计一个，保证每批的工作量有上限
+            remaining -= Math.max(scanned, 1);
+            if (cursor == 0) {
+                finishPass(scanDatabase);
+                scanDatabase = (scanDatabase + 1) % numDatabases;
+                finished++;
+            }
+        }
+        decay(now);
+    }
+
+    private void measure(Database db, DatabaseKey key) {
+        scanned++;
+        db.memoryUsage(key, MemoryEstimator.DEFAULT_SAMPLES)
+                .ifPresent(size -> offer(new KeyRef(scanDatabase, key), size));
+    }
+
+    /**
+     * 占用内存最多的键，按大小降序
+     *
+     * @param count 个数
+     * @return
+     */
+    public synchronized List<KeyStat> getBigKeys(int count) {
+        List<KeyStat> result = new ArrayList<>();
+        for (BigKey key : bigKeys) {
+            result.add(new KeyStat(key.ref.db, key.ref.key, key.size));
+        }
+        return top(result, count);
+    }
+
+    /**
+     * 访问最频繁的键，按估算的访问次数降序
+     *
+     * @param count 个数
+     * @return
+     */
+    public List<KeyStat> getHotKeys(int count) {
+        List<KeyStat> result = new ArrayList<>();
+        synchronized (hotKeys) {
+            for (Map.Entry<KeyRef, long[]> entry : hotKeys.entrySet()) {
+                KeyRef ref = entry.getKey();
+                result.add(new KeyStat(ref.db, ref.key, entry.getValue()[0] * sampleRate));
+            }
+        }
+        return top(result, count);
+    }
+
+    private void offer(KeyRef ref, long size) {
+        BigKey previous = bigKeysIndex.remove(ref);
+        if (previous != null) {
+            bigKeys.remove(previous);
+        }
+        if (bigKeys.size() == capacity) {
+            if (size <= bigKeys.peek().size) {
+                return;
+            }
+            bigKeysIndex.remove(bigKeys.poll().ref);
+        }
+        BigKey key = new BigKey(ref, size, passes[ref.db]);
+        bigKeys.add(key);
+        bigKeysIndex.put(ref, key);
+    }
+
+    /**
+     * 一个数据库扫描完一轮，丢弃这一轮没有扫描到的键
+     *
+     * @param db 数据库序号
+     */
+    private void finishPass(int db) {
+        long pass = passes[db];
+        bigKeys.removeIf(key -> {
+            if (key.ref.db == db && key.pass != pass) {
+                bigKeysIndex.remove(key.ref);
+                return true;
+            }
+            return false;
+        });
+        passes[db]++;
+    }
+
+    private void decay(long now) {
+        if (now - lastDecay < DECAY_PERIOD) {
+            return;
+        }
+        lastDecay = now;
+        synchronized (hotKeys) {
+            hotKeys.values().removeIf(counter -> (counter[0] >>= 1) == 0);
+        }
+    }
+
+    private static List<KeyStat> top(List<KeyStat> stats, int count) {
+        stats.sort(Comparator.comparingLong(KeyStat::getValue).reversed());
+        return stats.size() > count ? new ArrayList<>(stats.subList(0, count)) : stats;
+    }
+
+    /**
+     * 分析结果
+     */
+    public static final class KeyStat {
+
+        private final int database;
+        private final DatabaseKey key;
+        /**
+         * 大键为估算的字节数，热键为估算的访问次数
+         */
+        private final long value;
+
+        public KeyStat(int database, DatabaseKey key, long value) {
+            this.database = database;
+            this.key = requireNonNull(key);
+            this.value = value;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public DatabaseKey getKey() {
+            return key;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return database + ":" + key + "=" + value;
+        }
+    }
+
+    /**
+     * 数据库序号和键
+     */
+    private static final class KeyRef {
+
+        private final int db;
+        private final DatabaseKey key;
+
+        private KeyRef(int db, DatabaseKey key) {
+            this.db = db;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof KeyRef)) {
+                return false;
+            }
+            KeyRef other = (KeyRef) obj;
+            return db == other.db && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * db + key.hashCode();
+        }
+    }
+
+    private static final class BigKey {
+
+        private final KeyRef ref;
+        private final long size;
+        /**
+         * 扫描到该键时所在数据库的扫描轮次
+         */
+        private final long pass;
+
+        private BigKey(KeyRef ref, long size, long pass) {
+            this.ref = ref;
+            this.size = size;
+            this.pass = pass;
+        }
+    }
+}
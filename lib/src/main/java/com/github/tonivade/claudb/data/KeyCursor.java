@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 没有位置游标的存储（ConcurrentHashMap、OHC）的增量遍历。
+ * 保留上一次调用的迭代器，游标等于上一次返回的游标时继续遍历，否则重新开始并跳过游标个键。
+ * 迭代器是弱一致的，两次调用之间的修改不会导致异常。
+ */
+final class KeyCursor {
+
+    private final Supplier<? extends Iterator<DatabaseKey>> source;
+    private Iterator<DatabaseKey> iterator;
+    /**
+     * 已经访问的键数，即上一次返回的游标
+     */
+    private long position;
+
+    KeyCursor(Supplier<? extends Iterator<DatabaseKey>> source) {
+        this.source = source;
+    }
+
+    /**
+     * 从游标开始访问最多 count 个键
+     *
+     * @param cursor 游标，0 表示从头开始
+     * @param count  最多访问的键数
+     * @param action 访问键
+     * @return 下一次调用的游标，0 表示遍历完成
+     */
+    synchronized long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        if (iterator == null || cursor != position) {
+            close();
+            iterator = source.get();
+            position = 0;
+            while (position < cursor && iterator.hasNext()) {
+                iterator.next();
+                position++;
+            }
+        }
+        for (int i = 0; i < count && iterator.hasNext(); i++) {
+            action.accept(iterator.next());
+            position++;
+        }
+        if (!iterator.hasNext()) {
+            close();
+            return 0;
+        }
+        return position;
+    }
+
+    private void close() {
+        if (iterator instanceof Closeable) {
+            try {
+                ((Closeable) iterator).close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        iterator = null;
+        position = 0;
+    }
+}
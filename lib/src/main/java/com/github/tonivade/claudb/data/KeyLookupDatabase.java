@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.ImmutableSet;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.function.Consumer;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 单键查找视图。命令包装器做类型检查时查找一次键，
+ * 命令执行时对同一个键的读取直接复用查找结果，避免重复查询底层数据库。
+ * 每个会话复用同一个实例，任何写操作都会使缓存的查找结果失效。
+ * 底层数据库支持部分读取（堆外数据库）时只读取类型，值在需要时才读取。
+ */
+public final class KeyLookupDatabase implements Database {
+
+    /**
+     * 底层数据库
+     */
+    private Database db;
+    /**
+     * 已查找的键
+     */
+    private DatabaseKey key;
+    /**
+     * 已查找的键的类型，键不存在时为 NONE
+     */
+    private DataType type;
+    /**
+     * 已查找的值，键不存在时为 null
+     */
+    private DatabaseValue value;
+    /**
+     * 值是否已读取
+     */
+    private boolean loaded;
+
+    /**
+     * 在数据库中查找键，并缓存查找结果
+     *
+     * @param db  底层数据库
+     * @param key 键
+     * @return
+     */
+    public KeyLookupDatabase lookup(Database db, DatabaseKey key) {
+        this.db = db;
+        this.key = key;
+        if (db.isPartialReadSupported()) {
+            this.type = db.typeOf(key);
+            this.value = null;
+            this.loaded = false;
+        } else {
+            this.value = db.get(key);
+            this.type = value != null ? value.getType() : DataType.NONE;
+            this.loaded = true;
+        }
+        return this;
+    }
+
+    /**
+     * 已查找的键是否为指定类型，键不存在时视为任意类型
+     *
+     * @param type 数据类型
+     * @return
+     */
+    public boolean isType(DataType type) {
+        return this.type == DataType.NONE || this.type == type;
+    }
+
+    /**
+     * 已查找的键的类型
+     *
+     * @return 键不存在时为 {@link DataType#NONE}
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * 已查找的键，查找结果失效后为 null
+     *
+     * @return
+     */
+    public DatabaseKey getKey() {
+        return key;
+    }
+
+    /**
+     * 命令执行完毕后释放引用
+     */
+    public void reset() {
+        this.db = null;
+        invalidate();
+    }
+
+    @Override
+    public int size() {
+        return db.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return db.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(DatabaseKey key) {
+        return isLookupKey(key) ? type != DataType.NONE : db.containsKey(key);
+    }
+
+    @Override
+    public DatabaseValue get(DatabaseKey key) {
+        if (isLookupKey(key)) {
+            if (!loaded) {
+                value = db.get(key);
+                loaded = true;
+            }
+            return value;
+        }
+        return db.get(key);
+    }
+
+    @Override
+    public long usedMemory() {
+        return db.usedMemory();
+    }
+
+    @Override
+    public long overheadMemory() {
+        return db.overheadMemory();
+    }
+
+    @Override
+    public long expiredKeys() {
+        return db.expiredKeys();
+    }
+
+    @Override
+    public Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        return db.memoryUsage(key, samples);
+    }
+
+    @Override
+    public DataType typeOf(DatabaseKey key) {
+        return isLookupKey(key) ? type : db.typeOf(key);
+    }
+
+    @Override
+    public boolean isPartialReadSupported() {
+        return db.isPartialReadSupported();
+    }
+
+    @Override
+    public Option<SafeString> getHashField(SafeString key, SafeString field) {
+        return isPartialReadSupported() ? db.getHashField(key, field) : Database.super.getHashField(key, field);
+    }
+
+    @Override
+    public Option<SafeString> getListItem(SafeString key, int index) {
+        return isPartialReadSupported() ? db.getListItem(key, index) : Database.super.getListItem(key, index);
+    }
+
+    @Override
+    public boolean isSetMember(SafeString key, SafeString member) {
+        return isPartialReadSupported() ? db.isSetMember(key, member) : Database.super.isSetMember(key, member);
+    }
+
+    @Override
+    public Option<Double> getSortedSetScore(SafeString key, SafeString member) {
+        return isPartialReadSupported()
+                ? db.getSortedSetScore(key, member) : Database.super.getSortedSetScore(key, member);
+    }
+
+    @Override
+    public DatabaseValue put(DatabaseKey key, DatabaseValue value) {
+        invalidate();
+        return db.put(key, value);
+    }
+
+    @Override
+    public DatabaseValue remove(DatabaseKey key) {
+        invalidate();
+        return db.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+        db.clear();
+    }
+
+    @Override
+    public ImmutableSet<DatabaseKey> keySet() {
+        return db.keySet();
+    }
+
+    @Override
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        return db.scan(cursor, count, action);
+    }
+
+    @Override
+    public Sequence<DatabaseValue> values() {
+        return db.values();
+    }
+
+    @Override
+    public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
+        return db.entrySet();
+    }
+
+    private boolean isLookupKey(DatabaseKey key) {
+        return this.key == key || this.key != null && this.key.equals(key);
+    }
+
+    private void invalidate() {
+        this.key = null;
+        this.type = null;
+        this.value = null;
+        this.loaded = false;
+    }
+}
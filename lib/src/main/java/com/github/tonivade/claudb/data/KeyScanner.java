@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.claudb.DBServerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 大键扫描器，定时扫描一批键，扫描速度为每个周期 {@link KeyAnalyzer#DEFAULT_BATCH} 个键
+ */
+public class KeyScanner {
+
+    /**
+     * 日志
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyScanner.class);
+    /**
+     * 扫描周期（毫秒）
+     */
+    private static final long SCAN_PERIOD = 100;
+    /**
+     * 数据库服务器上下文
+     */
+    private final DBServerContext server;
+    /**
+     * 单例执行器
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    public KeyScanner(DBServerContext server) {
+        this.server = server;
+    }
+
+    /**
+     * 开启大键扫描
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::scan, SCAN_PERIOD, SCAN_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭大键扫描
+     */
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * 扫描一批键，异常不能抛出，否则后续的扫描不会再执行
+     */
+    private void scan() {
+        try {
+            server.analyze();
+        } catch (RuntimeException e) {
+            LOGGER.error("error analyzing keys", e);
+        }
+    }
+}
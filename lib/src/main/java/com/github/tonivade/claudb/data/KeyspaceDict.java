@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 堆上键空间使用的哈希表，线性探测的开放寻址，键、值和缓存的哈希值分别保存在三个平行数组中，
+ * 每个键值对不需要额外的节点对象。
+ * <p>
+ * 与 redis 的 dict 相同，扩容和缩容时不会一次性复制整个表：新建一个目标表，之后的每次读写操作顺带迁移
+ * 旧表中的少量槽位，迁移期间新键只写入目标表，查找时先查旧表再查目标表，迁移完成后丢弃旧表。
+ * 迁移期间旧表中删除或已迁移的槽位标记为墓碑，保证探测链不断开且已经扫描过的槽位不会再移动；
+ * 其他时候删除使用后移删除，表中没有墓碑。
+ * <p>
+ * 不是线程安全的，遍历期间不能修改，并发读模式下仍然使用 {@link java.util.concurrent.ConcurrentHashMap}
+ */
+public class KeyspaceDict<K, V> extends AbstractMap<K, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * 键的个数超过容量的 3/4 时扩容为两倍
+     */
+    private static final int MAX_LOAD_PERCENT = 75;
+    /**
+     * 键的个数低于容量的 1/8 时缩容
+     */
+    private static final int SHRINK_DIVISOR = 8;
+    /**
+     * 每次操作最多迁移的键数，最多访问该值 10 倍的空槽位
+     */
+    private static final int REHASH_STEP = 16;
+    private static final int EMPTY_VISITS = REHASH_STEP * 10;
+
+    private static final Object TOMBSTONE = new Object();
+
+    private Table table = new Table(MIN_CAPACITY);
+    /**
+     * 迁移的目标表，没有在迁移时为空
+     */
+    private Table next;
+    /**
+     * 旧表中下一个要迁移的槽位
+     */
+    private int rehashIndex;
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        requireNonNull(key);
+        rehashStep();
+        int hash = hash(key);
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            return table.value(i);
+        }
+        if (next != null) {
+            i = next.find(key, hash);
+            if (i >= 0) {
+                return next.value(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        requireNonNull(key);
+        requireNonNull(value);
+        rehashStep();
+        int hash = hash(key);
+        int i = table.find(key, hash);
+        if (i >= 0) {
+            return table.replace(i, value);
+        }
+        if (next != null) {
+            i = next.find(key, hash);
+            if (i >= 0) {
+                return next.replace(i, value);
+            }
+            next.insert(key, hash, value);
+        } else {
+            table.insert(key, hash, value);
+        }
+        size++;
+        if (next == null && table.count * 100L > (long) table.capacity() * MAX_LOAD_PERCENT) {
+            startRehash(table.capacity() * 2);
+        } else if (next != null && next.count * 100L > (long) next.capacity() * MAX_LOAD_PERCENT) {
+            // 只有缩容的同时大量写入才会出现，先完成迁移再按新的大小扩容
+            finishRehash();
+            startRehash(table.capacity() * 2);
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        requireNonNull(key);
+        rehashStep();
+        int hash = hash(key);
+        int i = table.find(key, hash);
+        V oldValue;
+        if (i >= 0) {
+            oldValue = table.value(i);
+            if (next != null) {
+                table.tombstone(i);
+            } else {
+                table.delete(i);
+            }
+        } else if (next != null && (i = next.find(key, hash)) >= 0) {
+            oldValue = next.value(i);
+            next.delete(i);
+        } else {
+            return null;
+        }
+        size--;
+        if (next == null && table.capacity() > MIN_CAPACITY && size < table.capacity() / SHRINK_DIVISOR) {
+            startRehash(capacityFor(size));
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        next = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 增量遍历键，游标为槽位序号，迁移期间先遍历旧表再遍历目标表。
+     * 与 redis 的 SCAN 一样，两次调用之间表被修改时可能遗漏或重复访问个别键
+     *
+     * @param cursor 游标，0 表示从头开始
+     * @param count  最多访问的键数，同时最多访问该值 10 倍的空槽位
+     * @param action 访问键
+     * @return 下一次调用的游标，0 表示遍历完成
+     */
+    @SuppressWarnings("unchecked")
+    public int scan(int cursor, int count, Consumer<? super K> action) {
+        int index = cursor;
+        int found = 0;
+        int empty = 0;
+        while (found < count && empty < count * 10) {
+            Table current = index < table.capacity() ? table : next;
+            int slot = current == table ? index : index - table.capacity();
+            if (current == null || slot >= current.capacity()) {
+                return 0;
+            }
+            Object key = current.keys[slot];
+            if (key == null || key == TOMBSTONE) {
+                empty++;
+            } else {
+                action.accept((K) key);
+                found++;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    boolean isRehashing() {
+        return next != null;
+    }
+
+    int capacity() {
+        return next != null ? next.capacity() : table.capacity();
+    }
+
+    private void startRehash(int capacity) {
+        next = new Table(capacity);
+        rehashIndex = 0;
+    }
+
+    private void finishRehash() {
+        while (next != null) {
+            rehashStep();
+        }
+    }
+
+    /**
+     * 迁移旧表中的少量槽位，全部迁移完成后目标表成为新的主表
+     */
+    private void rehashStep() {
+        if (next == null) {
+            return;
+        }
+        Table old = table;
+        int moved = 0;
+        int empty = 0;
+        while (rehashIndex < old.capacity() && moved < REHASH_STEP && empty < EMPTY_VISITS) {
+            Object key = old.keys[rehashIndex];
+            if (key == null || key == TOMBSTONE) {
+                empty++;
+            } else {
+                next.insert(key, old.hashes[rehashIndex], old.values[rehashIndex]);
+                old.tombstone(rehashIndex);
+                moved++;
+            }
+            rehashIndex++;
+        }
+        if (rehashIndex >= old.capacity()) {
+            table = next;
+            next = null;
+        }
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        // 缩容后的负载不超过 1/2
+        while (capacity < size * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 键的哈希值，键为数组等没有按内容实现 hashCode 的类型时由子类覆盖
+     */
+    protected int keyHash(Object key) {
+        return key.hashCode();
+    }
+
+    /**
+     * 键是否相等，与 {@link #keyHash(Object)} 一起覆盖
+     */
+    protected boolean keyEquals(Object key, Object other) {
+        return key.equals(other);
+    }
+
+    /**
+     * murmur3 的 fmix32，打散 hashCode 的低位，线性探测对聚集很敏感
+     */
+    private int hash(Object key) {
+        int h = keyHash(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * 一个哈希表，空槽位的键为 null
+     */
+    private final class Table {
+
+        private final Object[] keys;
+        private final Object[] values;
+        private final int[] hashes;
+        private final int mask;
+        private int count;
+
+        private Table(int capacity) {
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return keys.length;
+        }
+
+        private int find(Object key, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Object current = keys[i];
+                if (current == null) {
+                    return -1;
+                }
+                if (current != TOMBSTONE && hashes[i] == hash && (current == key || keyEquals(current, key))) {
+                    return i;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> V value(int i) {
+            return (V) values[i];
+        }
+
+        private <V> V replace(int i, V value) {
+            V oldValue = value(i);
+            values[i] = value;
+            return oldValue;
+        }
+
+        /**
+         * 插入一个不存在的键，只在没有墓碑的表中调用
+         */
+        private void insert(Object key, int hash, Object value) {
+            int i = hash & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            hashes[i] = hash;
+            count++;
+        }
+
+        private void tombstone(int i) {
+            keys[i] = TOMBSTONE;
+            values[i] = null;
+            count--;
+        }
+
+        /**
+         * 后移删除：把探测链上后面的键移到空出的槽位，直到遇到空槽位
+         */
+        private void delete(int i) {
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+                int ideal = hashes[j] & mask;
+                if (((j - ideal) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    hashes[gap] = hashes[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = null;
+            values[gap] = null;
+            hashes[gap] = 0;
+            count--;
+        }
+    }
+
+    /**
+     * 依次遍历旧表和目标表
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private Table current = table;
+        private int index = -1;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<>((K) current.keys[index], current.<V>value(index));
+            advance();
+            return entry;
+        }
+
+        private void advance() {
+            while (current != null) {
+                for (index++; index < current.capacity(); index++) {
+                    Object key = current.keys[index];
+                    if (key != null && key != TOMBSTONE) {
+                        return;
+                    }
+                }
+                current = current == table ? next : null;
+                index = -1;
+            }
+        }
+    }
+}
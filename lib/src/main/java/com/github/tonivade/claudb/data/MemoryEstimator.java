@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 内存占用估算。
+ * 堆上按 64 位 JVM 开启压缩指针时的对象布局估算对象图大小（对象头 12 字节，引用 4 字节，按 8 字节对齐），
+ * 堆外按序列化后的长度加上 OHC 条目头部估算。
+ * 集合类型可以只采样前若干个元素，按平均大小推算整体大小。
+ */
+public final class MemoryEstimator {
+
+    /**
+     * MEMORY USAGE 默认采样的元素个数
+     */
+    public static final int DEFAULT_SAMPLES = 5;
+    /**
+     * 堆上键空间中每个键的 HashMap 节点和哈希表槽位
+     */
+    public static final int KEYSPACE_ENTRY = 40;
+    /**
+     * 紧凑数据库中每个键在 {@link KeyspaceDict} 中的槽位（两个引用和缓存的哈希值），按平均负载约 1/2 估算
+     */
+    public static final int DICT_ENTRY = 24;
+    /**
+     * OHC 每个条目的头部
+     */
+    public static final int OFF_HEAP_ENTRY = 48;
+    /**
+     * 开启 maxmemory 时每个键的访问信息：ConcurrentHashMap 节点和槽位、KeyAccess 对象和采样数组中的引用
+     */
+    public static final int EVICTION_ENTRY = 40 + 48 + 4;
+    /**
+     * 开启 maxmemory 时带过期时间的键在采样数组中的引用
+     */
+    public static final int VOLATILE_ENTRY = 4;
+
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    /**
+     * SafeString 对象和其中包装 byte[] 的 HeapByteBuffer
+     */
+    private static final int SAFE_STRING = 16 + 48;
+    private static final int DATABASE_KEY = 16;
+    /**
+     * 对象头、三个引用和缓存的内存估算
+     */
+    private static final int DATABASE_VALUE = 32;
+    private static final int INSTANT = 24;
+    /**
+     * 紧凑数据库中带过期时间的值的包装
+     */
+    private static final int EXPIRING = 24;
+    private static final int DOUBLE = 16;
+    private static final int LONG = 16;
+    /**
+     * purefun 不可变集合对 java 集合的包装
+     */
+    private static final int IMMUTABLE_WRAPPER = 16;
+    private static final int ARRAY_LIST = 24;
+    private static final int HASH_SET = 16;
+    private static final int HASH_MAP = 48;
+    private static final int HASH_MAP_NODE = 32;
+    private static final int TREE_MAP = 48;
+    private static final int TREE_MAP_ENTRY = 40;
+    private static final int MAP_ENTRY = 24;
+    private static final int SORTED_SET = 24;
+
+    private MemoryEstimator() {
+    }
+
+    /**
+     * 堆上键值对的大小，不含键空间的开销
+     *
+     * @param key     键
+     * @param value   值
+     * @param samples 集合采样的元素个数，0 表示全部元素
+     * @return
+     */
+    public static long onHeap(DatabaseKey key, DatabaseValue value, int samples) {
+        return DATABASE_KEY + string(key.getValue()) + onHeap(value, samples);
+    }
+
+    /**
+     * 堆上值的大小
+     *
+     * @param value   值
+     * @param samples 集合采样的元素个数，0 表示全部元素
+     * @return
+     */
+    public static long onHeap(DatabaseValue value, int samples) {
+        long size = DATABASE_VALUE + (value.getExpiredAt() != null ? INSTANT : 0);
+        switch (value.getType()) {
+            case STRING:
+                if (value.isNumber()) {
+                    // 没有过期时间的共享整数值整个实例都是共享的，带过期时间时只共享其中的 Long
+                    if (isShared(value)) {
+                        return value.getExpiredAt() != null ? size : 0;
+                    }
+                    return size + LONG;
+                }
+                if (value.isBitmap()) {
+                    return size + value.getBitmap().memoryUsage();
+                }
+                if (value.isHyperLogLog()) {
+                    return size + value.getHyperLogLog().memoryUsage();
+                }
+                return size + string(value.getString());
+            case LIST: {
+                int count = value.getList().size();
+                return size + IMMUTABLE_WRAPPER + ARRAY_LIST + align(ARRAY_HEADER + (long) REFERENCE * count)
+                        + elements(value.getList().iterator(), count, samples, MemoryEstimator::string);
+            }
+            case SET: {
+                int count = value.getSet().size();
+                return size + IMMUTABLE_WRAPPER + HASH_SET + hashMap(count)
+                        + elements(value.getSet().iterator(), count, samples, MemoryEstimator::string);
+            }
+            case HASH: {
+                int count = value.getHash().size();
+                return size + IMMUTABLE_WRAPPER + hashMap(count)
+                        + elements(value.getHash().entries().iterator(), count, samples, MemoryEstimator::entry);
+            }
+            case ZSET: {
+                // 成员同时被哈希表和按分数排序的树引用，成员和分数只计算一次
+                int count = value.getSortedSet().size();
+                return size + SORTED_SET + hashMap(count) + HASH_SET + TREE_MAP
+                        + (long) count * (TREE_MAP_ENTRY + MAP_ENTRY)
+                        + elements(value.getSortedSet().iterator(), count, samples, MemoryEstimator::score);
+            }
+            case STREAM:
+                // 流的条目紧凑地保存在块中，按块的字节数计算，不需要采样
+                return size + value.getStream().memoryUsage();
+            default:
+                throw new IllegalStateException("unknown type: " + value.getType());
+        }
+    }
+
+    /**
+     * 堆上数据库统计内存占用时键值对的大小，集合类型使用 {@link #tracked(DatabaseValue)} 的估算
+     *
+     * @param key   键
+     * @param value 值
+     * @return
+     */
+    static long trackedOnHeap(DatabaseKey key, DatabaseValue value) {
+        return DATABASE_KEY + string(key.getValue()) + tracked(value);
+    }
+
+    /**
+     * 紧凑数据库统计内存占用时键值对的大小，集合类型使用 {@link #tracked(DatabaseValue)} 的估算
+     *
+     * @param key   键
+     * @param value 值
+     * @return
+     */
+    static long trackedCompact(DatabaseKey key, DatabaseValue value) {
+        if (value.getType() == DataType.STRING) {
+            return compact(key, value, 0);
+        }
+        long size = bytes(key.getValue()) + tracked(value);
+        return value.getExpiredAt() != null ? size + EXPIRING - INSTANT : size;
+    }
+
+    /**
+     * 数据库统计内存占用时值的大小。列表、集合、哈希和有序集合的值不可变，
+     * 按默认采样数估算一次后缓存在值中，覆盖或删除时取回同一个估算值，
+     * 每次写入只需采样几个元素，不需要遍历新值和旧值的全部元素
+     *
+     * @param value 值
+     * @return
+     */
+    static long tracked(DatabaseValue value) {
+        switch (value.getType()) {
+            case LIST:
+            case SET:
+            case HASH:
+            case ZSET:
+                long size = value.getEstimatedSize();
+                if (size == 0) {
+                    size = onHeap(value, DEFAULT_SAMPLES);
+                    value.setEstimatedSize(size);
+                }
+                return size;
+            default:
+                return onHeap(value, 0);
+        }
+    }
+
+    /**
+     * 紧凑数据库中键值对的大小，不含键空间的开销：键和字符串值只有 byte[]，其他类型与堆上相同
+     *
+     * @param key     键
+     * @param value   值
+     * @param samples 集合采样的元素个数，0 表示全部元素
+     * @return
+     */
+    public static long compact(DatabaseKey key, DatabaseValue value, int samples) {
+        long size = bytes(key.getValue());
+        if (value.getExpiredAt() != null) {
+            size += EXPIRING;
+        }
+        if (value.getType() == DataType.STRING) {
+            if (value.isNumber()) {
+                return isShared(value) ? size : size + LONG;
+            }
+            if (value.isBitmap() || value.isHyperLogLog()) {
+                // 位图和 HyperLogLog 编码的值保存为 DatabaseValue
+                return size + onHeap(value, samples) - (value.getExpiredAt() != null ? INSTANT : 0);
+            }
+            return size + bytes(value.getString());
+        }
+        return size + onHeap(value, samples) - (value.getExpiredAt() != null ? INSTANT : 0);
+    }
+
+    /**
+     * 堆外键值对的大小，值的序列化长度已知时（直接读取堆外缓冲区）无需再次计算
+     *
+     * @param key       键
+     * @param valueSize 值序列化后的长度
+     * @return
+     */
+    public static long offHeap(DatabaseKey key, long valueSize) {
+        return OFF_HEAP_ENTRY + OffHeapValues.stringSize(key.getValue()) + valueSize;
+    }
+
+    /**
+     * 堆外键值对的大小
+     *
+     * @param key   键
+     * @param value 值
+     * @return
+     */
+    public static long offHeap(DatabaseKey key, DatabaseValue value) {
+        return offHeap(key, OffHeapValues.serializedSize(value));
+    }
+
+    /**
+     * 字节数的可读形式，如 1.50M
+     *
+     * @param bytes 字节数
+     * @return
+     */
+    public static String human(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        String units = "KMGTPE";
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length() - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.2f%c", value, units.charAt(unit));
+    }
+
+    private static <T> long elements(Iterator<T> iterator, int count, int samples,
+                                     ToLongFunction<T> sizeOf) {
+        int limit = samples > 0 ? Math.min(samples, count) : count;
+        long size = 0;
+        int sampled = 0;
+        while (sampled < limit && iterator.hasNext()) {
+            size += sizeOf.applyAsLong(iterator.next());
+            sampled++;
+        }
+        return sampled == 0 || sampled == count ? size : size * count / sampled;
+    }
+
+    private static long hashMap(int count) {
+        return HASH_MAP + align(ARRAY_HEADER + (long) REFERENCE * tableSize(count)) + (long) HASH_MAP_NODE * count;
+    }
+
+    /**
+     * HashMap 在默认负载因子 0.75 下的哈希表长度
+     *
+     * @param count 元素个数
+     * @return
+     */
+    private static int tableSize(int count) {
+        if (count == 0) {
+            return 0;
+        }
+        int needed = (int) Math.ceil(count / 0.75);
+        return Math.max(16, Integer.highestOneBit(Math.max(needed - 1, 1)) << 1);
+    }
+
+    /**
+     * 共享的整数值只引用 {@link DatabaseValue#number(long)} 的共享实例，不计入键值对的大小
+     */
+    private static boolean isShared(DatabaseValue value) {
+        long number = value.getNumber();
+        return number >= 0 && number < DatabaseValue.SHARED_INTEGERS;
+    }
+
+    private static long string(SafeString value) {
+        return SAFE_STRING + bytes(value);
+    }
+
+    private static long bytes(SafeString value) {
+        return align(ARRAY_HEADER + (long) value.length());
+    }
+
+    private static long entry(Tuple2<SafeString, SafeString> entry) {
+        return string(entry.get1()) + string(entry.get2());
+    }
+
+    private static long score(Map.Entry<Double, SafeString> entry) {
+        return DOUBLE + string(entry.getValue());
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
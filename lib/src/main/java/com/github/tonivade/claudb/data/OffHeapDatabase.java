@@ -9,16 +9,26 @@ import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableSet;
 import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.protocol.SafeString;
 import org.caffinitas.ohc.CloseableIterator;
+import org.caffinitas.ohc.DirectValueAccess;
 import org.caffinitas.ohc.OHCache;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 
 import static java.util.Objects.requireNonNull;
 
@@ -30,9 +40,18 @@ import static java.util.Objects.requireNonNull;
 public class OffHeapDatabase implements Database {
 
     private final OHCache<DatabaseKey, DatabaseValue> cache;
+    /**
+     * 读取时删除的过期键数
+     */
+    private final LongAdder expiredKeys = new LongAdder();
+    /**
+     * OHC 没有位置游标，增量遍历时保留键的迭代器
+     */
+    private final KeyCursor cursor;
 
     public OffHeapDatabase(OHCache<DatabaseKey, DatabaseValue> cache) {
         this.cache = requireNonNull(cache);
+        this.cursor = new KeyCursor(cache::keyIterator);
     }
 
     @Override
@@ -58,6 +77,7 @@ public class OffHeapDatabase implements Database {
                 return value;
             }
             cache.remove(key);
+            expiredKeys.increment();
         }
         return null;
     }
@@ -80,6 +100,38 @@ public class OffHeapDatabase implements Database {
         cache.clear();
     }
 
+    /**
+     * OHC 统计的已用空间减去条目头部
+     *
+     * @return
+     */
+    @Override
+    public long usedMemory() {
+        return Math.max(0, cache.memUsed() - overheadMemory());
+    }
+
+    @Override
+    public long overheadMemory() {
+        return cache.size() * MemoryEstimator.OFF_HEAP_ENTRY;
+    }
+
+    @Override
+    public long expiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    /**
+     * 直接读取堆外缓冲区的长度，无需反序列化，采样参数对堆外数据库无效
+     *
+     * @param key     数据库键
+     * @param samples 集合采样的元素个数
+     * @return
+     */
+    @Override
+    public Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        return readDirect(key, buffer -> Option.some(MemoryEstimator.offHeap(key, buffer.remaining())), Option.none());
+    }
+
     @Override
     public ImmutableSet<DatabaseKey> keySet() {
         Set<DatabaseKey> keys = new HashSet<>();
@@ -93,6 +145,11 @@ public class OffHeapDatabase implements Database {
         return ImmutableSet.from(keys);
     }
 
+    @Override
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        return this.cursor.scan(cursor, count, action);
+    }
+
     @Override
     public Sequence<DatabaseValue> values() {
         List<DatabaseValue> values = new LinkedList<>();
@@ -106,4 +163,69 @@ public class OffHeapDatabase implements Database {
     public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
         return keySet().map(key -> Tuple.of(key, get(key)));
     }
+
+    @Override
+    public boolean isPartialReadSupported() {
+        return true;
+    }
+
+    @Override
+    public DataType typeOf(DatabaseKey key) {
+        return readDirect(key, OffHeapValues::type, DataType.NONE);
+    }
+
+    @Override
+    public Option<SafeString> getHashField(SafeString key, SafeString field) {
+        return readDirect(safeKey(key), buf -> OffHeapValues.hashField(buf, field), Option.none());
+    }
+
+    @Override
+    public Option<SafeString> getListItem(SafeString key, int index) {
+        return readDirect(safeKey(key), buf -> OffHeapValues.listItem(buf, index), Option.none());
+    }
+
+    @Override
+    public boolean isSetMember(SafeString key, SafeString member) {
+        return readDirect(safeKey(key), buf -> OffHeapValues.setMember(buf, member), false);
+    }
+
+    @Override
+    public Option<Double> getSortedSetScore(SafeString key, SafeString member) {
+        return readDirect(safeKey(key), buf -> OffHeapValues.sortedSetScore(buf, member), Option.none());
+    }
+
+    /**
+     * 直接在堆外缓冲区上读取，不反序列化整个值。已过期的键会被删除
+     *
+     * @param key     数据库键
+     * @param reader  读取函数
+     * @param missing 键不存在时的返回值
+     * @param <T>
+     * @return
+     */
+    private <T> T readDirect(DatabaseKey key, Function<ByteBuffer, T> reader, T missing) {
+        DirectValueAccess access = cache.getDirect(key);
+        if (access == null) {
+            return missing;
+        }
+        try {
+            ByteBuffer buffer = access.buffer();
+            if (!OffHeapValues.isExpired(buffer, Instant.now())) {
+                return reader.apply(buffer);
+            }
+        } finally {
+            close(access);
+        }
+        cache.remove(key);
+        expiredKeys.increment();
+        return missing;
+    }
+
+    private void close(Closeable access) {
+        try {
+            access.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.*;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 堆外数据的存储格式，集合类型带有内嵌索引，可以直接在堆外缓冲区上读取单个元素：
+ * <pre>
+ * 头部:   [类型:1][是否过期:1][过期时间:8，可选]
+ * STRING: [长度:4][字节]
+ * HASH:   [个数:4][偏移表:个数*4][按字段排序的 (字段, 值)]
+ * LIST:   [个数:4][偏移表:个数*4][按原有顺序的元素]
+ * SET:    [个数:4][偏移表:个数*4][排序后的元素]
+ * ZSET:   [个数:4][偏移表:个数*4][成员索引:个数*4][按分数排序的 (分数:8, 成员)]
+ * STREAM: [最后的 ID:16][个数:4][(ID:16, 字段个数:4, 字段和值...)][组个数:4]
+ *         [(组名, 最后投递的 ID:16, 消费者个数:4, (消费者, 活跃时间:8)..., 待确认个数:4,
+ *           (ID:16, 消费者, 投递时间:8, 投递次数:8)...)]
+ * </pre>
+ * 偏移表记录每个元素相对于元素区起始位置的偏移，成员索引按成员排序记录元素的序号，
+ * 因此 hget、lindex、sismember、zscore 只需要二分查找或一次定位，不需要反序列化整个集合。
+ */
+final class OffHeapValues {
+
+    /**
+     * 字段和成员的排序方式：按无符号字节的字典序
+     */
+    private static final Comparator<SafeString> BYTES_ORDER = (a, b) -> compare(a.getBytes(), b.getBytes());
+
+    private OffHeapValues() {
+    }
+
+    static void serialize(DatabaseValue value, ByteBuffer buf) {
+        writeType(buf, value.getType());
+        writeExpireAt(buf, value);
+        switch (value.getType()) {
+            case STRING:
+                writeString(buf, value.getString());
+                break;
+            case HASH:
+                List<Tuple2<SafeString, SafeString>> hash = sortedHash(value);
+                writeLength(buf, hash.size());
+                int hashOffset = 0;
+                for (Tuple2<SafeString, SafeString> entry : hash) {
+                    buf.putInt(hashOffset);
+                    hashOffset += stringSize(entry.get1()) + stringSize(entry.get2());
+                }
+                for (Tuple2<SafeString, SafeString> entry : hash) {
+                    writeString(buf, entry.get1());
+                    writeString(buf, entry.get2());
+                }
+                break;
+            case LIST:
+                List<SafeString> list = new ArrayList<>(value.getList().size());
+                for (SafeString item : value.getList()) {
+                    list.add(item);
+                }
+                writeStrings(buf, list);
+                break;
+            case SET:
+                writeStrings(buf, sortedSet(value));
+                break;
+            case ZSET:
+                List<Map.Entry<Double, SafeString>> sortedSet = new ArrayList<>(value.getSortedSet());
+                writeLength(buf, sortedSet.size());
+                int zsetOffset = 0;
+                for (Map.Entry<Double, SafeString> entry : sortedSet) {
+                    buf.putInt(zsetOffset);
+                    zsetOffset += scoreSize() + stringSize(entry.getValue());
+                }
+                for (int index : memberIndex(sortedSet)) {
+                    buf.putInt(index);
+                }
+                for (Map.Entry<Double, SafeString> entry : sortedSet) {
+                    writeScore(buf, entry.getKey());
+                    writeString(buf, entry.getValue());
+                }
+                break;
+            case STREAM:
+                writeStream(buf, value.getStream());
+                break;
+            case NONE:
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    static DatabaseValue deserialize(ByteBuffer buf) {
+        DataType type = readType(buf);
+        Instant expiredAt = readExpireAt(buf);
+        DatabaseValue value;
+        switch (type) {
+            case STRING:
+                // HyperLogLog 以 redis 格式的字节保存，读取时恢复编码和缓存的基数
+                value = stringOrHyperLogLog(readString(buf));
+                break;
+            case HASH:
+                int length = readLength(buf);
+                skipIndex(buf, length);
+                List<Tuple2<SafeString, SafeString>> entries = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    entries.add(Tuple.of(readString(buf), readString(buf)));
+                }
+                value = hash(entries);
+                break;
+            case LIST:
+                value = list(readStrings(buf));
+                break;
+            case SET:
+                value = set(readStrings(buf));
+                break;
+            case ZSET:
+                int sortedSetLength = readLength(buf);
+                skipIndex(buf, sortedSetLength * 2);
+                List<Map.Entry<Double, SafeString>> sortedSet = new ArrayList<>(sortedSetLength);
+                for (int i = 0; i < sortedSetLength; i++) {
+                    sortedSet.add(new AbstractMap.SimpleEntry<>(readScore(buf), readString(buf)));
+                }
+                value = zset(sortedSet);
+                break;
+            case STREAM:
+                value = stream(readStream(buf));
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+        return expiredAt != null ? value.expiredAt(expiredAt) : value;
+    }
+
+    static int serializedSize(DatabaseValue value) {
+        int size = typeSize() + ttlSize(value.getExpiredAt());
+        switch (value.getType()) {
+            case STRING:
+                return size + stringSize(value.getString());
+            case HASH:
+                size += lengthSize() + value.getHash().size() * lengthSize();
+                for (Tuple2<SafeString, SafeString> entry : value.getHash().entries()) {
+                    size += stringSize(entry.get1()) + stringSize(entry.get2());
+                }
+                return size;
+            case LIST:
+                size += lengthSize() + value.getList().size() * lengthSize();
+                for (SafeString item : value.getList()) {
+                    size += stringSize(item);
+                }
+                return size;
+            case SET:
+                size += lengthSize() + value.getSet().size() * lengthSize();
+                for (SafeString item : value.getSet()) {
+                    size += stringSize(item);
+                }
+                return size;
+            case ZSET:
+                size += lengthSize() + value.getSortedSet().size() * lengthSize() * 2;
+                for (Map.Entry<Double, SafeString> entry : value.getSortedSet()) {
+                    size += scoreSize() + stringSize(entry.getValue());
+                }
+                return size;
+            case STREAM:
+                return size + streamSize(value.getStream());
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * 只读取头部中的类型
+     *
+     * @param buf 堆外缓冲区
+     * @return
+     */
+    static DataType type(ByteBuffer buf) {
+        return DataType.values()[buf.get(buf.position())];
+    }
+
+    /**
+     * 只读取头部判断是否过期
+     *
+     * @param buf 堆外缓冲区
+     * @param now 当前时刻
+     * @return
+     */
+    static boolean isExpired(ByteBuffer buf, Instant now) {
+        int base = buf.position();
+        return buf.get(base + 1) != 0 && now.isAfter(Instant.ofEpochMilli(buf.getLong(base + 2)));
+    }
+
+    /**
+     * 在哈希中二分查找字段
+     *
+     * @param buf   堆外缓冲区
+     * @param field 字段
+     * @return
+     */
+    static Option<SafeString> hashField(ByteBuffer buf, SafeString field) {
+        int data = dataStart(buf);
+        int count = buf.getInt(data);
+        int entry = search(buf, data, count, 0, field.getBytes());
+        if (entry < 0) {
+            return Option.none();
+        }
+        return Option.some(stringAt(buf, entry + stringSizeAt(buf, entry)));
+    }
+
+    /**
+     * 按下标直接定位列表元素
+     *
+     * @param buf   堆外缓冲区
+     * @param index 下标，负数表示从末尾倒数
+     * @return
+     */
+    static Option<SafeString> listItem(ByteBuffer buf, int index) {
+        int data = dataStart(buf);
+        int count = buf.getInt(data);
+        int position = index < 0 ? count + index : index;
+        if (position < 0 || position >= count) {
+            return Option.none();
+        }
+        return Option.some(stringAt(buf, entryAt(buf, data, count, 0, position)));
+    }
+
+    /**
+     * 在集合中二分查找成员
+     *
+     * @param buf    堆外缓冲区
+     * @param member 成员
+     * @return
+     */
+    static boolean setMember(ByteBuffer buf, SafeString member) {
+        int data = dataStart(buf);
+        return search(buf, data, buf.getInt(data), 0, member.getBytes()) >= 0;
+    }
+
+    /**
+     * 通过成员索引二分查找有序集合成员的分数
+     *
+     * @param buf    堆外缓冲区
+     * @param member 成员
+     * @return
+     */
+    static Option<Double> sortedSetScore(ByteBuffer buf, SafeString member) {
+        int data = dataStart(buf);
+        int count = buf.getInt(data);
+        byte[] probe = member.getBytes();
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int index = buf.getInt(data + lengthSize() + (count + middle) * lengthSize());
+            int entry = entryAt(buf, data, count, count, index);
+            int result = compare(buf, entry + scoreSize(), probe);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return Option.some(buf.getDouble(entry));
+            }
+        }
+        return Option.none();
+    }
+
+    static void writeString(ByteBuffer buf, SafeString safeString) {
+        buf.putInt(safeString.length());
+        buf.put(safeString.getBytes());
+    }
+
+    static SafeString readString(ByteBuffer buf) {
+        int length = readLength(buf);
+        byte[] array = new byte[length];
+        buf.get(array);
+        return new SafeString(array);
+    }
+
+    static int stringSize(SafeString string) {
+        return lengthSize() + string.length();
+    }
+
+    private static void writeStream(ByteBuffer buf, StreamValue stream) {
+        writeId(buf, stream.getLastId());
+        List<StreamEntry> entries = stream.entries();
+        writeLength(buf, entries.size());
+        for (StreamEntry entry : entries) {
+            writeId(buf, entry.getId());
+            writeLength(buf, entry.getFields().size());
+            for (SafeString field : entry.getFields()) {
+                writeString(buf, field);
+            }
+        }
+        writeLength(buf, stream.getGroups().size());
+        for (Map.Entry<SafeString, StreamGroup> entry : stream.getGroups().entrySet()) {
+            StreamGroup group = entry.getValue();
+            writeString(buf, entry.getKey());
+            writeId(buf, group.getLastDelivered());
+            writeLength(buf, group.getConsumers().size());
+            for (Map.Entry<SafeString, Long> consumer : group.getConsumers().entrySet()) {
+                writeString(buf, consumer.getKey());
+                buf.putLong(consumer.getValue());
+            }
+            List<StreamGroup.Pending> pending = allPending(group);
+            writeLength(buf, pending.size());
+            for (StreamGroup.Pending item : pending) {
+                writeId(buf, item.getId());
+                writeString(buf, item.getConsumer());
+                buf.putLong(item.getDeliveryTime());
+                buf.putLong(item.getDeliveryCount());
+            }
+        }
+    }
+
+    private static StreamValue readStream(ByteBuffer buf) {
+        StreamId lastId = readId(buf);
+        int length = readLength(buf);
+        List<StreamEntry> entries = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            StreamId id = readId(buf);
+            entries.add(new StreamEntry(id, readStrings(buf, readLength(buf))));
+        }
+        StreamValue stream = StreamValue.of(entries, lastId);
+        int groups = readLength(buf);
+        for (int i = 0; i < groups; i++) {
+            SafeString name = readString(buf);
+            StreamGroup group = StreamGroup.create(readId(buf));
+            int consumers = readLength(buf);
+            for (int j = 0; j < consumers; j++) {
+                group = group.withConsumer(readString(buf), buf.getLong());
+            }
+            int pending = readLength(buf);
+            for (int j = 0; j < pending; j++) {
+                group = group.claim(readId(buf), readString(buf), buf.getLong(), buf.getLong());
+            }
+            stream = stream.withGroup(name, group);
+        }
+        return stream;
+    }
+
+    private static int streamSize(StreamValue stream) {
+        int size = idSize() + lengthSize();
+        for (StreamEntry entry : stream.entries()) {
+            size += idSize() + lengthSize();
+            for (SafeString field : entry.getFields()) {
+                size += stringSize(field);
+            }
+        }
+        size += lengthSize();
+        for (Map.Entry<SafeString, StreamGroup> entry : stream.getGroups().entrySet()) {
+            size += stringSize(entry.getKey()) + idSize() + lengthSize() + lengthSize();
+            for (SafeString consumer : entry.getValue().getConsumers().keySet()) {
+                size += stringSize(consumer) + Long.BYTES;
+            }
+            for (StreamGroup.Pending item : allPending(entry.getValue())) {
+                size += idSize() + stringSize(item.getConsumer()) + Long.BYTES * 2;
+            }
+        }
+        return size;
+    }
+
+    private static List<StreamGroup.Pending> allPending(StreamGroup group) {
+        return group.pending(StreamId.MIN, StreamId.MAX, Long.MAX_VALUE, null);
+    }
+
+    private static void writeId(ByteBuffer buf, StreamId id) {
+        buf.putLong(id.getMillis());
+        buf.putLong(id.getSequence());
+    }
+
+    private static StreamId readId(ByteBuffer buf) {
+        long millis = buf.getLong();
+        return StreamId.of(millis, buf.getLong());
+    }
+
+    private static List<SafeString> readStrings(ByteBuffer buf, int length) {
+        List<SafeString> items = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            items.add(readString(buf));
+        }
+        return items;
+    }
+
+    private static List<Tuple2<SafeString, SafeString>> sortedHash(DatabaseValue value) {
+        List<Tuple2<SafeString, SafeString>> entries = new ArrayList<>(value.getHash().size());
+        for (Tuple2<SafeString, SafeString> entry : value.getHash().entries()) {
+            entries.add(entry);
+        }
+        entries.sort((a, b) -> BYTES_ORDER.compare(a.get1(), b.get1()));
+        return entries;
+    }
+
+    private static List<SafeString> sortedSet(DatabaseValue value) {
+        List<SafeString> members = new ArrayList<>(value.getSet().size());
+        for (SafeString member : value.getSet()) {
+            members.add(member);
+        }
+        members.sort(BYTES_ORDER);
+        return members;
+    }
+
+    private static List<Integer> memberIndex(List<Map.Entry<Double, SafeString>> sortedSet) {
+        List<Integer> index = new ArrayList<>(sortedSet.size());
+        for (int i = 0; i < sortedSet.size(); i++) {
+            index.add(i);
+        }
+        index.sort((a, b) -> BYTES_ORDER.compare(sortedSet.get(a).getValue(), sortedSet.get(b).getValue()));
+        return index;
+    }
+
+    private static void writeStrings(ByteBuffer buf, List<SafeString> items) {
+        writeLength(buf, items.size());
+        int offset = 0;
+        for (SafeString item : items) {
+            buf.putInt(offset);
+            offset += stringSize(item);
+        }
+        for (SafeString item : items) {
+            writeString(buf, item);
+        }
+    }
+
+    private static List<SafeString> readStrings(ByteBuffer buf) {
+        int length = readLength(buf);
+        skipIndex(buf, length);
+        List<SafeString> items = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            items.add(readString(buf));
+        }
+        return items;
+    }
+
+    /**
+     * 元素区前的数据起始位置（跳过头部）
+     */
+    private static int dataStart(ByteBuffer buf) {
+        int base = buf.position();
+        return base + typeSize() + (buf.get(base + 1) != 0 ? Byte.BYTES + Long.BYTES : Byte.BYTES);
+    }
+
+    /**
+     * 第 position 个元素的绝对位置
+     *
+     * @param data     数据起始位置
+     * @param count    元素个数
+     * @param extra    偏移表之后额外索引的条目数
+     * @param position 元素序号
+     * @return
+     */
+    private static int entryAt(ByteBuffer buf, int data, int count, int extra, int position) {
+        int entries = data + lengthSize() + (count + extra) * lengthSize();
+        return entries + buf.getInt(data + lengthSize() + position * lengthSize());
+    }
+
+    /**
+     * 在按字节序排列的元素中二分查找，返回找到的元素的绝对位置，未找到返回 -1
+     */
+    private static int search(ByteBuffer buf, int data, int count, int extra, byte[] probe) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = entryAt(buf, data, count, extra, middle);
+            int result = compare(buf, entry, probe);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private static SafeString stringAt(ByteBuffer buf, int position) {
+        byte[] array = new byte[buf.getInt(position)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = buf.get(position + lengthSize() + i);
+        }
+        return new SafeString(array);
+    }
+
+    private static int stringSizeAt(ByteBuffer buf, int position) {
+        return lengthSize() + buf.getInt(position);
+    }
+
+    private static int compare(ByteBuffer buf, int position, byte[] probe) {
+        int length = buf.getInt(position);
+        int min = Math.min(length, probe.length);
+        for (int i = 0; i < min; i++) {
+            int result = Integer.compare(buf.get(position + lengthSize() + i) & 0xff, probe[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(length, probe.length);
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int min = Math.min(a.length, b.length);
+        for (int i = 0; i < min; i++) {
+            int result = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static void skipIndex(ByteBuffer buf, int entries) {
+        buf.position(buf.position() + entries * lengthSize());
+    }
+
+    private static void writeType(ByteBuffer buf, DataType type) {
+        buf.put((byte) type.ordinal());
+    }
+
+    private static void writeLength(ByteBuffer buf, int length) {
+        buf.putInt(length);
+    }
+
+    private static void writeScore(ByteBuffer buf, double score) {
+        buf.putDouble(score);
+    }
+
+    private static void writeExpireAt(ByteBuffer buf, DatabaseValue value) {
+        if (value.getExpiredAt() != null) {
+            buf.put((byte) 1);
+            buf.putLong(value.getExpiredAt().toEpochMilli());
+        } else {
+            buf.put((byte) 0);
+        }
+    }
+
+    private static DataType readType(ByteBuffer buf) {
+        return DataType.values()[buf.get()];
+    }
+
+    private static Instant readExpireAt(ByteBuffer buf) {
+        if (buf.get() != 0) {
+            return Instant.ofEpochMilli(buf.getLong());
+        }
+        return null;
+    }
+
+    private static int readLength(ByteBuffer buf) {
+        return buf.getInt();
+    }
+
+    private static double readScore(ByteBuffer buf) {
+        return buf.getDouble();
+    }
+
+    private static int idSize() {
+        return StreamId.BYTES;
+    }
+
+    private static int scoreSize() {
+        return Double.BYTES;
+    }
+
+    private static int typeSize() {
+        return Byte.BYTES;
+    }
+
+    private static int lengthSize() {
+        return Integer.BYTES;
+    }
+
+    private static int ttlSize(Instant instant) {
+        return Byte.BYTES + (instant != null ? Long.BYTES : 0);
+    }
+}
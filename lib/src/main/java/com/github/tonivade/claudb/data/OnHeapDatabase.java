@@ -11,6 +11,8 @@ import com.github.tonivade.purefun.data.Sequence;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -25,9 +27,22 @@ public class OnHeapDatabase implements Database {
      * 数据库缓存
      */
     private final Map<DatabaseKey, DatabaseValue> cache;
+    /**
+     * 键值对的内存占用估算，写入和删除时增量维护
+     */
+    private final LongAdder usedMemory = new LongAdder();
+    /**
+     * 读取时删除的过期键数
+     */
+    private final LongAdder expiredKeys = new LongAdder();
+    /**
+     * 并发 Map 没有位置游标，增量遍历时保留迭代器
+     */
+    private final KeyCursor cursor;
 
     public OnHeapDatabase(Map<DatabaseKey, DatabaseValue> cache) {
         this.cache = requireNonNull(cache);
+        this.cursor = new KeyCursor(() -> cache.keySet().iterator());
     }
 
     @Override
@@ -52,26 +67,48 @@ public class OnHeapDatabase implements Database {
             if (!value.isExpired(Instant.now())) {
                 return value;
             }
-            cache.remove(key);
+            // 只删除已过期的值，避免并发读时删除写线程刚写入的新值
+            if (cache.remove(key, value)) {
+                usedMemory.add(-sizeOf(key, value));
+                expiredKeys.increment();
+            }
         }
         return null;
     }
 
     @Override
     public DatabaseValue put(DatabaseKey key, DatabaseValue value) {
-        DatabaseValue oldValue = cache.remove(key);
-        cache.put(key, value);
+        DatabaseValue oldValue = cache.put(key, value);
+        usedMemory.add(sizeOf(key, value) - sizeOf(key, oldValue));
         return oldValue;
     }
 
     @Override
     public DatabaseValue remove(DatabaseKey key) {
-        return cache.remove(key);
+        DatabaseValue oldValue = cache.remove(key);
+        usedMemory.add(-sizeOf(key, oldValue));
+        return oldValue;
     }
 
     @Override
     public void clear() {
         cache.clear();
+        usedMemory.reset();
+    }
+
+    @Override
+    public long usedMemory() {
+        return usedMemory.sum();
+    }
+
+    @Override
+    public long overheadMemory() {
+        return (long) cache.size() * MemoryEstimator.KEYSPACE_ENTRY;
+    }
+
+    @Override
+    public long expiredKeys() {
+        return expiredKeys.sum();
     }
 
     @Override
@@ -79,6 +116,15 @@ public class OnHeapDatabase implements Database {
         return ImmutableSet.from(cache.keySet());
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        if (cache instanceof KeyspaceDict) {
+            return ((KeyspaceDict<DatabaseKey, DatabaseValue>) cache).scan((int) cursor, count, action);
+        }
+        return this.cursor.scan(cursor, count, action);
+    }
+
     @Override
     public Sequence<DatabaseValue> values() {
         return ImmutableSet.from(cache.values());
@@ -88,4 +134,8 @@ public class OnHeapDatabase implements Database {
     public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
         return ImmutableSet.from(cache.entrySet()).map(Tuple::from);
     }
+
+    private static long sizeOf(DatabaseKey key, DatabaseValue value) {
+        return value != null ? MemoryEstimator.trackedOnHeap(key, value) : 0;
+    }
 }
@@ -4,7 +4,7 @@
  */
 package com.github.tonivade.claudb.data;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author zhou <br/>
@@ -14,13 +14,26 @@ import java.util.HashMap;
 public class OnHeapDatabaseFactory implements DatabaseFactory {
 
     /**
-     * 创建数据库
+     * 是否使用并发 Map，开启后只读命令可以和唯一的写线程并发执行
+     */
+    private final boolean concurrent;
+
+    public OnHeapDatabaseFactory() {
+        this(false);
+    }
+
+    public OnHeapDatabaseFactory(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * 创建数据库，单线程访问时使用渐进式扩容的 {@link KeyspaceDict}
      * @param name  数据库名
      * @return
      */
     @Override
     public Database create(String name) {
-        return new OnHeapDatabase(new HashMap<>());
+        return new OnHeapDatabase(concurrent ? new ConcurrentHashMap<>() : new KeyspaceDict<>());
     }
 
     /**
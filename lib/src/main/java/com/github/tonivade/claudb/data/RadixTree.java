@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 不可变的压缩基数树，键为字节数组，按无符号字节的字典序排列（前缀排在更长的键之前）。
+ * 只有一个子节点且没有值的节点会与子节点合并，节点上的边保存一段字节。
+ * 插入和删除只复制从根到目标节点路径上的节点，其他节点在新旧版本之间共享，
+ * 因此修改的代价与键的长度成正比，与元素个数无关。
+ * floor / ceiling 查找同样只沿一条路径下降，用于流按 ID 的范围查询。
+ *
+ * @param <V> 值类型
+ */
+final class RadixTree<V> implements Serializable {
+
+    private static final long serialVersionUID = -2714785624095310482L;
+
+    private static final RadixTree<?> EMPTY = new RadixTree<>(null, 0);
+
+    private final Node<V> root;
+    private final int size;
+
+    private RadixTree(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> RadixTree<V> empty() {
+        return (RadixTree<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    V get(byte[] key) {
+        Node<V> node = root;
+        int position = 0;
+        while (node != null) {
+            if (!node.matches(key, position)) {
+                return null;
+            }
+            position += node.label.length;
+            if (position == key.length) {
+                return node.value;
+            }
+            node = node.child(key[position]);
+        }
+        return null;
+    }
+
+    /**
+     * 插入或替换键对应的值
+     *
+     * @param key   键
+     * @param value 值，不能为 null
+     * @return 新的树
+     */
+    RadixTree<V> put(byte[] key, V value) {
+        boolean exists = get(key) != null;
+        Node<V> newRoot = root == null ? new Node<>(key.clone(), key.clone(), value, Node.none())
+                : put(root, key, 0, value);
+        return new RadixTree<>(newRoot, exists ? size : size + 1);
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     * @return 新的树，键不存在时返回自身
+     */
+    RadixTree<V> remove(byte[] key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new RadixTree<>(remove(root, key, 0), size - 1);
+    }
+
+    Entry<byte[], V> first() {
+        return root != null ? root.first() : null;
+    }
+
+    Entry<byte[], V> last() {
+        return root != null ? root.last() : null;
+    }
+
+    /**
+     * 不大于（inclusive 为 false 时小于）键的最大的元素
+     *
+     * @param key       键
+     * @param inclusive 是否包含相等的键
+     * @return
+     */
+    Entry<byte[], V> floor(byte[] key, boolean inclusive) {
+        return root != null ? floor(root, key, 0, inclusive) : null;
+    }
+
+    /**
+     * 不小于（inclusive 为 false 时大于）键的最小的元素
+     *
+     * @param key       键
+     * @param inclusive 是否包含相等的键
+     * @return
+     */
+    Entry<byte[], V> ceiling(byte[] key, boolean inclusive) {
+        return root != null ? ceiling(root, key, 0, inclusive) : null;
+    }
+
+    /**
+     * 按键的顺序列出所有元素
+     *
+     * @return
+     */
+    List<Entry<byte[], V>> entries() {
+        List<Entry<byte[], V>> entries = new ArrayList<>(size);
+        if (root != null) {
+            root.collect(entries);
+        }
+        return entries;
+    }
+
+    /**
+     * 树中的节点数，用于估算内存占用
+     *
+     * @return
+     */
+    int nodes() {
+        return root != null ? root.count() : 0;
+    }
+
+    private static <V> Node<V> put(Node<V> node, byte[] key, int position, V value) {
+        int common = node.common(key, position);
+        if (common < node.label.length) {
+            // 在边的中间分裂出新的节点
+            Node<V> tail = node.withLabel(Arrays.copyOfRange(node.label, common, node.label.length));
+            byte[] head = Arrays.copyOf(node.label, common);
+            if (position + common == key.length) {
+                return new Node<>(head, key.clone(), value, Node.of(tail));
+            }
+            Node<V> leaf = new Node<>(Arrays.copyOfRange(key, position + common, key.length), key.clone(), value,
+                    Node.none());
+            return new Node<>(head, null, null, Node.sorted(tail, leaf));
+        }
+        position += common;
+        if (position == key.length) {
+            return new Node<>(node.label, key.clone(), value, node.children);
+        }
+        int index = node.indexOf(key[position]);
+        if (index >= 0) {
+            return node.withChild(index, put(node.children[index], key, position, value));
+        }
+        Node<V> leaf = new Node<>(Arrays.copyOfRange(key, position, key.length), key.clone(), value, Node.none());
+        return node.insertChild(-index - 1, leaf);
+    }
+
+    private static <V> Node<V> remove(Node<V> node, byte[] key, int position) {
+        position += node.label.length;
+        Node<V> result;
+        if (position == key.length) {
+            result = new Node<>(node.label, null, null, node.children);
+        } else {
+            int index = node.indexOf(key[position]);
+            Node<V> child = remove(node.children[index], key, position);
+            result = child != null ? node.withChild(index, child) : node.removeChild(index);
+        }
+        return result.compact();
+    }
+
+    private static <V> Entry<byte[], V> floor(Node<V> node, byte[] key, int position, boolean inclusive) {
+        int common = node.common(key, position);
+        if (common < node.label.length) {
+            if (position + common == key.length) {
+                // 键是这条边的前缀，子树中的键都更大
+                return null;
+            }
+            return Byte.toUnsignedInt(node.label[common]) < Byte.toUnsignedInt(key[position + common])
+                    ? node.last() : null;
+        }
+        position += common;
+        if (position == key.length) {
+            return inclusive && node.value != null ? node.entry() : null;
+        }
+        int index = node.indexOf(key[position]);
+        int lower = index >= 0 ? index - 1 : -index - 2;
+        if (index >= 0) {
+            Entry<byte[], V> result = floor(node.children[index], key, position, inclusive);
+            if (result != null) {
+                return result;
+            }
+        }
+        if (lower >= 0) {
+            return node.children[lower].last();
+        }
+        return node.value != null ? node.entry() : null;
+    }
+
+    private static <V> Entry<byte[], V> ceiling(Node<V> node, byte[] key, int position, boolean inclusive) {
+        int common = node.common(key, position);
+        if (common < node.label.length) {
+            if (position + common == key.length) {
+                return node.first();
+            }
+            return Byte.toUnsignedInt(node.label[common]) > Byte.toUnsignedInt(key[position + common])
+                    ? node.first() : null;
+        }
+        position += common;
+        if (position == key.length) {
+            if (inclusive && node.value != null) {
+                return node.entry();
+            }
+            return node.children.length > 0 ? node.children[0].first() : null;
+        }
+        int index = node.indexOf(key[position]);
+        int higher = index >= 0 ? index + 1 : -index - 1;
+        if (index >= 0) {
+            Entry<byte[], V> result = ceiling(node.children[index], key, position, inclusive);
+            if (result != null) {
+                return result;
+            }
+        }
+        return higher < node.children.length ? node.children[higher].first() : null;
+    }
+
+    /**
+     * 树的节点。label 为从父节点到本节点的边上的字节，有值的节点同时保存完整的键
+     */
+    private static final class Node<V> implements Serializable {
+
+        private static final long serialVersionUID = 6130584212950532047L;
+
+        private static final Node<?>[] NONE = new Node<?>[0];
+
+        private final byte[] label;
+        private final byte[] key;
+        private final V value;
+        /**
+         * 按边的第一个字节排序的子节点
+         */
+        private final Node<V>[] children;
+
+        private Node(byte[] label, byte[] key, V value, Node<V>[] children) {
+            this.label = label;
+            this.key = key;
+            this.value = value;
+            this.children = children;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] none() {
+            return (Node<V>[]) NONE;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] of(Node<V> child) {
+            return new Node[]{child};
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] sorted(Node<V> a, Node<V> b) {
+            return Byte.toUnsignedInt(a.label[0]) < Byte.toUnsignedInt(b.label[0])
+                    ? new Node[]{a, b} : new Node[]{b, a};
+        }
+
+        private Entry<byte[], V> entry() {
+            return new SimpleImmutableEntry<>(key, value);
+        }
+
+        /**
+         * 边上的字节与键从 position 开始的字节相同的个数
+         */
+        private int common(byte[] key, int position) {
+            int limit = Math.min(label.length, key.length - position);
+            int i = 0;
+            while (i < limit && label[i] == key[position + i]) {
+                i++;
+            }
+            return i;
+        }
+
+        private boolean matches(byte[] key, int position) {
+            return common(key, position) == label.length;
+        }
+
+        /**
+         * 二分查找以指定字节开头的子节点，未找到时返回 -(插入位置) - 1
+         */
+        private int indexOf(byte first) {
+            int probe = Byte.toUnsignedInt(first);
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int current = Byte.toUnsignedInt(children[middle].label[0]);
+                if (current < probe) {
+                    low = middle + 1;
+                } else if (current > probe) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private Node<V> child(byte first) {
+            int index = indexOf(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node<V> withLabel(byte[] newLabel) {
+            return new Node<>(newLabel, key, value, children);
+        }
+
+        private Node<V> withChild(int index, Node<V> child) {
+            Node<V>[] copy = children.clone();
+            copy[index] = child;
+            return new Node<>(label, key, value, copy);
+        }
+
+        private Node<V> insertChild(int index, Node<V> child) {
+            Node<V>[] copy = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, copy, index + 1, children.length - index);
+            copy[index] = child;
+            return new Node<>(label, key, value, copy);
+        }
+
+        private Node<V> removeChild(int index) {
+            Node<V>[] copy = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, index + 1, copy, index, children.length - index - 1);
+            return new Node<>(label, key, value, copy);
+        }
+
+        /**
+         * 删除后整理节点：没有值也没有子节点的节点被删除，没有值且只有一个子节点的节点与子节点合并
+         */
+        private Node<V> compact() {
+            if (value != null) {
+                return this;
+            }
+            if (children.length == 0) {
+                return null;
+            }
+            if (children.length == 1) {
+                Node<V> child = children[0];
+                byte[] merged = Arrays.copyOf(label, label.length + child.label.length);
+                System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+                return child.withLabel(merged);
+            }
+            return this;
+        }
+
+        private Entry<byte[], V> first() {
+            Node<V> node = this;
+            while (node.value == null) {
+                node = node.children[0];
+            }
+            return node.entry();
+        }
+
+        private Entry<byte[], V> last() {
+            Node<V> node = this;
+            while (node.children.length > 0) {
+                node = node.children[node.children.length - 1];
+            }
+            return node.entry();
+        }
+
+        private void collect(List<Entry<byte[], V>> entries) {
+            if (value != null) {
+                entries.add(entry());
+            }
+            for (Node<V> child : children) {
+                child.collect(entries);
+            }
+        }
+
+        private int count() {
+            int count = 1;
+            for (Node<V> child : children) {
+                count += child.count();
+            }
+            return count;
+        }
+    }
+}
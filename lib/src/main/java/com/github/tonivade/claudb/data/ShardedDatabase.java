@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.ImmutableSet;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 分片数据库，按键的哈希值将数据分散到多个子数据库中，
+ * 每个分片只由持有对应键槽锁的线程访问。
+ */
+public class ShardedDatabase implements Database {
+
+    /**
+     * 分片
+     */
+    private final List<Database> shards;
+
+    public ShardedDatabase(List<Database> shards) {
+        this.shards = requireNonNull(shards);
+    }
+
+    /**
+     * 计算键所在的分片
+     *
+     * @param key  键
+     * @param size 分片数
+     * @return
+     */
+    public static int slot(DatabaseKey key, int size) {
+        return (key.hashCode() & Integer.MAX_VALUE) % size;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Database shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Database shard : shards) {
+            if (!shard.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsKey(DatabaseKey key) {
+        return shard(key).containsKey(key);
+    }
+
+    @Override
+    public DatabaseValue get(DatabaseKey key) {
+        return shard(key).get(key);
+    }
+
+    @Override
+    public DatabaseValue put(DatabaseKey key, DatabaseValue value) {
+        return shard(key).put(key, value);
+    }
+
+    @Override
+    public DatabaseValue remove(DatabaseKey key) {
+        return shard(key).remove(key);
+    }
+
+    @Override
+    public void clear() {
+        shards.forEach(Database::clear);
+    }
+
+    @Override
+    public long usedMemory() {
+        long size = 0;
+        for (Database shard : shards) {
+            size += shard.usedMemory();
+        }
+        return size;
+    }
+
+    @Override
+    public long overheadMemory() {
+        long size = 0;
+        for (Database shard : shards) {
+            size += shard.overheadMemory();
+        }
+        return size;
+    }
+
+    @Override
+    public long expiredKeys() {
+        long keys = 0;
+        for (Database shard : shards) {
+            keys += shard.expiredKeys();
+        }
+        return keys;
+    }
+
+    @Override
+    public Option<Long> memoryUsage(DatabaseKey key, int samples) {
+        return shard(key).memoryUsage(key, samples);
+    }
+
+    @Override
+    public ImmutableSet<DatabaseKey> keySet() {
+        Set<DatabaseKey> keys = new HashSet<>();
+        for (Database shard : shards) {
+            shard.keySet().forEach(keys::add);
+        }
+        return ImmutableSet.from(keys);
+    }
+
+    /**
+     * 依次遍历每个分片，游标的低位（按分片数取模）为分片序号，其余为分片内的游标
+     */
+    @Override
+    public long scan(long cursor, int count, Consumer<DatabaseKey> action) {
+        int size = shards.size();
+        int shard = (int) (cursor % size);
+        long next = shards.get(shard).scan(cursor / size, count, action);
+        if (next != 0) {
+            return next * size + shard;
+        }
+        return shard + 1 < size ? shard + 1 : 0;
+    }
+
+    @Override
+    public Sequence<DatabaseValue> values() {
+        List<DatabaseValue> values = new ArrayList<>();
+        for (Database shard : shards) {
+            shard.values().forEach(values::add);
+        }
+        return ImmutableList.from(values);
+    }
+
+    @Override
+    public ImmutableSet<Tuple2<DatabaseKey, DatabaseValue>> entrySet() {
+        Set<Tuple2<DatabaseKey, DatabaseValue>> entries = new HashSet<>();
+        for (Database shard : shards) {
+            shard.entrySet().forEach(entries::add);
+        }
+        return ImmutableSet.from(entries);
+    }
+
+    private Database shard(DatabaseKey key) {
+        return shards.get(slot(key, shards.size()));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 分片数据库工厂，每个分片由底层工厂创建
+ */
+public class ShardedDatabaseFactory implements DatabaseFactory {
+
+    /**
+     * 底层数据库工厂
+     */
+    private final DatabaseFactory factory;
+    /**
+     * 分片数
+     */
+    private final int shards;
+
+    public ShardedDatabaseFactory(DatabaseFactory factory, int shards) {
+        this.factory = requireNonNull(factory);
+        this.shards = shards;
+    }
+
+    /**
+     * 创建数据库
+     * @param name  数据库名
+     * @return
+     */
+    @Override
+    public Database create(String name) {
+        List<Database> databases = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            databases.add(factory.create(name + "-" + i));
+        }
+        return new ShardedDatabase(databases);
+    }
+
+    /**
+     * 清理数据库
+     */
+    @Override
+    public void clear() {
+        factory.clear();
+    }
+}
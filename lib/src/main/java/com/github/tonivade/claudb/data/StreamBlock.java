@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流的一个数据块，与 redis 的 listpack 节点相同，连续的若干条目紧凑地保存在一个 byte[] 中：
+ * <pre>
+ * 块头部: [主条目字段个数:varint][主条目字段: (长度:varint, 字节)...]
+ * 条目:   [标志:1][与主 ID 的毫秒差:varint][与主 ID 的序号差:zigzag varint]
+ *         [与主条目字段相同时只有各字段的值，否则为 (字段个数:varint, 字段和值...)]
+ * </pre>
+ * 主 ID 是块中第一个条目的 ID，也是块在基数树中的键。同一个流的条目大多字段相同、ID 相近，
+ * 差值编码后每个条目只需要几个字节的头部。块是不可变的，追加时复制整个块（不超过 {@link #MAX_BYTES}），
+ * 流的其他块不受影响。
+ */
+final class StreamBlock implements Serializable {
+
+    private static final long serialVersionUID = -6049286125393622263L;
+
+    /**
+     * 每个块最多的条目数，与 redis 的 stream-node-max-entries 默认值相同
+     */
+    static final int MAX_ENTRIES = 100;
+    /**
+     * 块的最大字节数，与 redis 的 stream-node-max-bytes 默认值相同
+     */
+    static final int MAX_BYTES = 4096;
+
+    /**
+     * 条目的字段与主条目相同，只保存值
+     */
+    private static final int SAME_FIELDS = 1;
+
+    private final StreamId master;
+    private final StreamId last;
+    private final int count;
+    /**
+     * 块头部和所有条目编码后的字节
+     */
+    private final byte[] data;
+
+    private StreamBlock(StreamId master, StreamId last, int count, byte[] data) {
+        this.master = master;
+        this.last = last;
+        this.count = count;
+        this.data = data;
+    }
+
+    /**
+     * 以一个条目创建新的块，该条目的字段作为主条目的字段
+     *
+     * @param id     条目 ID
+     * @param fields 按 field value 交替排列的字段
+     * @return
+     */
+    static StreamBlock of(StreamId id, List<SafeString> fields) {
+        Writer writer = new Writer();
+        writer.varint(fields.size() / 2);
+        for (int i = 0; i < fields.size(); i += 2) {
+            writer.string(fields.get(i));
+        }
+        writer.entry(id, id, fields, true);
+        return new StreamBlock(id, id, 1, writer.toByteArray());
+    }
+
+    /**
+     * 由有序的条目创建块
+     *
+     * @param entries 条目，不能为空
+     * @return
+     */
+    static StreamBlock of(List<StreamEntry> entries) {
+        StreamBlock block = of(entries.get(0).getId(), entries.get(0).getFields());
+        for (int i = 1; i < entries.size(); i++) {
+            block = block.append(entries.get(i).getId(), entries.get(i).getFields());
+        }
+        return block;
+    }
+
+    StreamId getMaster() {
+        return master;
+    }
+
+    StreamId getLast() {
+        return last;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * 是否还能追加条目
+     *
+     * @return
+     */
+    boolean hasRoom() {
+        return count < MAX_ENTRIES && data.length < MAX_BYTES;
+    }
+
+    /**
+     * 在块的末尾追加条目，返回新的块
+     *
+     * @param id     条目 ID，必须大于块中最后一个条目的 ID
+     * @param fields 按 field value 交替排列的字段
+     * @return
+     */
+    StreamBlock append(StreamId id, List<SafeString> fields) {
+        Writer writer = new Writer();
+        writer.entry(master, id, fields, sameFields(fields));
+        byte[] entry = writer.toByteArray();
+        byte[] newData = Arrays.copyOf(data, data.length + entry.length);
+        System.arraycopy(entry, 0, newData, data.length, entry.length);
+        return new StreamBlock(master, id, count + 1, newData);
+    }
+
+    /**
+     * 删除前 n 个条目，返回由剩余条目重新编码的块，全部删除时返回 null
+     *
+     * @param n 删除的条目数
+     * @return
+     */
+    StreamBlock drop(int n) {
+        if (n >= count) {
+            return null;
+        }
+        List<StreamEntry> entries = entries();
+        return of(entries.subList(n, entries.size()));
+    }
+
+    /**
+     * 解码块中所有条目
+     *
+     * @return
+     */
+    List<StreamEntry> entries() {
+        Reader reader = new Reader(data);
+        int masterCount = (int) reader.varint();
+        List<SafeString> masterFields = new ArrayList<>(masterCount);
+        for (int i = 0; i < masterCount; i++) {
+            masterFields.add(reader.string());
+        }
+        List<StreamEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = reader.data[reader.position++];
+            long millis = master.getMillis() + reader.varint();
+            long sequence = master.getSequence() + zigzag(reader.varint());
+            List<SafeString> fields;
+            if ((flags & SAME_FIELDS) != 0) {
+                fields = new ArrayList<>(masterCount * 2);
+                for (SafeString field : masterFields) {
+                    fields.add(field);
+                    fields.add(reader.string());
+                }
+            } else {
+                int pairs = (int) reader.varint();
+                fields = new ArrayList<>(pairs * 2);
+                for (int j = 0; j < pairs * 2; j++) {
+                    fields.add(reader.string());
+                }
+            }
+            entries.add(new StreamEntry(StreamId.of(millis, sequence), fields));
+        }
+        return entries;
+    }
+
+    /**
+     * 块占用的字节数（不含对象头部）
+     *
+     * @return
+     */
+    int bytes() {
+        return data.length;
+    }
+
+    private boolean sameFields(List<SafeString> fields) {
+        Reader reader = new Reader(data);
+        int masterCount = (int) reader.varint();
+        if (masterCount * 2 != fields.size()) {
+            return false;
+        }
+        for (int i = 0; i < fields.size(); i += 2) {
+            if (!reader.matches(fields.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long zigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 编码条目
+     */
+    private static final class Writer extends ByteArrayOutputStream {
+
+        private void entry(StreamId master, StreamId id, List<SafeString> fields, boolean same) {
+            write(same ? SAME_FIELDS : 0);
+            varint(id.getMillis() - master.getMillis());
+            long delta = id.getSequence() - master.getSequence();
+            varint((delta << 1) ^ (delta >> 63));
+            if (same) {
+                for (int i = 1; i < fields.size(); i += 2) {
+                    string(fields.get(i));
+                }
+            } else {
+                varint(fields.size() / 2);
+                for (SafeString field : fields) {
+                    string(field);
+                }
+            }
+        }
+
+        private void string(SafeString value) {
+            byte[] bytes = value.getBytes();
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    /**
+     * 解码条目
+     */
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private long varint() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+
+        private SafeString string() {
+            int length = (int) varint();
+            SafeString value = new SafeString(Arrays.copyOfRange(data, position, position + length));
+            position += length;
+            return value;
+        }
+
+        private boolean matches(SafeString value) {
+            int length = (int) varint();
+            byte[] bytes = value.getBytes();
+            boolean matches = length == bytes.length
+                    && Arrays.equals(Arrays.copyOfRange(data, position, position + length), bytes);
+            position += length;
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流中的一个条目：ID 和按 field value 交替排列的字段
+ */
+public final class StreamEntry {
+
+    private final StreamId id;
+    private final List<SafeString> fields;
+
+    public StreamEntry(StreamId id, List<SafeString> fields) {
+        this.id = requireNonNull(id);
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+    }
+
+    public StreamId getId() {
+        return id;
+    }
+
+    /**
+     * 按 field value 交替排列的字段
+     *
+     * @return
+     */
+    public List<SafeString> getFields() {
+        return fields;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, fields);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StreamEntry)) {
+            return false;
+        }
+        StreamEntry other = (StreamEntry) obj;
+        return id.equals(other.id) && fields.equals(other.fields);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamEntry [id=" + id + ", fields=" + fields + "]";
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流的消费者组：最后投递的 ID、待确认条目列表（PEL）和消费者。
+ * PEL 是以条目 ID 为键的 {@link RadixTree}，记录条目当前所属的消费者、最后投递时间和投递次数，
+ * 按 ID 的范围查询和确认都只需要 O(log n)。与 {@link StreamValue} 一样是不可变的，修改返回新的实例。
+ */
+public final class StreamGroup implements Serializable {
+
+    private static final long serialVersionUID = 2285384826740711734L;
+
+    private final StreamId lastDelivered;
+    private final RadixTree<Pending> pending;
+    /**
+     * 消费者和最后活跃的时间
+     */
+    private final Map<SafeString, Long> consumers;
+
+    private StreamGroup(StreamId lastDelivered, RadixTree<Pending> pending, Map<SafeString, Long> consumers) {
+        this.lastDelivered = requireNonNull(lastDelivered);
+        this.pending = requireNonNull(pending);
+        this.consumers = requireNonNull(consumers);
+    }
+
+    /**
+     * 创建没有消费者的组
+     *
+     * @param lastDelivered 最后投递的 ID，之后的条目才会投递给消费者
+     * @return
+     */
+    public static StreamGroup create(StreamId lastDelivered) {
+        return new StreamGroup(lastDelivered, RadixTree.empty(), Collections.emptyMap());
+    }
+
+    public StreamId getLastDelivered() {
+        return lastDelivered;
+    }
+
+    public StreamGroup withLastDelivered(StreamId id) {
+        return new StreamGroup(id, pending, consumers);
+    }
+
+    /**
+     * 消费者和最后活跃的时间
+     *
+     * @return
+     */
+    public Map<SafeString, Long> getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * 更新消费者最后活跃的时间，消费者不存在时创建
+     *
+     * @param consumer 消费者
+     * @param now      当前时间戳
+     * @return
+     */
+    public StreamGroup withConsumer(SafeString consumer, long now) {
+        Map<SafeString, Long> newConsumers = new LinkedHashMap<>(consumers);
+        newConsumers.put(consumer, now);
+        return new StreamGroup(lastDelivered, pending, Collections.unmodifiableMap(newConsumers));
+    }
+
+    /**
+     * 删除消费者及其所有待确认条目
+     *
+     * @param consumer 消费者
+     * @return
+     */
+    public StreamGroup withoutConsumer(SafeString consumer) {
+        RadixTree<Pending> newPending = pending;
+        for (Entry<byte[], Pending> entry : pending.entries()) {
+            if (entry.getValue().getConsumer().equals(consumer)) {
+                newPending = newPending.remove(entry.getKey());
+            }
+        }
+        Map<SafeString, Long> newConsumers = new LinkedHashMap<>(consumers);
+        newConsumers.remove(consumer);
+        return new StreamGroup(lastDelivered, newPending, Collections.unmodifiableMap(newConsumers));
+    }
+
+    /**
+     * 待确认条目的个数
+     *
+     * @return
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 指定条目的投递信息，不在 PEL 中时返回 null
+     *
+     * @param id 条目 ID
+     * @return
+     */
+    public Pending getPending(StreamId id) {
+        return pending.get(id.toKey());
+    }
+
+    /**
+     * ID 最小的待确认条目，PEL 为空时返回 null
+     *
+     * @return
+     */
+    public Pending firstPending() {
+        Entry<byte[], Pending> first = pending.first();
+        return first != null ? first.getValue() : null;
+    }
+
+    /**
+     * ID 最大的待确认条目，PEL 为空时返回 null
+     *
+     * @return
+     */
+    public Pending lastPending() {
+        Entry<byte[], Pending> last = pending.last();
+        return last != null ? last.getValue() : null;
+    }
+
+    /**
+     * 按 ID 的顺序列出范围内的待确认条目
+     *
+     * @param start    起始 ID（包含）
+     * @param end      结束 ID（包含）
+     * @param count    最多返回的条目数
+     * @param consumer 只返回属于该消费者的条目，为 null 时返回所有条目
+     * @return
+     */
+    public List<Pending> pending(StreamId start, StreamId end, long count, SafeString consumer) {
+        List<Pending> result = new ArrayList<>();
+        Entry<byte[], Pending> current = pending.ceiling(start.toKey(), true);
+        while (current != null && result.size() < count) {
+            Pending entry = current.getValue();
+            if (entry.getId().compareTo(end) > 0) {
+                break;
+            }
+            if (consumer == null || entry.getConsumer().equals(consumer)) {
+                result.add(entry);
+            }
+            current = pending.ceiling(current.getKey(), false);
+        }
+        return result;
+    }
+
+    /**
+     * 按消费者统计待确认条目的个数
+     *
+     * @return
+     */
+    public Map<SafeString, Long> pendingByConsumer() {
+        Map<SafeString, Long> result = new LinkedHashMap<>();
+        for (Entry<byte[], Pending> entry : pending.entries()) {
+            result.merge(entry.getValue().getConsumer(), 1L, Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * 把新条目投递给消费者，noAck 为 false 时加入 PEL
+     *
+     * @param id       条目 ID
+     * @param consumer 消费者
+     * @param now      当前时间戳
+     * @param noAck    是否不需要确认
+     * @return
+     */
+    public StreamGroup deliver(StreamId id, SafeString consumer, long now, boolean noAck) {
+        StreamId newLastDelivered = id.compareTo(lastDelivered) > 0 ? id : lastDelivered;
+        RadixTree<Pending> newPending = noAck ? pending : pending.put(id.toKey(), new Pending(id, consumer, now, 1));
+        return new StreamGroup(newLastDelivered, newPending, consumers);
+    }
+
+    /**
+     * 设置条目的所属消费者和投递信息，用于 xclaim 和读取消费者的历史条目
+     *
+     * @param id            条目 ID
+     * @param consumer      消费者
+     * @param deliveryTime  最后投递时间
+     * @param deliveryCount 投递次数
+     * @return
+     */
+    public StreamGroup claim(StreamId id, SafeString consumer, long deliveryTime, long deliveryCount) {
+        return new StreamGroup(lastDelivered,
+                pending.put(id.toKey(), new Pending(id, consumer, deliveryTime, deliveryCount)), consumers);
+    }
+
+    /**
+     * 确认条目，从 PEL 中删除
+     *
+     * @param id 条目 ID
+     * @return
+     */
+    public StreamGroup ack(StreamId id) {
+        RadixTree<Pending> newPending = pending.remove(id.toKey());
+        return newPending == pending ? this : new StreamGroup(lastDelivered, newPending, consumers);
+    }
+
+    /**
+     * 估算占用的内存
+     *
+     * @return
+     */
+    long memoryUsage() {
+        return 32 + pending.nodes() * 48L + pending.size() * 48L + consumers.size() * 96L;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastDelivered, consumers.keySet(), pending.size());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StreamGroup)) {
+            return false;
+        }
+        StreamGroup other = (StreamGroup) obj;
+        return lastDelivered.equals(other.lastDelivered)
+                && consumers.keySet().equals(other.consumers.keySet())
+                && pending(StreamId.MIN, StreamId.MAX, Long.MAX_VALUE, null)
+                .equals(other.pending(StreamId.MIN, StreamId.MAX, Long.MAX_VALUE, null));
+    }
+
+    @Override
+    public String toString() {
+        return "StreamGroup [lastDelivered=" + lastDelivered + ", pending=" + pending.size()
+                + ", consumers=" + consumers.keySet() + "]";
+    }
+
+    /**
+     * 待确认条目的投递信息
+     */
+    public static final class Pending implements Serializable {
+
+        private static final long serialVersionUID = -3551431395218442735L;
+
+        private final StreamId id;
+        private final SafeString consumer;
+        private final long deliveryTime;
+        private final long deliveryCount;
+
+        private Pending(StreamId id, SafeString consumer, long deliveryTime, long deliveryCount) {
+            this.id = requireNonNull(id);
+            this.consumer = requireNonNull(consumer);
+            this.deliveryTime = deliveryTime;
+            this.deliveryCount = deliveryCount;
+        }
+
+        public StreamId getId() {
+            return id;
+        }
+
+        public SafeString getConsumer() {
+            return consumer;
+        }
+
+        public long getDeliveryTime() {
+            return deliveryTime;
+        }
+
+        public long getDeliveryCount() {
+            return deliveryCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, consumer, deliveryTime, deliveryCount);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Pending)) {
+                return false;
+            }
+            Pending other = (Pending) obj;
+            return id.equals(other.id) && consumer.equals(other.consumer)
+                    && deliveryTime == other.deliveryTime && deliveryCount == other.deliveryCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Pending [id=" + id + ", consumer=" + consumer + ", deliveryTime=" + deliveryTime
+                    + ", deliveryCount=" + deliveryCount + "]";
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.Serializable;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流条目 ID，由毫秒时间戳和同一毫秒内的序号组成，两部分都按无符号 64 位整数比较。
+ * 在基数树中以 16 字节大端序作为键，字节序与 ID 的大小顺序一致。
+ */
+public final class StreamId implements Comparable<StreamId>, Serializable {
+
+    private static final long serialVersionUID = 4587297812562235176L;
+
+    /**
+     * 最小的 ID，也是流中不允许使用的 ID
+     */
+    public static final StreamId MIN = new StreamId(0, 0);
+    /**
+     * 最大的 ID
+     */
+    public static final StreamId MAX = new StreamId(-1L, -1L);
+    /**
+     * 基数树中键的长度
+     */
+    static final int BYTES = Long.BYTES * 2;
+
+    private final long millis;
+    private final long sequence;
+
+    private StreamId(long millis, long sequence) {
+        this.millis = millis;
+        this.sequence = sequence;
+    }
+
+    public static StreamId of(long millis, long sequence) {
+        return new StreamId(millis, sequence);
+    }
+
+    /**
+     * 解析 ms-seq 形式的 ID，省略序号时使用默认序号。
+     * 范围查询的起点默认为 0，终点默认为最大序号；"-" 和 "+" 分别表示最小和最大的 ID
+     *
+     * @param value    ID 字符串
+     * @param sequence 省略序号时的默认值
+     * @return
+     * @throws IllegalArgumentException 不是合法的 ID
+     */
+    public static StreamId parse(SafeString value, long sequence) {
+        String text = value.toString();
+        if (text.equals("-")) {
+            return MIN;
+        }
+        if (text.equals("+")) {
+            return MAX;
+        }
+        int separator = text.indexOf('-');
+        if (separator < 0) {
+            return new StreamId(parseUnsigned(text), sequence);
+        }
+        return new StreamId(parseUnsigned(text.substring(0, separator)), parseUnsigned(text.substring(separator + 1)));
+    }
+
+    /**
+     * 解析完整的 ID，省略序号时为 0
+     *
+     * @param value ID 字符串
+     * @return
+     * @throws IllegalArgumentException 不是合法的 ID
+     */
+    public static StreamId parse(SafeString value) {
+        return parse(value, 0);
+    }
+
+    /**
+     * 从基数树的键中恢复 ID
+     *
+     * @param key 16 字节大端序的键
+     * @return
+     */
+    static StreamId fromKey(byte[] key) {
+        return new StreamId(readLong(key, 0), readLong(key, Long.BYTES));
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * 紧随其后的 ID，已经是最大的 ID 时返回 null
+     *
+     * @return
+     */
+    public StreamId next() {
+        if (sequence != -1L) {
+            return new StreamId(millis, sequence + 1);
+        }
+        return millis != -1L ? new StreamId(millis + 1, 0) : null;
+    }
+
+    /**
+     * 紧邻其前的 ID，已经是最小的 ID 时返回 null
+     *
+     * @return
+     */
+    public StreamId previous() {
+        if (sequence != 0) {
+            return new StreamId(millis, sequence - 1);
+        }
+        return millis != 0 ? new StreamId(millis - 1, -1L) : null;
+    }
+
+    /**
+     * 基数树中的键
+     *
+     * @return
+     */
+    byte[] toKey() {
+        byte[] key = new byte[BYTES];
+        writeLong(key, 0, millis);
+        writeLong(key, Long.BYTES, sequence);
+        return key;
+    }
+
+    public SafeString toSafeString() {
+        return safeString(toString());
+    }
+
+    @Override
+    public int compareTo(StreamId other) {
+        int result = Long.compareUnsigned(millis, other.millis);
+        return result != 0 ? result : Long.compareUnsigned(sequence, other.sequence);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(millis) * 31 + Long.hashCode(sequence);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StreamId)) {
+            return false;
+        }
+        StreamId other = (StreamId) obj;
+        return millis == other.millis && sequence == other.sequence;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toUnsignedString(millis) + "-" + Long.toUnsignedString(sequence);
+    }
+
+    private static long parseUnsigned(String value) {
+        if (value.isEmpty() || value.charAt(0) == '+' || value.charAt(0) == '-') {
+            throw new IllegalArgumentException(value);
+        }
+        try {
+            return Long.parseUnsignedLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(value, e);
+        }
+    }
+
+    private static void writeLong(byte[] array, int offset, long value) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            array[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] array, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (array[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 流类型的值，与 redis 相同由以块的主 ID 为键的基数树保存条目：
+ * 每个 {@link StreamBlock} 紧凑地保存若干个 ID 递增的条目，{@link RadixTree} 按 ID 定位块。
+ * <ul>
+ * <li>xadd 只修改最后一个块，块满后新建块</li>
+ * <li>按 ID 的范围查询先用 floor 定位起始块，之后按顺序访问相邻的块，代价为 O(log n + 返回的条目数)</li>
+ * <li>按长度或最小 ID 裁剪时整块删除前面的块，精确裁剪时重新编码第一个块</li>
+ * </ul>
+ * 与其他类型的值一样是不可变的，修改返回新的实例，未修改的块和消费者组在新旧实例之间共享。
+ */
+public final class StreamValue implements Serializable {
+
+    private static final long serialVersionUID = 8212541637935317764L;
+
+    private static final StreamValue EMPTY =
+            new StreamValue(RadixTree.empty(), 0, StreamId.MIN, Collections.emptyMap());
+
+    private final RadixTree<StreamBlock> blocks;
+    private final long length;
+    /**
+     * 最后添加的 ID，条目被裁剪后仍然保留，新的 ID 必须大于它
+     */
+    private final StreamId lastId;
+    private final Map<SafeString, StreamGroup> groups;
+
+    private StreamValue(RadixTree<StreamBlock> blocks, long length, StreamId lastId,
+                        Map<SafeString, StreamGroup> groups) {
+        this.blocks = blocks;
+        this.length = length;
+        this.lastId = lastId;
+        this.groups = groups;
+    }
+
+    public static StreamValue empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由有序的条目恢复流，用于从 RDB 和堆外缓冲区读取
+     *
+     * @param entries 按 ID 递增的条目
+     * @param lastId  最后添加的 ID
+     * @return
+     */
+    public static StreamValue of(List<StreamEntry> entries, StreamId lastId) {
+        StreamValue stream = EMPTY;
+        for (StreamEntry entry : entries) {
+            stream = stream.add(entry.getId(), entry.getFields());
+        }
+        return new StreamValue(stream.blocks, stream.length, lastId, stream.groups);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public StreamId getLastId() {
+        return lastId;
+    }
+
+    /**
+     * 自动生成的下一个 ID：时钟前进时为当前毫秒的第一个序号，否则在最后的 ID 上递增序号
+     *
+     * @param now 当前时间戳
+     * @return 无法生成更大的 ID 时返回 null
+     */
+    public StreamId nextId(long now) {
+        if (Long.compareUnsigned(now, lastId.getMillis()) > 0) {
+            return StreamId.of(now, 0);
+        }
+        return lastId.next();
+    }
+
+    /**
+     * 指定毫秒时间戳、自动生成序号的 ID
+     *
+     * @param millis 毫秒时间戳
+     * @return 无法生成大于最后的 ID 的 ID 时返回 null
+     */
+    public StreamId nextSequence(long millis) {
+        int result = Long.compareUnsigned(millis, lastId.getMillis());
+        if (result > 0) {
+            return StreamId.of(millis, 0);
+        }
+        if (result == 0 && lastId.getSequence() != -1L) {
+            return StreamId.of(millis, lastId.getSequence() + 1);
+        }
+        return null;
+    }
+
+    /**
+     * 在流的末尾添加条目
+     *
+     * @param id     条目 ID，必须大于 {@link #getLastId()}
+     * @param fields 按 field value 交替排列的字段
+     * @return
+     */
+    public StreamValue add(StreamId id, List<SafeString> fields) {
+        Entry<byte[], StreamBlock> last = blocks.last();
+        RadixTree<StreamBlock> newBlocks;
+        if (last != null && last.getValue().hasRoom()) {
+            newBlocks = blocks.put(last.getKey(), last.getValue().append(id, fields));
+        } else {
+            newBlocks = blocks.put(id.toKey(), StreamBlock.of(id, fields));
+        }
+        return new StreamValue(newBlocks, length + 1, id, groups);
+    }
+
+    /**
+     * 查找单个条目
+     *
+     * @param id 条目 ID
+     * @return 不存在时返回 null
+     */
+    public StreamEntry entry(StreamId id) {
+        List<StreamEntry> entries = range(id, id, 1);
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    /**
+     * 第一个条目的 ID，流为空时返回 null
+     *
+     * @return
+     */
+    public StreamId getFirstId() {
+        Entry<byte[], StreamBlock> first = blocks.first();
+        return first != null ? first.getValue().getMaster() : null;
+    }
+
+    /**
+     * 按 ID 递增的顺序返回范围内的条目
+     *
+     * @param start 起始 ID（包含）
+     * @param end   结束 ID（包含）
+     * @param count 最多返回的条目数，0 表示不限制
+     * @return
+     */
+    public List<StreamEntry> range(StreamId start, StreamId end, long count) {
+        List<StreamEntry> result = new ArrayList<>();
+        if (start.compareTo(end) > 0) {
+            return result;
+        }
+        Entry<byte[], StreamBlock> current = blocks.floor(start.toKey(), true);
+        if (current == null) {
+            current = blocks.first();
+        }
+        while (current != null) {
+            StreamBlock block = current.getValue();
+            if (block.getMaster().compareTo(end) > 0) {
+                break;
+            }
+            if (block.getLast().compareTo(start) >= 0) {
+                for (StreamEntry entry : block.entries()) {
+                    if (entry.getId().compareTo(end) > 0) {
+                        return result;
+                    }
+                    if (entry.getId().compareTo(start) >= 0) {
+                        result.add(entry);
+                        if (result.size() == count) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            current = blocks.ceiling(current.getKey(), false);
+        }
+        return result;
+    }
+
+    /**
+     * 按 ID 递减的顺序返回范围内的条目
+     *
+     * @param end   结束 ID（包含），即返回的第一个条目的上限
+     * @param start 起始 ID（包含）
+     * @param count 最多返回的条目数，0 表示不限制
+     * @return
+     */
+    public List<StreamEntry> reverseRange(StreamId end, StreamId start, long count) {
+        List<StreamEntry> result = new ArrayList<>();
+        if (start.compareTo(end) > 0) {
+            return result;
+        }
+        Entry<byte[], StreamBlock> current = blocks.floor(end.toKey(), true);
+        while (current != null) {
+            StreamBlock block = current.getValue();
+            if (block.getLast().compareTo(start) < 0) {
+                break;
+            }
+            List<StreamEntry> entries = block.entries();
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                StreamEntry entry = entries.get(i);
+                if (entry.getId().compareTo(start) < 0) {
+                    return result;
+                }
+                if (entry.getId().compareTo(end) <= 0) {
+                    result.add(entry);
+                    if (result.size() == count) {
+                        return result;
+                    }
+                }
+            }
+            current = blocks.floor(current.getKey(), false);
+        }
+        return result;
+    }
+
+    /**
+     * 所有条目
+     *
+     * @return
+     */
+    public List<StreamEntry> entries() {
+        List<StreamEntry> entries = new ArrayList<>((int) Math.min(length, Integer.MAX_VALUE));
+        for (Entry<byte[], StreamBlock> block : blocks.entries()) {
+            entries.addAll(block.getValue().entries());
+        }
+        return entries;
+    }
+
+    /**
+     * 裁剪到不超过指定的长度，从最早的条目开始删除。
+     * 近似裁剪时只删除整个块，保留的条目可能比指定的长度多，但不需要重新编码块
+     *
+     * @param maxLength   最大长度
+     * @param approximate 是否近似裁剪
+     * @return
+     */
+    public StreamValue trimToLength(long maxLength, boolean approximate) {
+        RadixTree<StreamBlock> newBlocks = blocks;
+        long newLength = length;
+        while (newLength > maxLength) {
+            Entry<byte[], StreamBlock> first = newBlocks.first();
+            StreamBlock block = first.getValue();
+            if (newLength - block.getCount() >= maxLength) {
+                newBlocks = newBlocks.remove(first.getKey());
+                newLength -= block.getCount();
+            } else if (approximate) {
+                break;
+            } else {
+                int drop = (int) (newLength - maxLength);
+                newBlocks = replaceFirst(newBlocks, first, block.drop(drop));
+                newLength -= drop;
+            }
+        }
+        return newLength == length ? this : new StreamValue(newBlocks, newLength, lastId, groups);
+    }
+
+    /**
+     * 删除 ID 小于指定 ID 的条目，近似裁剪时只删除整个块
+     *
+     * @param minId       最小 ID
+     * @param approximate 是否近似裁剪
+     * @return
+     */
+    public StreamValue trimToMinId(StreamId minId, boolean approximate) {
+        RadixTree<StreamBlock> newBlocks = blocks;
+        long newLength = length;
+        while (!newBlocks.isEmpty()) {
+            Entry<byte[], StreamBlock> first = newBlocks.first();
+            StreamBlock block = first.getValue();
+            if (block.getLast().compareTo(minId) < 0) {
+                newBlocks = newBlocks.remove(first.getKey());
+                newLength -= block.getCount();
+                continue;
+            }
+            if (!approximate && block.getMaster().compareTo(minId) < 0) {
+                int drop = 0;
+                for (StreamEntry entry : block.entries()) {
+                    if (entry.getId().compareTo(minId) >= 0) {
+                        break;
+                    }
+                    drop++;
+                }
+                newBlocks = replaceFirst(newBlocks, first, block.drop(drop));
+                newLength -= drop;
+            }
+            break;
+        }
+        return newLength == length ? this : new StreamValue(newBlocks, newLength, lastId, groups);
+    }
+
+    /**
+     * 消费者组
+     *
+     * @return
+     */
+    public Map<SafeString, StreamGroup> getGroups() {
+        return groups;
+    }
+
+    /**
+     * 指定名称的消费者组，不存在时返回 null
+     *
+     * @param name 组名
+     * @return
+     */
+    public StreamGroup getGroup(SafeString name) {
+        return groups.get(name);
+    }
+
+    /**
+     * 添加或替换消费者组
+     *
+     * @param name  组名
+     * @param group 消费者组
+     * @return
+     */
+    public StreamValue withGroup(SafeString name, StreamGroup group) {
+        Map<SafeString, StreamGroup> newGroups = new LinkedHashMap<>(groups);
+        newGroups.put(name, requireNonNull(group));
+        return new StreamValue(blocks, length, lastId, Collections.unmodifiableMap(newGroups));
+    }
+
+    /**
+     * 删除消费者组
+     *
+     * @param name 组名
+     * @return
+     */
+    public StreamValue withoutGroup(SafeString name) {
+        Map<SafeString, StreamGroup> newGroups = new LinkedHashMap<>(groups);
+        newGroups.remove(name);
+        return new StreamValue(blocks, length, lastId, Collections.unmodifiableMap(newGroups));
+    }
+
+    /**
+     * 估算占用的内存：块的字节、基数树的节点和消费者组
+     *
+     * @return
+     */
+    public long memoryUsage() {
+        long size = 48 + blocks.nodes() * 40L;
+        for (Entry<byte[], StreamBlock> block : blocks.entries()) {
+            size += 48 + ((16 + block.getValue().bytes() + 7) & ~7L);
+        }
+        for (StreamGroup group : groups.values()) {
+            size += group.memoryUsage();
+        }
+        return size;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(length, lastId, groups.keySet());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StreamValue)) {
+            return false;
+        }
+        StreamValue other = (StreamValue) obj;
+        return length == other.length && lastId.equals(other.lastId)
+                && groups.equals(other.groups) && entries().equals(other.entries());
+    }
+
+    @Override
+    public String toString() {
+        return "StreamValue [length=" + length + ", lastId=" + lastId + ", groups=" + groups.keySet() + "]";
+    }
+
+    private static RadixTree<StreamBlock> replaceFirst(RadixTree<StreamBlock> blocks,
+                                                       Entry<byte[], StreamBlock> first, StreamBlock rest) {
+        // 删除前面的条目后主 ID 改变，块在树中的键也随之改变
+        return blocks.remove(first.getKey()).put(rest.getMaster().toKey(), rest);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * JFR 命令执行事件，用于把 GC、CPU 采样和具体的命令对应起来。
+ * 默认只记录耗时超过 10 毫秒的命令，没有开启 JFR 时 {@link #shouldCommit()} 直接返回 false
+ */
+@Name("claudb.Command")
+@Label("Command")
+@Category({"ClauDB", "Command"})
+@Description("Execution of a command")
+@StackTrace(false)
+@Threshold("10 ms")
+public class CommandEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(CommandEvent.class);
+
+    @Label("Command")
+    private String command;
+
+    @Label("Database")
+    private int database;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * 是否有正在进行的 JFR 记录开启了命令事件，没有时命令包装器不创建事件对象
+     *
+     * @return
+     */
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+
+    public void set(String command, int database, boolean failed) {
+        this.command = command;
+        this.database = database;
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.purefun.type.Option;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 全部命令的执行统计，用于 INFO commandstats、latencystats 和 LATENCY HISTOGRAM。
+ * 命令第一次执行时创建统计项，命令包装器缓存统计项，之后不再查找。
+ */
+public class CommandMonitor {
+
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+
+    /**
+     * 命令的统计项，不存在时创建
+     *
+     * @param command 命令名，小写
+     * @return
+     */
+    public CommandStats get(String command) {
+        CommandStats stats = commands.get(command);
+        if (stats == null) {
+            stats = commands.computeIfAbsent(command, CommandStats::new);
+        }
+        return stats;
+    }
+
+    /**
+     * 已经执行过的命令的统计项
+     *
+     * @param command 命令名，小写
+     * @return
+     */
+    public Option<CommandStats> find(String command) {
+        CommandStats stats = commands.get(command);
+        return stats != null ? Option.some(stats) : Option.none();
+    }
+
+    /**
+     * 执行或拒绝过的命令的统计项，按命令名排序
+     *
+     * @return
+     */
+    public List<CommandStats> getAll() {
+        List<CommandStats> all = new ArrayList<>();
+        for (CommandStats stats : commands.values()) {
+            if (stats.getCalls() > 0 || stats.getRejectedCalls() > 0) {
+                all.add(stats);
+            }
+        }
+        all.sort(Comparator.comparing(CommandStats::getName));
+        return all;
+    }
+
+    public long getTotalCalls() {
+        long total = 0;
+        for (CommandStats stats : commands.values()) {
+            total += stats.getCalls();
+        }
+        return total;
+    }
+
+    /**
+     * 清零全部统计项。统计项被命令包装器缓存，因此只清零计数而不移除
+     */
+    public void reset() {
+        for (CommandStats stats : commands.values()) {
+            stats.reset();
+        }
+    }
+}
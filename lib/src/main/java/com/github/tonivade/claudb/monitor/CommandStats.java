@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 单个命令的执行统计：调用次数、总耗时、被拒绝和执行失败的次数以及延迟直方图
+ */
+public class CommandStats {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder usec = new LongAdder();
+    /**
+     * 执行前被拒绝（参数个数错误、内存不足、只读从库等）
+     */
+    private final LongAdder rejectedCalls = new LongAdder();
+    /**
+     * 执行后返回错误
+     */
+    private final LongAdder failedCalls = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public CommandStats(String name) {
+        this.name = requireNonNull(name);
+    }
+
+    /**
+     * 记录一次执行
+     *
+     * @param micros 耗时（微秒）
+     * @param failed 是否返回错误
+     */
+    public void record(long micros, boolean failed) {
+        calls.increment();
+        usec.add(micros);
+        histogram.record(micros);
+        if (failed) {
+            failedCalls.increment();
+        }
+    }
+
+    public void reject() {
+        rejectedCalls.increment();
+    }
+
+    public void reset() {
+        calls.reset();
+        usec.reset();
+        rejectedCalls.reset();
+        failedCalls.reset();
+        histogram.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getUsec() {
+        return usec.sum();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * JFR 过期键清理事件，清理期间独占全部数据库
+ */
+@Name("claudb.ExpireCycle")
+@Label("Expire Cycle")
+@Category({"ClauDB", "Cleaner"})
+@Description("Periodic scan removing expired keys")
+@StackTrace(false)
+@Threshold("0 ms")
+public class ExpireCycleEvent extends Event {
+
+    @Label("Scanned Keys")
+    private long scanned;
+
+    @Label("Expired Keys")
+    private long expired;
+
+    public void set(long scanned, long expired) {
+        this.scanned = scanned;
+        this.expired = expired;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.purefun.type.Option;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 延迟监控，与 redis 的 latency monitor 相同：耗时不低于阈值（毫秒）的操作记为一次延迟事件，
+ * 每种事件保留最近 160 秒的记录，同一秒内只保留最大值。阈值为 0 时不记录。
+ */
+public class LatencyMonitor {
+
+    /**
+     * 命令执行
+     */
+    public static final String COMMAND = "command";
+    /**
+     * 过期键清理
+     */
+    public static final String EXPIRE_CYCLE = "expire-cycle";
+    /**
+     * maxmemory 淘汰
+     */
+    public static final String EVICTION_CYCLE = "eviction-cycle";
+    /**
+     * AOF 写入和 flush
+     */
+    public static final String AOF_WRITE = "aof-write";
+    /**
+     * RDB 导出
+     */
+    public static final String RDB_SAVE = "rdb-save";
+
+    private static final int HISTORY_SIZE = 160;
+
+    private volatile long threshold;
+    private final Map<String, Event> events = new ConcurrentHashMap<>();
+
+    /**
+     * 设置阈值
+     *
+     * @param threshold 毫秒，0 表示关闭
+     */
+    public void setThreshold(long threshold) {
+        this.threshold = threshold;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public boolean isActive() {
+        return threshold > 0;
+    }
+
+    /**
+     * 记录一次操作的耗时，低于阈值时忽略
+     *
+     * @param event  事件名
+     * @param millis 耗时（毫秒）
+     */
+    public void record(String event, long millis) {
+        long current = threshold;
+        if (current <= 0 || millis < current) {
+            return;
+        }
+        events.computeIfAbsent(event, Event::new).add(System.currentTimeMillis() / 1000, millis);
+    }
+
+    /**
+     * 全部事件，按事件名排序
+     *
+     * @return
+     */
+    public List<Event> getEvents() {
+        List<Event> all = new ArrayList<>(events.values());
+        all.sort(Comparator.comparing(Event::getName));
+        return all;
+    }
+
+    public Option<Event> getEvent(String name) {
+        Event event = events.get(name);
+        return event != null ? Option.some(event) : Option.none();
+    }
+
+    /**
+     * 清除事件
+     *
+     * @param names 事件名，为空时清除全部事件
+     * @return 清除的事件个数
+     */
+    public int reset(List<String> names) {
+        if (names.isEmpty()) {
+            int size = events.size();
+            events.clear();
+            return size;
+        }
+        int count = 0;
+        for (String name : names) {
+            if (events.remove(name) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 一种延迟事件的记录
+     */
+    public static final class Event {
+
+        private final String name;
+        private final long[] times = new long[HISTORY_SIZE];
+        private final long[] latencies = new long[HISTORY_SIZE];
+        /**
+         * 下一个写入位置和已有的记录个数
+         */
+        private int next;
+        private int size;
+        private long max;
+
+        private Event(String name) {
+            this.name = requireNonNull(name);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public synchronized long getMax() {
+            return max;
+        }
+
+        /**
+         * 最近一次记录
+         *
+         * @return
+         */
+        public synchronized Sample getLatest() {
+            int last = (next + HISTORY_SIZE - 1) % HISTORY_SIZE;
+            return new Sample(times[last], latencies[last]);
+        }
+
+        /**
+         * 全部记录，按时间升序
+         *
+         * @return
+         */
+        public synchronized List<Sample> getHistory() {
+            List<Sample> history = new ArrayList<>(size);
+            for (int i = size; i > 0; i--) {
+                int index = (next + HISTORY_SIZE - i) % HISTORY_SIZE;
+                history.add(new Sample(times[index], latencies[index]));
+            }
+            return history;
+        }
+
+        private synchronized void add(long time, long latency) {
+            max = Math.max(max, latency);
+            int last = (next + HISTORY_SIZE - 1) % HISTORY_SIZE;
+            if (size > 0 && times[last] == time) {
+                latencies[last] = Math.max(latencies[last], latency);
+                return;
+            }
+            times[next] = time;
+            latencies[next] = latency;
+            next = (next + 1) % HISTORY_SIZE;
+            size = Math.min(size + 1, HISTORY_SIZE);
+        }
+    }
+
+    /**
+     * 一次延迟记录
+     */
+    public static final class Sample {
+
+        /**
+         * 时间戳（秒）
+         */
+        private final long time;
+        /**
+         * 耗时（毫秒）
+         */
+        private final long latency;
+
+        private Sample(long time, long latency) {
+            this.time = time;
+            this.latency = latency;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public long getLatency() {
+            return latency;
+        }
+    }
+}
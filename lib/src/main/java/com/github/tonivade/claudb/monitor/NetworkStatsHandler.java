@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 网络流量统计，加在连接管道的最前面：读到的是解码前的字节，写出的是编码后的字节，
+ * 统计的就是实际收发的字节数，不需要按 RESP 格式重新估算请求和响应的大小
+ */
+public class NetworkStatsHandler extends ChannelDuplexHandler {
+
+    /**
+     * 服务器统计
+     */
+    private final ServerStats stats;
+
+    public NetworkStatsHandler(ServerStats stats) {
+        this.stats = requireNonNull(stats);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            stats.netInput(((ByteBuf) msg).readableBytes());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            stats.netOutput(((ByteBuf) msg).readableBytes());
+        }
+        ctx.write(msg, promise);
+    }
+}
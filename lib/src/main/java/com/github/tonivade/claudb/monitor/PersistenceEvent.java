@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * JFR 持久化事件：RDB 导出导入、AOF 追加写入和启动时的 AOF 重放
+ */
+@Name("claudb.Persistence")
+@Label("Persistence")
+@Category({"ClauDB", "Persistence"})
+@Description("RDB export/import and AOF append/replay")
+@StackTrace(false)
+@Threshold("0 ms")
+public class PersistenceEvent extends Event {
+
+    public static final String RDB_EXPORT = "rdb-export";
+    public static final String RDB_IMPORT = "rdb-import";
+    public static final String AOF_APPEND = "aof-append";
+    public static final String AOF_REPLAY = "aof-replay";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("File")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Commands")
+    private int commands;
+
+    public void set(String operation, String file, long bytes, int commands) {
+        this.operation = operation;
+        this.file = file;
+        this.bytes = bytes;
+        this.commands = commands;
+    }
+}
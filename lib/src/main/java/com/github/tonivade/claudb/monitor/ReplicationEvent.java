@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * JFR 主从复制事件：主库每轮发送给从库的一批命令，从库加载主库发来的 RDB。
+ * 从库执行复制命令时记录的是 {@link CommandEvent}
+ */
+@Name("claudb.Replication")
+@Label("Replication")
+@Category({"ClauDB", "Replication"})
+@Description("Replication batch sent by the master or RDB loaded by a slave")
+@StackTrace(false)
+@Threshold("0 ms")
+public class ReplicationEvent extends Event {
+
+    public static final String MASTER = "master";
+    public static final String SLAVE = "slave";
+
+    @Label("Role")
+    private String role;
+
+    @Label("Slaves")
+    private int slaves;
+
+    @Label("Commands")
+    private int commands;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    public void set(String role, int slaves, int commands, long bytes) {
+        this.role = role;
+        this.slaves = slaves;
+        this.commands = commands;
+        this.bytes = bytes;
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.resp.protocol.AbstractRedisToken.ArrayRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.ErrorRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.IntegerRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.StatusRedisToken;
+import com.github.tonivade.resp.protocol.AbstractRedisToken.StringRedisToken;
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 服务器运行统计，对应 info 命令的 stats、persistence 和 keyspace 部分。
+ * 计数器都是 {@link LongAdder}，执行命令的线程并发累加时互不竞争；
+ * 网络流量由连接上的 {@link NetworkStatsHandler} 按收发的字节数累加；
+ * 每秒操作数和网络流量由定时采样计算，取最近 16 次采样的平均值
+ */
+public class ServerStats {
+
+    /**
+     * 采样周期（毫秒）
+     */
+    public static final long SAMPLE_PERIOD = 100;
+    /**
+     * 保留的采样个数
+     */
+    private static final int SAMPLES = 16;
+
+    private static final int OPS = 0;
+    private static final int NET_INPUT = 1;
+    private static final int NET_OUTPUT = 2;
+
+    private final LongAdder keyspaceHits = new LongAdder();
+    private final LongAdder keyspaceMisses = new LongAdder();
+    /**
+     * 定期清理删除的过期键，读取时删除的过期键由各个数据库自己统计
+     */
+    private final LongAdder expiredKeys = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder netInputBytes = new LongAdder();
+    private final LongAdder netOutputBytes = new LongAdder();
+    /**
+     * 执行成功的写命令数
+     */
+    private final LongAdder changes = new LongAdder();
+
+    /**
+     * 上次保存 RDB 时的写命令数，两者之差即为保存后的修改次数
+     */
+    private volatile long changesAtSave;
+    private volatile long lastSaveTime = System.currentTimeMillis();
+    private volatile boolean lastSaveOk = true;
+    private volatile boolean aofEnabled;
+    private volatile long aofLastWriteTime = -1;
+    private volatile boolean aofLastWriteOk = true;
+
+    /**
+     * 每个数据库设置了过期时间的键个数和平均剩余时间，由定期清理时计算
+     */
+    private final AtomicLongArray expires;
+    private final AtomicLongArray avgTtl;
+
+    /**
+     * 采样环，每种指标一行，每次采样为两次采样之间每秒的增量
+     */
+    private final long[][] samples = new long[3][SAMPLES];
+    private int sampleIndex;
+    /**
+     * 已经采集的采样个数，采满 {@link #SAMPLES} 个之前按实际个数取平均值
+     */
+    private int sampleCount;
+    private long lastSampleTime;
+    private final long[] lastSampleValues = new long[3];
+
+    public ServerStats(int numDatabases) {
+        this.expires = new AtomicLongArray(numDatabases);
+        this.avgTtl = new AtomicLongArray(numDatabases);
+    }
+
+    /**
+     * 记录一次读命令对键的访问
+     *
+     * @param hit 键是否存在
+     */
+    public void keyspace(boolean hit) {
+        if (hit) {
+            keyspaceHits.increment();
+        } else {
+            keyspaceMisses.increment();
+        }
+    }
+
+    public void expired(long keys) {
+        expiredKeys.add(keys);
+    }
+
+    /**
+     * 记录一次命令的执行
+     */
+    public void command() {
+        commands.increment();
+    }
+
+    /**
+     * 记录从客户端读取的字节数
+     *
+     * @param bytes 字节数
+     */
+    public void netInput(long bytes) {
+        netInputBytes.add(bytes);
+    }
+
+    /**
+     * 记录写给客户端的字节数
+     *
+     * @param bytes 字节数
+     */
+    public void netOutput(long bytes) {
+        netOutputBytes.add(bytes);
+    }
+
+    /**
+     * 记录写命令修改数据库的次数
+     *
+     * @param count 修改次数
+     */
+    public void changed(int count) {
+        changes.add(count);
+    }
+
+    /**
+     * 记录一次 RDB 保存
+     *
+     * @param changesBeforeSave 开始保存前的 {@link #getChanges()}，保存期间的修改仍然算作未保存
+     * @param now               当前时间（毫秒）
+     * @param ok                是否保存成功
+     */
+    public void rdbSaved(long changesBeforeSave, long now, boolean ok) {
+        if (ok) {
+            changesAtSave = changesBeforeSave;
+            lastSaveTime = now;
+        }
+        lastSaveOk = ok;
+    }
+
+    public void setAofEnabled(boolean aofEnabled) {
+        this.aofEnabled = aofEnabled;
+    }
+
+    /**
+     * 记录一次 AOF 写入
+     *
+     * @param now 当前时间（毫秒）
+     * @param ok  是否写入成功
+     */
+    public void aofWritten(long now, boolean ok) {
+        if (ok) {
+            aofLastWriteTime = now;
+        }
+        aofLastWriteOk = ok;
+    }
+
+    /**
+     * 更新一个数据库中设置了过期时间的键的统计
+     *
+     * @param db     数据库序号
+     * @param keys   设置了过期时间的键个数
+     * @param ttlSum 这些键剩余时间之和（毫秒）
+     */
+    public void keyspace(int db, long keys, long ttlSum) {
+        if (db < expires.length()) {
+            expires.set(db, keys);
+            avgTtl.set(db, keys > 0 ? ttlSum / keys : 0);
+        }
+    }
+
+    /**
+     * 采样一次，由定时任务每 {@link #SAMPLE_PERIOD} 毫秒调用
+     *
+     * @param now 当前时间（毫秒）
+     */
+    public synchronized void sample(long now) {
+        long[] values = {commands.sum(), netInputBytes.sum(), netOutputBytes.sum()};
+        if (lastSampleTime > 0 && now > lastSampleTime) {
+            long elapsed = now - lastSampleTime;
+            for (int i = 0; i < values.length; i++) {
+                samples[i][sampleIndex] = (values[i] - lastSampleValues[i]) * 1000 / elapsed;
+            }
+            sampleIndex = (sampleIndex + 1) % SAMPLES;
+            sampleCount = Math.min(sampleCount + 1, SAMPLES);
+        }
+        lastSampleTime = now;
+        System.arraycopy(values, 0, lastSampleValues, 0, values.length);
+    }
+
+    public long getKeyspaceHits() {
+        return keyspaceHits.sum();
+    }
+
+    public long getKeyspaceMisses() {
+        return keyspaceMisses.sum();
+    }
+
+    public long getExpiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    public long getNetInputBytes() {
+        return netInputBytes.sum();
+    }
+
+    public long getNetOutputBytes() {
+        return netOutputBytes.sum();
+    }
+
+    public long getChanges() {
+        return changes.sum();
+    }
+
+    public long getChangesSinceLastSave() {
+        return changes.sum() - changesAtSave;
+    }
+
+    public long getLastSaveTime() {
+        return lastSaveTime;
+    }
+
+    public boolean isLastSaveOk() {
+        return lastSaveOk;
+    }
+
+    public boolean isAofEnabled() {
+        return aofEnabled;
+    }
+
+    /**
+     * @return 上次写入 AOF 的时间（毫秒），还没有写入过时为 -1
+     */
+    public long getAofLastWriteTime() {
+        return aofLastWriteTime;
+    }
+
+    public boolean isAofLastWriteOk() {
+        return aofLastWriteOk;
+    }
+
+    public long getExpires(int db) {
+        return db < expires.length() ? expires.get(db) : 0;
+    }
+
+    public long getAvgTtl(int db) {
+        return db < avgTtl.length() ? avgTtl.get(db) : 0;
+    }
+
+    public synchronized long getInstantaneousOps() {
+        return average(samples[OPS], sampleCount);
+    }
+
+    public synchronized long getInstantaneousInputBytes() {
+        return average(samples[NET_INPUT], sampleCount);
+    }
+
+    public synchronized long getInstantaneousOutputBytes() {
+        return average(samples[NET_OUTPUT], sampleCount);
+    }
+
+    private static long average(long[] values, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * 命令按 RESP 编码后的字节数，用于估算复制命令的大小
+     *
+     * @param token 命令
+     * @return
+     */
+    public static long responseSize(RedisToken token) {
+        if (token instanceof StringRedisToken) {
+            SafeString value = ((StringRedisToken) token).getValue();
+            // 空值编码为 $-1\r\n
+            return value != null ? bulk(value.length()) : 5;
+        }
+        if (token instanceof StatusRedisToken) {
+            return line(((StatusRedisToken) token).getValue().length());
+        }
+        if (token instanceof ErrorRedisToken) {
+            return line(((ErrorRedisToken) token).getValue().length());
+        }
+        if (token instanceof IntegerRedisToken) {
+            return line(String.valueOf(((IntegerRedisToken) token).getValue()).length());
+        }
+        if (token instanceof ArrayRedisToken) {
+            long size = header(((ArrayRedisToken) token).size());
+            for (RedisToken item : ((ArrayRedisToken) token).getValue()) {
+                size += responseSize(item);
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * *n\r\n 或 $n\r\n
+     */
+    private static long header(int length) {
+        return line(String.valueOf(length).length());
+    }
+
+    /**
+     * $n\r\n 加上内容和结尾的 \r\n
+     */
+    private static long bulk(int length) {
+        return header(length) + length + 2;
+    }
+
+    /**
+     * 类型前缀、内容和结尾的 \r\n
+     */
+    private static long line(int length) {
+        return 1 + length + 2;
+    }
+}
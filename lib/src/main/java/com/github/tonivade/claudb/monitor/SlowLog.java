@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 慢查询日志，执行时间不低于阈值（微秒）的命令写入固定大小的环形缓冲区，新记录覆盖最旧的记录。
+ * 写入只需原子自增取得槽位，不需要加锁；快命令只多一次阈值比较。
+ * 与 redis 相同，每条记录最多保存 32 个参数，每个参数最多保存 128 个字符。
+ */
+public class SlowLog {
+
+    /**
+     * 默认阈值 10 毫秒
+     */
+    public static final long DEFAULT_SLOWER_THAN = 10_000;
+    /**
+     * 默认保留的记录数
+     */
+    public static final int DEFAULT_MAX_LEN = 128;
+
+    private static final int MAX_ARGC = 32;
+    private static final int MAX_STRING = 128;
+
+    /**
+     * 阈值（微秒），负数表示关闭，0 表示记录全部命令
+     */
+    private volatile long slowerThan = DEFAULT_SLOWER_THAN;
+    /**
+     * 记录编号，reset 后继续递增
+     */
+    private final AtomicLong ids = new AtomicLong();
+    private volatile Ring ring = new Ring(DEFAULT_MAX_LEN);
+
+    public long getSlowerThan() {
+        return slowerThan;
+    }
+
+    public void setSlowerThan(long slowerThan) {
+        this.slowerThan = slowerThan;
+    }
+
+    public int getMaxLen() {
+        return ring.entries.length();
+    }
+
+    /**
+     * 修改保留的记录数，已有的记录会被清除
+     *
+     * @param maxLen 记录数
+     */
+    public void setMaxLen(int maxLen) {
+        if (maxLen < 1) {
+            throw new IllegalArgumentException("slowlog max len must be positive: " + maxLen);
+        }
+        this.ring = new Ring(maxLen);
+    }
+
+    /**
+     * 是否需要记录
+     *
+     * @param micros 执行时间（微秒）
+     * @return
+     */
+    public boolean isSlow(long micros) {
+        long current = slowerThan;
+        return current >= 0 && micros >= current;
+    }
+
+    /**
+     * 写入一条记录，调用方需要先通过 {@link #isSlow(long)} 判断
+     *
+     * @param command  命令名
+     * @param params   参数
+     * @param client   客户端
+     * @param database 数据库序号
+     * @param micros   执行时间（微秒）
+     */
+    public void add(String command, List<SafeString> params, String client, int database, long micros) {
+        Entry entry = new Entry(ids.getAndIncrement(), System.currentTimeMillis() / 1000, micros,
+                arguments(command, params), client, database);
+        Ring current = ring;
+        int slot = (int) (current.written.getAndIncrement() % current.entries.length());
+        current.entries.set(slot, entry);
+    }
+
+    /**
+     * 最近的记录，按编号降序
+     *
+     * @param count 个数，负数表示全部
+     * @return
+     */
+    public List<Entry> get(int count) {
+        AtomicReferenceArray<Entry> entries = ring.entries;
+        List<Entry> result = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        result.sort(Comparator.comparingLong(Entry::getId).reversed());
+        if (count >= 0 && result.size() > count) {
+            return new ArrayList<>(result.subList(0, count));
+        }
+        return result;
+    }
+
+    public int size() {
+        Ring current = ring;
+        return (int) Math.min(current.written.get(), current.entries.length());
+    }
+
+    public void reset() {
+        this.ring = new Ring(ring.entries.length());
+    }
+
+    private static List<String> arguments(String command, List<SafeString> params) {
+        int argc = params.size() + 1;
+        int stored = Math.min(argc, MAX_ARGC);
+        List<String> arguments = new ArrayList<>(stored);
+        arguments.add(truncate(command));
+        for (int i = 1; i < stored; i++) {
+            if (i == MAX_ARGC - 1 && argc > MAX_ARGC) {
+                arguments.add("... (" + (argc - MAX_ARGC + 1) + " more arguments)");
+            } else {
+                arguments.add(truncate(params.get(i - 1).toString()));
+            }
+        }
+        return Collections.unmodifiableList(arguments);
+    }
+
+    private static String truncate(String value) {
+        if (value.length() <= MAX_STRING) {
+            return value;
+        }
+        return value.substring(0, MAX_STRING) + "... (" + (value.length() - MAX_STRING) + " more bytes)";
+    }
+
+    private static final class Ring {
+
+        private final AtomicReferenceArray<Entry> entries;
+        private final AtomicLong written = new AtomicLong();
+
+        private Ring(int size) {
+            this.entries = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    /**
+     * 一条慢查询记录
+     */
+    public static final class Entry {
+
+        private final long id;
+        /**
+         * 时间戳（秒）
+         */
+        private final long timestamp;
+        /**
+         * 执行时间（微秒）
+         */
+        private final long duration;
+        /**
+         * 命令名和截断后的参数
+         */
+        private final List<String> arguments;
+        private final String client;
+        private final int database;
+
+        private Entry(long id, long timestamp, long duration, List<String> arguments, String client, int database) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.duration = duration;
+            this.arguments = arguments;
+            this.client = client;
+            this.database = database;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public List<String> getArguments() {
+            return arguments;
+        }
+
+        public String getClient() {
+            return client;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 服务器统计采样器，每 {@link ServerStats#SAMPLE_PERIOD} 毫秒采样一次每秒操作数和网络流量
+ */
+public class StatsSampler {
+
+    /**
+     * 日志
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatsSampler.class);
+    /**
+     * 服务器统计
+     */
+    private final ServerStats stats;
+    /**
+     * 单例执行器
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    public StatsSampler(ServerStats stats) {
+        this.stats = requireNonNull(stats);
+    }
+
+    /**
+     * 开启采样
+     */
+    public void start() {
+        executor.scheduleAtFixedRate(this::sample,
+                ServerStats.SAMPLE_PERIOD, ServerStats.SAMPLE_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭采样
+     */
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * 采样一次，异常不能抛出，否则后续的采样不会再执行
+     */
+    private void sample() {
+        try {
+            stats.sample(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            LOGGER.error("error sampling server stats", e);
+        }
+    }
+}
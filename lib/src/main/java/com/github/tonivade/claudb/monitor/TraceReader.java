@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 读取 {@link TraceRecorder} 写入的跟踪文件，格式见 {@link TraceRecord}。
+ * 服务器异常退出时最后一条记录可能不完整，读到不完整的记录视为文件结尾
+ */
+public class TraceReader implements Closeable {
+
+    private final DataInputStream input;
+    private final long startTime;
+    private final int sampleRate;
+    private long previous;
+
+    public TraceReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        if (this.input.readInt() != TraceRecord.MAGIC) {
+            throw new IOException("not a trace file");
+        }
+        short version = this.input.readShort();
+        if (version != TraceRecord.VERSION) {
+            throw new IOException("unsupported trace version: " + version);
+        }
+        this.startTime = this.input.readLong();
+        this.sampleRate = this.input.readInt();
+    }
+
+    /**
+     * @return 跟踪开始的时间（毫秒）
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 读到文件结尾时返回 null
+     * @throws IOException
+     */
+    public TraceRecord next() throws IOException {
+        try {
+            TraceRecord record = TraceRecord.readFrom(input, previous);
+            if (record != null) {
+                previous = record.getTime();
+            }
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 命令跟踪记录，只保存时间、数据库、命令名、第一个参数（通常为键）的哈希和每个参数的长度，不保存参数内容。
+ * <p>
+ * 文件格式：头部为 4 字节魔数 CDBT、2 字节版本号、8 字节开始时间（毫秒）和 4 字节采样率；
+ * 每条记录为与上一条记录的时间差（微秒，zigzag 变长整数）、1 字节数据库序号、1 字节命令名长度和命令名、
+ * 4 字节键哈希、参数个数（变长整数），以及每个参数的长度左移一位、最低位表示参数是否为数字（变长整数）。
+ */
+public final class TraceRecord {
+
+    static final int MAGIC = 0x43444254;
+    static final short VERSION = 1;
+
+    /**
+     * 距离跟踪开始的时间（微秒）
+     */
+    private final long time;
+    private final int db;
+    private final String command;
+    private final int keyHash;
+    /**
+     * 每个参数的长度，数字参数为负数
+     */
+    private final int[] args;
+
+    public TraceRecord(long time, int db, String command, int keyHash, int[] args) {
+        this.time = time;
+        this.db = db;
+        this.command = command;
+        this.keyHash = keyHash;
+        this.args = args;
+    }
+
+    /**
+     * 从请求创建跟踪记录
+     *
+     * @param time    距离跟踪开始的时间（微秒）
+     * @param db      数据库序号
+     * @param command 命令名
+     * @param params  参数
+     * @return
+     */
+    public static TraceRecord of(long time, int db, String command, List<SafeString> params) {
+        int[] args = new int[params.size()];
+        for (int i = 0; i < args.length; i++) {
+            SafeString param = params.get(i);
+            args[i] = isNumber(param) ? -param.length() : param.length();
+        }
+        int keyHash = params.isEmpty() ? 0 : hash(params.get(0));
+        return new TraceRecord(time, db, command.toLowerCase(Locale.ROOT), keyHash, args);
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getDb() {
+        return db;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public int getKeyHash() {
+        return keyHash;
+    }
+
+    public int getArgCount() {
+        return args.length;
+    }
+
+    public int getArgSize(int i) {
+        return Math.abs(args[i]);
+    }
+
+    public boolean isNumber(int i) {
+        return args[i] < 0;
+    }
+
+    void writeTo(DataOutput output, long previous) throws IOException {
+        // 多个线程并发记录时顺序可能与时间略有出入，时间差使用 zigzag 编码
+        long delta = time - previous;
+        writeVarLong(output, (delta << 1) ^ (delta >> 63));
+        output.writeByte(db);
+        byte[] name = command.getBytes(StandardCharsets.US_ASCII);
+        output.writeByte(name.length);
+        output.write(name);
+        output.writeInt(keyHash);
+        writeVarLong(output, args.length);
+        for (int arg : args) {
+            writeVarLong(output, ((long) Math.abs(arg) << 1) | (arg < 0 ? 1 : 0));
+        }
+    }
+
+    /**
+     * 读取一条记录
+     *
+     * @param input    输入
+     * @param previous 上一条记录的时间
+     * @return 已经读到文件结尾时返回 null
+     * @throws IOException
+     */
+    static TraceRecord readFrom(DataInput input, long previous) throws IOException {
+        long delta;
+        try {
+            long value = readVarLong(input);
+            delta = (value >>> 1) ^ -(value & 1);
+        } catch (EOFException e) {
+            return null;
+        }
+        int db = input.readUnsignedByte();
+        byte[] name = new byte[input.readUnsignedByte()];
+        input.readFully(name);
+        int keyHash = input.readInt();
+        int[] args = new int[(int) readVarLong(input)];
+        for (int i = 0; i < args.length; i++) {
+            long value = readVarLong(input);
+            int size = (int) (value >>> 1);
+            args[i] = (value & 1) == 1 ? -size : size;
+        }
+        return new TraceRecord(previous + delta, db, new String(name, StandardCharsets.US_ASCII), keyHash, args);
+    }
+
+    /**
+     * FNV-1a 哈希，与 JVM 无关，不同进程记录的跟踪可以比较
+     */
+    static int hash(SafeString value) {
+        int hash = 0x811c9dc5;
+        for (byte b : value.getBytes()) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    private static boolean isNumber(SafeString value) {
+        String text = value.toString();
+        if (text.isEmpty() || text.length() > 20) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!(c >= '0' && c <= '9' || c == '.' || i == 0 && (c == '-' || c == '+'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed trace record");
+    }
+}
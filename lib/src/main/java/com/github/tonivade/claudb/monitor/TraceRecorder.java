@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import com.github.tonivade.resp.protocol.SafeString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author zhou <br/>
+ * <p>
+ * 命令跟踪记录器，命令按 1/sampleRate 的概率采样，写入紧凑的二进制文件，用于离线重放生产环境的访问模式。
+ * 执行命令的线程只创建记录并放入有界队列，由后台线程写入文件；队列已满时丢弃记录，不会阻塞命令的执行
+ */
+public class TraceRecorder {
+
+    /**
+     * 默认每 100 个命令采样一个
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceRecorder.class);
+
+    private static final int QUEUE_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final String file;
+    private final int sampleRate;
+    private final BlockingQueue<TraceRecord> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private long startNanos;
+    private Thread writer;
+
+    public TraceRecorder(String file, int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("invalid sample rate: " + sampleRate);
+        }
+        this.file = requireNonNull(file);
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 创建跟踪文件并开始记录
+     */
+    public void start() {
+        DataOutputStream output;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            output.writeInt(TraceRecord.MAGIC);
+            output.writeShort(TraceRecord.VERSION);
+            output.writeLong(System.currentTimeMillis());
+            output.writeInt(sampleRate);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        startNanos = System.nanoTime();
+        running = true;
+        writer = new Thread(() -> write(output), "claudb-trace");
+        writer.setDaemon(true);
+        writer.start();
+        LOGGER.info("Trace recorder started: {}, sample rate 1/{}", file, sampleRate);
+    }
+
+    /**
+     * 停止记录，写入队列中剩余的记录后关闭文件
+     */
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        LOGGER.info("Trace recorder stopped: {} recorded, {} dropped", recorded.sum(), dropped.sum());
+    }
+
+    /**
+     * 本次命令是否需要采样
+     *
+     * @return
+     */
+    public boolean sample() {
+        return running && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * 记录一个被采样的命令
+     *
+     * @param db      数据库序号
+     * @param command 命令名
+     * @param params  参数
+     */
+    public void record(int db, String command, List<SafeString> params) {
+        long time = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        if (queue.offer(TraceRecord.of(time, db, command, params))) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void write(DataOutputStream output) {
+        long previous = 0;
+        try {
+            while (running || !queue.isEmpty()) {
+                TraceRecord record = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    record.writeTo(output, previous);
+                    previous = record.getTime();
+                } else {
+                    output.flush();
+                }
+            }
+        } catch (IOException e) {
+            running = false;
+            LOGGER.error("error writing trace file", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                output.close();
+            } catch (IOException e) {
+                LOGGER.error("error closing trace file", e);
+            }
+        }
+    }
+}
@@ -6,19 +6,23 @@ package com.github.tonivade.claudb.persistence;
 
 import com.github.tonivade.claudb.DBConfig;
 import com.github.tonivade.claudb.DBServerContext;
-import com.github.tonivade.claudb.DBSessionState;
+import com.github.tonivade.claudb.TransactionState;
 import com.github.tonivade.claudb.command.DBCommandProcessor;
-import com.github.tonivade.resp.command.DefaultSession;
-import com.github.tonivade.resp.command.Session;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.claudb.monitor.PersistenceEvent;
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.resp.protocol.AbstractRedisToken.ArrayRedisToken;
 import com.github.tonivade.resp.protocol.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.github.tonivade.resp.protocol.RedisToken.array;
 import static com.github.tonivade.resp.protocol.RedisToken.string;
@@ -44,6 +48,12 @@ public class PersistenceManager {
     private final String redoFile;
     private final int syncPeriod;
 
+    /**
+     * 等待写入 AOF 文件的记录，由持久化线程批量写入并只 flush 一次
+     */
+    private final Queue<RedisToken> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
     private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
 
     public PersistenceManager(DBServerContext server, DBConfig config) {
@@ -51,7 +61,7 @@ public class PersistenceManager {
         this.dumpFile = config.getRdbFile();
         this.redoFile = config.getAofFile();
         this.syncPeriod = config.getSyncPeriod();
-        this.processor = new DBCommandProcessor(server, newDummySession());
+        this.processor = new DBCommandProcessor(server);
     }
 
     public void start() {
@@ -76,15 +86,21 @@ public class PersistenceManager {
 
     public void append(RedisToken command) {
         if (output != null) {
-            executor.submit(() -> appendRedo(command));
+            pending.offer(command);
+            if (draining.compareAndSet(false, true)) {
+                executor.submit(this::appendRedo);
+            }
         }
     }
 
     private void importRDB() {
         File file = new File(dumpFile);
         if (file.exists()) {
+            PersistenceEvent event = new PersistenceEvent();
+            event.begin();
             try (InputStream rdb = new FileInputStream(file)) {
                 server.importRDB(rdb);
+                commit(event, PersistenceEvent.RDB_IMPORT, dumpFile, file.length(), 0);
                 LOGGER.info("RDB file imported");
             } catch (IOException e) {
                 LOGGER.error("error reading RDB", e);
@@ -95,27 +111,49 @@ public class PersistenceManager {
     private void importRedo() {
         File file = new File(redoFile);
         if (file.exists()) {
+            PersistenceEvent event = new PersistenceEvent();
+            event.begin();
             try (FileInputStream redo = new FileInputStream(file)) {
-                RedisParser parse = new RedisParser(MAX_FRAME_SIZE, new RedisSourceInputStream(redo));
-
-                while (true) {
-                    RedisToken token = parse.next();
-                    if (token.getType() == RedisTokenType.UNKNOWN) {
-                        break;
-                    }
-                    LOGGER.info("command: {}", token);
-
-                    processCommand((ArrayRedisToken) token);
-                }
+                int count = replay(redo);
+                commit(event, PersistenceEvent.AOF_REPLAY, redoFile, file.length(), count);
             } catch (IOException e) {
                 LOGGER.error("error reading AOF file", e);
             }
         }
     }
 
+    /**
+     * 重放 AOF 记录，每条命令只在 debug 级别输出日志，避免大文件的重放被日志拖慢
+     *
+     * @param redo AOF 输入流
+     * @return 重放的记录数
+     */
+    int replay(InputStream redo) {
+        RedisParser parse = new RedisParser(MAX_FRAME_SIZE, new RedisSourceInputStream(redo));
+
+        int count = 0;
+        while (true) {
+            RedisToken token = parse.next();
+            if (token.getType() == RedisTokenType.UNKNOWN) {
+                break;
+            }
+            LOGGER.debug("command: {}", token);
+
+            processCommand((ArrayRedisToken) token);
+            count++;
+        }
+        return count;
+    }
+
     private void processCommand(ArrayRedisToken array) {
-        processor.processCommand((ArrayRedisToken) selectCommand(array));
-        processor.processCommand((ArrayRedisToken) command(array));
+        if (TransactionState.isRecord(array)) {
+            processor.processCommand((ArrayRedisToken) array(string("multi")));
+            array.getValue().forEach(command -> processCommand((ArrayRedisToken) command));
+            processor.processCommand((ArrayRedisToken) array(string("exec")));
+        } else {
+            processor.processCommand((ArrayRedisToken) selectCommand(array));
+            processor.processCommand((ArrayRedisToken) command(array));
+        }
     }
 
     private void createRedo() {
@@ -141,26 +179,70 @@ public class PersistenceManager {
     }
 
     private void exportRDB() {
+        ServerStats stats = server.getServerStats();
+        long changes = stats.getChanges();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
         try (FileOutputStream rdb = new FileOutputStream(dumpFile)) {
             server.exportRDB(rdb);
+            server.recordLatency(LatencyMonitor.RDB_SAVE, elapsedMillis(start));
+            stats.rdbSaved(changes, System.currentTimeMillis(), true);
+            commit(event, PersistenceEvent.RDB_EXPORT, dumpFile, new File(dumpFile).length(), 0);
             LOGGER.info("RDB file exported");
         } catch (IOException e) {
+            stats.rdbSaved(changes, System.currentTimeMillis(), false);
             LOGGER.error("error writing to RDB file", e);
         }
     }
 
-    private void appendRedo(RedisToken command) {
+    private void appendRedo() {
+        // 先清除标记，之后追加的记录会提交新的写入任务
+        draining.set(false);
+        if (output == null) {
+            return;
+        }
         try {
             RedisSerializer serializer = new RedisSerializer();
-            byte[] buffer = serializer.encodeToken(command);
-            output.write(buffer);
-            output.flush();
-            LOGGER.debug("new command: " + command);
+            PersistenceEvent event = new PersistenceEvent();
+            event.begin();
+            long start = System.nanoTime();
+            int count = 0;
+            long bytes = 0;
+            for (RedisToken command = pending.poll(); command != null; command = pending.poll()) {
+                byte[] encoded = serializer.encodeToken(command);
+                output.write(encoded);
+                bytes += encoded.length;
+                count++;
+            }
+            if (count > 0) {
+                output.flush();
+                server.recordLatency(LatencyMonitor.AOF_WRITE, elapsedMillis(start));
+                commit(event, PersistenceEvent.AOF_APPEND, redoFile, bytes, count);
+                server.getServerStats().aofWritten(System.currentTimeMillis(), true);
+                LOGGER.debug("{} commands appended", count);
+            }
         } catch (IOException e) {
+            server.getServerStats().aofWritten(System.currentTimeMillis(), false);
             LOGGER.error("error writing to AOF file", e);
         }
     }
 
+    /**
+     * 提交 JFR 事件，未开启 JFR 时不填充字段
+     */
+    private static void commit(PersistenceEvent event, String operation, String file, long bytes, int commands) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(operation, file, bytes, commands);
+            event.commit();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
     private RedisToken selectCommand(ArrayRedisToken token) {
         return array(string("select"), token.getValue().stream().findFirst().orElse(string("0")));
     }
@@ -168,12 +250,6 @@ public class PersistenceManager {
     private RedisToken command(ArrayRedisToken token) {
         return array(token.getValue().stream().skip(1).collect(toList()));
     }
-
-    private Session newDummySession() {
-        DefaultSession session = new DefaultSession("dummy", null);
-        session.putValue("state", new DBSessionState());
-        return session;
-    }
 }
 
 /**
@@ -6,6 +6,10 @@ package com.github.tonivade.claudb.persistence;
 
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamEntry;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
 import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.resp.protocol.SafeString;
 
@@ -37,6 +41,10 @@ public class RDBInputStream {
      * 连接超时时长
      */
     private static final long TO_MILLIS = 1000L;
+    /**
+     * stream 类型，内容为 claudb 自己的格式，见 {@link RDBOutputStream}
+     */
+    private static final int STREAM = 0x0F;
     /**
      * hash 类型
      */
@@ -133,6 +141,10 @@ public class RDBInputStream {
                     ensure(db, readKey(), readHash(expireTime));
                     expireTime = null;
                     break;
+                case STREAM:
+                    ensure(db, readKey(), readStream(expireTime));
+                    expireTime = null;
+                    break;
                 case END_OF_STREAM:
                     // end of stream
                     end = true;
@@ -190,7 +202,7 @@ public class RDBInputStream {
     }
 
     private DatabaseValue readString(Long expireTime) throws IOException {
-        return string(readSafeString()).expiredAt(expireTime != null ? ofEpochMilli(expireTime) : null);
+        return stringOrHyperLogLog(readSafeString()).expiredAt(expireTime != null ? ofEpochMilli(expireTime) : null);
     }
 
     private DatabaseValue readList(Long expireTime) throws IOException {
@@ -231,6 +243,50 @@ public class RDBInputStream {
         return hash(entries).expiredAt(expireTime != null ? ofEpochMilli(expireTime) : null);
     }
 
+    private DatabaseValue readStream(Long expireTime) throws IOException {
+        StreamId lastId = readId();
+        int size = readLength();
+        List<StreamEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StreamId id = readId();
+            int fields = readLength();
+            List<SafeString> values = new ArrayList<>(fields);
+            for (int j = 0; j < fields; j++) {
+                values.add(readSafeString());
+            }
+            entries.add(new StreamEntry(id, values));
+        }
+        StreamValue stream = StreamValue.of(entries, lastId);
+        int groups = readLength();
+        for (int i = 0; i < groups; i++) {
+            SafeString name = readSafeString();
+            StreamGroup group = StreamGroup.create(readId());
+            int consumers = readLength();
+            for (int j = 0; j < consumers; j++) {
+                SafeString consumer = readSafeString();
+                group = group.withConsumer(consumer, readLong());
+            }
+            int pending = readLength();
+            for (int j = 0; j < pending; j++) {
+                StreamId id = readId();
+                SafeString consumer = readSafeString();
+                long deliveryTime = readLong();
+                group = group.claim(id, consumer, deliveryTime, readLong());
+            }
+            stream = stream.withGroup(name, group);
+        }
+        return stream(stream).expiredAt(expireTime != null ? ofEpochMilli(expireTime) : null);
+    }
+
+    private StreamId readId() throws IOException {
+        long millis = readLong();
+        return StreamId.of(millis, readLong());
+    }
+
+    private long readLong() throws IOException {
+        return ByteUtils.byteArrayToLong(read(Long.BYTES));
+    }
+
     private void ensure(Map<DatabaseKey, DatabaseValue> db, DatabaseKey key, DatabaseValue value) throws IOException {
         if (db != null) {
             if (!value.isExpired(Instant.now())) {
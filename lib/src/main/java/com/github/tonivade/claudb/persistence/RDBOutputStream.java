@@ -8,6 +8,10 @@ import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamEntry;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
 import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.ImmutableMap;
@@ -18,6 +22,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.zip.CheckedOutputStream;
@@ -38,6 +43,11 @@ public class RDBOutputStream {
     private static final int TTL_MILLISECONDS = 0xFC;
     private static final int END_OF_STREAM = 0xFF;
     private static final int SELECT = 0xFE;
+    /**
+     * 流类型，与 redis 的 STREAM_LISTPACKS 使用相同的类型编号，但内容使用 claudb 自己的格式：
+     * 条目和消费者组由 RDB 的长度和字符串编码组成，不包含 listpack
+     */
+    private static final int STREAM = 0x0F;
 
     private final CheckedOutputStream out;
 
@@ -84,7 +94,7 @@ public class RDBOutputStream {
     }
 
     private void type(DataType type) throws IOException {
-        out.write(type.ordinal());
+        out.write(type == DataType.STREAM ? STREAM : type.ordinal());
     }
 
     private void key(DatabaseKey key) throws IOException {
@@ -108,6 +118,9 @@ public class RDBOutputStream {
             case ZSET:
                 zset(value.getSortedSet());
                 break;
+            case STREAM:
+                stream(value.getStream());
+                break;
             default:
                 break;
         }
@@ -174,6 +187,49 @@ public class RDBOutputStream {
         }
     }
 
+    /**
+     * 流：[最后的 ID][条目数][(ID, 字段个数, 字段和值...)][组个数]
+     * [(组名, 最后投递的 ID, 消费者个数, (消费者, 活跃时间)..., 待确认个数, (ID, 消费者, 投递时间, 投递次数)...)]，
+     * ID 和时间都是 8 字节的整数
+     *
+     * @param value 流
+     * @throws IOException
+     */
+    private void stream(StreamValue value) throws IOException {
+        id(value.getLastId());
+        length((int) value.length());
+        for (StreamEntry entry : value.entries()) {
+            id(entry.getId());
+            length(entry.getFields().size());
+            for (SafeString field : entry.getFields()) {
+                string(field);
+            }
+        }
+        length(value.getGroups().size());
+        for (Map.Entry<SafeString, StreamGroup> entry : value.getGroups().entrySet()) {
+            StreamGroup group = entry.getValue();
+            string(entry.getKey());
+            id(group.getLastDelivered());
+            length(group.getConsumers().size());
+            for (Map.Entry<SafeString, Long> consumer : group.getConsumers().entrySet()) {
+                string(consumer.getKey());
+                out.write(toByteArray(consumer.getValue()));
+            }
+            length(group.pendingCount());
+            for (StreamGroup.Pending pending : group.pending(StreamId.MIN, StreamId.MAX, Long.MAX_VALUE, null)) {
+                id(pending.getId());
+                string(pending.getConsumer());
+                out.write(toByteArray(pending.getDeliveryTime()));
+                out.write(toByteArray(pending.getDeliveryCount()));
+            }
+        }
+    }
+
+    private void id(StreamId id) throws IOException {
+        out.write(toByteArray(id.getMillis()));
+        out.write(toByteArray(id.getSequence()));
+    }
+
     public void end() throws IOException {
         out.write(END_OF_STREAM);
         out.write(toByteArray(out.getChecksum().getValue()));
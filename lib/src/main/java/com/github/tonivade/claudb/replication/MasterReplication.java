@@ -6,6 +6,10 @@ package com.github.tonivade.claudb.replication;
 
 import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.TransactionState;
+import com.github.tonivade.claudb.monitor.ReplicationEvent;
+import com.github.tonivade.claudb.monitor.ServerStats;
+import com.github.tonivade.purefun.data.ImmutableSet;
 import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.protocol.AbstractRedisToken.ArrayRedisToken;
 import com.github.tonivade.resp.protocol.AbstractRedisTokenVisitor;
@@ -44,6 +48,14 @@ public class MasterReplication implements Runnable {
      * Ping 命令
      */
     private static final String PING_COMMAND = "PING";
+    /**
+     * Multi 命令
+     */
+    private static final String MULTI_COMMAND = "MULTI";
+    /**
+     * Exec 命令
+     */
+    private static final String EXEC_COMMAND = "EXEC";
     /**
      * 任务延迟时间
      */
@@ -98,13 +110,29 @@ public class MasterReplication implements Runnable {
      */
     @Override
     public void run() {
+        ReplicationEvent event = new ReplicationEvent();
+        event.begin();
         List<RedisToken> commands = createCommands();
 
-        for (SafeString slave : getServerState().getSlaves()) {
+        ImmutableSet<SafeString> slaves = getServerState().getSlaves();
+        for (SafeString slave : slaves) {
             for (RedisToken command : commands) {
                 server.publish(slave.toString(), command);
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(ReplicationEvent.MASTER, slaves.size(), commands.size(), size(commands) * slaves.size());
+            event.commit();
+        }
+    }
+
+    private long size(List<RedisToken> commands) {
+        long size = 0;
+        for (RedisToken command : commands) {
+            size += ServerStats.responseSize(command);
+        }
+        return size;
     }
 
     private List<RedisToken> createCommands() {
@@ -121,8 +149,15 @@ public class MasterReplication implements Runnable {
             command.accept(new AbstractRedisTokenVisitor<Void>() {
                 @Override
                 public Void array(ArrayRedisToken token) {
-                    commands.add(selectCommand(token));
-                    commands.add(command(token));
+                    if (TransactionState.isRecord(token)) {
+                        // 事务记录，以 MULTI / EXEC 包裹，保证从节点原子执行
+                        commands.add(multiCommand());
+                        token.getValue().forEach(inner -> inner.accept(this));
+                        commands.add(execCommand());
+                    } else {
+                        commands.add(selectCommand(token));
+                        commands.add(command(token));
+                    }
                     return null;
                 }
             });
@@ -143,6 +178,14 @@ public class MasterReplication implements Runnable {
         return array(string(PING_COMMAND));
     }
 
+    private RedisToken multiCommand() {
+        return array(string(MULTI_COMMAND));
+    }
+
+    private RedisToken execCommand() {
+        return array(string(EXEC_COMMAND));
+    }
+
     private RedisToken command(ArrayRedisToken token) {
         return array(token.getValue().stream().skip(1).collect(toList()));
     }
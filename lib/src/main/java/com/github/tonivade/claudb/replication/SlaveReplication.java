@@ -8,10 +8,10 @@ import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.command.DBCommandProcessor;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.monitor.ReplicationEvent;
 import com.github.tonivade.claudb.persistence.ByteBufferInputStream;
 import com.github.tonivade.resp.RespCallback;
 import com.github.tonivade.resp.RespClient;
-import com.github.tonivade.resp.command.Session;
 import com.github.tonivade.resp.protocol.AbstractRedisToken.StringRedisToken;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.resp.protocol.RedisTokenVisitor;
@@ -59,7 +59,7 @@ public class SlaveReplication implements RespCallback {
      */
     private final DBServerContext server;
     /**
-     * 数据库命令处理器
+     * 数据库命令处理器，使用独立的内部会话执行主节点发来的命令
      */
     private final DBCommandProcessor processor;
     /**
@@ -71,12 +71,12 @@ public class SlaveReplication implements RespCallback {
      */
     private final int port;
 
-    public SlaveReplication(DBServerContext server, Session session, String host, int port) {
+    public SlaveReplication(DBServerContext server, String host, int port) {
         this.server = requireNonNull(server);
         this.host = requireNonNull(host);
         this.port = port;
         this.client = new RespClient(host, port, this);
-        this.processor = new DBCommandProcessor(server, session);
+        this.processor = new DBCommandProcessor(server);
     }
 
     public void start() {
@@ -117,9 +117,16 @@ public class SlaveReplication implements RespCallback {
     }
 
     private void processRDB(StringRedisToken token) {
+        ReplicationEvent event = new ReplicationEvent();
+        event.begin();
         try {
             SafeString value = token.getValue();
             server.importRDB(toStream(value));
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(ReplicationEvent.SLAVE, 0, 0, value.length());
+                event.commit();
+            }
             LOGGER.info("loaded RDB file from master");
         } catch (IOException e) {
             LOGGER.error("error importing RDB file", e);
@@ -79,6 +79,23 @@ public class ClauDBTest {
     });
   }
 
+  @Test
+  public void testPipelineBatch(IntSupplier serverPort) {
+    execute(serverPort, jedis -> {
+      jedis.del("counter");
+      Pipeline p = jedis.pipelined();
+      for (int i = 0; i < 1000; i++) {
+        p.incr("counter");
+      }
+
+      long expected = 1;
+      for (Object result : p.syncAndReturnAll()) {
+        assertThat(result, equalTo(expected++));
+      }
+      assertThat(expected, equalTo(1001L));
+    });
+  }
+
   @Test
   public void testEval(IntSupplier serverPort) {
     execute(serverPort, jedis -> assertThat(jedis.eval("return 1"), equalTo(1L)));
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import com.github.tonivade.resp.RespServer;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * 并发读模式下读命令只加键槽读锁，与写命令、exec、脚本并发执行时不能读到中间状态
+ */
+public class ConcurrentReadsTest {
+
+  private static final int READERS = 4;
+  private static final int WRITES = 1000;
+
+  private static RespServer server;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicLong reads = new AtomicLong();
+
+  @BeforeAll
+  public static void start() {
+    server = ClauDB.builder().randomPort().config(DBConfig.builder().withConcurrentReads().build()).build();
+    server.start();
+  }
+
+  @AfterAll
+  public static void stop() {
+    server.stop();
+  }
+
+  @BeforeEach
+  public void setUp() {
+    running.set(true);
+    reads.set(0);
+    execute(Jedis::flushDB);
+  }
+
+  @Test
+  @Timeout(60)
+  public void noTornMultiKeyWrites() throws Exception {
+    String script = "redis.call('set', KEYS[1], ARGV[1]) redis.call('set', KEYS[2], ARGV[1])";
+    execute(jedis -> jedis.mset("a", "0", "b", "0"));
+
+    run(jedis -> {
+      List<String> values = jedis.mget("a", "b");
+      assertThat(values.get(0), notNullValue());
+      assertThat(values.get(1), equalTo(values.get(0)));
+    }, jedis -> {
+      for (int i = 0; i < WRITES; i++) {
+        String value = String.valueOf(i);
+        switch (i % 3) {
+          case 0:
+            jedis.mset("a", value, "b", value);
+            break;
+          case 1:
+            Transaction tx = jedis.multi();
+            tx.set("a", value);
+            tx.set("b", value);
+            tx.exec();
+            break;
+          default:
+            jedis.eval(script, asList("a", "b"), asList(value));
+            break;
+        }
+      }
+    });
+  }
+
+  @Test
+  @Timeout(60)
+  public void lazyExpireRemovesOnlyExpiredValue() throws Exception {
+    run(jedis -> jedis.get("key"), jedis -> {
+      for (int i = 0; i < WRITES; i++) {
+        jedis.set("key", "old", SetParams.setParams().px(1));
+        sleep(2);
+        String value = String.valueOf(i);
+        jedis.set("key", value);
+        // 只有读线程在并发访问，读到过期的旧值时不能把新值删掉
+        assertThat(jedis.get("key"), equalTo(value));
+      }
+    });
+  }
+
+  @Test
+  @Timeout(60)
+  public void overwriteNeverHidesKey() throws Exception {
+    execute(jedis -> jedis.set("key", "0"));
+
+    run(jedis -> assertThat(jedis.get("key"), notNullValue()), jedis -> {
+      for (int i = 0; i < WRITES; i++) {
+        jedis.set("key", String.valueOf(i));
+      }
+    });
+  }
+
+  /**
+   * 写线程执行完之前，读线程不断重复读操作，任何一个线程的断言失败都会让测试失败
+   */
+  private void run(Consumer<Jedis> reader, Consumer<Jedis> writer) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(READERS);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < READERS; i++) {
+        readers.add(executor.submit(() -> execute(jedis -> {
+          while (running.get()) {
+            reader.accept(jedis);
+            reads.incrementAndGet();
+          }
+        })));
+      }
+      try {
+        execute(writer);
+      } finally {
+        running.set(false);
+      }
+      for (Future<?> future : readers) {
+        future.get();
+      }
+      assertThat(reads.get() > 0, equalTo(true));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void execute(Consumer<Jedis> action) {
+    try (Jedis jedis = new Jedis(DBServerContext.DEFAULT_HOST, server.getPort(), 10000)) {
+      action.accept(jedis);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
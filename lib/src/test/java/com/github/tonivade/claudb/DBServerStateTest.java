@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+import com.github.tonivade.claudb.data.EvictionManager;
+import com.github.tonivade.claudb.data.EvictionPolicy;
+import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
+
+public class DBServerStateTest {
+
+  @Test
+  public void expiredKeyInvalidatesWatch() {
+    DBServerState serverState = new DBServerState(new OnHeapDatabaseFactory(), 1);
+    DBSessionState sessionState = new DBSessionState();
+    serverState.getDatabase(0).put(safeKey("a"), string("1").expiredAt(Instant.now().plusSeconds(60)));
+    serverState.watch(sessionState, 0, safeKey("a"));
+
+    serverState.evictExpired(Instant.now());
+
+    assertThat(sessionState.isDirty(), is(false));
+
+    serverState.evictExpired(Instant.now().plusSeconds(120));
+
+    assertThat(sessionState.isDirty(), is(true));
+  }
+
+  @Test
+  public void evictedKeyInvalidatesWatch() {
+    DBServerState serverState = new DBServerState(new OnHeapDatabaseFactory(), 1, 0, false,
+        new EvictionManager(1, EvictionPolicy.ALLKEYS_LRU));
+    DBSessionState sessionState = new DBSessionState();
+    serverState.getDatabase(0).put(safeKey("a"), string("1"));
+    serverState.watch(sessionState, 0, safeKey("a"));
+
+    serverState.performEvictions((db, key) -> {});
+
+    assertThat(serverState.getDatabase(0).isEmpty(), is(true));
+    assertThat(sessionState.isDirty(), is(true));
+  }
+}
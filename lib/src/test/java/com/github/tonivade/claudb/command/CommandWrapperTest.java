@@ -5,15 +5,27 @@
 
 package com.github.tonivade.claudb.command;
 
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,10 +35,21 @@ import org.mockito.junit.MockitoJUnitRunner;
 import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.DBServerState;
 import com.github.tonivade.claudb.DBSessionState;
+import com.github.tonivade.claudb.KeySlots;
+import com.github.tonivade.claudb.TransactionState;
+import com.github.tonivade.claudb.command.annotation.ParamKeys;
 import com.github.tonivade.claudb.command.annotation.ParamType;
+import com.github.tonivade.claudb.command.annotation.ReadOnly;
+import com.github.tonivade.claudb.command.stream.StreamReadGroupCommand;
 import com.github.tonivade.claudb.data.DataType;
 import com.github.tonivade.claudb.data.Database;
-import com.github.tonivade.claudb.data.DatabaseKey;
+import com.github.tonivade.claudb.data.KeyAnalyzer;
+import com.github.tonivade.claudb.data.KeyLookupDatabase;
+import com.github.tonivade.claudb.monitor.CommandMonitor;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.claudb.monitor.ServerStats;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.resp.annotation.Command;
 import com.github.tonivade.resp.annotation.ParamLength;
@@ -49,6 +72,9 @@ public class CommandWrapperTest {
   @Mock
   private DBServerState serverState;
 
+  private final CommandMonitor commandMonitor = new CommandMonitor();
+  private final ServerStats serverStats = new ServerStats(2);
+
   @Before
   public void setUp() {
     when(request.getSession()).thenReturn(session);
@@ -58,7 +84,12 @@ public class CommandWrapperTest {
     when(session.getValue("tx")).thenReturn(Option.none());
     when(server.getValue("state")).thenReturn(Option.some(serverState));
     when(sessionState.getCurrentDB()).thenReturn(1);
+    when(sessionState.getLookup()).thenReturn(new KeyLookupDatabase());
     when(serverState.getDatabase(1)).thenReturn(db);
+    when(serverState.getCommandMonitor()).thenReturn(commandMonitor);
+    when(serverState.getLatencyMonitor()).thenReturn(new LatencyMonitor());
+    when(serverState.getSlowLog()).thenReturn(new SlowLog());
+    when(serverState.getServerStats()).thenReturn(serverStats);
   }
 
   @Test
@@ -68,6 +99,7 @@ public class CommandWrapperTest {
     RedisToken response = wrapper.execute(request);
 
     assertThat(response, equalTo(responseOk()));
+    assertThat(commandMonitor.get("test").getCalls(), equalTo(1L));
   }
 
   @Test
@@ -90,11 +122,14 @@ public class CommandWrapperTest {
     RedisToken response = wrapper.execute(request);
 
     assertThat(response, equalTo(error("ERR wrong number of arguments for 'test' command")));
+    assertThat(commandMonitor.get("test").getRejectedCalls(), equalTo(1L));
+    assertThat(commandMonitor.get("test").getCalls(), equalTo(0L));
   }
 
   @Test
   public void testTypeOK() {
-    when(db.isType(any(DatabaseKey.class), eq(DataType.STRING))).thenReturn(true);
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(db.get(safeKey("test"))).thenReturn(string("value"));
     when(request.getParam(0)).thenReturn(safeString("test"));
 
     DBCommandWrapper wrapper = new DBCommandWrapper(new TypeCommand());
@@ -104,9 +139,25 @@ public class CommandWrapperTest {
     assertThat(response, equalTo(responseOk()));
   }
 
+  @Test
+  public void testResolveKeyOnce() {
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(serverState.hasKeySlots()).thenReturn(true);
+    when(serverState.getSlots()).thenReturn(new KeySlots(4));
+    when(db.get(safeKey("test"))).thenReturn(string("value"));
+    when(request.getParam(0)).thenReturn(safeString("test"));
+    when(request.getLength()).thenReturn(1);
+
+    RedisToken response = new DBCommandWrapper(new GetCommand()).execute(request);
+
+    assertThat(response, equalTo(RedisToken.string(safeString("value"))));
+    verify(request, times(1)).getParam(0);
+    verify(db, times(1)).get(safeKey("test"));
+  }
+
   @Test
   public void testTypeKO() {
-    when(db.isType(any(DatabaseKey.class), eq(DataType.STRING))).thenReturn(false);
+    when(db.get(safeKey("test"))).thenReturn(list(safeString("value")));
     when(request.getParam(0)).thenReturn(safeString("test"));
 
     DBCommandWrapper wrapper = new DBCommandWrapper(new TypeCommand());
@@ -114,6 +165,183 @@ public class CommandWrapperTest {
     RedisToken response = wrapper.execute(request);
 
     assertThat(response, equalTo(error("WRONGTYPE Operation against a key holding the wrong kind of value")));
+    assertThat(commandMonitor.get("test").getFailedCalls(), equalTo(1L));
+  }
+
+  @Test(timeout = 10000)
+  public void testSharedRead() throws Exception {
+    KeySlots slots = new KeySlots(1);
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(serverState.isConcurrentReads()).thenReturn(true);
+    when(serverState.hasKeySlots()).thenReturn(true);
+    when(serverState.getSlots()).thenReturn(slots);
+    when(request.getParam(0)).thenReturn(safeString("test"));
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new ReadCommand());
+
+    // 另一个线程持有读锁时，并发读命令仍然可以执行
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread reader = new Thread(() -> slots.read(safeKey("test"), () -> {
+      locked.countDown();
+      try {
+        return release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        return false;
+      }
+    }));
+    reader.start();
+    locked.await();
+
+    RedisToken response = wrapper.execute(request);
+
+    release.countDown();
+    reader.join();
+
+    assertThat(response, equalTo(responseOk()));
+    assertThat(serverStats.getKeyspaceMisses(), equalTo(1L));
+    assertThat(serverStats.getKeyspaceHits(), equalTo(0L));
+    assertThat(wrapper.isSharedRead(serverState), equalTo(true));
+    assertThat(new DBCommandWrapper(new TypeCommand()).isSharedRead(serverState), equalTo(false));
+    assertThat(new DBCommandWrapper(new SomeCommand()).isSharedRead(serverState), equalTo(false));
+  }
+
+  @Test(timeout = 10000)
+  public void testSharedReadWaitsForWriter() throws Exception {
+    KeySlots slots = new KeySlots(1);
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(serverState.isConcurrentReads()).thenReturn(true);
+    when(serverState.hasKeySlots()).thenReturn(true);
+    when(serverState.getSlots()).thenReturn(slots);
+    when(request.getParam(0)).thenReturn(safeString("test"));
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new ReadCommand());
+
+    // exec 和脚本持有全部键槽的写锁，并发读命令要等它们执行完
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread writer = new Thread(() -> slots.executeAll(() -> {
+      locked.countDown();
+      try {
+        return release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        return false;
+      }
+    }));
+    writer.start();
+    locked.await();
+
+    CompletableFuture<RedisToken> response = CompletableFuture.supplyAsync(() -> wrapper.execute(request));
+
+    Thread.sleep(100);
+    assertThat(response.isDone(), equalTo(false));
+
+    release.countDown();
+    writer.join();
+
+    assertThat(response.get(), equalTo(responseOk()));
+  }
+
+  @Test
+  public void testKeyspaceOnlyOnExecution() {
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(session.getValue("tx")).thenReturn(Option.some(new TransactionState())).thenReturn(Option.none());
+    when(request.getParam(0)).thenReturn(safeString("test"));
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new ReadCommand());
+
+    assertThat(wrapper.execute(request), equalTo(RedisToken.status("QUEUED")));
+    assertThat(serverStats.getKeyspaceMisses(), equalTo(0L));
+
+    assertThat(wrapper.execute(request), equalTo(responseOk()));
+    assertThat(serverStats.getKeyspaceMisses(), equalTo(1L));
+  }
+
+  @Test
+  public void testSharedReadDisabled() {
+    when(serverState.isConcurrentReads()).thenReturn(false);
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new SomeCommand());
+
+    RedisToken response = wrapper.execute(request);
+
+    assertThat(response, equalTo(responseOk()));
+    assertThat(new DBCommandWrapper(new ReadCommand()).isSharedRead(serverState), equalTo(false));
+  }
+
+  @Test
+  public void testRecordHotKeys() {
+    KeyAnalyzer analyzer = new KeyAnalyzer(4, 10, 1);
+    when(serverState.getAnalyzer()).thenReturn(analyzer);
+    when(db.get(safeKey("test"))).thenReturn(string("value"));
+    when(request.getParam(0)).thenReturn(safeString("test"));
+    when(request.getLength()).thenReturn(1);
+
+    new DBCommandWrapper(new TypeCommand()).execute(request);
+    new DBCommandWrapper(new TypeCommand()).execute(request);
+    new DBCommandWrapper(new SomeCommand()).execute(request);
+
+    assertThat(analyzer.getHotKeys(10).toString(), equalTo("[1:test=2]"));
+    assertThat(analyzer.getBigKeys(10), empty());
+  }
+
+  @Test
+  public void testTouchAfterWrite() {
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(serverState.hasWatchedKeys()).thenReturn(true);
+    when(db.get(safeKey("test"))).thenReturn(string("value"));
+    when(request.getParam(0)).thenReturn(safeString("test"));
+    when(request.getLength()).thenReturn(1);
+
+    new DBCommandWrapper(new TypeCommand()).execute(request);
+
+    verify(serverState).touch(1, safeKey("test"));
+  }
+
+  @Test
+  public void testNoTouchAfterError() {
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    lenient().when(serverState.hasWatchedKeys()).thenReturn(true);
+    when(db.get(safeKey("test"))).thenReturn(string("value"));
+    when(request.getParam(0)).thenReturn(safeString("test"));
+
+    RedisToken response = new DBCommandWrapper(new ErrorCommand()).execute(request);
+
+    assertThat(response, equalTo(error("ERR syntax error")));
+    verify(serverState, never()).touch(anyInt(), any());
+  }
+
+  @Test
+  public void testKeywordKeys() {
+    when(serverState.getAnalyzer()).thenReturn(KeyAnalyzer.disabled());
+    when(request.getLength()).thenReturn(2);
+    when(request.getParam(0)).thenReturn(safeString("usage"));
+    when(request.getParam(1)).thenReturn(safeString("test"));
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new KeywordCommand());
+
+    assertThat(wrapper.getKeys(request).get(), equalTo(ImmutableList.of(safeKey("test"))));
+    assertThat(wrapper.isSharedRead(serverState), equalTo(false));
+
+    when(request.getLength()).thenReturn(1);
+    when(request.getParam(0)).thenReturn(safeString("stats"));
+
+    assertThat(wrapper.getKeys(request).isPresent(), equalTo(false));
+    assertThat(wrapper.execute(request), equalTo(responseOk()));
+  }
+
+  @Test
+  public void testLimitedKeywordKeys() {
+    String[] params = {"GROUP", "group", "consumer", "COUNT", "1", "STREAMS", "a", "b", "0", ">"};
+    when(request.getLength()).thenReturn(params.length);
+    when(request.getParam(anyInt())).thenAnswer(invocation -> safeString(params[invocation.<Integer>getArgument(0)]));
+    when(db.get(safeKey("a"))).thenReturn(string("value"));
+
+    DBCommandWrapper wrapper = new DBCommandWrapper(new StreamReadGroupCommand());
+
+    assertThat(wrapper.getKeys(request).get(), equalTo(ImmutableList.of(safeKey("a"), safeKey("b"))));
+    assertThat(wrapper.execute(request),
+        equalTo(error("WRONGTYPE Operation against a key holding the wrong kind of value")));
   }
 
   @Command("test")
@@ -124,6 +352,16 @@ public class CommandWrapperTest {
     }
   }
 
+  @Command("test")
+  @ReadOnly
+  @ParamType(DataType.STRING)
+  private static class GetCommand implements DBCommand {
+    @Override
+    public RedisToken execute(Database db, Request request) {
+      return convert(db.get(keyOf(db, request)));
+    }
+  }
+
   @Command("test")
   @ParamLength(2)
   private static class LengthCommand implements DBCommand {
@@ -141,4 +379,33 @@ public class CommandWrapperTest {
       return responseOk();
     }
   }
+
+  @Command("test")
+  @ParamType(DataType.STRING)
+  private static class ErrorCommand implements DBCommand {
+    @Override
+    public RedisToken execute(Database db, Request request) {
+      return error("ERR syntax error");
+    }
+  }
+
+  @Command("test")
+  @ReadOnly
+  @ParamKeys(keyword = "usage", last = 0)
+  private static class KeywordCommand implements DBCommand {
+    @Override
+    public RedisToken execute(Database db, Request request) {
+      return responseOk();
+    }
+  }
+
+  @Command("test")
+  @ReadOnly
+  @ParamType(DataType.STRING)
+  private static class ReadCommand implements DBCommand {
+    @Override
+    public RedisToken execute(Database db, Request request) {
+      return responseOk();
+    }
+  }
 }
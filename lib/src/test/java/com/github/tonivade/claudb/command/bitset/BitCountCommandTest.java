@@ -5,6 +5,8 @@
 
 package com.github.tonivade.claudb.command.bitset;
 
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
 
 import org.junit.Rule;
@@ -26,4 +28,51 @@ public class BitCountCommandTest {
     .execute()
     .assertThat(integer(4));
   }
+
+  @Test
+  public void testExecuteString()  {
+    rule.withData("test", string("foobar"))
+    .withParams("test")
+    .execute()
+    .assertThat(integer(26));
+  }
+
+  @Test
+  public void testExecuteByteRange()  {
+    rule.withData("test", string("foobar"))
+    .withParams("test", "1", "1")
+    .execute()
+    .assertThat(integer(6));
+  }
+
+  @Test
+  public void testExecuteNegativeRange()  {
+    rule.withData("test", string("foobar"))
+    .withParams("test", "-2", "-1", "BYTE")
+    .execute()
+    .assertThat(integer(7));
+  }
+
+  @Test
+  public void testExecuteBitRange()  {
+    rule.withData("test", string("foobar"))
+    .withParams("test", "5", "30", "BIT")
+    .execute()
+    .assertThat(integer(17));
+  }
+
+  @Test
+  public void testExecuteMissingKey()  {
+    rule.withParams("test", "0", "-1")
+    .execute()
+    .assertThat(integer(0));
+  }
+
+  @Test
+  public void testExecuteSyntaxError()  {
+    rule.withData("test", string("foobar"))
+    .withParams("test", "1")
+    .execute()
+    .assertThat(error("ERR syntax error"));
+  }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.resp.protocol.SafeString;
+
+@CommandUnderTest(BitFieldCommand.class)
+public class BitFieldCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecuteIncrement() {
+    rule.withParams("test", "INCRBY", "i5", "100", "1", "GET", "u4", "0")
+        .execute()
+        .assertThat(array(integer(1), integer(0)));
+  }
+
+  @Test
+  public void testExecuteSigned() {
+    rule.withParams("test", "SET", "i8", "0", "-1", "GET", "u8", "0", "GET", "i4", "#1")
+        .execute()
+        .assertThat(array(integer(0), integer(255), integer(-1)))
+        .assertValue("test", is(string(new SafeString(new byte[] { (byte) 0xFF }))));
+  }
+
+  @Test
+  public void testExecuteOverflow() {
+    rule.withParams("test", "SET", "u8", "0", "250",
+                    "INCRBY", "u8", "0", "10",
+                    "OVERFLOW", "SAT", "INCRBY", "u8", "0", "-300",
+                    "OVERFLOW", "FAIL", "INCRBY", "u8", "0", "-1",
+                    "GET", "u8", "0")
+        .execute()
+        .assertThat(array(integer(0), integer(4), integer(0), nullString(), integer(0)));
+  }
+
+  @Test
+  public void testExecuteGetMissingKey() {
+    rule.withParams("test", "GET", "i16", "0")
+        .execute()
+        .assertThat(array(integer(0)))
+        .assertValue("test", is(nullValue()));
+  }
+
+  @Test
+  public void testExecuteInvalidType() {
+    rule.withParams("test", "GET", "u64", "0")
+        .execute()
+        .assertThat(error("ERR Invalid bitfield type. Use something like i16 u8. Note that u64 is not supported but i64 is."));
+  }
+
+  @Test
+  public void testExecuteInvalidOverflow() {
+    rule.withParams("test", "OVERFLOW", "NONE", "GET", "u8", "0")
+        .execute()
+        .assertThat(error("ERR Invalid OVERFLOW type specified"));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.resp.protocol.SafeString;
+
+@CommandUnderTest(BitOpCommand.class)
+public class BitOpCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecuteAnd() {
+    rule.withData("a", string("foobar"))
+        .withData("b", string("abcdef"))
+        .withParams("and", "dest", "a", "b")
+        .execute()
+        .assertThat(integer(6))
+        .assertValue("dest", is(string("`bc`ab")));
+  }
+
+  @Test
+  public void testExecuteOr() {
+    rule.withData("a", string("a"))
+        .withData("b", string("bc"))
+        .withParams("OR", "dest", "a", "b", "missing")
+        .execute()
+        .assertThat(integer(2))
+        .assertValue("dest", is(string("cc")));
+  }
+
+  @Test
+  public void testExecuteXor() {
+    rule.withData("a", string("ab"))
+        .withData("b", string("ab"))
+        .withParams("xor", "dest", "a", "b")
+        .execute()
+        .assertThat(integer(2))
+        .assertValue("dest", is(string("\0\0")));
+  }
+
+  @Test
+  public void testExecuteNot() {
+    rule.withData("a", string("\u000f"))
+        .withParams("not", "dest", "a")
+        .execute()
+        .assertThat(integer(1))
+        .assertValue("dest", is(string(new SafeString(new byte[] { (byte) 0xF0 }))));
+  }
+
+  @Test
+  public void testExecuteNotMultipleKeys() {
+    rule.withParams("not", "dest", "a", "b")
+        .execute()
+        .assertThat(error("ERR BITOP NOT must be called with a single source key."));
+  }
+
+  @Test
+  public void testExecuteEmptyResult() {
+    rule.withData("dest", string("x"))
+        .withParams("or", "dest", "a", "b")
+        .execute()
+        .assertThat(integer(0))
+        .assertValue("dest", is(nullValue()));
+  }
+
+  @Test
+  public void testExecuteWrongType() {
+    rule.withData("a", list(safeString("x")))
+        .withParams("and", "dest", "a")
+        .execute()
+        .assertThat(error("WRONGTYPE Operation against a key holding the wrong kind of value"));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.bitset;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.resp.protocol.SafeString;
+
+@CommandUnderTest(BitPosCommand.class)
+public class BitPosCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecuteClear() {
+    rule.withData("test", string(new SafeString(new byte[] { (byte) 0xFF, (byte) 0xF0, 0x00 })))
+        .withParams("test", "0")
+        .execute()
+        .assertThat(integer(12));
+  }
+
+  @Test
+  public void testExecuteSet() {
+    rule.withData("test", string(new SafeString(new byte[] { 0x00, (byte) 0xFF, (byte) 0xF0 })))
+        .withParams("test", "1", "2")
+        .execute()
+        .assertThat(integer(16));
+  }
+
+  @Test
+  public void testExecuteBitRange() {
+    rule.withData("test", string(new SafeString(new byte[] { 0x00, (byte) 0xFF, (byte) 0xF0 })))
+        .withParams("test", "1", "7", "15", "BIT")
+        .execute()
+        .assertThat(integer(8));
+  }
+
+  @Test
+  public void testExecuteAllOnes() {
+    rule.withData("test", bitset(0, 1, 2, 3, 4, 5, 6, 7))
+        .withParams("test", "0")
+        .execute()
+        .assertThat(integer(8));
+  }
+
+  @Test
+  public void testExecuteAllOnesWithEnd() {
+    rule.withData("test", bitset(0, 1, 2, 3, 4, 5, 6, 7))
+        .withParams("test", "0", "0", "0")
+        .execute()
+        .assertThat(integer(-1));
+  }
+
+  @Test
+  public void testExecuteMissingKey() {
+    rule.withParams("test", "0")
+        .execute()
+        .assertThat(integer(0));
+  }
+
+  @Test
+  public void testExecuteInvalidBit() {
+    rule.withParams("test", "2")
+        .execute()
+        .assertThat(error("ERR The bit argument must be 1 or 0."));
+  }
+}
@@ -5,8 +5,10 @@
 
 package com.github.tonivade.claudb.command.bitset;
 
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
 import static com.github.tonivade.resp.protocol.RedisToken.error;
 import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static org.hamcrest.CoreMatchers.is;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -14,6 +16,7 @@ import org.junit.Test;
 import com.github.tonivade.claudb.command.CommandRule;
 import com.github.tonivade.claudb.command.CommandUnderTest;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.resp.protocol.SafeString;
 
 @CommandUnderTest(SetBitCommand.class)
 public class SetBitCommandTest {
@@ -52,4 +55,29 @@ public class SetBitCommandTest {
     .execute()
     .assertThat(error("bit or offset is not an integer"));
   }
+
+  @Test
+  public void testExecuteString()  {
+    rule.withData("test", string("a"))
+    .withParams("test", "6", "1")
+    .execute()
+    .assertThat(integer(false))
+    .assertValue("test", is(string("c")));
+  }
+
+  @Test
+  public void testExecuteGrow()  {
+    rule.withParams("test", "23", "0")
+    .execute()
+    .assertThat(integer(false))
+    .assertValue("test", is(string(new SafeString(new byte[3]))));
+  }
+
+  @Test
+  public void testExecuteOutOfRange()  {
+    rule.withData("test", DatabaseValue.bitset())
+    .withParams("test", "1", "2")
+    .execute()
+    .assertThat(error("ERR bit is not an integer or out of range"));
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.HyperLogLog;
+
+@CommandUnderTest(HyperLogLogAddCommand.class)
+public class HyperLogLogAddCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withParams("key", "a", "b", "c")
+        .execute()
+        .assertThat(integer(true))
+        .assertValue("key", is(hyperLogLog(counter("a", "b", "c"))));
+  }
+
+  @Test
+  public void testExecuteNoChange() {
+    rule.withData("key", hyperLogLog(counter("a", "b")))
+        .withParams("key", "a")
+        .execute()
+        .assertThat(integer(false));
+  }
+
+  @Test
+  public void testExecuteCreateEmpty() {
+    rule.withParams("key")
+        .execute()
+        .assertThat(integer(true))
+        .assertValue("key", is(hyperLogLog(HyperLogLog.empty())));
+  }
+
+  @Test
+  public void testExecuteInvalid() {
+    rule.withData("key", string("value"))
+        .withParams("key", "a")
+        .execute()
+        .assertThat(error("WRONGTYPE Key is not a valid HyperLogLog string value."));
+  }
+
+  private static HyperLogLog counter(String... elements) {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+    for (String element : elements) {
+      hyperLogLog.add(asList(safeString(element)));
+    }
+    return hyperLogLog;
+  }
+}
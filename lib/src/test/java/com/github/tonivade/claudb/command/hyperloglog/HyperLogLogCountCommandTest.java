@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.HyperLogLog;
+import com.github.tonivade.resp.protocol.SafeString;
+
+@CommandUnderTest(HyperLogLogCountCommand.class)
+public class HyperLogLogCountCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("key", hyperLogLog(counter("a", "b", "c")))
+        .withParams("key")
+        .execute()
+        .assertThat(integer(3));
+  }
+
+  @Test
+  public void testExecuteUnion() {
+    rule.withData("a", hyperLogLog(counter("a", "b", "c")))
+        .withData("b", hyperLogLog(counter("c", "d")))
+        .withParams("a", "b", "missing")
+        .execute()
+        .assertThat(integer(4));
+  }
+
+  @Test
+  public void testExecuteSerialized() {
+    rule.withData("key", string(new SafeString(counter("a", "b").toByteArray())))
+        .withParams("key")
+        .execute()
+        .assertThat(integer(2));
+  }
+
+  @Test
+  public void testExecuteMissing() {
+    rule.withParams("key")
+        .execute()
+        .assertThat(integer(0));
+  }
+
+  @Test
+  public void testExecuteWrongType() {
+    rule.withData("a", hyperLogLog(counter("a")))
+        .withData("b", list(safeString("a")))
+        .withParams("a", "b")
+        .execute()
+        .assertThat(error("WRONGTYPE Operation against a key holding the wrong kind of value"));
+  }
+
+  private static HyperLogLog counter(String... elements) {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+    for (String element : elements) {
+      hyperLogLog.add(asList(safeString(element)));
+    }
+    return hyperLogLog;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.hyperloglog;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.HyperLogLog;
+
+@CommandUnderTest(HyperLogLogMergeCommand.class)
+public class HyperLogLogMergeCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("dest", hyperLogLog(counter("a")))
+        .withData("a", hyperLogLog(counter("b", "c")))
+        .withData("b", hyperLogLog(counter("c", "d")))
+        .withParams("dest", "a", "b")
+        .execute()
+        .assertThat(responseOk())
+        .assertValue("dest", is(hyperLogLog(counter("a", "b", "c", "d"))));
+  }
+
+  @Test
+  public void testExecuteNoSources() {
+    rule.withParams("dest")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(rule.getDatabase().get(safeKey("dest")).getHyperLogLog().count(), is(0L));
+  }
+
+  @Test
+  public void testExecuteInvalid() {
+    rule.withData("a", string("value"))
+        .withParams("dest", "a")
+        .execute()
+        .assertThat(error("WRONGTYPE Key is not a valid HyperLogLog string value."));
+  }
+
+  private static HyperLogLog counter(String... elements) {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+    for (String element : elements) {
+      hyperLogLog.add(asList(safeString(element)));
+    }
+    return hyperLogLog;
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+
+package com.github.tonivade.claudb.command.server;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(AnalyzeCommand.class)
+public class AnalyzeCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void notEnabled()  {
+    rule.withParams("bigkeys")
+    .execute()
+    .assertThat(RedisToken.error("ERR key analyzer is not enabled"));
+  }
+}
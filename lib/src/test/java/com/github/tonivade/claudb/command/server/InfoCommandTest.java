@@ -5,11 +5,17 @@
 
 package com.github.tonivade.claudb.command.server;
 
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.any;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.time.Instant;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.resp.protocol.RedisToken;
 import com.github.tonivade.claudb.command.CommandRule;
 import com.github.tonivade.claudb.command.CommandUnderTest;
@@ -26,4 +32,37 @@ public class InfoCommandTest {
     .execute()
     .assertThat(any(RedisToken.class));
   }
+
+  @Test
+  public void testKeyspace()  {
+    Instant now = Instant.now();
+    rule.withData("a", string("1"))
+    .withData("b", string("2").expiredAt(now.plusSeconds(60)))
+    .withData("c", string("3").expiredAt(now.minusSeconds(1)));
+    rule.getServerState().evictExpired(now);
+
+    ServerStats stats = rule.getServerState().getServerStats();
+    assertThat(stats.getExpiredKeys(), greaterThan(0L));
+
+    rule.withParams("keyspace")
+    .execute()
+    .assertThat(RedisToken.string("#keyspace\r\ndb0:keys=2,expires=1,avg_ttl=" + stats.getAvgTtl(0) + "\r\n\r\n\r\n"));
+  }
+
+  @Test
+  public void testPersistence()  {
+    ServerStats stats = rule.getServerState().getServerStats();
+    stats.changed(3);
+    stats.rdbSaved(1, 5000, true);
+
+    rule.withParams("persistence")
+    .execute()
+    .assertThat(RedisToken.string("#persistence\r\n"
+        + "aof_enabled:0\r\n"
+        + "aof_last_write_status:ok\r\n"
+        + "aof_last_write_time:-1\r\n"
+        + "rdb_changes_since_last_save:2\r\n"
+        + "rdb_last_bgsave_status:ok\r\n"
+        + "rdb_last_save_time:5\r\n\r\n\r\n"));
+  }
 }
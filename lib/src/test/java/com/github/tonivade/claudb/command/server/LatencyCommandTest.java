@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+
+package com.github.tonivade.claudb.command.server;
+
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.monitor.LatencyMonitor;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(LatencyCommand.class)
+public class LatencyCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void latestEmpty()  {
+    rule.withParams("latest")
+    .execute()
+    .assertThat(array());
+  }
+
+  @Test
+  public void historyNotExists()  {
+    rule.withParams("history", "command")
+    .execute()
+    .assertThat(array());
+  }
+
+  @Test
+  public void reset()  {
+    LatencyMonitor monitor = rule.getServerState().getLatencyMonitor();
+    monitor.setThreshold(10);
+    monitor.record(LatencyMonitor.COMMAND, 20);
+    monitor.record(LatencyMonitor.EXPIRE_CYCLE, 30);
+    monitor.record(LatencyMonitor.RDB_SAVE, 5);
+
+    rule.withParams("reset")
+    .execute()
+    .assertThat(integer(2));
+  }
+
+  @Test
+  public void histogram()  {
+    rule.getServerState().getCommandMonitor().get("get").record(3, false);
+
+    rule.withParams("histogram", "GET")
+    .execute()
+    .assertThat(array(string("get"),
+        array(string("calls"), integer(1), string("histogram_usec"), array(integer(4), integer(1)))));
+  }
+
+  @Test
+  public void unknownSubcommand()  {
+    rule.withParams("doctor")
+    .execute()
+    .assertThat(RedisToken.error("ERR unknown subcommand 'doctor'"));
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+
+package com.github.tonivade.claudb.command.server;
+
+import static com.github.tonivade.claudb.DatabaseValueMatchers.list;
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.Matchers.any;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.MemoryEstimator;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(MemoryCommand.class)
+public class MemoryCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void usage()  {
+    long expected = MemoryEstimator.onHeap(safeKey("key"), string("value"), 0) + MemoryEstimator.KEYSPACE_ENTRY;
+
+    rule.withData("key", string("value"))
+    .withParams("usage", "key")
+    .execute()
+    .assertThat(RedisToken.integer((int) expected));
+  }
+
+  @Test
+  public void usageWithSamples()  {
+    long expected = MemoryEstimator.onHeap(safeKey("key"), list("a", "b", "c"), 0) + MemoryEstimator.KEYSPACE_ENTRY;
+
+    rule.withData("key", list("a", "b", "c"))
+    .withParams("usage", "key", "SAMPLES", "0")
+    .execute()
+    .assertThat(RedisToken.integer((int) expected));
+  }
+
+  @Test
+  public void usageNotExists()  {
+    rule.withParams("usage", "notExists")
+    .execute()
+    .assertThat(RedisToken.nullString());
+  }
+
+  @Test
+  public void usageInvalidSamples()  {
+    rule.withData("key", string("value"))
+    .withParams("usage", "key", "samples", "a")
+    .execute()
+    .assertThat(RedisToken.error("ERR value is not an integer or out of range"));
+  }
+
+  @Test
+  public void stats()  {
+    rule.withData("key", string("value"))
+    .withParams("stats")
+    .execute()
+    .assertThat(any(RedisToken.class));
+  }
+
+  @Test
+  public void unknownSubcommand()  {
+    rule.withParams("doctor")
+    .execute()
+    .assertThat(RedisToken.error("ERR unknown subcommand 'doctor'"));
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+
+package com.github.tonivade.claudb.command.server;
+
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Collections.singletonList;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.monitor.SlowLog;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(SlowLogCommand.class)
+public class SlowLogCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void len()  {
+    slowLog().add("keys", singletonList(safeString("*")), "localhost:12345", 0, 20000);
+
+    rule.withParams("len")
+    .execute()
+    .assertThat(integer(1));
+  }
+
+  @Test
+  public void getEmpty()  {
+    rule.withParams("get")
+    .execute()
+    .assertThat(array());
+  }
+
+  @Test
+  public void getInvalidCount()  {
+    rule.withParams("get", "-2")
+    .execute()
+    .assertThat(RedisToken.error("ERR count should be greater than or equal to -1"));
+  }
+
+  @Test
+  public void reset()  {
+    slowLog().add("keys", singletonList(safeString("*")), "localhost:12345", 0, 20000);
+
+    rule.withParams("reset")
+    .execute()
+    .assertThat(responseOk());
+  }
+
+  private SlowLog slowLog() {
+    SlowLog slowLog = rule.getServerState().getSlowLog();
+    slowLog.setSlowerThan(-1);
+    return slowLog;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+
+@CommandUnderTest(StreamAckCommand.class)
+public class StreamAckCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "1-0", "3-0")
+        .execute()
+        .assertThat(integer(1));
+
+    assertThat(rule.getDatabase().get(safeKey("key")).getStream()
+        .getGroup(safeString("group")).pendingCount(), is(1));
+  }
+
+  @Test
+  public void testExecuteNoGroup() {
+    rule.withData("key", entries())
+        .withParams("key", "other", "1-0")
+        .execute()
+        .assertThat(integer(0));
+  }
+
+  @Test
+  public void testExecuteInvalidId() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "a")
+        .execute()
+        .assertThat(error("ERR Invalid stream ID specified as stream command argument"));
+  }
+
+  private static DatabaseValue entries() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false)
+        .deliver(StreamId.of(2, 0), safeString("consumer"), 0, false);
+    return stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+        .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+        .withGroup(safeString("group"), group));
+  }
+}
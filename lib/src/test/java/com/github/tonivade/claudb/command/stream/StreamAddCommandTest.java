@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(StreamAddCommand.class)
+public class StreamAddCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withParams("key", "1-1", "f", "v")
+        .execute()
+        .assertThat(RedisToken.string("1-1"))
+        .assertValue("key", is(stream(StreamValue.empty().add(StreamId.of(1, 1), asList(safeString("f"), safeString("v"))))));
+  }
+
+  @Test
+  public void testExecuteGeneratedSequence() {
+    rule.withParams("key", "1-*", "f", "v");
+    when(rule.getRequest().getCommand()).thenReturn("xadd");
+
+    rule.execute()
+        .assertThat(RedisToken.string("1-0"));
+
+    Request propagated = rule.getSessionState().propagated(rule.getRequest()).toList().get(0);
+    assertThat(propagated.getParam(1), is(safeString("1-0")));
+  }
+
+  @Test
+  public void testExecuteSmallerId() {
+    rule.withData("key", stream(StreamValue.empty().add(StreamId.of(2, 0), asList(safeString("f"), safeString("v")))))
+        .withParams("key", "1-0", "f", "v")
+        .execute()
+        .assertThat(error("ERR The ID specified in XADD is equal or smaller than the target stream top item"));
+  }
+
+  @Test
+  public void testExecuteZeroId() {
+    rule.withParams("key", "0-0", "f", "v")
+        .execute()
+        .assertThat(error("ERR The ID specified in XADD must be greater than 0-0"));
+  }
+
+  @Test
+  public void testExecuteMaxLength() {
+    rule.withData("key", stream(StreamValue.empty()
+            .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+            .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))))
+        .withParams("key", "MAXLEN", "2", "3-0", "f", "c")
+        .execute()
+        .assertThat(RedisToken.string("3-0"))
+        .assertValue("key", is(stream(StreamValue.empty()
+            .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+            .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+            .add(StreamId.of(3, 0), asList(safeString("f"), safeString("c")))
+            .trimToLength(2, false))));
+  }
+
+  @Test
+  public void testExecuteNoMakeStream() {
+    rule.withParams("key", "NOMKSTREAM", "1-0", "f", "v")
+        .execute()
+        .assertThat(nullString());
+  }
+
+  @Test
+  public void testExecuteWrongNumberOfFields() {
+    rule.withParams("key", "1-0", "f", "v", "g")
+        .execute()
+        .assertThat(error("ERR wrong number of arguments for 'xadd' command"));
+  }
+
+  @Test
+  public void testExecuteWrongType() {
+    rule.withData("key", string("a"))
+        .withParams("key", "1-0", "f", "v")
+        .execute()
+        .assertThat(error("WRONGTYPE Operation against a key holding the wrong kind of value"));
+  }
+}
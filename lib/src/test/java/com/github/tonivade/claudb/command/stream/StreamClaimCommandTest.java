@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(StreamClaimCommand.class)
+public class StreamClaimCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "other", "0", "1-0");
+    when(rule.getRequest().getCommand()).thenReturn("xclaim");
+
+    rule.execute()
+        .assertThat(array(array(RedisToken.string("1-0"), array(RedisToken.string("f"), RedisToken.string("a")))));
+
+    StreamGroup.Pending pending = group().getPending(StreamId.of(1, 0));
+    assertThat(pending.getConsumer(), is(safeString("other")));
+    assertThat(pending.getDeliveryCount(), is(2L));
+
+    Request propagated = rule.getSessionState().propagated(rule.getRequest()).toList().get(0);
+    assertThat(propagated.getParam(3), is(safeString("0")));
+    assertThat(propagated.getParam(4), is(safeString("1-0")));
+    assertThat(propagated.getParam(5), is(safeString("TIME")));
+  }
+
+  @Test
+  public void testExecuteJustId() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "other", "0", "1-0", "JUSTID");
+    when(rule.getRequest().getCommand()).thenReturn("xclaim");
+
+    rule.execute()
+        .assertThat(array(RedisToken.string("1-0")));
+
+    assertThat(group().getPending(StreamId.of(1, 0)).getDeliveryCount(), is(1L));
+  }
+
+  @Test
+  public void testExecuteForce() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "other", "0", "2-0", "FORCE", "JUSTID");
+    when(rule.getRequest().getCommand()).thenReturn("xclaim");
+
+    rule.execute()
+        .assertThat(array(RedisToken.string("2-0")));
+
+    assertThat(group().getPending(StreamId.of(2, 0)).getConsumer(), is(safeString("other")));
+  }
+
+  @Test
+  public void testExecuteNotPending() {
+    rule.withData("key", entries())
+        .withParams("key", "group", "other", "0", "2-0");
+    when(rule.getRequest().getCommand()).thenReturn("xclaim");
+
+    rule.execute()
+        .assertThat(array());
+
+    assertThat(group().getPending(StreamId.of(2, 0)), nullValue());
+  }
+
+  @Test
+  public void testExecuteNoGroup() {
+    rule.withData("key", entries())
+        .withParams("key", "unknown", "other", "0", "1-0")
+        .execute()
+        .assertThat(error("NOGROUP No such key 'key' or consumer group 'unknown'"));
+  }
+
+  private StreamGroup group() {
+    return rule.getDatabase().get(safeKey("key")).getStream().getGroup(safeString("group"));
+  }
+
+  private static DatabaseValue entries() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false);
+    return stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+        .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+        .withGroup(safeString("group"), group));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+
+@CommandUnderTest(StreamGroupCommand.class)
+public class StreamGroupCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testCreate() {
+    rule.withData("key", stream(StreamValue.empty().add(StreamId.of(1, 0), asList(safeString("f"), safeString("v")))))
+        .withParams("CREATE", "key", "group", "$")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(group().getLastDelivered(), is(StreamId.of(1, 0)));
+  }
+
+  @Test
+  public void testCreateBusyGroup() {
+    rule.withData("key", stream(StreamValue.empty().withGroup(safeString("group"), StreamGroup.create(StreamId.MIN))))
+        .withParams("CREATE", "key", "group", "0")
+        .execute()
+        .assertThat(error("BUSYGROUP Consumer Group name already exists"));
+  }
+
+  @Test
+  public void testCreateMakeStream() {
+    rule.withParams("CREATE", "key", "group", "0", "MKSTREAM")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(group(), notNullValue());
+  }
+
+  @Test
+  public void testCreateNotExists() {
+    rule.withParams("CREATE", "key", "group", "0")
+        .execute()
+        .assertThat(error("ERR The XGROUP subcommand requires the key to exist. "
+            + "Note that for CREATE you may want to use the MKSTREAM option to create an empty stream automatically."));
+  }
+
+  @Test
+  public void testSetId() {
+    rule.withData("key", stream(StreamValue.empty().withGroup(safeString("group"), StreamGroup.create(StreamId.MIN))))
+        .withParams("SETID", "key", "group", "5-1")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(group().getLastDelivered(), is(StreamId.of(5, 1)));
+  }
+
+  @Test
+  public void testDestroy() {
+    rule.withData("key", stream(StreamValue.empty().withGroup(safeString("group"), StreamGroup.create(StreamId.MIN))))
+        .withParams("DESTROY", "key", "group")
+        .execute()
+        .assertThat(integer(true));
+
+    assertThat(group(), nullValue());
+  }
+
+  @Test
+  public void testDeleteConsumer() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .withConsumer(safeString("consumer"), 0)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false);
+    rule.withData("key", stream(StreamValue.empty()
+            .add(StreamId.of(1, 0), asList(safeString("f"), safeString("v")))
+            .withGroup(safeString("group"), group)))
+        .withParams("DELCONSUMER", "key", "group", "consumer")
+        .execute()
+        .assertThat(integer(1));
+
+    assertThat(group().pendingCount(), is(0));
+    assertThat(group().getConsumers().isEmpty(), is(true));
+  }
+
+  @Test
+  public void testWrongType() {
+    rule.withData("key", string("a"))
+        .withParams("CREATE", "key", "group", "0")
+        .execute()
+        .assertThat(error("WRONGTYPE Operation against a key holding the wrong kind of value"));
+  }
+
+  private StreamGroup group() {
+    return rule.getDatabase().get(safeKey("key")).getStream().getGroup(safeString("group"));
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+
+@CommandUnderTest(StreamLengthCommand.class)
+public class StreamLengthCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("key", stream(StreamValue.empty()
+            .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+            .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))))
+        .withParams("key")
+        .execute()
+        .assertThat(integer(2));
+  }
+
+  @Test
+  public void testExecuteNotExists() {
+    rule.withParams("key")
+        .execute()
+        .assertThat(integer(0));
+  }
+}
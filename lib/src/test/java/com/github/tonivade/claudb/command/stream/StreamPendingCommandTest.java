@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(StreamPendingCommand.class)
+public class StreamPendingCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecuteSummary() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)
+            .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false)
+            .deliver(StreamId.of(2, 0), safeString("consumer"), 0, false)))
+        .withParams("key", "group")
+        .execute()
+        .assertThat(array(integer(2), RedisToken.string("1-0"), RedisToken.string("2-0"),
+            array(array(RedisToken.string("consumer"), RedisToken.string("2")))));
+  }
+
+  @Test
+  public void testExecuteEmptySummary() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)))
+        .withParams("key", "group")
+        .execute()
+        .assertThat(array(integer(0), nullString(), nullString(), nullString()));
+  }
+
+  @Test
+  public void testExecuteOtherConsumer() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)
+            .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false)))
+        .withParams("key", "group", "-", "+", "10", "other")
+        .execute()
+        .assertThat(array());
+  }
+
+  @Test
+  public void testExecuteNoGroup() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)))
+        .withParams("key", "other")
+        .execute()
+        .assertThat(error("NOGROUP No such key 'key' or consumer group 'other'"));
+  }
+
+  private static DatabaseValue entries(StreamGroup group) {
+    return stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+        .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+        .withGroup(safeString("group"), group));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(StreamRangeCommand.class)
+public class StreamRangeCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("key", entries())
+        .withParams("key", "2", "+")
+        .execute()
+        .assertThat(array(entry(2, "b"), entry(3, "c")));
+  }
+
+  @Test
+  public void testExecuteWithCount() {
+    rule.withData("key", entries())
+        .withParams("key", "-", "+", "COUNT", "2")
+        .execute()
+        .assertThat(array(entry(1, "a"), entry(2, "b")));
+  }
+
+  @Test
+  public void testExecuteExclusive() {
+    rule.withData("key", entries())
+        .withParams("key", "(1-0", "(3-0")
+        .execute()
+        .assertThat(array(entry(2, "b")));
+  }
+
+  @Test
+  public void testExecuteNotExists() {
+    rule.withParams("key", "-", "+")
+        .execute()
+        .assertThat(array());
+  }
+
+  @Test
+  public void testExecuteInvalidId() {
+    rule.withData("key", entries())
+        .withParams("key", "a", "+")
+        .execute()
+        .assertThat(error("ERR Invalid stream ID specified as stream command argument"));
+  }
+
+  private static DatabaseValue entries() {
+    return stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+        .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+        .add(StreamId.of(3, 0), asList(safeString("f"), safeString("c"))));
+  }
+
+  private static RedisToken entry(long millis, String value) {
+    return array(RedisToken.string(millis + "-0"), array(RedisToken.string("f"), RedisToken.string(value)));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.stream;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.StreamGroup;
+import com.github.tonivade.claudb.data.StreamId;
+import com.github.tonivade.claudb.data.StreamValue;
+import com.github.tonivade.resp.command.Request;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(StreamReadGroupCommand.class)
+public class StreamReadGroupCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecuteNew() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)))
+        .withParams("GROUP", "group", "consumer", "COUNT", "1", "STREAMS", "key", ">")
+        .execute()
+        .assertThat(array(array(RedisToken.string("key"), array(entry(1, "a")))));
+
+    assertThat(group().getLastDelivered(), is(StreamId.of(1, 0)));
+    assertThat(group().getPending(StreamId.of(1, 0)).getConsumer(), is(safeString("consumer")));
+
+    List<Request> propagated = rule.getSessionState().propagated(rule.getRequest()).toList();
+    assertThat(propagated.size(), is(1));
+    assertThat(propagated.get(0).getCommand(), is("xclaim"));
+    assertThat(propagated.get(0).getParams().toList().subList(0, 6), is(asList(
+        safeString("key"), safeString("group"), safeString("consumer"), safeString("0"), safeString("1-0"),
+        safeString("TIME"))));
+  }
+
+  @Test
+  public void testReplayPropagated() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false);
+    rule.withData("key", entries(group))
+        .withParams("GROUP", "group", "consumer", "STREAMS", "key", ">")
+        .execute();
+    StreamGroup expected = group();
+
+    rule.getDatabase().put(safeKey("key"), entries(group));
+    for (Request request : rule.getSessionState().propagated(rule.getRequest())) {
+      new StreamClaimCommand().execute(rule.getDatabase(), request);
+    }
+
+    assertThat(group(), is(expected));
+    assertThat(group().getConsumers(), is(expected.getConsumers()));
+  }
+
+  @Test
+  public void testReplayHistory() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false)
+        .deliver(StreamId.of(2, 0), safeString("consumer"), 0, false);
+    rule.withData("key", entries(group))
+        .withParams("GROUP", "group", "consumer", "STREAMS", "key", "0")
+        .execute();
+    StreamGroup expected = group();
+
+    rule.getDatabase().put(safeKey("key"), entries(group));
+    for (Request request : rule.getSessionState().propagated(rule.getRequest())) {
+      new StreamClaimCommand().execute(rule.getDatabase(), request);
+    }
+
+    assertThat(group(), is(expected));
+    assertThat(group().getConsumers(), is(expected.getConsumers()));
+    assertThat(group().getPending(StreamId.of(2, 0)).getDeliveryCount(), is(2L));
+  }
+
+  @Test
+  public void testExecuteNoAck() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.MIN)))
+        .withParams("GROUP", "group", "consumer", "NOACK", "STREAMS", "key", ">")
+        .execute()
+        .assertThat(array(array(RedisToken.string("key"), array(entry(1, "a"), entry(2, "b")))));
+
+    assertThat(group().getLastDelivered(), is(StreamId.of(2, 0)));
+    assertThat(group().pendingCount(), is(0));
+  }
+
+  @Test
+  public void testExecuteNoNewEntries() {
+    rule.withData("key", entries(StreamGroup.create(StreamId.of(2, 0))))
+        .withParams("GROUP", "group", "consumer", "STREAMS", "key", ">")
+        .execute()
+        .assertThat(nullString());
+  }
+
+  @Test
+  public void testExecuteHistory() {
+    StreamGroup group = StreamGroup.create(StreamId.MIN)
+        .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false)
+        .deliver(StreamId.of(2, 0), safeString("other"), 0, false);
+    rule.withData("key", entries(group))
+        .withParams("GROUP", "group", "consumer", "STREAMS", "key", "0")
+        .execute()
+        .assertThat(array(array(RedisToken.string("key"), array(entry(1, "a")))));
+
+    assertThat(group().getPending(StreamId.of(1, 0)).getDeliveryCount(), is(2L));
+  }
+
+  @Test
+  public void testExecuteNoGroup() {
+    rule.withData("key", stream(StreamValue.empty()))
+        .withParams("GROUP", "group", "consumer", "STREAMS", "key", ">")
+        .execute()
+        .assertThat(error("NOGROUP No such key 'key' or consumer group 'group' in XREADGROUP with GROUP option"));
+  }
+
+  @Test
+  public void testExecuteUnbalanced() {
+    rule.withParams("GROUP", "group", "consumer", "STREAMS", "key", "other", ">")
+        .execute()
+        .assertThat(error("ERR Unbalanced 'xreadgroup' list of streams: "
+            + "for each stream key an ID or '>' must be specified."));
+  }
+
+  private StreamGroup group() {
+    return rule.getDatabase().get(safeKey("key")).getStream().getGroup(safeString("group"));
+  }
+
+  private static DatabaseValue entries(StreamGroup group) {
+    return stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("f"), safeString("a")))
+        .add(StreamId.of(2, 0), asList(safeString("f"), safeString("b")))
+        .withGroup(safeString("group"), group));
+  }
+
+  private static RedisToken entry(long millis, String value) {
+    return array(RedisToken.string(millis + "-0"), array(RedisToken.string("f"), RedisToken.string(value)));
+  }
+}
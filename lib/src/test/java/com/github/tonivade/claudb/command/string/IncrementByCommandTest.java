@@ -5,6 +5,10 @@
 
 package com.github.tonivade.claudb.command.string;
 
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
 import org.junit.Rule;
 import org.junit.Test;
 import com.github.tonivade.claudb.command.CommandRule;
@@ -32,4 +36,30 @@ public class IncrementByCommandTest {
     .assertThat(RedisToken.integer(25));
   }
 
+  @Test
+  public void testExecute64Bits() {
+    rule.withData("a", string("2147483647"))
+    .withParams("a", "1")
+    .execute()
+    .assertThat(RedisToken.string("2147483648"))
+    .assertValue("a", is(string("2147483648")));
+  }
+
+  @Test
+  public void testOverflow() {
+    rule.withData("a", string("9223372036854775807"))
+    .withParams("a", "1")
+    .execute()
+    .assertThat(RedisToken.error("ERR increment or decrement would overflow"))
+    .assertValue("a", is(string("9223372036854775807")));
+  }
+
+  @Test
+  public void testNotANumber() {
+    rule.withParams("a", "abc")
+    .execute()
+    .assertThat(RedisToken.error("ERR value is not an integer or out of range"))
+    .assertValue("a", is(nullValue()));
+  }
+
 }
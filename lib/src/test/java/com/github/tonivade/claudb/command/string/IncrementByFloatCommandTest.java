@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.string;
+
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.CoreMatchers.is;
+
+import org.junit.Rule;
+import org.junit.Test;
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.resp.protocol.RedisToken;
+
+@CommandUnderTest(IncrementByFloatCommand.class)
+public class IncrementByFloatCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withData("a", string("10.50"))
+    .withParams("a", "0.1")
+    .execute()
+    .assertThat(RedisToken.string("10.6"));
+
+    rule.withParams("a", "-5")
+    .execute()
+    .assertThat(RedisToken.string("5.6"))
+    .assertValue("a", is(string("5.6")));
+  }
+
+  @Test
+  public void testIntegerResult() {
+    rule.withData("a", string("5.0e3"))
+    .withParams("a", "2.0e2")
+    .execute()
+    .assertThat(RedisToken.string("5200"))
+    .assertValue("a", is(string("5200")));
+  }
+
+  @Test
+  public void testNotAFloat() {
+    rule.withData("a", string("abc"))
+    .withParams("a", "1")
+    .execute()
+    .assertThat(RedisToken.error("ERR value is not a valid float"));
+  }
+}
@@ -4,10 +4,13 @@
  */
 package com.github.tonivade.claudb.command.transaction;
 
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
 import static com.github.tonivade.resp.protocol.RedisToken.string;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,6 +48,19 @@ public class ExecCommandTest {
     verify(command, times(3)).execute(any());
   }
 
+  @Test
+  public void executeWithModifiedWatchedKey()  {
+    givenPingCommand();
+    givenExistingTransaction();
+    rule.getServerState().watch(rule.getSessionState(), 0, safeKey("a"));
+    rule.getServerState().touch(0, safeKey("a"));
+
+    rule.execute()
+    .assertThat(nullString());
+
+    verify(command, never()).execute(any());
+  }
+
   @Test
   public void executeWithoutActiveTransaction()  {
     rule.execute()
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.transaction;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+
+@CommandUnderTest(UnwatchCommand.class)
+public class UnwatchCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.getServerState().watch(rule.getSessionState(), 0, safeKey("a"));
+    rule.getServerState().touch(0, safeKey("a"));
+
+    rule.execute()
+        .assertThat(responseOk());
+
+    assertThat(rule.getServerState().hasWatchedKeys(), is(false));
+    assertThat(rule.getSessionState().isWatching(), is(false));
+    assertThat(rule.getSessionState().isDirty(), is(false));
+  }
+}
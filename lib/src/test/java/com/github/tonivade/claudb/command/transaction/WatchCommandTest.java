@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.command.transaction;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.responseOk;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.claudb.TransactionState;
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+import com.github.tonivade.purefun.type.Option;
+
+@CommandUnderTest(WatchCommand.class)
+public class WatchCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute() {
+    rule.withParams("a", "b")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(rule.getServerState().hasWatchedKeys(), is(true));
+    assertThat(rule.getSessionState().isWatching(), is(true));
+    assertThat(rule.getSessionState().isDirty(), is(false));
+  }
+
+  @Test
+  public void watchedKeyModified() {
+    rule.withParams("a")
+        .execute()
+        .assertThat(responseOk());
+
+    rule.getServerState().touch(0, safeKey("a"));
+
+    assertThat(rule.getSessionState().isDirty(), is(true));
+  }
+
+  @Test
+  public void otherKeyModified() {
+    rule.withParams("a")
+        .execute()
+        .assertThat(responseOk());
+
+    rule.getServerState().touch(0, safeKey("b"));
+
+    assertThat(rule.getSessionState().isDirty(), is(false));
+  }
+
+  @Test
+  public void watchedKeyExpired() throws InterruptedException {
+    rule.withData("a", string("1").expiredAt(Instant.now().plusMillis(50)))
+        .withParams("a")
+        .execute()
+        .assertThat(responseOk());
+
+    assertThat(rule.getSessionState().isDirty(), is(false));
+
+    Thread.sleep(100);
+
+    assertThat(rule.getSessionState().isDirty(), is(true));
+  }
+
+  @Test
+  public void executeInsideTransaction() {
+    when(rule.getSession().getValue("tx")).thenReturn(Option.some(new TransactionState()));
+
+    rule.withParams("a")
+        .execute()
+        .assertThat(error("ERR WATCH inside MULTI is not allowed"));
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+
+package com.github.tonivade.claudb.command.zset;
+
+import static com.github.tonivade.claudb.DatabaseValueMatchers.score;
+import static com.github.tonivade.claudb.data.DatabaseValue.zset;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tonivade.resp.protocol.RedisToken;
+import com.github.tonivade.claudb.command.CommandRule;
+import com.github.tonivade.claudb.command.CommandUnderTest;
+
+@CommandUnderTest(SortedSetScoreCommand.class)
+public class SortedSetScoreCommandTest {
+
+  @Rule
+  public final CommandRule rule = new CommandRule(this);
+
+  @Test
+  public void testExecute()  {
+    rule.withData("key", zset(score(1.0, "a"), score(2.5, "b")))
+    .withParams("key", "b")
+    .execute()
+    .assertThat(RedisToken.string("2.5"));
+
+    rule.withParams("key", "z")
+    .execute()
+    .assertThat(RedisToken.nullString());
+
+    rule.withParams("notExists", "a")
+    .execute()
+    .assertThat(RedisToken.nullString());
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitmapTest {
+
+  @Test
+  public void setAndGet() {
+    Bitmap bitmap = Bitmap.empty();
+
+    assertThat(bitmap.set(7, true), is(false));
+    assertThat(bitmap.set(7, true), is(true));
+    assertThat(bitmap.get(7), is(true));
+    assertThat(bitmap.get(6), is(false));
+    assertThat(bitmap.length(), is(1L));
+    assertThat(bitmap.toByteArray(), is(new byte[] { 0x01 }));
+
+    assertThat(bitmap.set(7, false), is(true));
+    assertThat(bitmap.length(), is(1L));
+    assertThat(bitmap.cardinality(), is(0L));
+  }
+
+  @Test
+  public void redisBitOrder() {
+    Bitmap bitmap = Bitmap.valueOf(new byte[] { (byte) 0x80, 0x01 });
+
+    assertThat(bitmap.get(0), is(true));
+    assertThat(bitmap.get(15), is(true));
+    assertThat(bitmap.cardinality(), is(2L));
+  }
+
+  @Test
+  public void sameAsBytes() {
+    Random random = new Random(42);
+    byte[] bytes = new byte[20000];
+    Bitmap bitmap = Bitmap.empty();
+
+    for (int i = 0; i < 50000; i++) {
+      int offset = random.nextInt(bytes.length * 8);
+      boolean value = random.nextInt(3) != 0;
+      boolean previous = (bytes[offset >> 3] & (0x80 >>> (offset & 7))) != 0;
+      if (value) {
+        bytes[offset >> 3] |= 0x80 >>> (offset & 7);
+      } else {
+        bytes[offset >> 3] &= ~(0x80 >>> (offset & 7));
+      }
+      assertThat(bitmap.set(offset, value), is(previous));
+    }
+    bitmap.set(bytes.length * 8 - 1, (bytes[bytes.length - 1] & 1) != 0);
+
+    assertThat(bitmap.toByteArray(), is(bytes));
+    assertThat(Bitmap.valueOf(bytes).toByteArray(), is(bytes));
+  }
+
+  @Test
+  public void containers() {
+    Bitmap dense = Bitmap.empty();
+    for (int i = 0; i < 10000; i++) {
+      dense.set(i * 2, true);
+    }
+    Bitmap run = Bitmap.valueOf(new byte[8192]).not();
+
+    assertThat(dense.cardinality(), is(10000L));
+    assertThat(dense.count(0, 99), is(50L));
+    assertThat(run.cardinality(), is(65536L));
+    assertThat(run.memoryUsage(), lessThan(1000L));
+
+    run.set(100, false);
+
+    assertThat(run.cardinality(), is(65535L));
+    assertThat(run.nextClearBit(0), is(100L));
+  }
+
+  @Test
+  public void copyOnWrite() {
+    Bitmap bitmap = Bitmap.empty();
+    bitmap.set(1, true);
+
+    Bitmap copy = bitmap.copy();
+    copy.set(2, true);
+    copy.set(1, false);
+
+    assertThat(bitmap.get(1), is(true));
+    assertThat(bitmap.get(2), is(false));
+    assertThat(copy.get(1), is(false));
+    assertThat(copy.get(2), is(true));
+  }
+
+  @Test
+  public void search() {
+    Bitmap bitmap = Bitmap.empty();
+    bitmap.set(3, true);
+    bitmap.set(4, true);
+    bitmap.set(100000, true);
+
+    assertThat(bitmap.nextSetBit(0), is(3L));
+    assertThat(bitmap.nextSetBit(5), is(100000L));
+    assertThat(bitmap.nextSetBit(100001), is(-1L));
+    assertThat(bitmap.nextClearBit(3), is(5L));
+    assertThat(bitmap.count(4, 100000), is(2L));
+  }
+
+  @Test
+  public void operations() {
+    Bitmap a = Bitmap.valueOf(new byte[] { (byte) 0xF0, 0x0F });
+    Bitmap b = Bitmap.valueOf(new byte[] { (byte) 0x3C });
+
+    assertThat(Bitmap.and(asList(a, b)).toByteArray(), is(new byte[] { 0x30, 0x00 }));
+    assertThat(Bitmap.or(asList(a, b)).toByteArray(), is(new byte[] { (byte) 0xFC, 0x0F }));
+    assertThat(Bitmap.xor(asList(a, b)).toByteArray(), is(new byte[] { (byte) 0xCC, 0x0F }));
+    assertThat(a.not().toByteArray(), is(new byte[] { 0x0F, (byte) 0xF0 }));
+  }
+}
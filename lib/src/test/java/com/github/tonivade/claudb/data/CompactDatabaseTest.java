@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import java.time.Instant;
+import org.junit.Test;
+import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.data.Sequence;
+
+public class CompactDatabaseTest {
+
+  private final Database database = new CompactDatabaseFactory().create("test");
+
+  @Test
+  public void testDatabase() {
+    database.put(safeKey("a"), string("value"));
+
+    assertThat(database.get(safeKey("a")).getString(), is(safeString("value")));
+    assertThat(database.containsKey(safeKey("a")), is(true));
+    assertThat(database.containsKey(safeKey("b")), is(false));
+    assertThat(database.size(), is(1));
+    assertThat(database.keySet().contains(safeKey("a")), is(true));
+    assertThat(database.values().contains(string("value")), is(true));
+
+    Sequence<Tuple2<DatabaseKey, DatabaseValue>> entrySet = database.entrySet();
+    Tuple2<DatabaseKey, DatabaseValue> entry = entrySet.iterator().next();
+
+    assertThat(entry.get1(), is(safeKey("a")));
+    assertThat(entry.get2(), is(string("value")));
+  }
+
+  @Test
+  public void otherTypes() {
+    database.put(safeKey("a"), list(safeString("1"), safeString("2")));
+
+    assertThat(database.get(safeKey("a")), is(list(safeString("1"), safeString("2"))));
+    assertThat(database.typeOf(safeKey("a")), is(DataType.LIST));
+  }
+
+  @Test
+  public void expiration() {
+    Instant expiredAt = Instant.ofEpochMilli(System.currentTimeMillis() + 60000);
+    database.put(safeKey("a"), string("value").expiredAt(expiredAt));
+    database.put(safeKey("b"), string("value").expiredAt(Instant.now().minusSeconds(1)));
+
+    assertThat(database.get(safeKey("a")).getExpiredAt(), is(expiredAt));
+    assertThat(database.get(safeKey("b")), is(nullValue()));
+    assertThat(database.expiredKeys(), is(1L));
+    assertThat(database.size(), is(1));
+  }
+
+  @Test
+  public void usedMemory() {
+    long small = MemoryEstimator.compact(safeKey("a"), string("value"), 0);
+
+    database.put(safeKey("a"), string("value"));
+
+    assertThat(database.usedMemory(), is(small));
+    assertThat(database.overheadMemory(), is((long) MemoryEstimator.DICT_ENTRY));
+    assertThat(database.usedMemory() + database.overheadMemory(), lessThan(100L));
+
+    database.remove(safeKey("a"));
+
+    assertThat(database.usedMemory(), is(0L));
+  }
+}
@@ -4,15 +4,23 @@
  */
 package com.github.tonivade.claudb.data;
 
+import static com.github.tonivade.claudb.data.DatabaseValue.bitset;
 import static com.github.tonivade.claudb.data.DatabaseValue.entry;
 import static com.github.tonivade.claudb.data.DatabaseValue.hash;
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
 import static com.github.tonivade.claudb.data.DatabaseValue.list;
+import static com.github.tonivade.claudb.data.DatabaseValue.number;
 import static com.github.tonivade.claudb.data.DatabaseValue.score;
 import static com.github.tonivade.claudb.data.DatabaseValue.set;
+import static com.github.tonivade.claudb.data.DatabaseValue.stream;
 import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.claudb.data.DatabaseValue.stringOrHyperLogLog;
 import static com.github.tonivade.claudb.data.DatabaseValue.zset;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -85,6 +93,67 @@ public class DatabaseValueTest {
     verifySerializable(hash(entry(safeString("key"), safeString("value"))));
     verifySerializable(zset(score(1., safeString("value"))));
     verifySerializable(string("hello world!"));
+    verifySerializable(number(123456));
+    verifySerializable(bitset(1, 5, 100000));
+    verifySerializable(hyperLogLog(HyperLogLog.empty()));
+    verifySerializable(stream(StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("key"), safeString("value")))
+        .withGroup(safeString("group"), StreamGroup.create(StreamId.MIN)
+            .deliver(StreamId.of(1, 0), safeString("consumer"), 0, false))));
+  }
+
+  @Test
+  public void numberValue() {
+    DatabaseValue value = number(Long.MAX_VALUE);
+
+    assertThat(value.isNumber(), is(true));
+    assertThat(value.getString(), is(safeString("9223372036854775807")));
+    assertThat(value, equalTo(string("9223372036854775807")));
+    assertThat(string("9223372036854775807"), equalTo(value));
+    assertThat(value.hashCode(), is(string("9223372036854775807").hashCode()));
+    assertThat(string("-12").getNumber(), is(-12L));
+    assertThat(number(-12).increment(20), is(number(8)));
+  }
+
+  @Test
+  public void sharedNumbers() {
+    assertThat(number(0), sameInstance(number(0)));
+    assertThat(number(DatabaseValue.SHARED_INTEGERS - 1), sameInstance(number(DatabaseValue.SHARED_INTEGERS - 1)));
+    assertThat(number(DatabaseValue.SHARED_INTEGERS), not(sameInstance(number(DatabaseValue.SHARED_INTEGERS))));
+    assertThat(number(1).expiredAt(10), not(sameInstance(number(1))));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void numberOverflow() {
+    number(Long.MAX_VALUE).increment(1);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void notANumber() {
+    string("abc").getNumber();
+  }
+
+  @Test
+  public void bitmapValue() {
+    DatabaseValue value = bitset(1, 6);
+
+    assertThat(value.isBitmap(), is(true));
+    assertThat(value.getString(), is(safeString("B")));
+    assertThat(value, equalTo(string("B")));
+    assertThat(value.hashCode(), is(string("B").hashCode()));
+    assertThat(string("B").getBitmap().get(1), is(true));
+    assertThat(string("B").getBitmap().cardinality(), is(2L));
+  }
+
+  @Test
+  public void hyperLogLogValue() {
+    DatabaseValue value = hyperLogLog(HyperLogLog.empty());
+    SafeString bytes = value.getString();
+
+    assertThat(value.isHyperLogLog(), is(true));
+    assertThat(stringOrHyperLogLog(bytes).isHyperLogLog(), is(true));
+    assertThat(stringOrHyperLogLog(bytes), equalTo(value));
+    assertThat(stringOrHyperLogLog(safeString("HYLL-not-a-counter")).isHyperLogLog(), is(false));
   }
 
   private void verifySerializable(DatabaseValue value) throws IOException, ClassNotFoundException {
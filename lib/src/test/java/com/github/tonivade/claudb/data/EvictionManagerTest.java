@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class EvictionManagerTest {
+
+  private static final int SAMPLES = 50;
+
+  private final long entrySize = sizeOf("a", string("1"));
+
+  @Test
+  public void usedMemory() {
+    EvictionManager manager = new EvictionManager(1024 * 1024, EvictionPolicy.ALLKEYS_LRU, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 0, manager);
+
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("b"), string("3"));
+
+    assertThat(manager.getUsedMemory(), is(2 * entrySize));
+
+    database.remove(safeKey("a"));
+
+    assertThat(manager.getUsedMemory(), is(entrySize));
+
+    database.clear();
+
+    assertThat(manager.getUsedMemory(), is(0L));
+  }
+
+  @Test
+  public void noEviction() {
+    EvictionManager manager = new EvictionManager(2 * entrySize, EvictionPolicy.NOEVICTION, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 0, manager);
+
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+
+    assertThat(manager.performEvictions((db, key) -> {}), is(false));
+    assertThat(database.size(), is(3));
+  }
+
+  @Test
+  public void allKeysLru() throws InterruptedException {
+    EvictionManager manager = new EvictionManager(2 * entrySize, EvictionPolicy.ALLKEYS_LRU, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 3, manager);
+
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+    Thread.sleep(10);
+    database.get(safeKey("a"));
+    database.get(safeKey("c"));
+
+    List<String> evicted = new ArrayList<>();
+    assertThat(manager.performEvictions((db, key) -> evicted.add(db + ":" + key)), is(true));
+    assertThat(evicted, contains("3:b"));
+    assertThat(database.keySet(), containsInAnyOrder(safeKey("a"), safeKey("c")));
+    assertThat(manager.getEvictedKeys(), is(1L));
+  }
+
+  @Test
+  public void volatileTtl() {
+    long volatileSize = sizeOf("b", string("2").expiredAt(60));
+    EvictionManager manager = new EvictionManager(entrySize + volatileSize, EvictionPolicy.VOLATILE_TTL, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 0, manager);
+
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2").expiredAt(60));
+    database.put(safeKey("c"), string("3").expiredAt(30));
+
+    assertThat(manager.performEvictions((db, key) -> {}), is(true));
+    assertThat(database.keySet(), containsInAnyOrder(safeKey("a"), safeKey("b")));
+  }
+
+  @Test
+  public void volatileWithoutExpiringKeys() {
+    EvictionManager manager = new EvictionManager(entrySize, EvictionPolicy.VOLATILE_LRU, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 0, manager);
+
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+
+    assertThat(manager.performEvictions((db, key) -> {}), is(false));
+    assertThat(database.size(), is(2));
+  }
+
+  @Test
+  public void needsEviction() {
+    EvictionManager manager = new EvictionManager(2 * entrySize, EvictionPolicy.ALLKEYS_LRU, SAMPLES);
+    Database database = new EvictingDatabase(new OnHeapDatabaseFactory().create("test"), 0, manager);
+
+    database.put(safeKey("a"), string("1"));
+
+    assertThat(manager.needsEviction(), is(false));
+
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+
+    assertThat(manager.isOverLimit(), is(true));
+    assertThat(manager.performEvictions((db, key) -> {}), is(true));
+    assertThat(manager.needsEviction(), is(false));
+  }
+
+  private static long sizeOf(String key, DatabaseValue value) {
+    long tracking = MemoryEstimator.EVICTION_ENTRY
+        + (value.getExpiredAt() != null ? MemoryEstimator.VOLATILE_ENTRY : 0);
+    return MemoryEstimator.onHeap(safeKey(key), value, 0) + MemoryEstimator.KEYSPACE_ENTRY + tracking;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.tonivade.resp.protocol.SafeString;
+
+public class HyperLogLogTest {
+
+  @Test
+  public void empty() {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+
+    assertThat(hyperLogLog.count(), is(0L));
+    assertThat(hyperLogLog.isSparse(), is(true));
+    assertThat(hyperLogLog.toByteArray().length, is(18));
+  }
+
+  @Test
+  public void addAndCount() {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+
+    List<SafeString> elements = asList(safeString("a"), safeString("b"), safeString("c"), safeString("d"),
+        safeString("e"), safeString("f"), safeString("g"));
+
+    assertThat(hyperLogLog.add(elements), is(true));
+    assertThat(hyperLogLog.add(asList(safeString("a"), safeString("b"))), is(false));
+    assertThat(hyperLogLog.count(), is(7L));
+  }
+
+  @Test
+  public void sparseToDense() {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+
+    hyperLogLog.add(elements(0, 1000));
+
+    assertThat(hyperLogLog.isSparse(), is(true));
+    assertThat(hyperLogLog.toByteArray().length, lessThanOrEqualTo(HyperLogLog.SPARSE_MAX_BYTES));
+
+    hyperLogLog.add(elements(1000, 100000));
+
+    assertThat(hyperLogLog.isSparse(), is(false));
+    assertThat(hyperLogLog.toByteArray().length, is(12304));
+    assertThat((double) hyperLogLog.count(), closeTo(100000, 2000));
+  }
+
+  @Test
+  public void serialization() {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+    hyperLogLog.add(elements(0, 10000));
+    long count = hyperLogLog.count();
+
+    byte[] bytes = hyperLogLog.toByteArray();
+
+    assertThat(HyperLogLog.isValid(bytes), is(true));
+    assertThat(HyperLogLog.valueOf(bytes).count(), is(count));
+    assertThat(HyperLogLog.valueOf(bytes).toByteArray(), is(bytes));
+    assertThat(HyperLogLog.isValid(safeString("HYLL").getBytes()), is(false));
+  }
+
+  @Test
+  public void merge() {
+    HyperLogLog a = HyperLogLog.empty();
+    a.add(elements(0, 3000));
+    HyperLogLog b = HyperLogLog.empty();
+    b.add(elements(2000, 5000));
+
+    HyperLogLog merged = HyperLogLog.merge(asList(a, b));
+
+    assertThat((double) merged.count(), closeTo(5000, 100));
+    assertThat(HyperLogLog.count(asList(a, b)), is(merged.count()));
+  }
+
+  @Test
+  public void copyOnWrite() {
+    HyperLogLog hyperLogLog = HyperLogLog.empty();
+    hyperLogLog.add(asList(safeString("a")));
+
+    HyperLogLog copy = hyperLogLog.copy();
+    copy.add(asList(safeString("b")));
+
+    assertThat(hyperLogLog.count(), is(1L));
+    assertThat(copy.count(), is(2L));
+  }
+
+  private static List<SafeString> elements(int from, int to) {
+    List<SafeString> elements = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      elements.add(safeString("element:" + i));
+    }
+    return elements;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.set;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.data.KeyAnalyzer.KeyStat;
+import com.github.tonivade.resp.protocol.SafeString;
+
+public class KeyAnalyzerTest {
+
+  private final KeyAnalyzer analyzer = new KeyAnalyzer(2, 100, 1);
+  private final DBServerState state = new DBServerState(new OnHeapDatabaseFactory(), 2, 0, false,
+      EvictionManager.unlimited(), analyzer);
+
+  @Test
+  public void bigKeys() {
+    state.getDatabase(0).put(safeKey("small"), string("a"));
+    state.getDatabase(0).put(safeKey("medium"), set(members(10)));
+    state.getDatabase(1).put(safeKey("large"), set(members(100)));
+
+    analyzer.scan(state, 0);
+
+    assertThat(keys(analyzer.getBigKeys(10)), equalTo("[1:large, 0:medium]"));
+    assertThat(keys(analyzer.getBigKeys(1)), equalTo("[1:large]"));
+  }
+
+  @Test
+  public void bigKeysRateLimited() {
+    KeyAnalyzer limited = new KeyAnalyzer(2, 1, 1);
+    state.getDatabase(0).put(safeKey("a"), string("a"));
+    state.getDatabase(0).put(safeKey("b"), string("b"));
+
+    limited.scan(state, 0);
+
+    assertThat(limited.getBigKeys(10).size(), is(1));
+
+    limited.scan(state, 0);
+
+    assertThat(limited.getBigKeys(10).size(), is(2));
+  }
+
+  @Test
+  public void bigKeysRemovedAfterPass() {
+    state.getDatabase(0).put(safeKey("key"), set(members(10)));
+
+    analyzer.scan(state, 0);
+
+    assertThat(keys(analyzer.getBigKeys(10)), equalTo("[0:key]"));
+
+    state.getDatabase(0).remove(safeKey("key"));
+    analyzer.scan(state, 0);
+
+    assertThat(analyzer.getBigKeys(10), empty());
+  }
+
+  @Test
+  public void hotKeys() {
+    for (int i = 0; i < 10; i++) {
+      analyzer.record(0, safeKey("hot"));
+    }
+    for (int i = 0; i < 20; i++) {
+      analyzer.record(0, safeKey("cold" + i));
+    }
+    analyzer.record(1, safeKey("hot"));
+
+    List<KeyStat> hotKeys = analyzer.getHotKeys(1);
+
+    assertThat(keys(hotKeys), equalTo("[0:hot]"));
+    assertThat(hotKeys.get(0).getValue(), is(10L));
+  }
+
+  @Test
+  public void hotKeysDecay() {
+    for (int i = 0; i < 4; i++) {
+      analyzer.record(0, safeKey("hot"));
+    }
+    analyzer.record(0, safeKey("cold"));
+
+    analyzer.scan(state, System.currentTimeMillis() + 120_000);
+
+    assertThat(analyzer.getHotKeys(10).toString(), equalTo("[0:hot=2]"));
+  }
+
+  @Test
+  public void disabled() {
+    KeyAnalyzer disabled = KeyAnalyzer.disabled();
+    state.getDatabase(0).put(safeKey("key"), string("a"));
+
+    disabled.record(0, safeKey("key"));
+    disabled.scan(state, 0);
+
+    assertThat(disabled.isActive(), is(false));
+    assertThat(disabled.sample(), is(false));
+    assertThat(disabled.getBigKeys(10), empty());
+    assertThat(disabled.getHotKeys(10), empty());
+  }
+
+  private static SafeString[] members(int count) {
+    return IntStream.range(0, count).mapToObj(i -> SafeString.safeString("member" + i)).toArray(SafeString[]::new);
+  }
+
+  private static String keys(List<KeyStat> stats) {
+    return stats.stream().map(stat -> stat.getDatabase() + ":" + stat.getKey())
+        .collect(Collectors.toList()).toString();
+  }
+}
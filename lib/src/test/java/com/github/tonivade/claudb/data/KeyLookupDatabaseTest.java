@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class KeyLookupDatabaseTest {
+
+  private final Database database = spy(new OnHeapDatabase(new HashMap<>()));
+
+  private final KeyLookupDatabase lookup = new KeyLookupDatabase();
+
+  @Test
+  public void lookupOnce() {
+    database.put(safeKey("a"), string("1"));
+
+    lookup.lookup(database, safeKey("a"));
+
+    assertThat(lookup.isType(DataType.STRING), is(true));
+    assertThat(lookup.isType(DataType.HASH), is(false));
+    assertThat(lookup.getString(safeKey("a").getValue()), is(string("1").getString()));
+    verify(database, times(1)).get(safeKey("a"));
+  }
+
+  @Test
+  public void missingKey() {
+    lookup.lookup(database, safeKey("a"));
+
+    assertThat(lookup.isType(DataType.HASH), is(true));
+    assertThat(lookup.containsKey(safeKey("a")), is(false));
+    assertThat(lookup.get(safeKey("a")), is(nullValue()));
+    verify(database, times(1)).get(safeKey("a"));
+  }
+
+  @Test
+  public void invalidateOnWrite() {
+    lookup.lookup(database, safeKey("a"));
+
+    lookup.put(safeKey("a"), string("2"));
+
+    assertThat(lookup.get(safeKey("a")), is(string("2")));
+    verify(database, times(2)).get(safeKey("a"));
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class KeyspaceDictTest {
+
+  private final KeyspaceDict<String, Integer> dict = new KeyspaceDict<>();
+
+  @Test
+  public void putGetRemove() {
+    assertThat(dict.put("a", 1), is(nullValue()));
+    assertThat(dict.put("a", 2), is(1));
+    assertThat(dict.get("a"), is(2));
+    assertThat(dict.containsKey("b"), is(false));
+    assertThat(dict.remove("a"), is(2));
+    assertThat(dict.remove("a"), is(nullValue()));
+    assertThat(dict.isEmpty(), is(true));
+  }
+
+  @Test
+  public void growIncrementally() {
+    int threshold = dict.capacity() * 3 / 4;
+    for (int i = 0; i <= threshold; i++) {
+      dict.put("key:" + i, i);
+    }
+
+    assertThat(dict.isRehashing(), is(true));
+    assertThat(dict.capacity(), is(32));
+    for (int i = 0; i <= threshold; i++) {
+      assertThat(dict.get("key:" + i), is(i));
+    }
+    assertThat(dict.isRehashing(), is(false));
+    assertThat(dict.size(), is(threshold + 1));
+  }
+
+  @Test
+  public void shrinkAfterRemove() {
+    for (int i = 0; i < 1000; i++) {
+      dict.put("key:" + i, i);
+    }
+    for (int i = 0; i < 990; i++) {
+      dict.remove("key:" + i);
+    }
+    for (int i = 990; i < 1000; i++) {
+      assertThat(dict.get("key:" + i), is(i));
+    }
+    // 完成所有迁移
+    for (int i = 0; i < 1000; i++) {
+      dict.get("key:0");
+    }
+
+    assertThat(dict.isRehashing(), is(false));
+    assertThat(dict.capacity(), is(32));
+    assertThat(dict.size(), is(10));
+  }
+
+  @Test
+  public void iterateWhileRehashing() {
+    for (int i = 0; i < 13; i++) {
+      dict.put("key:" + i, i);
+    }
+
+    assertThat(dict.isRehashing(), is(true));
+
+    Map<String, Integer> copy = new HashMap<>(dict);
+
+    assertThat(copy.size(), is(13));
+    for (int i = 0; i < 13; i++) {
+      assertThat(copy.get("key:" + i), is(i));
+    }
+  }
+
+  @Test
+  public void scanWhileRehashing() {
+    int threshold = dict.capacity() * 3 / 4;
+    for (int i = 0; i <= threshold; i++) {
+      dict.put("key:" + i, i);
+    }
+    assertThat(dict.isRehashing(), is(true));
+
+    Set<String> keys = new HashSet<>();
+    int calls = 0;
+    int cursor = 0;
+    do {
+      cursor = dict.scan(cursor, 5, keys::add);
+      calls++;
+    } while (cursor != 0);
+
+    assertThat(keys, is(dict.keySet()));
+    assertThat(calls > 1, is(true));
+  }
+
+  @Test
+  public void clear() {
+    for (int i = 0; i < 100; i++) {
+      dict.put("key:" + i, i);
+    }
+
+    dict.clear();
+
+    assertThat(dict.isEmpty(), is(true));
+    assertThat(dict.isRehashing(), is(false));
+    assertThat(dict.get("key:1"), is(nullValue()));
+  }
+
+  @Test
+  public void sameAsHashMap() {
+    Map<String, Integer> expected = new HashMap<>();
+    Random random = new Random(1);
+    for (int i = 0; i < 100_000; i++) {
+      String key = "key:" + random.nextInt(2000);
+      switch (random.nextInt(3)) {
+        case 0:
+          assertThat(dict.put(key, i), is(expected.put(key, i)));
+          break;
+        case 1:
+          assertThat(dict.remove(key), is(expected.remove(key)));
+          break;
+        default:
+          assertThat(dict.get(key), is(expected.get(key)));
+          break;
+      }
+      assertThat(dict.size(), is(expected.size()));
+    }
+
+    assertThat(new HashMap<>(dict), is(expected));
+  }
+}
@@ -4,14 +4,24 @@
  */
 package com.github.tonivade.claudb.data;
 
+import static com.github.tonivade.claudb.DatabaseValueMatchers.list;
+import static com.github.tonivade.claudb.DatabaseValueMatchers.score;
+import static com.github.tonivade.claudb.DatabaseValueMatchers.set;
 import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.hash;
 import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static com.github.tonivade.claudb.data.DatabaseValue.zset;
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import java.time.Instant;
 import org.junit.Before;
 import org.junit.Test;
 import com.github.tonivade.purefun.Tuple;
 import com.github.tonivade.purefun.Tuple2;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.claudb.DatabaseValueMatchers;
 
 public class OffHeapDatabaseTest {
 
@@ -51,6 +61,34 @@ public class OffHeapDatabaseTest {
                                                        entry(safeKey("c"), string("3"))));
   }
 
+  @Test
+  public void partialRead() {
+    database.put(safeKey("h"), hash(DatabaseValueMatchers.entry("b", "2"), DatabaseValueMatchers.entry("a", "1")));
+    database.put(safeKey("l"), list("x", "y", "z"));
+    database.put(safeKey("s"), set("m", "n"));
+    database.put(safeKey("z"), zset(score(2.0, "b"), score(1.0, "a")));
+
+    assertThat(database.typeOf(safeKey("h")), equalTo(DataType.HASH));
+    assertThat(database.typeOf(safeKey("none")), equalTo(DataType.NONE));
+    assertThat(database.getHashField(safeString("h"), safeString("a")), equalTo(Option.some(safeString("1"))));
+    assertThat(database.getHashField(safeString("h"), safeString("c")), equalTo(Option.none()));
+    assertThat(database.getListItem(safeString("l"), 1), equalTo(Option.some(safeString("y"))));
+    assertThat(database.getListItem(safeString("l"), -1), equalTo(Option.some(safeString("z"))));
+    assertThat(database.getListItem(safeString("l"), 3), equalTo(Option.none()));
+    assertThat(database.isSetMember(safeString("s"), safeString("n")), equalTo(true));
+    assertThat(database.isSetMember(safeString("s"), safeString("o")), equalTo(false));
+    assertThat(database.getSortedSetScore(safeString("z"), safeString("b")), equalTo(Option.some(2.0)));
+    assertThat(database.getSortedSetScore(safeString("z"), safeString("c")), equalTo(Option.none()));
+  }
+
+  @Test
+  public void partialReadExpired() {
+    database.put(safeKey("h"), hash(DatabaseValueMatchers.entry("a", "1")).expiredAt(Instant.now().minusSeconds(10)));
+
+    assertThat(database.getHashField(safeString("h"), safeString("a")), equalTo(Option.none()));
+    assertThat(database.typeOf(safeKey("h")), equalTo(DataType.NONE));
+  }
+
   private Tuple2<DatabaseKey, DatabaseValue> entry(DatabaseKey key, DatabaseValue value) {
     return Tuple.of(key, value);
   }
@@ -12,6 +12,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
 import com.github.tonivade.purefun.Tuple2;
 import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.resp.protocol.SafeString;
 
 public class OnHeapDatabaseTest {
 
@@ -46,4 +47,45 @@ public class OnHeapDatabaseTest {
     assertThat(entry.get1(), is(safeKey("a")));
     assertThat(entry.get2(), is(string("value")));
   }
+
+  @Test
+  public void usedMemory() {
+    long small = MemoryEstimator.onHeap(safeKey("a"), string("value"), 0);
+    long large = MemoryEstimator.onHeap(safeKey("a"), string("a larger value"), 0);
+
+    database.put(safeKey("a"), string("value"));
+
+    assertThat(database.usedMemory(), is(small));
+    assertThat(database.overheadMemory(), is((long) MemoryEstimator.KEYSPACE_ENTRY));
+
+    database.put(safeKey("a"), string("a larger value"));
+
+    assertThat(database.usedMemory(), is(large));
+
+    database.remove(safeKey("a"));
+
+    assertThat(database.usedMemory(), is(0L));
+  }
+
+  @Test
+  public void usedMemorySampled() {
+    SafeString[] members = new SafeString[1000];
+    for (int i = 0; i < members.length; i++) {
+      members[i] = safeString("member" + i);
+    }
+    DatabaseValue set = DatabaseValue.set(members);
+    long sampled = MemoryEstimator.onHeap(safeKey("a"), set, MemoryEstimator.DEFAULT_SAMPLES);
+
+    database.put(safeKey("a"), set);
+
+    assertThat(database.usedMemory(), is(sampled));
+
+    database.put(safeKey("a"), string("value"));
+
+    assertThat(database.usedMemory(), is(MemoryEstimator.onHeap(safeKey("a"), string("value"), 0)));
+
+    database.remove(safeKey("a"));
+
+    assertThat(database.usedMemory(), is(0L));
+  }
 }
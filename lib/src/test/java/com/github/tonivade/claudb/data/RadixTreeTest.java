@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class RadixTreeTest {
+
+  @Test
+  public void putAndGet() {
+    RadixTree<String> tree = RadixTree.<String>empty()
+        .put(key("romane"), "1")
+        .put(key("romanus"), "2")
+        .put(key("romulus"), "3")
+        .put(key("rom"), "4");
+
+    assertThat(tree.size(), is(4));
+    assertThat(tree.get(key("romane")), is("1"));
+    assertThat(tree.get(key("romanus")), is("2"));
+    assertThat(tree.get(key("romulus")), is("3"));
+    assertThat(tree.get(key("rom")), is("4"));
+    assertThat(tree.get(key("roman")), nullValue());
+    assertThat(tree.get(key("ro")), nullValue());
+  }
+
+  @Test
+  public void replace() {
+    RadixTree<String> tree = RadixTree.<String>empty().put(key("a"), "1").put(key("a"), "2");
+
+    assertThat(tree.size(), is(1));
+    assertThat(tree.get(key("a")), is("2"));
+  }
+
+  @Test
+  public void remove() {
+    RadixTree<String> tree = RadixTree.<String>empty()
+        .put(key("romane"), "1")
+        .put(key("romanus"), "2");
+
+    RadixTree<String> removed = tree.remove(key("romane"));
+
+    assertThat(removed.size(), is(1));
+    assertThat(removed.get(key("romane")), nullValue());
+    assertThat(removed.get(key("romanus")), is("2"));
+    assertThat(removed.remove(key("romanus")).isEmpty(), is(true));
+    assertThat(tree.remove(key("roman")), sameInstance(tree));
+  }
+
+  @Test
+  public void persistent() {
+    RadixTree<String> tree = RadixTree.<String>empty().put(key("a"), "1");
+
+    RadixTree<String> other = tree.put(key("b"), "2").remove(key("a"));
+
+    assertThat(tree.size(), is(1));
+    assertThat(tree.get(key("a")), is("1"));
+    assertThat(tree.get(key("b")), nullValue());
+    assertThat(other.size(), is(1));
+    assertThat(other.get(key("b")), is("2"));
+  }
+
+  @Test
+  public void navigation() {
+    RadixTree<String> tree = RadixTree.<String>empty()
+        .put(StreamId.of(1, 0).toKey(), "a")
+        .put(StreamId.of(1, 5).toKey(), "b")
+        .put(StreamId.of(300, 0).toKey(), "c");
+
+    assertThat(tree.first().getValue(), is("a"));
+    assertThat(tree.last().getValue(), is("c"));
+    assertThat(tree.floor(StreamId.of(1, 5).toKey(), true).getValue(), is("b"));
+    assertThat(tree.floor(StreamId.of(1, 5).toKey(), false).getValue(), is("a"));
+    assertThat(tree.floor(StreamId.of(200, 0).toKey(), true).getValue(), is("b"));
+    assertThat(tree.floor(StreamId.of(0, 9).toKey(), true), nullValue());
+    assertThat(tree.ceiling(StreamId.of(1, 5).toKey(), true).getValue(), is("b"));
+    assertThat(tree.ceiling(StreamId.of(1, 5).toKey(), false).getValue(), is("c"));
+    assertThat(tree.ceiling(StreamId.of(1, 1).toKey(), true).getValue(), is("b"));
+    assertThat(tree.ceiling(StreamId.of(301, 0).toKey(), true), nullValue());
+    assertThat(tree.entries().size(), is(3));
+    assertThat(tree.entries().get(2).getValue(), is("c"));
+  }
+
+  private static byte[] key(String value) {
+    return value.getBytes(UTF_8);
+  }
+}
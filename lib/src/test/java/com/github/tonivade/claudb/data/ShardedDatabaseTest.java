@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import com.github.tonivade.purefun.Tuple;
+import com.github.tonivade.purefun.Tuple2;
+
+public class ShardedDatabaseTest {
+
+  private Database database = new ShardedDatabaseFactory(new OnHeapDatabaseFactory(), 4).create("test");
+
+  @Before
+  public void setUp() {
+    database.clear();
+  }
+
+  @Test
+  public void keySet() {
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+
+    assertThat(database.keySet(), containsInAnyOrder(safeKey("a"), safeKey("b"), safeKey("c")));
+  }
+
+  @Test
+  public void values() {
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+
+    assertThat(database.values(), containsInAnyOrder(string("1"), string("2"), string("3")));
+  }
+
+  @Test
+  public void entrySet() {
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+    database.put(safeKey("c"), string("3"));
+
+    assertThat(database.entrySet(), containsInAnyOrder(entry(safeKey("a"), string("1")),
+                                                       entry(safeKey("b"), string("2")),
+                                                       entry(safeKey("c"), string("3"))));
+  }
+
+  @Test
+  public void putGetRemove() {
+    database.put(safeKey("a"), string("1"));
+    database.put(safeKey("b"), string("2"));
+
+    assertThat(database.size(), is(2));
+    assertThat(database.get(safeKey("a")), is(string("1")));
+    assertThat(database.remove(safeKey("b")), is(string("2")));
+    assertThat(database.get(safeKey("b")), is(nullValue()));
+    assertThat(database.isEmpty(), is(false));
+  }
+
+  @Test
+  public void scan() {
+    for (int i = 0; i < 100; i++) {
+      database.put(safeKey("key:" + i), string(String.valueOf(i)));
+    }
+
+    Set<DatabaseKey> keys = new HashSet<>();
+    long cursor = 0;
+    do {
+      cursor = database.scan(cursor, 10, keys::add);
+    } while (cursor != 0);
+
+    assertThat(keys.size(), is(100));
+    database.keySet().forEach(key -> assertThat(keys.contains(key), is(true)));
+  }
+
+  @Test
+  public void rename() {
+    database.put(safeKey("a"), string("1"));
+
+    assertThat(database.rename(safeKey("a"), safeKey("b")), is(true));
+    assertThat(database.keySet(), containsInAnyOrder(safeKey("b")));
+  }
+
+  private Tuple2<DatabaseKey, DatabaseValue> entry(DatabaseKey key, DatabaseValue value) {
+    return Tuple.of(key, value);
+  }
+}
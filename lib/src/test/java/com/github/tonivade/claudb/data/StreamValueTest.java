@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.data;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class StreamValueTest {
+
+  @Test
+  public void empty() {
+    StreamValue stream = StreamValue.empty();
+
+    assertThat(stream.length(), is(0L));
+    assertThat(stream.getLastId(), is(StreamId.MIN));
+    assertThat(stream.getFirstId(), nullValue());
+    assertThat(stream.range(StreamId.MIN, StreamId.MAX, 0).isEmpty(), is(true));
+  }
+
+  @Test
+  public void addAndRange() {
+    StreamValue stream = stream(1, 250);
+
+    assertThat(stream.length(), is(250L));
+    assertThat(stream.getFirstId(), is(StreamId.of(1, 0)));
+    assertThat(stream.getLastId(), is(StreamId.of(250, 0)));
+    assertThat(stream.entry(StreamId.of(120, 0)), is(entry(120)));
+    assertThat(stream.entry(StreamId.of(120, 1)), nullValue());
+    assertThat(stream.entries().size(), is(250));
+
+    List<StreamEntry> range = stream.range(StreamId.of(99, 0), StreamId.of(102, 0), 0);
+    assertThat(range, is(asList(entry(99), entry(100), entry(101), entry(102))));
+
+    List<StreamEntry> limited = stream.range(StreamId.of(99, 0), StreamId.MAX, 2);
+    assertThat(limited, is(asList(entry(99), entry(100))));
+
+    List<StreamEntry> reverse = stream.reverseRange(StreamId.of(102, 0), StreamId.of(99, 0), 3);
+    assertThat(reverse, is(asList(entry(102), entry(101), entry(100))));
+  }
+
+  @Test
+  public void differentFields() {
+    StreamValue stream = StreamValue.empty()
+        .add(StreamId.of(1, 0), asList(safeString("a"), safeString("1")))
+        .add(StreamId.of(2, 0), asList(safeString("b"), safeString("2"), safeString("c"), safeString("3")));
+
+    assertThat(stream.entry(StreamId.of(2, 0)).getFields(),
+        is(asList(safeString("b"), safeString("2"), safeString("c"), safeString("3"))));
+  }
+
+  @Test
+  public void persistent() {
+    StreamValue stream = stream(1, 10);
+
+    StreamValue other = stream.add(StreamId.of(11, 0), asList(safeString("f"), safeString("v")));
+
+    assertThat(stream.length(), is(10L));
+    assertThat(stream.entry(StreamId.of(11, 0)), nullValue());
+    assertThat(other.length(), is(11L));
+  }
+
+  @Test
+  public void nextId() {
+    StreamValue stream = stream(1, 2);
+
+    assertThat(stream.nextId(1), is(StreamId.of(2, 1)));
+    assertThat(stream.nextId(5), is(StreamId.of(5, 0)));
+    assertThat(stream.nextSequence(2), is(StreamId.of(2, 1)));
+    assertThat(stream.nextSequence(3), is(StreamId.of(3, 0)));
+    assertThat(stream.nextSequence(1), nullValue());
+    assertThat(StreamValue.empty().nextSequence(0), is(StreamId.of(0, 1)));
+  }
+
+  @Test
+  public void trimToLength() {
+    StreamValue stream = stream(1, 250);
+
+    StreamValue exact = stream.trimToLength(120, false);
+    assertThat(exact.length(), is(120L));
+    assertThat(exact.getFirstId(), is(StreamId.of(131, 0)));
+    assertThat(exact.getLastId(), is(StreamId.of(250, 0)));
+
+    StreamValue approximate = stream.trimToLength(120, true);
+    assertThat(approximate.length() >= 120, is(true));
+    assertThat(approximate.length() < 250, is(true));
+
+    assertThat(stream.trimToLength(0, false).length(), is(0L));
+    assertThat(stream.trimToLength(0, false).getLastId(), is(StreamId.of(250, 0)));
+  }
+
+  @Test
+  public void trimToMinId() {
+    StreamValue stream = stream(1, 250);
+
+    StreamValue exact = stream.trimToMinId(StreamId.of(131, 0), false);
+    assertThat(exact.length(), is(120L));
+    assertThat(exact.getFirstId(), is(StreamId.of(131, 0)));
+
+    StreamValue approximate = stream.trimToMinId(StreamId.of(131, 0), true);
+    assertThat(approximate.getFirstId().compareTo(StreamId.of(131, 0)) <= 0, is(true));
+    assertThat(approximate.length() < 250, is(true));
+  }
+
+  @Test
+  public void groups() {
+    StreamValue stream = stream(1, 3).withGroup(safeString("g"), StreamGroup.create(StreamId.MIN));
+
+    StreamGroup group = stream.getGroup(safeString("g"))
+        .deliver(StreamId.of(1, 0), safeString("c"), 100, false)
+        .deliver(StreamId.of(2, 0), safeString("c"), 100, true);
+
+    assertThat(group.getLastDelivered(), is(StreamId.of(2, 0)));
+    assertThat(group.pendingCount(), is(1));
+    assertThat(group.getPending(StreamId.of(1, 0)).getDeliveryCount(), is(1L));
+    assertThat(group.ack(StreamId.of(1, 0)).pendingCount(), is(0));
+    assertThat(group.withoutConsumer(safeString("c")).pendingCount(), is(0));
+    assertThat(stream.withoutGroup(safeString("g")).getGroup(safeString("g")), nullValue());
+  }
+
+  private static StreamValue stream(int from, int to) {
+    StreamValue stream = StreamValue.empty();
+    for (int i = from; i <= to; i++) {
+      stream = stream.add(StreamId.of(i, 0), entry(i).getFields());
+    }
+    return stream;
+  }
+
+  private static StreamEntry entry(int i) {
+    return new StreamEntry(StreamId.of(i, 0), asList(safeString("field"), safeString("value" + i)));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
+import static com.github.tonivade.claudb.data.DatabaseValue.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import com.github.tonivade.claudb.DBServerState;
+import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ExpireCycleEventTest {
+
+  @Test
+  public void recordedWhenEnabled() throws IOException {
+    DBServerState state = new DBServerState(new OnHeapDatabaseFactory(), 1);
+    Instant now = Instant.now();
+    state.getDatabase(0).put(safeKey("a"), string("1"));
+    state.getDatabase(0).put(safeKey("b"), string("2").expiredAt(now.minusSeconds(1)));
+
+    Path file = Files.createTempFile("claudb", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("claudb.ExpireCycle");
+      recording.start();
+      state.evictExpired(now);
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("claudb.ExpireCycle"))
+          .collect(Collectors.toList());
+
+      assertThat(events, hasSize(1));
+      assertThat(events.get(0).getLong("scanned"), is(2L));
+      assertThat(events.get(0).getLong("expired"), is(1L));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Test
+  public void empty() {
+    assertThat(histogram.getCount(), is(0L));
+    assertThat(histogram.getPercentile(99), is(0L));
+    assertThat(histogram.getCumulative().isEmpty(), is(true));
+  }
+
+  @Test
+  public void exactSmallValues() {
+    for (long i = 0; i < 32; i++) {
+      assertThat(LatencyHistogram.highestValue(LatencyHistogram.index(i)), is(i));
+    }
+  }
+
+  @Test
+  public void relativeError() {
+    for (long value = 32; value < 1_000_000_000L; value = value * 3 / 2) {
+      long highest = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+      assertThat(highest, allOf(greaterThanOrEqualTo(value), lessThanOrEqualTo(value + value / 16)));
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    assertThat(histogram.getCount(), is(1000L));
+    assertThat(histogram.getPercentile(50), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(532L)));
+    assertThat(histogram.getPercentile(99), allOf(greaterThanOrEqualTo(990L), lessThanOrEqualTo(1024L)));
+    assertThat(histogram.getPercentile(100), allOf(greaterThanOrEqualTo(1000L), lessThanOrEqualTo(1024L)));
+  }
+
+  @Test
+  public void cumulative() {
+    histogram.record(1);
+    histogram.record(3);
+    histogram.record(4);
+    histogram.record(100);
+
+    SortedMap<Long, Long> expected = new TreeMap<>();
+    expected.put(1L, 1L);
+    expected.put(4L, 3L);
+    expected.put(128L, 4L);
+    assertThat(histogram.getCumulative(), is(expected));
+  }
+
+  @Test
+  public void reset() {
+    histogram.record(10);
+    histogram.reset();
+
+    assertThat(histogram.getCount(), is(0L));
+  }
+}
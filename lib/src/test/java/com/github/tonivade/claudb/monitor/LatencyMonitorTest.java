@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class LatencyMonitorTest {
+
+  private final LatencyMonitor monitor = new LatencyMonitor();
+
+  @Test
+  public void disabled() {
+    monitor.record(LatencyMonitor.COMMAND, 1000);
+
+    assertThat(monitor.isActive(), is(false));
+    assertThat(monitor.getEvents().isEmpty(), is(true));
+  }
+
+  @Test
+  public void belowThreshold() {
+    monitor.setThreshold(100);
+    monitor.record(LatencyMonitor.COMMAND, 99);
+
+    assertThat(monitor.getEvents().isEmpty(), is(true));
+  }
+
+  @Test
+  public void sameSecondKeepsMax() {
+    monitor.setThreshold(10);
+    monitor.record(LatencyMonitor.COMMAND, 20);
+    monitor.record(LatencyMonitor.COMMAND, 50);
+    monitor.record(LatencyMonitor.COMMAND, 30);
+
+    LatencyMonitor.Event event = monitor.getEvent(LatencyMonitor.COMMAND).get();
+    assertThat(event.getMax(), is(50L));
+    assertThat(event.getLatest().getLatency() >= 30, is(true));
+    assertThat(event.getHistory().size() <= 3, is(true));
+  }
+
+  @Test
+  public void reset() {
+    monitor.setThreshold(10);
+    monitor.record(LatencyMonitor.COMMAND, 20);
+    monitor.record(LatencyMonitor.AOF_WRITE, 20);
+    monitor.record(LatencyMonitor.RDB_SAVE, 20);
+
+    assertThat(monitor.reset(asList(LatencyMonitor.COMMAND, "unknown")), is(1));
+    assertThat(monitor.reset(emptyList()), is(2));
+    assertThat(monitor.getEvents().isEmpty(), is(true));
+  }
+}
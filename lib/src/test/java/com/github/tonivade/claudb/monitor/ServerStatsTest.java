@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static com.github.tonivade.resp.protocol.RedisToken.array;
+import static com.github.tonivade.resp.protocol.RedisToken.error;
+import static com.github.tonivade.resp.protocol.RedisToken.integer;
+import static com.github.tonivade.resp.protocol.RedisToken.nullString;
+import static com.github.tonivade.resp.protocol.RedisToken.status;
+import static com.github.tonivade.resp.protocol.RedisToken.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class ServerStatsTest {
+
+  private final ServerStats stats = new ServerStats(2);
+
+  @Test
+  public void keyspace() {
+    stats.keyspace(true);
+    stats.keyspace(true);
+    stats.keyspace(false);
+    stats.keyspace(1, 4, 10_000);
+
+    assertThat(stats.getKeyspaceHits(), is(2L));
+    assertThat(stats.getKeyspaceMisses(), is(1L));
+    assertThat(stats.getExpires(1), is(4L));
+    assertThat(stats.getAvgTtl(1), is(2500L));
+    assertThat(stats.getExpires(0), is(0L));
+    assertThat(stats.getExpires(5), is(0L));
+  }
+
+  @Test
+  public void changesSinceLastSave() {
+    stats.changed(3);
+    long changes = stats.getChanges();
+    stats.changed(2);
+    stats.rdbSaved(changes, 1000, true);
+
+    assertThat(stats.getChangesSinceLastSave(), is(2L));
+    assertThat(stats.getLastSaveTime(), is(1000L));
+
+    stats.rdbSaved(stats.getChanges(), 2000, false);
+
+    assertThat(stats.getChangesSinceLastSave(), is(2L));
+    assertThat(stats.getLastSaveTime(), is(1000L));
+    assertThat(stats.isLastSaveOk(), is(false));
+  }
+
+  @Test
+  public void instantaneousOps() {
+    stats.sample(1000);
+    for (int i = 0; i < 160; i++) {
+      stats.command();
+    }
+    stats.netInput(160L * 22);
+    stats.netOutput(160L * 5);
+    stats.sample(1100);
+
+    // 只采集到一个采样时按一个采样取平均值，100ms 内 160 个命令为每秒 1600 个
+    assertThat(stats.getCommands(), is(160L));
+    assertThat(stats.getInstantaneousOps(), is(1600L));
+    assertThat(stats.getInstantaneousInputBytes(), is(35200L));
+    assertThat(stats.getInstantaneousOutputBytes(), is(8000L));
+
+    stats.sample(1200);
+
+    assertThat(stats.getInstantaneousOps(), is(800L));
+  }
+
+  @Test
+  public void noSamples() {
+    stats.command();
+
+    assertThat(stats.getInstantaneousOps(), is(0L));
+  }
+
+  @Test
+  public void responseSize() {
+    assertThat(ServerStats.responseSize(status("OK")), is(5L));
+    assertThat(ServerStats.responseSize(error("ERR")), is(6L));
+    assertThat(ServerStats.responseSize(integer(100)), is(6L));
+    assertThat(ServerStats.responseSize(string("abc")), is(9L));
+    assertThat(ServerStats.responseSize(nullString()), is(5L));
+    assertThat(ServerStats.responseSize(array(string("abc"), integer(1))), is(4L + 9L + 4L));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import com.github.tonivade.resp.protocol.SafeString;
+
+public class SlowLogTest {
+
+  private final SlowLog slowLog = new SlowLog();
+
+  @Test
+  public void threshold() {
+    slowLog.setSlowerThan(100);
+
+    assertThat(slowLog.isSlow(99), is(false));
+    assertThat(slowLog.isSlow(100), is(true));
+
+    slowLog.setSlowerThan(-1);
+
+    assertThat(slowLog.isSlow(Long.MAX_VALUE), is(false));
+  }
+
+  @Test
+  public void ringBuffer() {
+    slowLog.setMaxLen(3);
+    for (int i = 0; i < 5; i++) {
+      slowLog.add("get", singletonList(safeString("key" + i)), "localhost:12345", 0, i);
+    }
+
+    assertThat(slowLog.size(), is(3));
+    assertThat(ids(slowLog.get(-1)), contains(4L, 3L, 2L));
+    assertThat(ids(slowLog.get(2)), contains(4L, 3L));
+    assertThat(slowLog.get(1).get(0).getArguments(), contains("get", "key4"));
+  }
+
+  @Test
+  public void truncateArguments() {
+    List<SafeString> params = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      value.append('a');
+    }
+    params.add(safeString(value.toString()));
+    for (int i = 0; i < 40; i++) {
+      params.add(safeString("member" + i));
+    }
+
+    slowLog.add("sadd", params, "localhost:12345", 1, 20000);
+
+    List<String> arguments = slowLog.get(1).get(0).getArguments();
+    assertThat(arguments.size(), is(32));
+    assertThat(arguments.get(1).endsWith("... (72 more bytes)"), is(true));
+    assertThat(arguments.get(31), is("... (11 more arguments)"));
+  }
+
+  @Test
+  public void reset() {
+    slowLog.add("get", emptyList(), "localhost:12345", 0, 1);
+    slowLog.reset();
+    slowLog.add("get", emptyList(), "localhost:12345", 0, 1);
+
+    assertThat(slowLog.size(), is(1));
+    assertThat(ids(slowLog.get(-1)), contains(1L));
+  }
+
+  private static List<Long> ids(List<SlowLog.Entry> entries) {
+    return entries.stream().map(SlowLog.Entry::getId).collect(Collectors.toList());
+  }
+}
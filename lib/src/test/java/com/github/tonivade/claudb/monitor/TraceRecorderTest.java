@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015-2021, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.claudb.monitor;
+
+import static com.github.tonivade.resp.protocol.SafeString.safeString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraceRecorderTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("claudb", ".trace");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void recordAndRead() throws IOException {
+    TraceRecorder recorder = new TraceRecorder(file.toString(), 1);
+    recorder.start();
+
+    assertThat(recorder.sample(), is(true));
+    recorder.record(0, "SET", Arrays.asList(safeString("key"), safeString("value")));
+    recorder.record(3, "incrby", Arrays.asList(safeString("counter"), safeString("-10")));
+    recorder.record(0, "ping", Collections.emptyList());
+    recorder.stop();
+
+    assertThat(recorder.sample(), is(false));
+    assertThat(recorder.getRecorded(), is(3L));
+    assertThat(recorder.getDropped(), is(0L));
+
+    try (TraceReader reader = new TraceReader(new FileInputStream(file.toFile()))) {
+      assertThat(reader.getSampleRate(), is(1));
+
+      TraceRecord set = reader.next();
+      assertThat(set.getCommand(), is("set"));
+      assertThat(set.getDb(), is(0));
+      assertThat(set.getKeyHash(), is(TraceRecord.hash(safeString("key"))));
+      assertThat(set.getArgCount(), is(2));
+      assertThat(set.getArgSize(1), is(5));
+      assertThat(set.isNumber(1), is(false));
+
+      TraceRecord incr = reader.next();
+      assertThat(incr.getDb(), is(3));
+      assertThat(incr.getArgSize(1), is(3));
+      assertThat(incr.isNumber(1), is(true));
+      assertThat(incr.getTime(), greaterThanOrEqualTo(set.getTime()));
+
+      TraceRecord ping = reader.next();
+      assertThat(ping.getCommand(), is("ping"));
+      assertThat(ping.getArgCount(), is(0));
+      assertThat(ping.getKeyHash(), is(0));
+
+      assertThat(reader.next(), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void sampleRate() {
+    TraceRecorder recorder = new TraceRecorder(file.toString(), 1_000_000);
+    recorder.start();
+    int sampled = 0;
+    for (int i = 0; i < 1000; i++) {
+      sampled += recorder.sample() ? 1 : 0;
+    }
+    recorder.stop();
+
+    assertThat(sampled, lessThan(10));
+    assertThat(file.toFile().length(), not(is(0L)));
+  }
+}
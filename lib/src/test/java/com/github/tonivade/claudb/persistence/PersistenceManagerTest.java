@@ -38,6 +38,7 @@ import com.github.tonivade.claudb.DBConfig;
 import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.monitor.ServerStats;
 import com.github.tonivade.resp.command.RespCommand;
 import com.github.tonivade.resp.protocol.RedisToken;
 
@@ -45,16 +46,20 @@ import com.github.tonivade.resp.protocol.RedisToken;
 public class PersistenceManagerTest {
 
   private static final String COMMAND = "*4\r\n$1\r\n0\r\n$3\r\nset\r\n$1\r\na\r\n$1\r\n1\r\n";
+  private static final String TRANSACTION = "*2\r\n" + COMMAND + COMMAND;
   private static final String REDO_FILE = "redo.aof";
   private static final String DUMP_FILE = "dump.rdb";
 
   @Mock
   private DBServerContext server;
 
+  private final ServerStats stats = new ServerStats(1);
+
   private PersistenceManager manager;
 
   @Before
   public void setUp() {
+    when(server.getServerStats()).thenReturn(stats);
     this.manager = new PersistenceManager(server, DBConfig.builder().withPersistence().build());
     deleteFiles();
   }
@@ -82,6 +87,7 @@ public class PersistenceManagerTest {
     verify(server).exportRDB(any());
 
     assertThat(new File(DUMP_FILE).exists(), is(true));
+    assertThat(stats.isLastSaveOk(), is(true));
   }
 
   @Test
@@ -99,6 +105,41 @@ public class PersistenceManagerTest {
     assertThat(new File(REDO_FILE).exists(), is(true));
   }
 
+  @Test
+  public void testStartWithTransaction() throws IOException {
+    RespCommand cmd = stubCommand();
+    when(server.getCommand("multi")).thenReturn(cmd);
+    when(server.getCommand("exec")).thenReturn(cmd);
+
+    writeAOF(TRANSACTION);
+
+    manager.start();
+
+    verify(cmd, times(6)).execute(any());
+  }
+
+  @Test
+  public void testAppendTransaction() throws InterruptedException {
+    manager.start();
+    manager.append(array(setCommand(), setCommand()));
+
+    Thread.sleep(1000);
+
+    assertThat(readAOF(), is(TRANSACTION));
+  }
+
+  @Test
+  public void testAppendBatch() throws InterruptedException {
+    manager.start();
+    manager.append(setCommand());
+    manager.append(setCommand());
+    manager.append(setCommand());
+
+    Thread.sleep(1000);
+
+    assertThat(readAOF(), is(COMMAND + COMMAND + COMMAND));
+  }
+
   @Test
   public void testAppend() throws InterruptedException {
     manager.start();
@@ -107,6 +148,8 @@ public class PersistenceManagerTest {
     Thread.sleep(1000);
 
     assertThat(readAOF(), is(COMMAND));
+    assertThat(stats.isAofLastWriteOk(), is(true));
+    assertThat(stats.getAofLastWriteTime() > 0, is(true));
   }
 
   private void deleteFiles() {
@@ -132,8 +175,12 @@ public class PersistenceManagerTest {
   }
 
   private void writeAOF() {
+    writeAOF(COMMAND);
+  }
+
+  private void writeAOF(String content) {
     try (FileOutputStream out = new FileOutputStream(REDO_FILE)) {
-      out.write(COMMAND.getBytes(UTF_8));
+      out.write(content.getBytes(UTF_8));
     } catch (IOException e) {
       e.printStackTrace();
     }
@@ -10,6 +10,7 @@ import static com.github.tonivade.claudb.DatabaseValueMatchers.score;
 import static com.github.tonivade.claudb.DatabaseValueMatchers.set;
 import static com.github.tonivade.claudb.data.DatabaseKey.safeKey;
 import static com.github.tonivade.claudb.data.DatabaseValue.hash;
+import static com.github.tonivade.claudb.data.DatabaseValue.hyperLogLog;
 import static com.github.tonivade.claudb.data.DatabaseValue.string;
 import static com.github.tonivade.claudb.data.DatabaseValue.zset;
 import static com.github.tonivade.resp.protocol.SafeString.safeString;
@@ -28,6 +29,7 @@ import org.junit.Test;
 import com.github.tonivade.claudb.data.Database;
 import com.github.tonivade.claudb.data.DatabaseKey;
 import com.github.tonivade.claudb.data.DatabaseValue;
+import com.github.tonivade.claudb.data.HyperLogLog;
 import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
 import com.github.tonivade.resp.protocol.SafeString;
 
@@ -58,6 +60,13 @@ public class RDBOutputStreamTest {
     assertThat(toHexString(baos.toByteArray()), is("0001610474657374"));
   }
 
+  @Test
+  public void testHyperLogLog() throws IOException  {
+    out.dabatase(database().add(safeKey("a"), hyperLogLog(HyperLogLog.empty())).build());
+
+    assertThat(toHexString(baos.toByteArray()), is("00016112" + "48594c4c01000000" + "0000000000000000" + "7fff"));
+  }
+
   @Test
   public void testBigString() throws IOException {
     out.dabatase(database().add(safeKey("a"), string("testtesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttesttest")).build());
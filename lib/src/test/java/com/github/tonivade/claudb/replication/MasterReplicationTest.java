@@ -51,6 +51,20 @@ public class MasterReplicationTest {
     verify(server, timeout(3000).times(3)).publish(eq("slave:2"), any(RedisToken.class));
   }
 
+  @Test
+  public void testTransactionReplication()  {
+    when(server.getCommandsToReplicate()).thenReturn(listOf(array(request(), request())));
+    when(server.getValue("state")).thenReturn(Option.some(serverState));
+
+    master.addSlave("slave:1");
+
+    master.start();
+
+    verify(server, timeout(3000).times(6)).publish(eq("slave:1"), any(RedisToken.class));
+    verify(server, timeout(3000)).publish("slave:1", array(string("MULTI")));
+    verify(server, timeout(3000)).publish("slave:1", array(string("EXEC")));
+  }
+
   private RedisToken request() {
     return array(integer(0), string("set"), string("a"), string("b"));
   }
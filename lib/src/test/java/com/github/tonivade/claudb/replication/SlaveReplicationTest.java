@@ -33,7 +33,6 @@ import com.github.tonivade.claudb.DBServerContext;
 import com.github.tonivade.claudb.data.OnHeapDatabaseFactory;
 import com.github.tonivade.resp.command.Request;
 import com.github.tonivade.resp.command.RespCommand;
-import com.github.tonivade.resp.command.Session;
 import com.github.tonivade.resp.protocol.SafeString;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -45,8 +44,6 @@ public class SlaveReplicationTest {
   @Mock
   private DBServerContext context;
   @Mock
-  private Session session;
-  @Mock
   private RespCommand command;
   @Captor
   private ArgumentCaptor<Request> requestCaptor;
@@ -57,7 +54,7 @@ public class SlaveReplicationTest {
   public void testReplication() throws IOException  {
     when(context.getAdminDatabase()).thenReturn(new OnHeapDatabaseFactory().create("test"));
 
-    SlaveReplication slave = new SlaveReplication(context, session, rule.getHost(), rule.getPort());
+    SlaveReplication slave = new SlaveReplication(context, rule.getHost(), rule.getPort());
 
     slave.start();
 
@@ -69,7 +66,7 @@ public class SlaveReplicationTest {
   public void testProcessCommand()  {
     when(context.getCommand("PING")).thenReturn(command);
 
-    SlaveReplication slave = new SlaveReplication(context, session, rule.getHost(), rule.getPort());
+    SlaveReplication slave = new SlaveReplication(context, rule.getHost(), rule.getPort());
 
     slave.onMessage(array(string("PING")));
 
@@ -81,6 +78,7 @@ public class SlaveReplicationTest {
 
     Request request = requestCaptor.getValue();
     assertThat(request.getCommand(), is("PING"));
+    assertThat(request.getSession().getValue("state").isPresent(), is(true));
   }
 
   private void verifyConectionAndRDBDumpImported() throws IOException {